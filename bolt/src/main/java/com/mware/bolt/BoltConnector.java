@@ -46,6 +46,8 @@ public class BoltConnector {
     // The maximum time an idle thread in the thread pool bound to this connector will wait for new tasks.
     public static final String THREAD_POOL_KEEPALIVE = "threadPoolKeepalive";
     public static final String GRAPH_FETCH_BATCH_SIZE = "graphFetchBatchSize";
+    // Whether result streaming waits for the client when the outgoing buffers of its connection are full
+    public static final String WRITE_THROTTLE = "writeThrottle";
 
     // Encryption level to require this connector to use
     public static final String ENCRYPTION_LEVEL = "encryptionLevel";
@@ -62,6 +64,7 @@ public class BoltConnector {
     public static final int DEFAULT_THREAD_POOL_MAX_SIZE = 400;
     public static final Duration DEFAULT_THREAD_POOL_KEEPALIVE = Duration.ofMinutes(5);
     public static final int DEFAULT_GRAPH_FETCH_BATCH_SIZE = 1000;
+    public static final boolean DEFAULT_WRITE_THROTTLE = true;
     public static final String DEFAULT_ENCRYPTION_LEVEL = EncryptionLevel.OPTIONAL.name();
     public static final String DEFAULT_SSL_CERTIFICATE_FILE = "bolt.cert";
     public static final String DEFAULT_SSL_KEY_FILE = "bolt.key";
@@ -86,6 +89,10 @@ public class BoltConnector {
         return ConfigurationUtils.getInt(config, GRAPH_FETCH_BATCH_SIZE, DEFAULT_GRAPH_FETCH_BATCH_SIZE);
     }
 
+    public boolean isWriteThrottleEnabled() {
+        return ConfigurationUtils.getBoolean(config, WRITE_THROTTLE, DEFAULT_WRITE_THROTTLE);
+    }
+
     public int getThreadPoolMinSize() {
         return ConfigurationUtils.getInt(config, THREAD_POOL_MIN_SIZE, DEFAULT_THREAD_POOL_MIN_SIZE);
     }
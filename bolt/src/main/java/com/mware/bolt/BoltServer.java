@@ -55,7 +55,9 @@ public class BoltServer extends LifecycleAdapter {
     public void start() throws Throwable {
         try {
             sslPolicyLoader = SslPolicyLoader.create(boltConnector);
-            TransportThrottleGroup throttleGroup = TransportThrottleGroup.NO_THROTTLE;
+            TransportThrottleGroup throttleGroup = boltConnector.isWriteThrottleEnabled()
+                    ? TransportThrottleGroup.WRITE_THROTTLE
+                    : TransportThrottleGroup.NO_THROTTLE;
             boltSchedulerProvider = new ExecutorBoltSchedulerProvider(boltConnector, new CachedThreadPoolExecutorFactory());
             boltSchedulerProvider.start();
             BoltConnectionFactory boltConnectionFactory = new DefaultBoltConnectionFactory(boltSchedulerProvider, throttleGroup);
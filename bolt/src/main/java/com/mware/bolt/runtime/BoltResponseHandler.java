@@ -28,6 +28,20 @@ import com.mware.ge.values.AnyValue;
 public interface BoltResponseHandler {
     void onRecords(BoltResult result, boolean pull) throws Exception;
 
+    /**
+     * Streams at most {@code size} records of the result.
+     *
+     * @return true if the result has more records
+     */
+    boolean onPullRecords(BoltResult result, long size) throws Exception;
+
+    /**
+     * Discards at most {@code size} records of the result.
+     *
+     * @return true if the result has more records
+     */
+    boolean onDiscardRecords(BoltResult result, long size) throws Exception;
+
     void onMetadata(String key, AnyValue value);
 
     /**
@@ -35,6 +35,35 @@ public interface BoltResult extends AutoCloseable {
 
     void accept(Visitor visitor) throws Exception;
 
+    /**
+     * Visits at most {@code size} records and keeps the rest of the stream for a later call. The metadata is added
+     * once the last record was visited. By default the whole stream is visited, which suits streams without records.
+     *
+     * @return true if the stream has more records
+     */
+    default boolean handleRecords(Visitor visitor, long size) throws Exception {
+        accept(visitor);
+        return false;
+    }
+
+    /**
+     * Skips at most {@code size} records, otherwise like {@link #handleRecords(Visitor, long)}.
+     *
+     * @return true if the stream has more records
+     */
+    default boolean discardRecords(Visitor visitor, long size) throws Exception {
+        return handleRecords(new Visitor() {
+            @Override
+            public void visit(QueryResult.Record record) {
+            }
+
+            @Override
+            public void addMetadata(String key, AnyValue value) {
+                visitor.addMetadata(key, value);
+            }
+        }, size);
+    }
+
     @Override
     void close();
 
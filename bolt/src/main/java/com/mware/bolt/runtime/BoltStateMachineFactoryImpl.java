@@ -26,6 +26,8 @@ import com.mware.bolt.v2.BoltProtocolV2;
 import com.mware.bolt.v3.BoltProtocolV3;
 import com.mware.bolt.v3.BoltStateMachineV3;
 import com.mware.bolt.v3.runtime.TransactionStateMachineV3SPI;
+import com.mware.bolt.v4.BoltProtocolV4;
+import com.mware.bolt.v4.BoltStateMachineV4;
 import com.mware.ge.cypher.GeCypherExecutionEngine;
 
 import java.time.Clock;
@@ -45,6 +47,8 @@ public class BoltStateMachineFactoryImpl implements BoltStateMachineFactory {
             return newStateMachineV1(boltChannel);
         } else if (protocolVersion == BoltProtocolV3.VERSION) {
             return newStateMachineV3(boltChannel);
+        } else if (protocolVersion == BoltProtocolV4.VERSION) {
+            return newStateMachineV4(boltChannel);
         } else {
             throw new IllegalArgumentException("Failed to create a state machine for protocol version " + protocolVersion);
         }
@@ -62,6 +66,12 @@ public class BoltStateMachineFactoryImpl implements BoltStateMachineFactory {
         return new BoltStateMachineV3(boltSPI, boltChannel, clock);
     }
 
+    private BoltStateMachine newStateMachineV4(BoltChannel boltChannel) {
+        TransactionStateMachineSPI transactionSPI = new TransactionStateMachineV3SPI( executionEngine, boltChannel, getAwaitDuration(), clock );
+        BoltStateMachineSPI boltSPI = new BoltStateMachineV1SPI(executionEngine, transactionSPI);
+        return new BoltStateMachineV4(boltSPI, boltChannel, clock);
+    }
+
     private Duration getAwaitDuration() {
         long bookmarkReadyTimeout = Duration.ofSeconds(30).toMillis();
         return Duration.ofMillis(bookmarkReadyTimeout);
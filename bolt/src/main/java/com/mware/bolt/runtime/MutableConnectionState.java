@@ -55,6 +55,22 @@ public class MutableConnectionState implements BoltResponseHandler {
         }
     }
 
+    @Override
+    public boolean onPullRecords(BoltResult result, long size) throws Exception {
+        if (responseHandler != null) {
+            return responseHandler.onPullRecords(result, size);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onDiscardRecords(BoltResult result, long size) throws Exception {
+        if (responseHandler != null) {
+            return responseHandler.onDiscardRecords(result, size);
+        }
+        return false;
+    }
+
     @Override
     public void onMetadata(String key, AnyValue value) {
         if (responseHandler != null) {
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mware.bolt.runtime;
+
+/**
+ * Consumes the current result of a {@link StatementProcessor}. The result is closed once it was consumed, unless the
+ * consumer reports that records were left in it for a later request.
+ */
+public interface ResultConsumer {
+    void consume(BoltResult result) throws Exception;
+
+    default boolean hasMore() {
+        return false;
+    }
+}
@@ -19,7 +19,6 @@ package com.mware.bolt.runtime;
 
 import com.mware.bolt.v1.bookmarking.Bookmark;
 import com.mware.core.exception.BcException;
-import com.mware.ge.function.ThrowingConsumer;
 import com.mware.ge.values.virtual.MapValue;
 
 import java.time.Duration;
@@ -34,7 +33,7 @@ public interface StatementProcessor {
 
     StatementMetadata run(String statement, MapValue params, Bookmark bookmark, Duration txTimeout, Map<String, Object> txMetaData) throws BcException;
 
-    Bookmark streamResult(ThrowingConsumer<BoltResult, Exception> resultConsumer) throws Exception;
+    Bookmark streamResult(ResultConsumer resultConsumer) throws Exception;
 
     Bookmark commitTransaction() throws BcException;
 
@@ -73,7 +72,7 @@ public interface StatementProcessor {
         }
 
         @Override
-        public Bookmark streamResult(ThrowingConsumer<BoltResult, Exception> resultConsumer) throws Exception {
+        public Bookmark streamResult(ResultConsumer resultConsumer) throws Exception {
             throw new UnsupportedOperationException("Unable to stream results");
         }
 
@@ -23,6 +23,7 @@ import com.mware.bolt.runtime.BoltStateMachineFactory;
 import com.mware.bolt.v1.BoltProtocolV1;
 import com.mware.bolt.v2.BoltProtocolV2;
 import com.mware.bolt.v3.BoltProtocolV3;
+import com.mware.bolt.v4.BoltProtocolV4;
 
 public class DefaultBoltProtocolFactory implements BoltProtocolFactory {
     private final BoltConnectionFactory connectionFactory;
@@ -41,6 +42,8 @@ public class DefaultBoltProtocolFactory implements BoltProtocolFactory {
             return new BoltProtocolV2(channel, connectionFactory, stateMachineFactory);
         } else if (protocolVersion == BoltProtocolV3.VERSION) {
             return new BoltProtocolV3(channel, connectionFactory, stateMachineFactory);
+        } else if (protocolVersion == BoltProtocolV4.VERSION) {
+            return new BoltProtocolV4(channel, connectionFactory, stateMachineFactory);
         } else {
             return null;
         }
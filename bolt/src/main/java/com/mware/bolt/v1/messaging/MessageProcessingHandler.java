@@ -59,6 +59,16 @@ public class MessageProcessingHandler implements BoltResponseHandler {
     public void onRecords(BoltResult result, boolean pull) throws Exception {
     }
 
+    @Override
+    public boolean onPullRecords(BoltResult result, long size) throws Exception {
+        return false;
+    }
+
+    @Override
+    public boolean onDiscardRecords(BoltResult result, long size) throws Exception {
+        return false;
+    }
+
     @Override
     public void onMetadata(String key, AnyValue value) {
         metadata.add(key, value);
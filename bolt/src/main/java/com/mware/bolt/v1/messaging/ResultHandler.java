@@ -31,18 +31,38 @@ public class ResultHandler extends MessageProcessingHandler {
 
     @Override
     public void onRecords(final BoltResult result, final boolean pull) throws Exception {
-        result.accept(new BoltResult.Visitor() {
-            @Override
-            public void visit(QueryResult.Record record) throws Exception {
-                if (pull) {
-                    messageWriter.write(new RecordMessage(record));
-                }
-            }
-
-            @Override
-            public void addMetadata(String key, AnyValue value) {
-                onMetadata(key, value);
-            }
-        });
+        if (pull) {
+            result.accept(new RecordWritingVisitor());
+        } else {
+            result.accept(new DiscardingVisitor());
+        }
+    }
+
+    @Override
+    public boolean onPullRecords(BoltResult result, long size) throws Exception {
+        return result.handleRecords(new RecordWritingVisitor(), size);
+    }
+
+    @Override
+    public boolean onDiscardRecords(BoltResult result, long size) throws Exception {
+        return result.discardRecords(new DiscardingVisitor(), size);
+    }
+
+    private class DiscardingVisitor implements BoltResult.Visitor {
+        @Override
+        public void visit(QueryResult.Record record) throws Exception {
+        }
+
+        @Override
+        public void addMetadata(String key, AnyValue value) {
+            onMetadata(key, value);
+        }
+    }
+
+    private class RecordWritingVisitor extends DiscardingVisitor {
+        @Override
+        public void visit(QueryResult.Record record) throws Exception {
+            messageWriter.write(new RecordMessage(record));
+        }
     }
 }
@@ -43,6 +43,7 @@ public class CypherAdapterStream implements BoltResult {
     private final QueryResult result;
     private final Clock clock;
     private final String[] fieldNames;
+    private long streamingTime;
 
     public CypherAdapterStream(QueryResult result, Clock clock) {
         this.result = result;
@@ -67,6 +68,31 @@ public class CypherAdapterStream implements BoltResult {
             }
         });
         addRecordStreamingTime(visitor, clock.millis() - start);
+        addResultMetadata(visitor);
+    }
+
+    @Override
+    public boolean handleRecords(Visitor visitor, long size) throws Exception {
+        long start = clock.millis();
+        boolean hasMore = result.accept(r -> {
+            try {
+                visitor.visit(r);
+                return true;
+            } catch (Exception e) {
+                throw new BcException("Problem visiting Cypher result row", e);
+            }
+        }, size);
+        streamingTime += clock.millis() - start;
+        if (hasMore) {
+            visitor.addMetadata("has_more", Values.TRUE);
+        } else {
+            addRecordStreamingTime(visitor, streamingTime);
+            addResultMetadata(visitor);
+        }
+        return hasMore;
+    }
+
+    private void addResultMetadata(Visitor visitor) {
         QueryExecutionType qt = result.executionType();
         visitor.addMetadata("type", Values.stringValue(queryTypeCode(qt.queryType())));
         if (result.queryStatistics().containsUpdates()) {
@@ -22,7 +22,6 @@ import com.mware.bolt.security.auth.AuthenticationResult;
 import com.mware.bolt.v1.bookmarking.Bookmark;
 import com.mware.bolt.v1.runtime.spi.BookmarkResult;
 import com.mware.core.exception.BcException;
-import com.mware.ge.function.ThrowingConsumer;
 import com.mware.ge.values.virtual.MapValue;
 
 import java.time.Clock;
@@ -69,7 +68,7 @@ public class TransactionStateMachine implements StatementProcessor {
     }
 
     @Override
-    public Bookmark streamResult(ThrowingConsumer<BoltResult, Exception> resultConsumer) throws Exception {
+    public Bookmark streamResult(ResultConsumer resultConsumer) throws Exception {
         return state.streamResult(ctx, spi, resultConsumer);
     }
 
@@ -158,12 +157,12 @@ public class TransactionStateMachine implements StatementProcessor {
             }
 
             @Override
-            Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ThrowingConsumer<BoltResult, Exception> resultConsumer)
+            Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ResultConsumer resultConsumer)
                     throws Exception {
                 assert ctx.currentResult != null;
 
                 consumeResult(ctx, resultConsumer);
-                return newestBookmark(spi);
+                return resultConsumer.hasMore() ? null : newestBookmark(spi);
             }
 
             @Override
@@ -202,7 +201,7 @@ public class TransactionStateMachine implements StatementProcessor {
             }
 
             @Override
-            Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ThrowingConsumer<BoltResult, Exception> resultConsumer)
+            Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ResultConsumer resultConsumer)
                     throws Exception {
                 assert ctx.currentResult != null;
                 consumeResult(ctx, resultConsumer);
@@ -230,7 +229,7 @@ public class TransactionStateMachine implements StatementProcessor {
                            Duration txTimeout, Map<String, Object> txMetadata)
                 throws BcException;
 
-        abstract Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ThrowingConsumer<BoltResult, Exception> resultConsumer)
+        abstract Bookmark streamResult(MutableTransactionState ctx, TransactionStateMachineSPI spi, ResultConsumer resultConsumer)
                 throws Exception;
 
         abstract State commitTransaction(MutableTransactionState ctx, TransactionStateMachineSPI spi) throws BcException;
@@ -248,18 +247,21 @@ public class TransactionStateMachine implements StatementProcessor {
             }
         }
 
-        boolean consumeResult(MutableTransactionState ctx, ThrowingConsumer<BoltResult, Exception> resultConsumer) throws Exception {
+        boolean consumeResult(MutableTransactionState ctx, ResultConsumer resultConsumer) throws Exception {
             boolean success = false;
             try {
-                resultConsumer.accept(ctx.currentResult);
+                resultConsumer.consume(ctx.currentResult);
                 success = true;
             } finally {
-                ctx.currentResult.close();
-                ctx.currentResult = null;
-
-                if (ctx.currentResultHandle != null) {
-                    ctx.currentResultHandle.close(success);
-                    ctx.currentResultHandle = null;
+                // when records are left, the result stays open for the next request
+                if (!success || !resultConsumer.hasMore()) {
+                    ctx.currentResult.close();
+                    ctx.currentResult = null;
+
+                    if (ctx.currentResultHandle != null) {
+                        ctx.currentResultHandle.close(success);
+                        ctx.currentResultHandle = null;
+                    }
                 }
             }
             return success;
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mware.bolt.v4.messaging.request;
+
+import com.mware.bolt.messaging.BoltIOException;
+import com.mware.bolt.messaging.RequestMessage;
+import com.mware.bolt.runtime.Status;
+import com.mware.ge.values.AnyValue;
+import com.mware.ge.values.storable.LongValue;
+import com.mware.ge.values.virtual.MapValue;
+
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A request for at most {@code n} records of the current result, {@code n = -1} asks for all of them. The statement
+ * id {@code qid} is not needed since a connection has at most one open result.
+ */
+public abstract class AbstractStreamingMessage implements RequestMessage {
+    public static final long STREAM_LIMIT_UNLIMITED = -1;
+    private static final String STREAM_LIMIT_KEY = "n";
+
+    private final MapValue meta;
+    private final long size;
+
+    AbstractStreamingMessage(MapValue meta) throws BoltIOException {
+        this.meta = requireNonNull(meta);
+        this.size = parseSize(meta);
+    }
+
+    private static long parseSize(MapValue meta) throws BoltIOException {
+        AnyValue anyValue = meta.get(STREAM_LIMIT_KEY);
+        if (anyValue instanceof LongValue) {
+            long size = ((LongValue) anyValue).longValue();
+            if (size == STREAM_LIMIT_UNLIMITED) {
+                return Long.MAX_VALUE;
+            }
+            if (size > 0) {
+                return size;
+            }
+        }
+        throw new BoltIOException(Status.Request.Invalid, "Expecting size to be a positive Long value or -1, but got: " + anyValue);
+    }
+
+    /**
+     * The number of records to stream, {@link Long#MAX_VALUE} when all of them were requested.
+     */
+    public long size() {
+        return size;
+    }
+
+    public MapValue meta() {
+        return meta;
+    }
+
+    abstract String name();
+
+    @Override
+    public boolean safeToProcessInAnyState() {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AbstractStreamingMessage that = (AbstractStreamingMessage) o;
+        return Objects.equals(meta, that.meta);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(meta);
+    }
+
+    @Override
+    public String toString() {
+        return name() + " " + meta;
+    }
+}
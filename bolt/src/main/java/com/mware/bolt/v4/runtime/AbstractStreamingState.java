@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.mware.bolt.v4.runtime;
+
+import com.mware.bolt.messaging.RequestMessage;
+import com.mware.bolt.runtime.BoltResponseHandler;
+import com.mware.bolt.runtime.BoltResult;
+import com.mware.bolt.runtime.BoltStateMachineState;
+import com.mware.bolt.runtime.ResultConsumer;
+import com.mware.bolt.runtime.StateMachineContext;
+import com.mware.bolt.v1.bookmarking.Bookmark;
+import com.mware.bolt.v3.runtime.FailSafeBoltStateMachineState;
+import com.mware.bolt.v4.messaging.request.AbstractStreamingMessage;
+import com.mware.bolt.v4.messaging.request.DiscardMessage;
+import com.mware.bolt.v4.messaging.request.PullMessage;
+
+import static com.mware.ge.util.Preconditions.checkState;
+
+/**
+ * When STREAMING, a result is available as a stream of records. Each PULL or DISCARD consumes a batch of them and
+ * the state is kept until the last one was consumed, so the result is only read as fast as the client asks for it.
+ */
+public abstract class AbstractStreamingState extends FailSafeBoltStateMachineState {
+    protected BoltStateMachineState readyState;
+
+    @Override
+    public BoltStateMachineState processUnsafe(RequestMessage message, StateMachineContext context) throws Throwable {
+        if (message instanceof PullMessage) {
+            return processStreamResultMessage(true, (AbstractStreamingMessage) message, context);
+        }
+        if (message instanceof DiscardMessage) {
+            return processStreamResultMessage(false, (AbstractStreamingMessage) message, context);
+        }
+        return null;
+    }
+
+    public void setReadyState(BoltStateMachineState readyState) {
+        this.readyState = readyState;
+    }
+
+    private BoltStateMachineState processStreamResultMessage(boolean pull, AbstractStreamingMessage message, StateMachineContext context)
+            throws Throwable {
+        BatchResultConsumer consumer = new BatchResultConsumer(context.connectionState().getResponseHandler(), pull, message.size());
+        Bookmark bookmark = context.connectionState().getStatementProcessor().streamResult(consumer);
+        if (consumer.hasMore()) {
+            return this;
+        }
+        return processResultConsumed(bookmark, context);
+    }
+
+    /**
+     * Called when the last record of the result was consumed.
+     */
+    protected abstract BoltStateMachineState processResultConsumed(Bookmark bookmark, StateMachineContext context);
+
+    @Override
+    protected void assertInitialized() {
+        checkState(readyState != null, "Ready state not set");
+        super.assertInitialized();
+    }
+
+    private static class BatchResultConsumer implements ResultConsumer {
+        private final BoltResponseHandler responseHandler;
+        private final boolean pull;
+        private final long size;
+        private boolean hasMore;
+
+        BatchResultConsumer(BoltResponseHandler responseHandler, boolean pull, long size) {
+            this.responseHandler = responseHandler;
+            this.pull = pull;
+            this.size = size;
+        }
+
+        @Override
+        public void consume(BoltResult result) throws Exception {
+            hasMore = pull ? responseHandler.onPullRecords(result, size) : responseHandler.onDiscardRecords(result, size);
+        }
+
+        @Override
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+}
@@ -36,8 +36,12 @@
  */
 package com.mware.core.cache;
 
+import java.util.function.ToIntFunction;
+
 public class CacheOptions {
     private Long maximumSize;
+    private Long maximumWeight;
+    private ToIntFunction<Object> weigher;
     private Long expireAfterWrite; // In seconds
 
     public Long getMaximumSize() {
@@ -49,6 +53,27 @@ public class CacheOptions {
         return this;
     }
 
+    public Long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Bounds the cache by the total weight of the entries instead of their number. Requires a weigher.
+     */
+    public CacheOptions setMaximumWeight(Long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    public ToIntFunction<Object> getWeigher() {
+        return weigher;
+    }
+
+    public CacheOptions setWeigher(ToIntFunction<Object> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
     public Long getExpireAfterWrite() {
         return expireAfterWrite;
     }
@@ -36,76 +36,88 @@
  */
 package com.mware.core.cache;
 
-import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.mware.ge.metric.GeMetricRegistry;
+import com.mware.ge.metric.NullMetricRegistry;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.event.CacheEntryEvictedListener;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
 
+/**
+ * The caches are thread safe on their own, so the service takes no lock: the caches are created once per name and
+ * the statistics are kept in striped counters. The hits, misses and evictions of every cache are exported to the
+ * metric registry.
+ */
 @Singleton
 public class InMemoryCacheService implements CacheService {
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    private final Map<String, Cache<?, ?>> caches = new HashMap<>();
+    private final Map<String, StatsCache<?>> caches = new ConcurrentHashMap<>();
+    private final GeMetricRegistry metricRegistry;
+
+    public InMemoryCacheService() {
+        this(new NullMetricRegistry());
+    }
+
+    public InMemoryCacheService(GeMetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
 
     @Override
     public <T> T put(String cacheName, String key, T t, CacheOptions cacheOptions) {
-        return write(() -> {
-            Cache<String, T> cache = getOrCreateCache(cacheName, cacheOptions);
-            cache.put(key, t);
-            return t;
-        });
+        StatsCache<T> cache = getOrCreateCache(cacheName, cacheOptions);
+        cache.cache.put(key, t);
+        return t;
     }
 
     @Override
     public <T> T getIfPresent(String cacheName, String key) {
-        return read(() -> {
-            Cache<String, T> cache = getCache(cacheName);
-            if (cache == null) {
-                return null;
-            }
-            return cache.get(key);
-        });
+        StatsCache<T> cache = getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        T t = cache.cache.peek(key);
+        if (t == null) {
+            cache.misses.increment();
+        } else {
+            cache.hits.increment();
+        }
+        return t;
     }
 
     @Override
     public void invalidate(String cacheName) {
-        write(() -> {
-            Cache<String, ?> cache = getCache(cacheName);
-            if (cache == null) {
-                return null;
-            }
-            cache.clear();
-            return null;
-        });
+        StatsCache<?> cache = getCache(cacheName);
+        if (cache != null) {
+            cache.cache.clear();
+        }
     }
 
     @Override
     public void invalidate(String cacheName, String key) {
-        write(() -> {
-            Cache<String, ?> cache = getCache(cacheName);
-            if (cache == null) {
-                return null;
-            }
-            cache.remove(key);
-            return null;
-        });
+        StatsCache<?> cache = getCache(cacheName);
+        if (cache != null) {
+            cache.cache.remove(key);
+        }
     }
 
-    private <T> Cache<String, T> getCache(String cacheName) {
+    private <T> StatsCache<T> getCache(String cacheName) {
         //noinspection unchecked
-        return (Cache<String, T>) caches.get(cacheName);
+        return (StatsCache<T>) caches.get(cacheName);
     }
 
-    private <T> Cache<String, T> getOrCreateCache(String cacheName, CacheOptions cacheOptions) {
-        Cache<String, T> cache = getCache(cacheName);
-        if (cache != null) {
-            return cache;
-        }
+    private <T> StatsCache<T> getOrCreateCache(String cacheName, CacheOptions cacheOptions) {
+        //noinspection unchecked
+        return (StatsCache<T>) caches.computeIfAbsent(cacheName, name -> createCache(name, cacheOptions));
+    }
+
+    private <T> StatsCache<T> createCache(String cacheName, CacheOptions cacheOptions) {
+        StatsCache<T> statsCache = new StatsCache<>();
+
         //noinspection unchecked
         Cache2kBuilder<String, T> builder = (Cache2kBuilder<String, T>) Cache2kBuilder.of(String.class, Object.class);
         if (cacheOptions.getExpireAfterWrite() != null) {
@@ -114,29 +126,26 @@ public class InMemoryCacheService implements CacheService {
             builder.eternal(true);
         }
 
-        if (cacheOptions.getMaximumSize() != null) {
+        ToIntFunction<Object> weigher = cacheOptions.getWeigher();
+        if (cacheOptions.getMaximumWeight() != null && weigher != null) {
+            builder.weigher((key, value) -> weigher.applyAsInt(value));
+            builder.maximumWeight(cacheOptions.getMaximumWeight());
+        } else if (cacheOptions.getMaximumSize() != null) {
             builder.entryCapacity(cacheOptions.getMaximumSize());
         }
-        cache = builder.build();
-        caches.put(cacheName, cache);
-        return cache;
-    }
+        builder.addListener((CacheEntryEvictedListener<String, T>) (cache, entry) -> statsCache.evictions.increment());
+        statsCache.cache = builder.build();
 
-    private <T> T write(Provider<T> provider) {
-        readWriteLock.writeLock().lock();
-        try {
-            return provider.get();
-        } finally {
-            readWriteLock.writeLock().unlock();
-        }
+        metricRegistry.getGauge(InMemoryCacheService.class, cacheName, "hits", statsCache.hits::sum);
+        metricRegistry.getGauge(InMemoryCacheService.class, cacheName, "misses", statsCache.misses::sum);
+        metricRegistry.getGauge(InMemoryCacheService.class, cacheName, "evictions", statsCache.evictions::sum);
+        return statsCache;
     }
 
-    private <T> T read(Provider<T> provider) {
-        readWriteLock.readLock().lock();
-        try {
-            return provider.get();
-        } finally {
-            readWriteLock.readLock().unlock();
-        }
+    private static class StatsCache<T> {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private Cache<String, T> cache;
     }
 }
@@ -59,7 +59,7 @@ import java.util.List;
 @Singleton
 public class ReindexLongRunningProcessWorker extends LongRunningProcessWorker {
     private static final BcLogger LOGGER = BcLoggerFactory.getLogger(ReindexLongRunningProcessWorker.class);
-    private static final FetchHints FETCH_HINTS = FetchHints.ALL;
+    private static final FetchHints FETCH_HINTS = FetchHints.ALL_INCLUDING_HIDDEN;
     private final Authorizations authorizations;
     private final Graph graph;
 
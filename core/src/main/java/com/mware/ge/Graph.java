@@ -1214,6 +1214,10 @@ public interface Graph {
 
     /**
      * Saves multiple mutations with a single call.
+     * <p>
+     * Graphs backed by a key/value store write all the mutations atomically: when one of them fails, none is written.
+     * The mutations can't read the elements saved by the earlier mutations of the same call, and the search index
+     * is not rolled back when the call fails.
      *
      * @param mutations      the mutations to save
      * @param authorizations the authorizations used during save
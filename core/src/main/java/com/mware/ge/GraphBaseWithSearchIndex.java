@@ -162,12 +162,13 @@ public abstract class GraphBaseWithSearchIndex extends GraphBase implements Grap
         reindexEdges(authorizations);
     }
 
+    // hidden elements and properties are indexed too, with the fields marking them as hidden
     protected void reindexVertices(Authorizations authorizations) {
-        this.searchIndex.addElements(this, getVertices(authorizations), authorizations);
+        this.searchIndex.addElements(this, getVertices(FetchHints.ALL_INCLUDING_HIDDEN, authorizations), authorizations);
     }
 
     private void reindexEdges(Authorizations authorizations) {
-        this.searchIndex.addElements(this, getEdges(authorizations), authorizations);
+        this.searchIndex.addElements(this, getEdges(FetchHints.ALL_INCLUDING_HIDDEN, authorizations), authorizations);
     }
 
     @Override
@@ -54,12 +54,18 @@ public class InMemoryEdge extends InMemoryElement<InMemoryEdge> implements Edge
             Authorizations authorizations
     ) {
         super(graph, id, inMemoryTableElement, fetchHints, endTime, authorizations);
-        edgeSetupMutation = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class);
+        // the endpoints the edge had at endTime, the first ones if endTime falls within the mutations creating it
+        EdgeSetupMutation setupAtEndTime = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class, endTime);
+        edgeSetupMutation = setupAtEndTime != null ? setupAtEndTime : inMemoryTableElement.findFirstMutation(EdgeSetupMutation.class);
     }
 
     @Override
     public String getLabel() {
-        return getInMemoryTableElement().findLastMutation(AlterEdgeLabelMutation.class).getNewEdgeLabel();
+        AlterEdgeLabelMutation labelMutation = getInMemoryTableElement().findLastMutation(AlterEdgeLabelMutation.class, getEndTime());
+        if (labelMutation == null) {
+            labelMutation = getInMemoryTableElement().findFirstMutation(AlterEdgeLabelMutation.class);
+        }
+        return labelMutation.getNewEdgeLabel();
     }
 
     @Override
@@ -36,13 +36,23 @@
  */
 package com.mware.ge.inmemory;
 
+import com.mware.ge.Direction;
+import com.mware.ge.inmemory.mutations.AlterEdgeLabelMutation;
+import com.mware.ge.inmemory.mutations.Mutation;
 import com.mware.ge.util.ConvertingIterable;
 
-import java.util.Map;
+import java.util.*;
 
 public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
+    private final Object adjacencyLock = new Object();
+    private final Map<String, VertexAdjacency> adjacencyByVertexId = new HashMap<>();
+    private final Map<String, AdjacencyEntry> adjacencyByEdgeId = new HashMap<>();
+
     public InMemoryEdgeTable(Map<String, InMemoryTableElement<InMemoryEdge>> rows) {
         super(rows);
+        for (InMemoryTableEdge edge : getAllTableElements()) {
+            updateAdjacency(edge);
+        }
     }
 
     public InMemoryEdgeTable() {
@@ -53,6 +63,38 @@ public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
         return new InMemoryTableEdge(id);
     }
 
+    @Override
+    public void append(String id, Mutation... newMutations) {
+        super.append(id, newMutations);
+        InMemoryTableEdge edge = (InMemoryTableEdge) getTableElement(id);
+        if (edge != null) {
+            updateAdjacency(edge);
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        super.remove(id);
+        if (id == null) {
+            return;
+        }
+        synchronized (adjacencyLock) {
+            AdjacencyEntry entry = adjacencyByEdgeId.remove(id);
+            if (entry != null) {
+                removeAdjacency(id, entry);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        synchronized (adjacencyLock) {
+            adjacencyByVertexId.clear();
+            adjacencyByEdgeId.clear();
+        }
+    }
+
     public Iterable<InMemoryTableEdge> getAllTableElements() {
         return new ConvertingIterable<InMemoryTableElement<InMemoryEdge>, InMemoryTableEdge>(super.getRowValues()) {
             @Override
@@ -61,4 +103,135 @@ public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
             }
         };
     }
+
+    /**
+     * Re-reads the out/in vertex ids and label of the edge and moves it in the adjacency index if any of them
+     * changed. Soft deletes, hidden flags and visibility are not part of the index, they are applied when the
+     * edges are read.
+     */
+    public void updateAdjacency(InMemoryTableEdge edge) {
+        String outVertexId = edge.getOutVertexId();
+        String inVertexId = edge.getInVertexId();
+        AlterEdgeLabelMutation labelMutation = edge.findLastMutation(AlterEdgeLabelMutation.class);
+        if (outVertexId == null || inVertexId == null || labelMutation == null) {
+            return;
+        }
+        AdjacencyEntry newEntry = new AdjacencyEntry(outVertexId, inVertexId, labelMutation.getNewEdgeLabel());
+        synchronized (adjacencyLock) {
+            AdjacencyEntry oldEntry = adjacencyByEdgeId.put(edge.getId(), newEntry);
+            if (newEntry.equals(oldEntry)) {
+                return;
+            }
+            if (oldEntry != null) {
+                removeAdjacency(edge.getId(), oldEntry);
+            }
+            adjacencyByVertexId.computeIfAbsent(outVertexId, k -> new VertexAdjacency()).out
+                    .computeIfAbsent(newEntry.label, k -> new LinkedHashSet<>()).add(edge.getId());
+            adjacencyByVertexId.computeIfAbsent(inVertexId, k -> new VertexAdjacency()).in
+                    .computeIfAbsent(newEntry.label, k -> new LinkedHashSet<>()).add(edge.getId());
+        }
+    }
+
+    /**
+     * Returns the ids of the edges attached to the vertex in the given direction, optionally restricted to a set of
+     * edge labels. The returned collection is a copy and is safe to iterate while the graph is being modified.
+     */
+    public Collection<String> getEdgeIds(String vertexId, Direction direction, String[] labels) {
+        Set<String> results = new LinkedHashSet<>();
+        synchronized (adjacencyLock) {
+            VertexAdjacency vertexAdjacency = adjacencyByVertexId.get(vertexId);
+            if (vertexAdjacency == null) {
+                return results;
+            }
+            if (direction == Direction.OUT || direction == Direction.BOTH) {
+                addEdgeIds(results, vertexAdjacency.out, labels);
+            }
+            if (direction == Direction.IN || direction == Direction.BOTH) {
+                addEdgeIds(results, vertexAdjacency.in, labels);
+            }
+        }
+        return results;
+    }
+
+    private static void addEdgeIds(Set<String> results, Map<String, Set<String>> edgeIdsByLabel, String[] labels) {
+        if (labels == null) {
+            for (Set<String> edgeIds : edgeIdsByLabel.values()) {
+                results.addAll(edgeIds);
+            }
+            return;
+        }
+        for (String label : labels) {
+            Set<String> edgeIds = edgeIdsByLabel.get(label);
+            if (edgeIds != null) {
+                results.addAll(edgeIds);
+            }
+        }
+    }
+
+    private void removeAdjacency(String edgeId, AdjacencyEntry entry) {
+        VertexAdjacency outAdjacency = adjacencyByVertexId.get(entry.outVertexId);
+        if (outAdjacency != null) {
+            removeEdgeId(outAdjacency.out, entry.label, edgeId);
+            if (outAdjacency.isEmpty()) {
+                adjacencyByVertexId.remove(entry.outVertexId);
+            }
+        }
+        VertexAdjacency inAdjacency = adjacencyByVertexId.get(entry.inVertexId);
+        if (inAdjacency != null) {
+            removeEdgeId(inAdjacency.in, entry.label, edgeId);
+            if (inAdjacency.isEmpty()) {
+                adjacencyByVertexId.remove(entry.inVertexId);
+            }
+        }
+    }
+
+    private static void removeEdgeId(Map<String, Set<String>> edgeIdsByLabel, String label, String edgeId) {
+        Set<String> edgeIds = edgeIdsByLabel.get(label);
+        if (edgeIds != null) {
+            edgeIds.remove(edgeId);
+            if (edgeIds.isEmpty()) {
+                edgeIdsByLabel.remove(label);
+            }
+        }
+    }
+
+    private static class VertexAdjacency {
+        private final Map<String, Set<String>> out = new HashMap<>();
+        private final Map<String, Set<String>> in = new HashMap<>();
+
+        boolean isEmpty() {
+            return out.isEmpty() && in.isEmpty();
+        }
+    }
+
+    private static class AdjacencyEntry {
+        private final String outVertexId;
+        private final String inVertexId;
+        private final String label;
+
+        AdjacencyEntry(String outVertexId, String inVertexId, String label) {
+            this.outVertexId = outVertexId;
+            this.inVertexId = inVertexId;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AdjacencyEntry that = (AdjacencyEntry) o;
+            return outVertexId.equals(that.outVertexId)
+                    && inVertexId.equals(that.inVertexId)
+                    && Objects.equals(label, that.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(outVertexId, inVertexId, label);
+        }
+    }
 }
@@ -621,7 +621,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         if (sourceVertexId.equals(destVertexId)) {
             foundPaths.add(currentPath);
         } else if (hops > 0) {
-            Stream<Edge> edges = stream(getEdgesFromVertex(sourceVertexId, getDefaultFetchHints(), null, authorizations))
+            Stream<Edge> edges = stream(getEdgesFromVertex(sourceVertexId, Direction.BOTH, options.getLabels(), getDefaultFetchHints(), null, authorizations))
                     .filter(edge -> {
                         if (options.getExcludedLabels() != null) {
                             if (ArrayUtils.contains(options.getExcludedLabels(), edge.getLabel())) {
@@ -674,21 +674,29 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
             Long endTime,
             Authorizations authorizations
     ) {
+        return getEdgesFromVertex(vertexId, Direction.BOTH, null, fetchHints, endTime, authorizations);
+    }
+
+    protected Iterable<Edge> getEdgesFromVertex(
+            String vertexId,
+            Direction direction,
+            String[] labels,
+            FetchHints fetchHints,
+            Long endTime,
+            Authorizations authorizations
+    ) {
+        // the adjacency index only knows the current edge endpoints and labels, historical reads go through all the
+        // edges and check them against the endpoints and label the edge had at endTime
         return new LookAheadIterable<InMemoryTableEdge, Edge>() {
             @Override
             protected boolean isIncluded(InMemoryTableEdge inMemoryTableElement, Edge edge) {
                 if (edge == null) {
                     return false; // edge deleted or outside of time range
                 }
-
-                EdgeSetupMutation edgeSetupMutation = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class);
-                String inVertexId = edgeSetupMutation.getInVertexId();
-                checkNotNull(inVertexId, "inVertexId was null");
-                String outVertexId = edgeSetupMutation.getOutVertexId();
-                checkNotNull(outVertexId, "outVertexId was null");
-
-                return (inVertexId.equals(vertexId) || outVertexId.equals(vertexId)) &&
-                        InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
+                if (endTime != null && !isAttachedAt(inMemoryTableElement, vertexId, direction, labels, endTime)) {
+                    return false;
+                }
+                return InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
             }
 
             @Override
@@ -698,11 +706,39 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
 
             @Override
             protected Iterator<InMemoryTableEdge> createIterator() {
-                return edgesTable.getAllTableElements().iterator();
+                if (endTime != null) {
+                    return edgesTable.getAllTableElements().iterator();
+                }
+                return edgesTable.getEdgeIds(vertexId, direction, labels).stream()
+                        .map(edgeId -> (InMemoryTableEdge) edgesTable.getTableElement(edgeId))
+                        .filter(Objects::nonNull)
+                        .iterator();
             }
         };
     }
 
+    private static boolean isAttachedAt(InMemoryTableEdge edge, String vertexId, Direction direction, String[] labels, long endTime) {
+        EdgeSetupMutation edgeSetupMutation = edge.findLastMutation(EdgeSetupMutation.class, endTime);
+        if (edgeSetupMutation == null) {
+            return false;
+        }
+        boolean attached = false;
+        if (direction == Direction.OUT || direction == Direction.BOTH) {
+            attached = vertexId.equals(edgeSetupMutation.getOutVertexId());
+        }
+        if (direction == Direction.IN || direction == Direction.BOTH) {
+            attached |= vertexId.equals(edgeSetupMutation.getInVertexId());
+        }
+        if (!attached) {
+            return false;
+        }
+        if (labels == null) {
+            return true;
+        }
+        AlterEdgeLabelMutation labelMutation = edge.findLastMutation(AlterEdgeLabelMutation.class, endTime);
+        return labelMutation != null && ArrayUtils.contains(labels, labelMutation.getNewEdgeLabel());
+    }
+
     protected boolean isIncluded(
             InMemoryTableElement element, FetchHints fetchHints,
             Authorizations authorizations
@@ -913,6 +949,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
 
     protected void alterEdgeLabel(InMemoryTableEdge inMemoryTableEdge, long timestamp, String newEdgeLabel) {
         inMemoryTableEdge.appendAlterEdgeLabelMutation(timestamp, newEdgeLabel);
+        edgesTable.updateAdjacency(inMemoryTableEdge);
     }
 
     protected void alterConceptType(InMemoryTableVertex inMemoryTableVertex, long timestamp, String newConceptType) {
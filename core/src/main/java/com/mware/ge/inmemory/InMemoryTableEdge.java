@@ -39,7 +39,6 @@ package com.mware.ge.inmemory;
 import com.mware.ge.Authorizations;
 import com.mware.ge.FetchHints;
 import com.mware.ge.inmemory.mutations.EdgeSetupMutation;
-import com.mware.ge.util.IterableUtils;
 
 import java.util.EnumSet;
 
@@ -54,7 +53,7 @@ public class InMemoryTableEdge extends InMemoryTableElement<InMemoryEdge> {
     }
 
     public String getOutVertexId() {
-        EdgeSetupMutation m = IterableUtils.last(findMutations(EdgeSetupMutation.class));
+        EdgeSetupMutation m = findLastMutation(EdgeSetupMutation.class);
         if (m == null) {
             return null;
         }
@@ -62,7 +61,7 @@ public class InMemoryTableEdge extends InMemoryTableElement<InMemoryEdge> {
     }
 
     public String getInVertexId() {
-        EdgeSetupMutation m = IterableUtils.last(findMutations(EdgeSetupMutation.class));
+        EdgeSetupMutation m = findLastMutation(EdgeSetupMutation.class);
         if (m == null) {
             return null;
         }
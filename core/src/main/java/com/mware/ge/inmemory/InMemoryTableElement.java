@@ -57,6 +57,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     private final String id;
     private ReadWriteLock mutationLock= new ReentrantReadWriteLock();
     private TreeSet<Mutation> mutations = new TreeSet<>();
+    private ElementState state = new ElementState();
 
     protected InMemoryTableElement(String id) {
         if (null == id) {
@@ -72,7 +73,9 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     public void addAll(Mutation... newMutations) {
         mutationLock.writeLock().lock();
         try {
-            Collections.addAll(mutations, newMutations);
+            for (Mutation mutation : newMutations) {
+                appendToState(mutation);
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -83,15 +86,39 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public <T extends Mutation> T findLastMutation(Class<T> clazz) {
-        List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
-        //noinspection unchecked
-        return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(filteredMutations.size() - 1);
+        mutationLock.readLock().lock();
+        try {
+            //noinspection unchecked
+            return (T) state.findMutation(state.lastMutations, clazz, true);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the last mutation of the given type made up to endTime, or the last one if endTime is null.
+     */
+    public <T extends Mutation> T findLastMutation(Class<T> clazz, Long endTime) {
+        if (endTime == null) {
+            return findLastMutation(clazz);
+        }
+        T result = null;
+        for (T m : findMutations(clazz)) {
+            if (m.getTimestamp() <= endTime && (result == null || m.getTimestamp() >= result.getTimestamp())) {
+                result = m;
+            }
+        }
+        return result;
     }
 
     protected <T extends Mutation> T findFirstMutation(Class<T> clazz) {
-        List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
-        //noinspection unchecked
-        return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(0);
+        mutationLock.readLock().lock();
+        try {
+            //noinspection unchecked
+            return (T) state.findMutation(state.firstMutations, clazz, false);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
     }
 
     protected <T extends Mutation> Iterable<T> findMutations(Class<T> clazz) {
@@ -107,16 +134,17 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         return findLastMutation(ElementTimestampMutation.class).getTimestamp();
     }
 
-    private List<PropertyMutation> findPropertyMutations(Property p) {
-        return findPropertyMutations(p.getKey(), p.getName(), p.getVisibility());
-    }
-
     public Property deleteProperty(String key, String name, Authorizations authorizations) {
         return deleteProperty(key, name, null, authorizations);
     }
 
     public Property getProperty(String key, String name, Visibility visibility, FetchHints fetchHints, Authorizations authorizations) {
-        List<PropertyMutation> propertyMutations = findPropertyMutations(key, name, visibility);
+        List<PropertyMutation> propertyMutations;
+        if (key != null && name != null && visibility != null) {
+            propertyMutations = getPropertyMutations(new PropertyId(key, name, visibility));
+        } else {
+            propertyMutations = findPropertyMutations(key, name, visibility);
+        }
         if (propertyMutations == null || propertyMutations.size() == 0) {
             return null;
         }
@@ -132,10 +160,14 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     protected void deleteProperty(Property p) {
-        List<PropertyMutation> propertyMutations = findPropertyMutations(p);
+        PropertyId propertyId = new PropertyId(p.getKey(), p.getName(), p.getVisibility());
         mutationLock.writeLock().lock();
         try {
-            this.mutations.removeAll(propertyMutations);
+            List<PropertyMutation> propertyMutations = state.properties.get(propertyId);
+            if (propertyMutations != null) {
+                this.mutations.removeAll(propertyMutations);
+                rebuildState();
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -232,15 +264,23 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Iterable<Property> getProperties(final FetchHints fetchHints, Long endTime, final Authorizations authorizations) {
-        final TreeMap<String, List<PropertyMutation>> propertiesMutations = new TreeMap<>();
-        for (PropertyMutation m : findMutations(PropertyMutation.class)) {
-            if (endTime != null && m.getTimestamp() > endTime) {
-                continue;
+        final Collection<List<PropertyMutation>> propertiesMutations;
+        if (endTime == null) {
+            mutationLock.readLock().lock();
+            try {
+                propertiesMutations = new ArrayList<>(state.properties.values());
+            } finally {
+                mutationLock.readLock().unlock();
             }
-
-            String mapKey = toMapKey(m);
-            List<PropertyMutation> propertyMutations = propertiesMutations.computeIfAbsent(mapKey, k -> new ArrayList<>());
-            propertyMutations.add(m);
+        } else {
+            TreeMap<PropertyId, List<PropertyMutation>> historicalMutations = new TreeMap<>();
+            for (PropertyMutation m : findMutations(PropertyMutation.class)) {
+                if (m.getTimestamp() > endTime) {
+                    continue;
+                }
+                historicalMutations.computeIfAbsent(new PropertyId(m), k -> new ArrayList<>()).add(m);
+            }
+            propertiesMutations = historicalMutations.values();
         }
         return new LookAheadIterable<List<PropertyMutation>, Property>() {
             @Override
@@ -255,7 +295,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
 
             @Override
             protected Iterator<List<PropertyMutation>> createIterator() {
-                return propertiesMutations.values().iterator();
+                return propertiesMutations.iterator();
             }
         };
     }
@@ -326,10 +366,6 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         return streamingPropertyValueRef.toStreamingPropertyValue(null, timestamp);
     }
 
-    private String toMapKey(PropertyMutation m) {
-        return m.getPropertyName() + m.getPropertyKey() + m.getPropertyVisibility().getVisibilityString();
-    }
-
     public void appendSoftDeleteMutation(Long timestamp) {
         if (timestamp == null) {
             timestamp = IncreasingTime.currentTimeMillis();
@@ -441,25 +477,26 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Set<Visibility> getHiddenVisibilities() {
-        Set<Visibility> results = new HashSet<>();
-
         mutationLock.readLock().lock();
         try {
-            for (Mutation m : this.mutations) {
-                if (m instanceof MarkHiddenMutation) {
-                    results.add(m.getVisibility());
-                } else if (m instanceof MarkVisibleMutation) {
-                    results.remove(m.getVisibility());
-                }
-            }
+            return new HashSet<>(state.hiddenVisibilities);
         } finally {
             mutationLock.readLock().unlock();
         }
-        return results;
     }
 
     public boolean isHidden(Authorizations authorizations) {
-        for (Visibility visibility : getHiddenVisibilities()) {
+        List<Visibility> hiddenVisibilities;
+        mutationLock.readLock().lock();
+        try {
+            if (state.hiddenVisibilities.isEmpty()) {
+                return false;
+            }
+            hiddenVisibilities = new ArrayList<>(state.hiddenVisibilities);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+        for (Visibility visibility : hiddenVisibilities) {
             if (authorizations.canRead(visibility)) {
                 return true;
             }
@@ -482,6 +519,15 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public boolean isDeleted(Long endTime, Authorizations authorizations) {
+        if (endTime == null) {
+            // soft delete and element timestamp mutations are always written with an empty visibility
+            mutationLock.readLock().lock();
+            try {
+                return state.isDeleted();
+            } finally {
+                mutationLock.readLock().unlock();
+            }
+        }
         List<Mutation> filteredMutations = getFilteredMutations(m ->
                 canRead(m.getVisibility(), authorizations) &&
                         (endTime == null || m.getTimestamp() <= endTime) &&
@@ -506,9 +552,138 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     private void addMutation(Mutation mutation) {
         mutationLock.writeLock().lock();
         try {
-            this.mutations.add(mutation);
+            appendToState(mutation);
         } finally {
             mutationLock.writeLock().unlock();
         }
     }
+
+    private List<PropertyMutation> getPropertyMutations(PropertyId propertyId) {
+        mutationLock.readLock().lock();
+        try {
+            return state.properties.get(propertyId);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock held. Mutations newer than everything already stored are folded into the
+     * current state, older ones (explicit timestamps in the past) require the state to be rebuilt from the log.
+     */
+    private void appendToState(Mutation mutation) {
+        if (!this.mutations.add(mutation)) {
+            return;
+        }
+        if (this.mutations.last() == mutation) {
+            state.apply(mutation);
+        } else {
+            rebuildState();
+        }
+    }
+
+    private void rebuildState() {
+        ElementState newState = new ElementState();
+        for (Mutation m : this.mutations) {
+            newState.apply(m);
+        }
+        state = newState;
+    }
+
+    /**
+     * Current state of the element derived from the mutation log. Property mutation lists are copied on write so
+     * they can be handed out to readers without holding the lock.
+     */
+    private static class ElementState implements Serializable {
+        private final Map<Class<? extends Mutation>, Mutation> lastMutations = new HashMap<>();
+        private final Map<Class<? extends Mutation>, Mutation> firstMutations = new HashMap<>();
+        private final Set<Visibility> hiddenVisibilities = new HashSet<>();
+        private final TreeMap<PropertyId, List<PropertyMutation>> properties = new TreeMap<>();
+
+        void apply(Mutation m) {
+            lastMutations.put(m.getClass(), m);
+            firstMutations.putIfAbsent(m.getClass(), m);
+            if (m instanceof MarkHiddenMutation) {
+                hiddenVisibilities.add(m.getVisibility());
+            } else if (m instanceof MarkVisibleMutation) {
+                hiddenVisibilities.remove(m.getVisibility());
+            } else if (m instanceof PropertyMutation) {
+                PropertyMutation pm = (PropertyMutation) m;
+                PropertyId propertyId = new PropertyId(pm);
+                List<PropertyMutation> existing = properties.get(propertyId);
+                List<PropertyMutation> updated = existing == null ? new ArrayList<>(1) : new ArrayList<>(existing);
+                updated.add(pm);
+                properties.put(propertyId, updated);
+            }
+        }
+
+        Mutation findMutation(Map<Class<? extends Mutation>, Mutation> mutationsByClass, Class<?> clazz, boolean last) {
+            Mutation result = mutationsByClass.get(clazz);
+            for (Map.Entry<Class<? extends Mutation>, Mutation> entry : mutationsByClass.entrySet()) {
+                if (entry.getKey() == clazz || !clazz.isAssignableFrom(entry.getKey())) {
+                    continue;
+                }
+                Mutation m = entry.getValue();
+                if (result == null || (last ? m.compareTo(result) > 0 : m.compareTo(result) < 0)) {
+                    result = m;
+                }
+            }
+            return result;
+        }
+
+        boolean isDeleted() {
+            Mutation softDelete = lastMutations.get(SoftDeleteMutation.class);
+            Mutation timestamp = lastMutations.get(ElementTimestampMutation.class);
+            if (softDelete == null) {
+                return timestamp == null;
+            }
+            return timestamp == null || softDelete.compareTo(timestamp) > 0;
+        }
+    }
+
+    private static class PropertyId implements Comparable<PropertyId>, Serializable {
+        private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.<String>naturalOrder());
+        private final String key;
+        private final String name;
+        private final String visibility;
+
+        PropertyId(PropertyMutation m) {
+            this(m.getPropertyKey(), m.getPropertyName(), m.getPropertyVisibility());
+        }
+
+        PropertyId(String key, String name, Visibility visibility) {
+            this.key = key;
+            this.name = name;
+            this.visibility = visibility.getVisibilityString();
+        }
+
+        @Override
+        public int compareTo(PropertyId o) {
+            int result = NULLS_FIRST.compare(name, o.name);
+            if (result != 0) {
+                return result;
+            }
+            result = NULLS_FIRST.compare(key, o.key);
+            if (result != 0) {
+                return result;
+            }
+            return visibility.compareTo(o.visibility);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PropertyId)) {
+                return false;
+            }
+            return compareTo((PropertyId) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, name, visibility);
+        }
+    }
 }
@@ -55,6 +55,7 @@ import com.mware.ge.security.ColumnVisibility;
 import com.mware.ge.serializer.GeSerializer;
 import com.mware.ge.store.mutations.ElementMutationBuilder;
 import com.mware.ge.store.mutations.StoreMutation;
+import com.mware.ge.store.util.LazyMutableProperty;
 import com.mware.ge.store.util.StorableKeyHelper;
 import com.mware.ge.store.util.StreamingPropertyValueStorageStrategy;
 import com.mware.ge.util.*;
@@ -78,8 +79,8 @@ public abstract class AbstractStorableGraph<V extends StorableVertex, E extends
     private static final Integer METADATA_GRAPH_VERSION = 3;
     private static final String METADATA_SERIALIZER = "graph.serializer";
     private static final String METADATA_STREAMING_PROPERTY_VALUE_DATA_WRITER = "graph.streamingPropertyValueStorageStrategy";
-    private final String VERTEX_CACHE_NAME = "v";
-    private final String EDGE_CACHE_NAME = "e";
+    protected final String VERTEX_CACHE_NAME = "v";
+    protected final String EDGE_CACHE_NAME = "e";
 
     protected static String verticesTableName;
     protected static String historyVerticesTableName;
@@ -127,9 +128,13 @@ public abstract class AbstractStorableGraph<V extends StorableVertex, E extends
         this.streamingPropertyValueStorageStrategy = config.createStreamingPropertyValueStorageStrategy(this);
         this.cacheEnabled = config.isElementCacheEnabled();
 
-        this.elementCacheService = new InMemoryCacheService();
+        this.elementCacheService = new InMemoryCacheService(getMetricsRegistry());
         this.elementCacheOptions = new CacheOptions()
                 .setMaximumSize((long) config.getElementCacheSize());
+        if (config.getElementCacheMaxWeight() > 0) {
+            elementCacheOptions.setMaximumWeight(config.getElementCacheMaxWeight())
+                    .setWeigher(this::estimateElementSize);
+        }
 
         this.elementMutationBuilder = new ElementMutationBuilder(streamingPropertyValueStorageStrategy, this, geSerializer) {
             @Override
@@ -688,15 +693,17 @@ public abstract class AbstractStorableGraph<V extends StorableVertex, E extends
     @Override
     public Edge getEdge(String edgeId, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
         Edge edge;
-        if (cacheEnabled) {
+        boolean useCache = isElementCacheUsable() && endTime == null;
+        if (useCache) {
             edge = elementCacheService.getIfPresent(EDGE_CACHE_NAME, edgeId);
-            if (edge != null && edge.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(edge.getAuthorizations()))
+            if (edge != null && edge.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(edge.getAuthorizations())
+                    && isElementCacheUsable())
                 return edge;
         }
 
         try {
             edge = singleOrDefault(getEdgesInRange(new IdRange(edgeId, true, edgeId, true), fetchHints, endTime, authorizations), null);
-            if (edge != null && cacheEnabled) {
+            if (edge != null && useCache && isElementCacheUsable()) {
                 elementCacheService.put(EDGE_CACHE_NAME, edgeId, edge, elementCacheOptions);
             }
             return edge;
@@ -1014,14 +1021,17 @@ public abstract class AbstractStorableGraph<V extends StorableVertex, E extends
             }
 
             Vertex vertex;
-            if (cacheEnabled) {
+            // the cache only holds the current version of the elements
+            boolean useCache = isElementCacheUsable() && endTime == null;
+            if (useCache) {
                 vertex = elementCacheService.getIfPresent(VERTEX_CACHE_NAME, vertexId);
-                if (vertex != null && vertex.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(vertex.getAuthorizations()))
+                if (vertex != null && vertex.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(vertex.getAuthorizations())
+                        && isElementCacheUsable())
                     return vertex;
             }
 
             vertex = singleOrDefault(getVerticesInRange(new IdRange(vertexId), fetchHints, endTime, authorizations), null);
-            if (vertex != null && cacheEnabled) {
+            if (vertex != null && useCache && isElementCacheUsable()) {
                 elementCacheService.put(VERTEX_CACHE_NAME, vertexId, vertex, elementCacheOptions);
             }
             return vertex;
@@ -1254,6 +1264,33 @@ public abstract class AbstractStorableGraph<V extends StorableVertex, E extends
         return mutations;
     }
 
+    /**
+     * Whether element reads can be served from the element cache and populate it. It is checked again once an
+     * element has been read from the cache, as the answer can change meanwhile.
+     */
+    protected boolean isElementCacheUsable() {
+        return cacheEnabled;
+    }
+
+    /**
+     * A rough estimate of the heap used by a cached element, only meant to weigh large elements against small ones.
+     */
+    protected int estimateElementSize(Object o) {
+        int size = 256;
+        if (o instanceof StorableElement && ((StorableElement) o).getFetchHints().isIncludeProperties()) {
+            for (Property property : ((StorableElement) o).getProperties()) {
+                int valueSize = property instanceof LazyMutableProperty
+                        ? ((LazyMutableProperty) property).getSerializedValueSize()
+                        : -1;
+                size += 128 + 2 * (property.getKey().length() + property.getName().length()) + (valueSize < 0 ? 64 : valueSize);
+            }
+        }
+        if (o instanceof StorableVertex) {
+            size += 96 * ((StorableVertex) o).getEdgeInfoCount();
+        }
+        return size;
+    }
+
     public void invalidateElementFromCache(ElementType elementType, String id) {
         if (cacheEnabled) {
             elementCacheService.invalidate(ElementType.VERTEX.equals(elementType) ? VERTEX_CACHE_NAME : EDGE_CACHE_NAME, id);
@@ -54,6 +54,7 @@ public abstract class StorableGraphConfiguration extends GraphConfiguration {
     public static final String DEFAULT_STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY = FilesystemSPVStorageStrategy.class.getName();
     public static final String ELEMENT_CACHE_ENABLED = "elementCacheEnabled";
     public static final String ELEMENT_CACHE_SIZE = "elementCacheSize";
+    public static final String ELEMENT_CACHE_MAX_WEIGHT = "elementCacheMaxWeight";
     public static final String HISTORY_IN_SEPARATE_TABLE = "historyInSeparateTable";
     public static final String ZOOKEEPER_SERVERS = "zookeeperServers";
 
@@ -61,6 +62,7 @@ public abstract class StorableGraphConfiguration extends GraphConfiguration {
     public static final String DEFAULT_STREAMING_PROPERTY_VALUE_DATA_FOLDER = "/data";
     public static final boolean DEFAULT_ELEMENT_CACHE_ENABLED = false;
     public static final int DEFAULT_ELEMENT_CACHE_SIZE = 1_000_000;
+    public static final long DEFAULT_ELEMENT_CACHE_MAX_WEIGHT = 0;
     public static final boolean DEFAULT_HISTORY_IN_SEPARATE_TABLE = false;
     public static final String DEFAULT_ZOOKEEPER_SERVERS = "localhost";
 
@@ -101,6 +103,14 @@ public abstract class StorableGraphConfiguration extends GraphConfiguration {
         return getInteger(ELEMENT_CACHE_SIZE, DEFAULT_ELEMENT_CACHE_SIZE);
     }
 
+    /**
+     * The estimated size in bytes of the cached elements, past which elements are evicted. Disabled by default (0),
+     * in which case the cache is bounded by the number of elements only, see {@link #getElementCacheSize()}.
+     */
+    public long getElementCacheMaxWeight() {
+        return getConfigLong(ELEMENT_CACHE_MAX_WEIGHT, DEFAULT_ELEMENT_CACHE_MAX_WEIGHT);
+    }
+
     public boolean isHistoryInSeparateTable() {
         return getBoolean(HISTORY_IN_SEPARATE_TABLE, DEFAULT_HISTORY_IN_SEPARATE_TABLE);
     }
@@ -326,6 +326,20 @@ public class StorableVertex extends StorableElement implements Vertex {
     }
 
 
+    /**
+     * The number of edge infos held by the vertex, without checking the fetch hints.
+     */
+    int getEdgeInfoCount() {
+        int count = 0;
+        if (inEdges instanceof EdgesWithEdgeInfo) {
+            count += ((EdgesWithEdgeInfo) inEdges).size();
+        }
+        if (outEdges instanceof EdgesWithEdgeInfo) {
+            count += ((EdgesWithEdgeInfo) outEdges).size();
+        }
+        return count;
+    }
+
     private Iterable<Map.Entry<String, StorableEdgeInfo>> getEdgeInfos(Direction direction) {
         if (!getFetchHints().isIncludeEdgeRefs()) {
             throw new GeException("getEdgeInfos called without including any edge infos");
@@ -37,22 +37,32 @@
 package com.mware.ge.store;
 
 import com.mware.ge.Visibility;
+import com.mware.ge.security.ArrayByteSequence;
 import com.mware.ge.security.ColumnVisibility;
+import com.mware.ge.store.util.ByteSequenceUtils;
 
 import java.nio.charset.StandardCharsets;
 
+/**
+ * A view over the parts of a stored key. The parts can share the backing array of the scanned key, so no bytes are
+ * copied until a String or array representation of a part is requested.
+ */
 public class StoreKey {
-    private byte[] id;
+    private final ArrayByteSequence id;
     private String idStr;
-    private byte[] cf;
+    private final ArrayByteSequence cf;
     private String cfStr;
-    private byte[] cq;
+    private final ArrayByteSequence cq;
     private String cqStr;
-    private byte[] vis;
+    private final ArrayByteSequence vis;
     private String visStr;
     private Visibility visibility;
 
     public StoreKey(byte[] id, byte[] cf, byte[] cq, byte[] vis) {
+        this(new ArrayByteSequence(id), new ArrayByteSequence(cf), new ArrayByteSequence(cq), new ArrayByteSequence(vis));
+    }
+
+    public StoreKey(ArrayByteSequence id, ArrayByteSequence cf, ArrayByteSequence cq, ArrayByteSequence vis) {
         this.id = id;
         this.cf = cf;
         this.cq = cq;
@@ -69,34 +79,54 @@ public class StoreKey {
 
     public String visibilityString() {
         if (visStr == null) {
-            byte[] expression = new ColumnVisibility(vis).getExpression();
+            byte[] expression = new ColumnVisibility(vis()).getExpression();
             visStr = new String(expression, StandardCharsets.UTF_8);
         }
         return visStr;
     }
 
     public byte[] vis() {
+        return vis.toArray();
+    }
+
+    public ArrayByteSequence visSequence() {
         return vis;
     }
 
     public String id() {
         if (idStr == null)
-            idStr = new String(id);
+            idStr = ByteSequenceUtils.toString(id);
 
         return idStr;
     }
 
+    public boolean idEquals(StoreKey other) {
+        return id.equals(other.id);
+    }
+
     public String cf() {
         if (cfStr == null)
-            cfStr = new String(cf);
+            cfStr = ByteSequenceUtils.toString(cf);
 
         return cfStr;
     }
 
+    public boolean cfEquals(byte[] columnFamily) {
+        return ByteSequenceUtils.equals(cf, columnFamily);
+    }
+
     public String cq() {
         if (cqStr == null)
-            cqStr = new String(cq);
+            cqStr = ByteSequenceUtils.toString(cq);
 
         return cqStr;
     }
+
+    public boolean cqEquals(byte[] columnQualifier) {
+        return ByteSequenceUtils.equals(cq, columnQualifier);
+    }
+
+    public ArrayByteSequence cqSequence() {
+        return cq;
+    }
 }
@@ -36,37 +36,58 @@
  */
 package com.mware.ge.store;
 
+import com.mware.ge.security.ArrayByteSequence;
+import com.mware.ge.store.util.ByteSequenceUtils;
+
 import java.nio.ByteBuffer;
 
 public class StoreValue {
+    private final byte[] bytes;
+    private final int valueOffset;
     private byte[] value;
-    private long ts;
+    private final long ts;
 
     public StoreValue(long ts, byte[] val) {
         this.ts = ts;
         this.value = val;
+        this.bytes = val;
+        this.valueOffset = 0;
+    }
+
+    private StoreValue(byte[] serialized) {
+        this.ts = ByteBuffer.wrap(serialized).getLong();
+        this.bytes = serialized;
+        this.valueOffset = Long.BYTES;
     }
 
+    /**
+     * The value bytes are copied out of the serialized form only the first time they are requested.
+     */
     public byte[] value() {
+        if (value == null) {
+            value = new byte[bytes.length - valueOffset];
+            System.arraycopy(bytes, valueOffset, value, 0, value.length);
+        }
         return value;
     }
 
+    public boolean valueEquals(byte[] other) {
+        return ByteSequenceUtils.equals(new ArrayByteSequence(bytes, valueOffset, bytes.length - valueOffset), other);
+    }
+
     public long ts() {
         return ts;
     }
 
     public byte[] serialize() {
-        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES + value.length);
+        byte[] v = value();
+        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES + v.length);
         buf.putLong(ts)
-                .put(value);
+                .put(v);
         return buf.array();
     }
 
     public static StoreValue deserialize(byte[] bytes) {
-        ByteBuffer buf = ByteBuffer.wrap(bytes);
-        long ts = buf.getLong();
-        byte[] v = new byte[bytes.length - Long.BYTES];
-        System.arraycopy(bytes, buf.position(), v, 0, (bytes.length - Long.BYTES));
-        return new StoreValue(ts, v);
+        return new StoreValue(bytes);
     }
 }
@@ -46,6 +46,9 @@ import com.mware.ge.store.StoreKey;
 import com.mware.ge.store.StoreValue;
 
 public class EdgeDecoder extends ElementDecoder<EdgeElementData> {
+    private static final byte[] CF_IN_VERTEX = bytes(StorableEdge.CF_IN_VERTEX);
+    private static final byte[] CF_OUT_VERTEX = bytes(StorableEdge.CF_OUT_VERTEX);
+
     public EdgeDecoder(PrefetchingIterator<Pair<StoreKey, StoreValue>> storeIterable, StorableGraph graph, FetchHints fetchHints, Authorizations authorizations) {
         super(storeIterable, graph, fetchHints, authorizations);
     }
@@ -67,7 +70,7 @@ public class EdgeDecoder extends ElementDecoder<EdgeElementData> {
         StoreKey key = keyValue.first();
         StoreValue value = keyValue.other();
 
-        if (key.cf().equals(StorableEdge.CF_IN_VERTEX)) {
+        if (key.cfEquals(CF_IN_VERTEX)) {
             if (getElementData().inVertexIdTimestamp == null || value.ts() > getElementData().inVertexIdTimestamp) {
                 getElementData().inVertexId = key.cq();
                 getElementData().inVertexIdTimestamp = value.ts();
@@ -75,7 +78,7 @@ public class EdgeDecoder extends ElementDecoder<EdgeElementData> {
             return true;
         }
 
-        if (key.cf().equals(StorableEdge.CF_OUT_VERTEX)) {
+        if (key.cfEquals(CF_OUT_VERTEX)) {
             if (getElementData().outVertexIdTimestamp == null || value.ts() > getElementData().outVertexIdTimestamp) {
                 getElementData().outVertexId = key.cq();
                 getElementData().outVertexIdTimestamp = value.ts();
@@ -41,7 +41,6 @@ import com.mware.ge.FetchHints;
 import com.mware.ge.Visibility;
 import com.mware.ge.collection.Pair;
 import com.mware.ge.collection.PrefetchingIterator;
-import com.mware.ge.security.ArrayByteSequence;
 import com.mware.ge.security.ByteSequence;
 import com.mware.ge.store.StorableElement;
 import com.mware.ge.store.StorableGraph;
@@ -52,14 +51,27 @@ import com.mware.ge.store.util.HiddenProperty;
 import com.mware.ge.store.util.SoftDeletedProperty;
 import com.mware.ge.util.LookAheadIterable;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public abstract class ElementDecoder<T extends ElementData> implements Iterable<T> {
+    private static final byte[] CF_PROPERTY = bytes(StorableElement.CF_PROPERTY);
+    private static final byte[] CF_PROPERTY_METADATA = bytes(StorableElement.CF_PROPERTY_METADATA);
+    private static final byte[] CF_PROPERTY_SOFT_DELETE = bytes(StorableElement.CF_PROPERTY_SOFT_DELETE);
+    private static final byte[] CF_PROPERTY_HIDDEN = bytes(StorableElement.CF_PROPERTY_HIDDEN);
+    private static final byte[] CF_EXTENDED_DATA = bytes(StorableElement.CF_EXTENDED_DATA);
+    private static final byte[] CF_HIDDEN = bytes(StorableElement.CF_HIDDEN);
+    private static final byte[] CF_SOFT_DELETE = bytes(StorableElement.CF_SOFT_DELETE);
+    private static final byte[] CQ_SOFT_DELETE = bytes(StorableElement.CQ_SOFT_DELETE);
+    private static final byte[] DELETE_ROW_COLUMN_FAMILY = bytes(StorableElement.DELETE_ROW_COLUMN_FAMILY);
+    private static final byte[] DELETE_ROW_COLUMN_QUALIFIER = bytes(StorableElement.DELETE_ROW_COLUMN_QUALIFIER);
+
     protected FetchHints fetchHints;
     protected T elementData;
     protected Authorizations authorizations;
     protected StorableGraph graph;
     private PrefetchingIterator<Pair<StoreKey, StoreValue>> storeIterable;
+    private final byte[] visibilitySignal;
 
     public ElementDecoder(PrefetchingIterator<Pair<StoreKey, StoreValue>> storeIterable, StorableGraph graph, FetchHints fetchHints, Authorizations authorizations) {
         this.storeIterable = storeIterable;
@@ -67,6 +79,11 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
         this.fetchHints = fetchHints;
         this.elementData = createElementData(graph);
         this.authorizations = authorizations;
+        this.visibilitySignal = bytes(getVisibilitySignal());
+    }
+
+    protected static byte[] bytes(String columnName) {
+        return columnName.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -85,9 +102,7 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
                 while (storeIterable.hasNext()) {
                     Pair<StoreKey, StoreValue> next = storeIterable.peek();
                     if (next != null) {
-                        String id = source.first().id();
-                        String nextId = next.first().id();
-                        if (id.equals(nextId)) {
+                        if (source.first().idEquals(next.first())) {
                             mutations.add(storeIterable.next());
                         } else {
                             break;
@@ -145,24 +160,24 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
         StoreKey key = pair.first();
         StoreValue value = pair.other();
 
-        if (key.cf().equals(StorableElement.CF_PROPERTY_METADATA)) {
+        if (key.cfEquals(CF_PROPERTY_METADATA)) {
             if (authorizations.canRead(key.visibility()))
                 extractPropertyMetadata(pair);
             return true;
         }
 
-        if (key.cf().equals(StorableElement.CF_PROPERTY)) {
+        if (key.cfEquals(CF_PROPERTY)) {
             if (authorizations.canRead(key.visibility()))
                 extractPropertyData(pair);
             return true;
         }
 
-        if (key.cf().equals(StorableElement.CF_EXTENDED_DATA)) {
+        if (key.cfEquals(CF_EXTENDED_DATA)) {
             this.elementData.extendedTableNames.add(new String(value.value()));
             return true;
         }
 
-        if (key.cf().equals(getVisibilitySignal()) && value.ts() > elementData.timestamp) {
+        if (key.cfEquals(visibilitySignal) && value.ts() > elementData.timestamp) {
             if (authorizations.canRead(key.visibility())) {
                 elementData.visibility = key.visibilityString();
                 elementData.timestamp = value.ts();
@@ -175,30 +190,30 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
             return true;
         }
 
-        if (key.cf().equals(StorableElement.DELETE_ROW_COLUMN_FAMILY)
-                && key.cq().equals(StorableElement.DELETE_ROW_COLUMN_QUALIFIER)
-                && Arrays.equals(ElementMutationBuilder.DELETE_ROW_VALUE, value.value())) {
+        if (key.cfEquals(DELETE_ROW_COLUMN_FAMILY)
+                && key.cqEquals(DELETE_ROW_COLUMN_QUALIFIER)
+                && value.valueEquals(ElementMutationBuilder.DELETE_ROW_VALUE)) {
             return false;
         }
 
-        if (key.cf().equals(StorableElement.CF_SOFT_DELETE)
-                && key.cq().equals(StorableElement.CQ_SOFT_DELETE)
-                && Arrays.equals(StorableElement.SOFT_DELETE_VALUE, value.value())) {
+        if (key.cfEquals(CF_SOFT_DELETE)
+                && key.cqEquals(CQ_SOFT_DELETE)
+                && value.valueEquals(StorableElement.SOFT_DELETE_VALUE)) {
             elementData.softDeleteTimestamp = pair.other().ts();
             return true;
         }
 
-        if (key.cf().equals(StorableElement.CF_PROPERTY_SOFT_DELETE)) {
+        if (key.cfEquals(CF_PROPERTY_SOFT_DELETE)) {
             extractPropertySoftDelete(pair);
             return true;
         }
 
-        if (key.cf().equals(StorableElement.CF_HIDDEN)) {
+        if (key.cfEquals(CF_HIDDEN)) {
             this.elementData.hiddenVisibilities.add(key.visibilityString());
             return true;
         }
 
-        if (key.cf().equals(StorableElement.CF_PROPERTY_HIDDEN)) {
+        if (key.cfEquals(CF_PROPERTY_HIDDEN)) {
             extractPropertyHidden(pair);
             return true;
         }
@@ -218,26 +233,26 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
     private void extractPropertyData(Pair<StoreKey, StoreValue> keyValue) {
         long timestamp = keyValue.other().ts();
         PropertyColumnQualifierByteSequence propertyColumnQualifier =
-                new PropertyColumnQualifierByteSequence(new ArrayByteSequence(keyValue.first().cq()));
-        ByteSequence mapKey = propertyColumnQualifier.getDiscriminator(new ArrayByteSequence(keyValue.first().vis()), timestamp);
+                new PropertyColumnQualifierByteSequence(keyValue.first().cqSequence());
+        ByteSequence mapKey = propertyColumnQualifier.getDiscriminator(keyValue.first().visSequence(), timestamp);
         if (shouldIncludeProperty(propertyColumnQualifier.getPropertyName())) {
             this.elementData.propertyColumnQualifiers.put(mapKey, propertyColumnQualifier);
             this.elementData.propertyValues.put(mapKey, keyValue.other().value());
-            this.elementData.propertyVisibilities.put(mapKey, new ArrayByteSequence(keyValue.first().vis()));
+            this.elementData.propertyVisibilities.put(mapKey, keyValue.first().visSequence());
             this.elementData.propertyTimestamps.put(mapKey, timestamp);
         }
     }
 
     private void extractPropertyMetadata(Pair<StoreKey, StoreValue> keyValue) {
         PropertyMetadataColumnQualifierByteSequence propertyMetadataColumnQualifier =
-                new PropertyMetadataColumnQualifierByteSequence(new ArrayByteSequence(keyValue.first().cq()));
+                new PropertyMetadataColumnQualifierByteSequence(keyValue.first().cqSequence());
 
         if (shouldIncludeMetadata(propertyMetadataColumnQualifier)) {
             ByteSequence discriminator = propertyMetadataColumnQualifier.getPropertyDiscriminator(keyValue.other().ts());
             List<Integer> propertyMetadata = elementData.propertyMetadata.computeIfAbsent(discriminator, k -> new ArrayList<>());
             DecoderMetadataEntry pme = new DecoderMetadataEntry(
                     propertyMetadataColumnQualifier.getMetadataKey(),
-                    new ArrayByteSequence(keyValue.first().vis()),
+                    keyValue.first().visSequence(),
                     keyValue.other().value()
             );
             int pos = elementData.metadataEntries.indexOf(pme);
@@ -251,27 +266,27 @@ public abstract class ElementDecoder<T extends ElementData> implements Iterable<
 
     private void extractPropertySoftDelete(Pair<StoreKey, StoreValue> keyValue) {
         PropertyColumnQualifierByteSequence propertyColumnQualifier =
-                new PropertyColumnQualifierByteSequence(new ArrayByteSequence(keyValue.first().cq()));
+                new PropertyColumnQualifierByteSequence(keyValue.first().cqSequence());
         SoftDeletedProperty softDeletedProperty = new SoftDeletedProperty(
                 propertyColumnQualifier.getPropertyKey(),
                 propertyColumnQualifier.getPropertyName(),
                 keyValue.other().ts(),
-                new ArrayByteSequence(keyValue.first().vis())
+                keyValue.first().visSequence()
         );
         this.elementData.softDeletedProperties.add(softDeletedProperty);
     }
 
     private void extractPropertyHidden(Pair<StoreKey, StoreValue> keyValue) {
-        if (Arrays.equals(keyValue.other().value(), StorableElement.HIDDEN_VALUE_DELETED)) {
+        if (keyValue.other().valueEquals(StorableElement.HIDDEN_VALUE_DELETED)) {
             return;
         }
         PropertyHiddenColumnQualifierByteSequence propertyHiddenColumnQualifier =
-                new PropertyHiddenColumnQualifierByteSequence(new ArrayByteSequence(keyValue.first().cq()));
+                new PropertyHiddenColumnQualifierByteSequence(keyValue.first().cqSequence());
         HiddenProperty hiddenProperty = new HiddenProperty(
                 propertyHiddenColumnQualifier.getPropertyKey(),
                 propertyHiddenColumnQualifier.getPropertyName(),
                 propertyHiddenColumnQualifier.getPropertyVisibilityString(),
-                new ArrayByteSequence(keyValue.first().vis())
+                keyValue.first().visSequence()
         );
         this.elementData.hiddenProperties.add(hiddenProperty);
     }
@@ -48,6 +48,13 @@ import java.util.List;
 import java.util.Set;
 
 public class VertexDecoder extends ElementDecoder<VertexElementData> {
+    private static final byte[] CF_OUT_EDGE = bytes(StorableVertex.CF_OUT_EDGE);
+    private static final byte[] CF_IN_EDGE = bytes(StorableVertex.CF_IN_EDGE);
+    private static final byte[] CF_OUT_EDGE_HIDDEN = bytes(StorableVertex.CF_OUT_EDGE_HIDDEN);
+    private static final byte[] CF_IN_EDGE_HIDDEN = bytes(StorableVertex.CF_IN_EDGE_HIDDEN);
+    private static final byte[] CF_OUT_EDGE_SOFT_DELETE = bytes(StorableVertex.CF_OUT_EDGE_SOFT_DELETE);
+    private static final byte[] CF_IN_EDGE_SOFT_DELETE = bytes(StorableVertex.CF_IN_EDGE_SOFT_DELETE);
+
     public VertexDecoder(PrefetchingIterator<Pair<StoreKey, StoreValue>> storeIterable, StorableGraph graph, FetchHints fetchHints, Authorizations authorizations) {
         super(storeIterable, graph, fetchHints, authorizations);
     }
@@ -78,30 +85,30 @@ public class VertexDecoder extends ElementDecoder<VertexElementData> {
         StoreKey key = keyValue.first();
         StoreValue value = keyValue.other();
 
-        if (key.cf().equals(StorableVertex.CF_OUT_EDGE)) {
+        if (key.cfEquals(CF_OUT_EDGE)) {
             processOutEdge(keyValue);
             return true;
         }
 
-        if (key.cf().equals(StorableVertex.CF_IN_EDGE)) {
+        if (key.cfEquals(CF_IN_EDGE)) {
             processInEdge(keyValue);
             return true;
         }
 
-        if (key.cf().equals(StorableVertex.CF_OUT_EDGE_HIDDEN) || key.cf().equals(StorableVertex.CF_IN_EDGE_HIDDEN)) {
+        if (key.cfEquals(CF_OUT_EDGE_HIDDEN) || key.cfEquals(CF_IN_EDGE_HIDDEN)) {
             String edgeId = key.cq();
             getElementData().hiddenEdges.add(edgeId);
             getElementData().hiddenEdgesVisibilities.put(edgeId, key.visibility());
             return true;
         }
 
-        if (key.cf().equals(StorableVertex.CF_IN_EDGE_SOFT_DELETE)) {
+        if (key.cfEquals(CF_IN_EDGE_SOFT_DELETE)) {
             String edgeId = key.cq();
             getElementData().inSoftDeletes.add(new SoftDeleteEdgeInfo(edgeId, value.ts()));
             return true;
         }
 
-        if (key.cf().equals(StorableVertex.CF_OUT_EDGE_SOFT_DELETE)) {
+        if (key.cfEquals(CF_OUT_EDGE_SOFT_DELETE)) {
             String edgeId = key.cq();
             getElementData().outSoftDeletes.add(new SoftDeleteEdgeInfo(edgeId, value.ts()));
             return true;
@@ -0,0 +1,259 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.store.kv;
+
+import com.mware.ge.*;
+import com.mware.ge.search.SearchIndex;
+import com.mware.ge.util.GeLogger;
+import com.mware.ge.util.GeLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reindexes the elements of a {@link KVStoreGraph} into its search index, one id range at a time.
+ * <p>
+ * The vertex and edge tables are split into id ranges which are indexed by a fixed number of workers, so the
+ * number of ranges feeding the search index at any time is bounded by the parallelism. The extended data rows
+ * of an element are indexed together with the element. The range plan and every completed range are recorded
+ * in the graph metadata: a reindex which was interrupted can be resumed with the ranges that were not completed,
+ * and the checkpoints are removed once all the ranges are done.
+ */
+public class KVGraphReindexer {
+    private static final GeLogger LOGGER = GeLoggerFactory.getLogger(KVGraphReindexer.class);
+    public static final String METADATA_KEY_PREFIX = "reindex.";
+    public static final int BATCH_SIZE_DEFAULT = 1000;
+    private static final String MAX_RANGES_KEY = METADATA_KEY_PREFIX + "maxRanges";
+    // hidden data is read so the search index can mark it as hidden and store complete hydration payloads
+    private static final FetchHints FETCH_HINTS = FetchHints.ALL_INCLUDING_HIDDEN;
+    private final KVStoreGraph graph;
+    private final int parallelism;
+    private final int maxRanges;
+    private final int batchSize;
+
+    public KVGraphReindexer(KVStoreGraph graph, int parallelism, int maxRanges, int batchSize) {
+        this.graph = graph;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRanges = Math.max(1, maxRanges);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Reindexes all the elements, discarding the checkpoints of an earlier reindex.
+     */
+    public void reindex(Authorizations authorizations) {
+        reindex(authorizations, false);
+    }
+
+    /**
+     * Reindexes the elements. When resuming, the ranges completed by an interrupted reindex are skipped, which
+     * requires the same maximum number of ranges as the interrupted reindex. Otherwise the checkpoints of an
+     * earlier reindex are discarded and all the elements are reindexed.
+     */
+    public void reindex(Authorizations authorizations, boolean resume) {
+        if (resume) {
+            Object plannedMaxRanges = graph.getMetadata(MAX_RANGES_KEY);
+            if (plannedMaxRanges != null && !plannedMaxRanges.equals(maxRanges)) {
+                throw new GeException("The interrupted reindex was split into at most " + plannedMaxRanges
+                        + " ranges per table, resume it with the same number of ranges or restart it");
+            }
+            if (!hasCheckpoints()) {
+                LOGGER.info("no checkpoints found, starting a new reindex");
+            }
+        } else if (hasCheckpoints()) {
+            LOGGER.warn("discarding the checkpoints of an earlier reindex");
+            clearCheckpoints();
+        }
+        graph.setMetadata(MAX_RANGES_KEY, maxRanges);
+
+        List<ReindexRange> ranges = new ArrayList<>();
+        ranges.addAll(getRanges(ElementType.VERTEX));
+        ranges.addAll(getRanges(ElementType.EDGE));
+        long pending = ranges.stream().filter(r -> !r.isDone()).count();
+        LOGGER.info("reindexing %d of %d ranges with %d workers", pending, ranges.size(), parallelism);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            thread.setName("ge-reindex-" + threadCounter.incrementAndGet());
+            return thread;
+        });
+        AtomicInteger completed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (ReindexRange range : ranges) {
+                if (range.isDone()) {
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    reindexRange(range, authorizations);
+                    LOGGER.info("reindexed %s range %s (%d/%d)", range.elementType, range.idRange, completed.incrementAndGet(), pending);
+                }));
+            }
+
+            GeException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    LOGGER.error("reindex range failed", ex.getCause());
+                    if (failure == null) {
+                        failure = new GeException("reindex failed, the completed ranges are kept for the next run", ex.getCause());
+                    }
+                } catch (InterruptedException ex) {
+                    throw new GeException("reindex interrupted", ex);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        clearCheckpoints();
+    }
+
+    /**
+     * Removes the range plan and the completed range markers, the next reindex will start from scratch.
+     */
+    public void clearCheckpoints() {
+        clearCheckpoints(ElementType.VERTEX);
+        clearCheckpoints(ElementType.EDGE);
+        graph.removeMetadata(MAX_RANGES_KEY);
+    }
+
+    public boolean hasCheckpoints() {
+        return getPlan(ElementType.VERTEX) != null || getPlan(ElementType.EDGE) != null;
+    }
+
+    private void clearCheckpoints(ElementType elementType) {
+        List<IdRange> plan = getPlan(elementType);
+        if (plan == null) {
+            return;
+        }
+        for (int i = 0; i < plan.size(); i++) {
+            graph.removeMetadata(getDoneKey(elementType, i));
+        }
+        graph.removeMetadata(getPlanKey(elementType));
+    }
+
+    private List<ReindexRange> getRanges(ElementType elementType) {
+        List<IdRange> plan = getPlan(elementType);
+        if (plan == null) {
+            plan = new ArrayList<>(elementType == ElementType.VERTEX ? graph.getVertexRanges(maxRanges) : graph.getEdgeRanges(maxRanges));
+            graph.setMetadata(getPlanKey(elementType), plan);
+        } else {
+            LOGGER.info("resuming %s reindex from checkpoints", elementType);
+        }
+
+        List<ReindexRange> results = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            boolean done = Boolean.TRUE.equals(graph.getMetadata(getDoneKey(elementType, i)));
+            results.add(new ReindexRange(elementType, i, plan.get(i), done));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<IdRange> getPlan(ElementType elementType) {
+        return (List<IdRange>) graph.getMetadata(getPlanKey(elementType));
+    }
+
+    private void reindexRange(ReindexRange range, Authorizations authorizations) {
+        Iterable<? extends Element> elements = range.elementType == ElementType.VERTEX
+                ? graph.getVerticesInRange(range.idRange, FETCH_HINTS, authorizations)
+                : graph.getEdgesInRange(range.idRange, FETCH_HINTS, authorizations);
+        List<Element> batch = new ArrayList<>(batchSize);
+        for (Element element : elements) {
+            batch.add(element);
+            if (batch.size() == batchSize) {
+                indexBatch(batch, authorizations);
+                batch.clear();
+            }
+        }
+        if (batch.size() > 0) {
+            indexBatch(batch, authorizations);
+        }
+
+        // the range is only checkpointed once the search index acknowledged all of its documents
+        graph.getSearchIndex().flush(graph);
+        graph.setMetadata(getDoneKey(range.elementType, range.index), true);
+    }
+
+    private void indexBatch(List<Element> batch, Authorizations authorizations) {
+        SearchIndex searchIndex = graph.getSearchIndex();
+        searchIndex.addElements(graph, batch, authorizations);
+        for (Element element : batch) {
+            for (String tableName : element.getExtendedDataTableNames()) {
+                searchIndex.addExtendedData(graph, element, element.getExtendedData(tableName), authorizations);
+            }
+        }
+    }
+
+    private static String getPlanKey(ElementType elementType) {
+        return METADATA_KEY_PREFIX + elementType.name().toLowerCase() + ".plan";
+    }
+
+    private static String getDoneKey(ElementType elementType, int index) {
+        return METADATA_KEY_PREFIX + elementType.name().toLowerCase() + ".done." + index;
+    }
+
+    private static class ReindexRange {
+        private final ElementType elementType;
+        private final int index;
+        private final IdRange idRange;
+        private final boolean done;
+
+        private ReindexRange(ElementType elementType, int index, IdRange idRange, boolean done) {
+            this.elementType = elementType;
+            this.index = index;
+            this.idRange = idRange;
+            this.done = done;
+        }
+
+        private boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -36,10 +36,12 @@
  */
 package com.mware.ge.store.kv;
 
+import com.mware.ge.security.ArrayByteSequence;
 import com.mware.ge.store.StoreKey;
 import com.mware.ge.store.mutations.StoreMutation;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class KVKeyUtils {
     public static final char ID_VALUE_SEPARATOR = '\u001e';
@@ -88,18 +90,101 @@ public class KVKeyUtils {
         return buf;
     }
 
+    /**
+     * Returns the common prefix of all the keys of a row that belong to the given column family.
+     */
+    public static byte[] columnPrefix(byte[] row, byte[] cf) {
+        byte[] id = encodeId(row);
+        return ByteBuffer.allocate(id.length + Integer.BYTES + cf.length)
+                .put(id)
+                .putInt(cf.length)
+                .put(cf)
+                .array();
+    }
+
+    /**
+     * Returns the common prefix of all the keys of a row that belong to the given column family and qualifier.
+     */
+    public static byte[] columnPrefix(byte[] row, byte[] cf, byte[] cq) {
+        byte[] id = encodeId(row);
+        return ByteBuffer.allocate(id.length + Integer.BYTES + cf.length + Integer.BYTES + cq.length)
+                .put(id)
+                .putInt(cf.length)
+                .put(cf)
+                .putInt(cq.length)
+                .put(cq)
+                .array();
+    }
+
+    /**
+     * Appends the inverted timestamp to the key of a column, so that the versions of the column are stored next to
+     * each other, newest first.
+     */
+    public static byte[] versionedKey(byte[] key, long timestamp) {
+        return ByteBuffer.allocate(key.length + Long.BYTES)
+                .put(key)
+                .putLong(Long.MAX_VALUE - timestamp)
+                .array();
+    }
+
+    /**
+     * Returns the timestamp of a key built with {@link #versionedKey(byte[], long)}.
+     */
+    public static long keyVersion(byte[] versionedKey) {
+        return Long.MAX_VALUE - ByteBuffer.wrap(versionedKey).getLong(versionedKey.length - Long.BYTES);
+    }
+
+    /**
+     * Returns true if both versioned keys are versions of the same column.
+     */
+    public static boolean sameColumn(byte[] versionedKey1, byte[] versionedKey2) {
+        if (versionedKey1.length != versionedKey2.length) {
+            return false;
+        }
+        for (int i = versionedKey1.length - Long.BYTES - 1; i >= 0; i--) {
+            if (versionedKey1[i] != versionedKey2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the smallest key greater than all the keys starting with the given prefix.
+     */
+    public static byte[] prefixEnd(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xff) {
+                byte[] end = Arrays.copyOf(prefix, i + 1);
+                end[i]++;
+                return end;
+            }
+        }
+        throw new IllegalArgumentException("The prefix has no end");
+    }
+
     public static StoreKey storeKey(byte[] key) {
-        byte[] bid = decodeId(key);
-        int idlen = bid.length;
-
-        ByteBuffer buffer = ByteBuffer.wrap(key, idlen + 1, key.length - idlen - 1);
-        byte[] id = bid;
-        byte[] bcf = new byte[buffer.getInt()];
-        buffer.get(bcf);
-        byte[] bcq = new byte[buffer.getInt()];
-        buffer.get(bcq);
-        byte[] vis = new byte[buffer.getInt()];
-        buffer.get(vis);
-        return new StoreKey(id, bcf, bcq, vis);
+        int idlen = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] == ID_VALUE_SEPARATOR) {
+                idlen = i;
+                break;
+            }
+        }
+
+        // the parts are views over the key, nothing is copied
+        ByteBuffer buffer = ByteBuffer.wrap(key);
+        int cfOffset = idlen + 1 + Integer.BYTES;
+        int cfLength = buffer.getInt(idlen + 1);
+        int cqOffset = cfOffset + cfLength + Integer.BYTES;
+        int cqLength = buffer.getInt(cfOffset + cfLength);
+        int visOffset = cqOffset + cqLength + Integer.BYTES;
+        int visLength = buffer.getInt(cqOffset + cqLength);
+        return new StoreKey(
+                new ArrayByteSequence(key, 0, idlen),
+                new ArrayByteSequence(key, cfOffset, cfLength),
+                new ArrayByteSequence(key, cqOffset, cqLength),
+                new ArrayByteSequence(key, visOffset, visLength)
+        );
     }
 }
@@ -0,0 +1,503 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.store.kv;
+
+import com.mware.ge.*;
+import com.mware.ge.mutation.EdgeMutation;
+import com.mware.ge.mutation.ExistingElementMutation;
+import com.mware.ge.mutation.VertexMutation;
+import com.mware.ge.query.Compare;
+import com.mware.ge.query.GraphQuery;
+import com.mware.ge.query.QueryBase;
+import com.mware.ge.query.QueryParameters;
+import com.mware.ge.search.DefaultSearchIndex;
+import com.mware.ge.util.GeLogger;
+import com.mware.ge.util.GeLoggerFactory;
+import com.mware.ge.values.storable.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An embedded search index for graphs stored in a {@link KVStore}, kept in the property index table of the graph.
+ * <p>
+ * It maintains exact match and range entries (property name and value to element id), concept type and edge label
+ * entries, and prefix entries for strings. Queries narrow the elements to read from the graph with the entries and
+ * evaluate the query on the elements as {@link com.mware.ge.query.DefaultGraphQuery} does, so the entries only need
+ * to be a superset of the matching elements: visibilities are ignored and stale entries are only cleaned when an
+ * element is deleted, reindexed or updated after being read with all its properties. Saving an element with a
+ * builder only adds entries, since the saved element holds the properties of the builder and not the stored ones.
+ * Elements saved before the index was enabled are found after a reindex.
+ */
+public class KVSearchIndex extends DefaultSearchIndex {
+    private static final GeLogger LOGGER = GeLoggerFactory.getLogger(KVSearchIndex.class);
+    public static final String MAX_CANDIDATES = "maxCandidates";
+    public static final int MAX_CANDIDATES_DEFAULT = 100000;
+
+    private static final byte VALUE_ENTRY = 'v';
+    private static final byte CONCEPT_TYPE_ENTRY = 'c';
+    private static final byte EDGE_LABEL_ENTRY = 'l';
+    private static final byte REVERSE_ENTRY = 'r';
+    private static final byte VALUE_TYPE_ENTRY = 's';
+    private static final byte VERTEX = 'V';
+    private static final byte EDGE = 'E';
+    private static final byte SEPARATOR = 0;
+    private static final byte[] EMPTY = new byte[0];
+    private static final Set<String> RESERVED_PROPERTY_NAMES = new HashSet<>(Arrays.asList(
+            Element.ID_PROPERTY_NAME,
+            Edge.LABEL_PROPERTY_NAME,
+            Edge.OUT_VERTEX_ID_PROPERTY_NAME,
+            Edge.IN_VERTEX_ID_PROPERTY_NAME,
+            Edge.IN_OR_OUT_VERTEX_ID_PROPERTY_NAME
+    ));
+
+    static final byte TEXT = 'T';
+    static final byte NUMBER = 'N';
+    static final byte BOOLEAN = 'B';
+    static final byte DATE_TIME = 'D';
+    static final byte DATE = 'd';
+    static final byte NOT_INDEXED = '?';
+
+    private final KVStoreGraph graph;
+    private final int maxCandidates;
+    private final Map<String, Set<Byte>> valueTypes = new ConcurrentHashMap<>();
+    private volatile boolean valueTypesLoaded;
+
+    public KVSearchIndex(Graph graph, GraphConfiguration configuration) {
+        super(configuration);
+        if (!(graph instanceof KVStoreGraph)) {
+            throw new GeException(KVSearchIndex.class.getSimpleName() + " requires a " + KVStoreGraph.class.getSimpleName() + ", found " + graph.getClass().getName());
+        }
+        this.graph = (KVStoreGraph) graph;
+        this.maxCandidates = configuration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + MAX_CANDIDATES, MAX_CANDIDATES_DEFAULT);
+    }
+
+    @Override
+    public void addElement(Graph graph, Element element, Authorizations authorizations) {
+        super.addElement(graph, element, authorizations);
+        this.graph.writeWithPendingMutations(batch -> addEntries(batch, element));
+    }
+
+    @Override
+    public void addElements(Graph graph, Iterable<? extends Element> elements, Authorizations authorizations) {
+        this.graph.writeWithPendingMutations(batch -> {
+            for (Element element : elements) {
+                // reindexed elements are read from the graph, their entries can be replaced if all properties were read
+                if (element.getFetchHints().isIncludeAllProperties()) {
+                    deleteEntries(batch, element);
+                }
+                addEntries(batch, element);
+            }
+        });
+    }
+
+    @Override
+    public <TElement extends Element> void updateElement(Graph graph, ExistingElementMutation<TElement> mutation, Authorizations authorizations) {
+        super.updateElement(graph, mutation, authorizations);
+        TElement element = mutation.getElement();
+        byte elementType = getElementType(mutation.getElementType());
+        this.graph.writeWithPendingMutations(batch -> {
+            // the saved element already holds the mutation, it can replace its entries if all its properties were read
+            if (element.getFetchHints().isIncludeAllProperties()) {
+                deleteEntries(batch, element);
+                addEntries(batch, element);
+            }
+            for (Property property : mutation.getProperties()) {
+                addEntry(batch, elementType, mutation.getId(), valueKey(batch, elementType, property.getName(), property.getValue()));
+            }
+            if (mutation instanceof VertexMutation && ((VertexMutation) mutation).getNewConceptType() != null) {
+                addEntry(batch, elementType, mutation.getId(), nameKey(CONCEPT_TYPE_ENTRY, ((VertexMutation) mutation).getNewConceptType()));
+            }
+            if (mutation instanceof EdgeMutation && ((EdgeMutation) mutation).getNewEdgeLabel() != null) {
+                addEntry(batch, elementType, mutation.getId(), nameKey(EDGE_LABEL_ENTRY, ((EdgeMutation) mutation).getNewEdgeLabel()));
+            }
+        });
+    }
+
+    @Override
+    public void deleteElement(Graph graph, ElementId elementId, Authorizations authorizations) {
+        super.deleteElement(graph, elementId, authorizations);
+        this.graph.writeWithPendingMutations(batch -> deleteEntries(batch, elementId));
+    }
+
+    @Override
+    public void deleteElements(Graph graph, Iterable<? extends ElementId> elementIds, Authorizations authorizations) {
+        super.deleteElements(graph, elementIds, authorizations);
+        this.graph.writeWithPendingMutations(batch -> {
+            for (ElementId elementId : elementIds) {
+                deleteEntries(batch, elementId);
+            }
+        });
+    }
+
+    @Override
+    public GraphQuery queryGraph(Graph graph, String queryString, Authorizations authorizations) {
+        return new KVGraphQuery(this, graph, queryString, authorizations);
+    }
+
+    @Override
+    public void truncate(Graph graph) {
+        super.truncate(graph);
+        deleteAllEntries();
+    }
+
+    @Override
+    public void drop(Graph graph) {
+        super.drop(graph);
+        deleteAllEntries();
+    }
+
+    private void deleteAllEntries() {
+        try (KVWriteBatch batch = getStore().writeBatch()) {
+            batch.deleteRange(getTableName(), EMPTY, new byte[]{(byte) 0xff});
+            batch.commit();
+        }
+        valueTypes.clear();
+    }
+
+    private void addEntries(KVWriteBatch batch, Element element) {
+        byte elementType = getElementType(ElementType.getTypeFromElement(element));
+        String elementId = element.getId();
+        if (element instanceof Vertex) {
+            addEntry(batch, elementType, elementId, nameKey(CONCEPT_TYPE_ENTRY, ((Vertex) element).getConceptType()));
+        } else if (element instanceof Edge) {
+            addEntry(batch, elementType, elementId, nameKey(EDGE_LABEL_ENTRY, ((Edge) element).getLabel()));
+        }
+        for (Property property : element.getProperties()) {
+            addEntry(batch, elementType, elementId, valueKey(batch, elementType, property.getName(), property.getValue()));
+        }
+    }
+
+    private void addEntry(KVWriteBatch batch, byte elementType, String elementId, byte[] keyPrefix) {
+        if (keyPrefix == null) {
+            return;
+        }
+        byte[] id = elementId.getBytes(StandardCharsets.UTF_8);
+        byte[] key = concat(keyPrefix, id);
+        batch.put(getTableName(), key, id);
+        batch.put(getTableName(), concat(reversePrefix(elementType, elementId), key), EMPTY);
+    }
+
+    private void deleteEntries(KVWriteBatch batch, ElementId elementId) {
+        byte[] reversePrefix = reversePrefix(getElementType(elementId.getElementType()), elementId.getId());
+        try (ScanIterator it = scanPrefix(reversePrefix)) {
+            while (it.hasNext()) {
+                byte[] reverseKey = it.next().first();
+                batch.delete(getTableName(), Arrays.copyOfRange(reverseKey, reversePrefix.length, reverseKey.length));
+                batch.delete(getTableName(), reverseKey);
+            }
+        } catch (IOException ex) {
+            throw new GeException("Could not read the index entries of " + elementId.getId(), ex);
+        }
+    }
+
+    /**
+     * Returns the ids of the elements which may match the query parameters, in id order, or null if the parameters
+     * can't be narrowed with the index and all the elements have to be read.
+     */
+    Set<String> findCandidateIds(ElementType elementType, QueryParameters parameters) {
+        byte type = getElementType(elementType);
+        Set<String> candidates = null;
+        if (parameters.getIds() != null) {
+            candidates = new HashSet<>(parameters.getIds());
+        }
+        if (elementType == ElementType.VERTEX && !parameters.getConceptTypes().isEmpty()) {
+            candidates = intersect(candidates, findIdsByName(CONCEPT_TYPE_ENTRY, parameters.getConceptTypes()));
+        }
+        if (elementType == ElementType.EDGE && !parameters.getEdgeLabels().isEmpty()) {
+            candidates = intersect(candidates, findIdsByName(EDGE_LABEL_ENTRY, parameters.getEdgeLabels()));
+        }
+        for (QueryBase.HasContainer hasContainer : parameters.getHasContainers()) {
+            if (candidates != null && candidates.isEmpty()) {
+                break;
+            }
+            if (hasContainer instanceof QueryBase.HasValueContainer) {
+                candidates = intersect(candidates, findIds(type, (QueryBase.HasValueContainer) hasContainer));
+            } else if (hasContainer instanceof QueryBase.HasPropertyContainer) {
+                candidates = intersect(candidates, findIds(type, (QueryBase.HasPropertyContainer) hasContainer));
+            }
+        }
+        return candidates == null ? null : new TreeSet<>(candidates);
+    }
+
+    private Set<String> findIdsByName(byte entryType, Collection<String> names) {
+        List<byte[][]> ranges = new ArrayList<>();
+        for (String name : names) {
+            ranges.add(prefixRange(nameKey(entryType, name)));
+        }
+        return scanIds(ranges);
+    }
+
+    /**
+     * Returns the ids of the elements having one of the properties, or null if it can't be looked up.
+     */
+    private Set<String> findIds(byte elementType, QueryBase.HasPropertyContainer hasContainer) {
+        List<byte[][]> ranges = new ArrayList<>();
+        for (String propertyName : hasContainer.getKeys()) {
+            if (RESERVED_PROPERTY_NAMES.contains(propertyName)) {
+                return null;
+            }
+            ranges.add(prefixRange(propertyPrefix(elementType, propertyName)));
+        }
+        return scanIds(ranges);
+    }
+
+    /**
+     * Returns the ids of the elements with a value matching the container, or null if it can't be looked up.
+     */
+    private Set<String> findIds(byte elementType, QueryBase.HasValueContainer hasContainer) {
+        if (!(hasContainer.predicate instanceof Compare) || !(hasContainer.value instanceof Value)) {
+            return null;
+        }
+        Compare compare = (Compare) hasContainer.predicate;
+        Value value = hasContainer.value;
+        byte valueType = getValueType(value);
+        if (valueType == NOT_INDEXED || (valueType == TEXT && compare != Compare.EQUAL && compare != Compare.STARTS_WITH)) {
+            return null;
+        }
+
+        List<byte[][]> ranges = new ArrayList<>();
+        for (String propertyName : hasContainer.getKeys()) {
+            if (RESERVED_PROPERTY_NAMES.contains(propertyName)) {
+                return null;
+            }
+            // values of different types never compare equal but they do compare as greater or less than each other
+            Set<Byte> propertyValueTypes = getValueTypes(propertyName);
+            if (propertyValueTypes.size() > 1 || (propertyValueTypes.size() == 1 && !propertyValueTypes.contains(valueType))) {
+                return null;
+            }
+            byte[] typePrefix = concat(propertyPrefix(elementType, propertyName), new byte[]{valueType});
+            byte[] encodedValue = encodeValue(value);
+            switch (compare) {
+                case EQUAL:
+                    ranges.add(prefixRange(concat(typePrefix, encodedValue, new byte[]{SEPARATOR})));
+                    break;
+                case STARTS_WITH:
+                    ranges.add(prefixRange(concat(typePrefix, encodedValue)));
+                    break;
+                case GREATER_THAN:
+                case GREATER_THAN_EQUAL:
+                    ranges.add(new byte[][]{concat(typePrefix, encodedValue), prefixEnd(typePrefix)});
+                    break;
+                case LESS_THAN:
+                case LESS_THAN_EQUAL:
+                    ranges.add(new byte[][]{typePrefix, prefixEnd(concat(typePrefix, encodedValue))});
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return scanIds(ranges);
+    }
+
+    /**
+     * Returns the ids found in the key ranges, or null if there are more than the maximum number of candidates.
+     */
+    private Set<String> scanIds(List<byte[][]> ranges) {
+        Set<String> ids = new HashSet<>();
+        for (byte[][] range : ranges) {
+            try (ScanIterator it = getStore().scanKeys(getTableName(), range[0], range[1])) {
+                while (it.hasNext()) {
+                    ids.add(new String(it.next().other(), StandardCharsets.UTF_8));
+                    if (ids.size() > maxCandidates) {
+                        LOGGER.debug("more than %d candidates, the index is not used", maxCandidates);
+                        return null;
+                    }
+                }
+            } catch (IOException ex) {
+                throw new GeException("Could not read the index entries", ex);
+            }
+        }
+        return ids;
+    }
+
+    private static Set<String> intersect(Set<String> candidates, Set<String> ids) {
+        if (ids == null) {
+            return candidates;
+        }
+        if (candidates == null) {
+            return ids;
+        }
+        candidates.retainAll(ids);
+        return candidates;
+    }
+
+    private byte[] valueKey(KVWriteBatch batch, byte elementType, String propertyName, Value value) {
+        byte valueType = getValueType(value);
+        Set<Byte> propertyValueTypes = getValueTypes(propertyName);
+        if (!propertyValueTypes.contains(valueType)) {
+            // committed together with the entries of that type, so no entry can be found before its type is known
+            batch.put(getTableName(), concat(nameKey(VALUE_TYPE_ENTRY, propertyName), new byte[]{valueType}), EMPTY);
+            propertyValueTypes.add(valueType);
+        }
+        byte[] typePrefix = concat(propertyPrefix(elementType, propertyName), new byte[]{valueType});
+        if (valueType == NOT_INDEXED) {
+            return typePrefix;
+        }
+        return concat(typePrefix, encodeValue(value), new byte[]{SEPARATOR});
+    }
+
+    private Set<Byte> getValueTypes(String propertyName) {
+        if (!valueTypesLoaded) {
+            loadValueTypes();
+        }
+        return valueTypes.computeIfAbsent(propertyName, name -> ConcurrentHashMap.newKeySet());
+    }
+
+    private synchronized void loadValueTypes() {
+        if (valueTypesLoaded) {
+            return;
+        }
+        try (ScanIterator it = scanPrefix(new byte[]{VALUE_TYPE_ENTRY})) {
+            while (it.hasNext()) {
+                byte[] key = it.next().first();
+                String propertyName = new String(key, 1, key.length - 3, StandardCharsets.UTF_8);
+                valueTypes.computeIfAbsent(propertyName, name -> ConcurrentHashMap.newKeySet()).add(key[key.length - 1]);
+            }
+        } catch (IOException ex) {
+            throw new GeException("Could not read the index value types", ex);
+        }
+        valueTypesLoaded = true;
+    }
+
+    static byte getValueType(Value value) {
+        if (value instanceof TextValue) {
+            return TEXT;
+        } else if (value instanceof NumberValue) {
+            return NUMBER;
+        } else if (value instanceof BooleanValue) {
+            return BOOLEAN;
+        } else if (value instanceof DateTimeValue) {
+            return DATE_TIME;
+        } else if (value instanceof DateValue) {
+            return DATE;
+        }
+        return NOT_INDEXED;
+    }
+
+    /**
+     * Encodes the value so that the byte order of the encoded values follows the order of the values. Strings are
+     * lower cased since they are compared ignoring the case.
+     */
+    static byte[] encodeValue(Value value) {
+        if (value instanceof TextValue) {
+            return ((TextValue) value).toLower().stringValue().getBytes(StandardCharsets.UTF_8);
+        } else if (value instanceof NumberValue) {
+            long bits = Double.doubleToLongBits(((NumberValue) value).doubleValue());
+            return encodeLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+        } else if (value instanceof BooleanValue) {
+            return new byte[]{(byte) (((BooleanValue) value).booleanValue() ? 1 : 0)};
+        } else if (value instanceof DateTimeValue) {
+            return encodeLong(((DateTimeValue) value).asObjectCopy().toInstant().toEpochMilli() ^ Long.MIN_VALUE);
+        } else if (value instanceof DateValue) {
+            return encodeLong(((DateValue) value).asObjectCopy().toEpochDay() ^ Long.MIN_VALUE);
+        }
+        throw new GeException("Unhandled value type: " + value.getClass().getName());
+    }
+
+    private static byte[] encodeLong(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    private static byte getElementType(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return VERTEX;
+            case EDGE:
+                return EDGE;
+            default:
+                throw new GeException("Unexpected element type: " + elementType);
+        }
+    }
+
+    private static byte[] propertyPrefix(byte elementType, String propertyName) {
+        return concat(new byte[]{VALUE_ENTRY, elementType}, propertyName.getBytes(StandardCharsets.UTF_8), new byte[]{SEPARATOR});
+    }
+
+    private static byte[] nameKey(byte entryType, String name) {
+        if (name == null) {
+            return null;
+        }
+        return concat(new byte[]{entryType}, name.getBytes(StandardCharsets.UTF_8), new byte[]{SEPARATOR});
+    }
+
+    private static byte[] reversePrefix(byte elementType, String elementId) {
+        return concat(new byte[]{REVERSE_ENTRY, elementType}, elementId.getBytes(StandardCharsets.UTF_8), new byte[]{SEPARATOR});
+    }
+
+    private ScanIterator scanPrefix(byte[] prefix) {
+        return getStore().scanKeys(getTableName(), prefix, prefixEnd(prefix));
+    }
+
+    private static byte[][] prefixRange(byte[] prefix) {
+        return new byte[][]{prefix, prefixEnd(prefix)};
+    }
+
+    /**
+     * Returns the smallest key greater than all the keys starting with the prefix.
+     */
+    static byte[] prefixEnd(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xff) {
+                byte[] end = Arrays.copyOf(prefix, i + 1);
+                end[i]++;
+                return end;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    private KVStore getStore() {
+        return graph.getKvStore();
+    }
+
+    private String getTableName() {
+        return graph.getPropertyIndexTableName();
+    }
+}
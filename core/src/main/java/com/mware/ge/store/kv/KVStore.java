@@ -38,6 +38,8 @@ package com.mware.ge.store.kv;
 
 import com.mware.ge.IdRange;
 
+import java.util.List;
+
 public interface KVStore extends AutoCloseable {
     void open();
 
@@ -45,7 +47,53 @@ public interface KVStore extends AutoCloseable {
         return scan(table, null);
     }
 
-    ScanIterator scan(String table, IdRange idRange);
+    default ScanIterator scan(String table, IdRange idRange) {
+        return scan(table, idRange, null);
+    }
+
+    /**
+     * Scans the table as seen by the snapshot, or the live table if the snapshot is null.
+     */
+    ScanIterator scan(String table, IdRange idRange, KVSnapshot snapshot);
+
+    default ScanIterator scanRows(String table, Iterable<String> rowIds) {
+        return scanRows(table, rowIds, null);
+    }
+
+    /**
+     * Returns all the key-values of the given rows, in key order. Missing rows are skipped.
+     */
+    ScanIterator scanRows(String table, Iterable<String> rowIds, KVSnapshot snapshot);
+
+    /**
+     * Takes a snapshot of the whole store, it must be closed to release the data it holds on to.
+     */
+    KVSnapshot snapshot();
+
+    /**
+     * Scans the raw keys of the table from keyFrom (inclusive) to keyTo (exclusive), a null bound meaning the start or
+     * the end of the table. Unlike the id scans, the bounds are used as they are, without encoding.
+     */
+    ScanIterator scanKeys(String table, byte[] keyFrom, byte[] keyTo);
+
+    /**
+     * Splits the table into at most maxRanges consecutive row ranges of roughly the same size, together covering the
+     * whole table. The ranges can be scanned independently, for example in parallel.
+     */
+    List<IdRange> splitRanges(String table, int maxRanges);
+
+    /**
+     * Returns true if the table has at least one key starting with the given prefix.
+     */
+    boolean containsPrefix(String table, byte[] prefix);
+
+    /**
+     * Returns the value of a counter maintained with {@link KVWriteBatch#increment}, or 0 if it was never written.
+     */
+    long getCounter(String table, byte[] key);
+
     void delete(String tableName, byte[] key);
     void put(String tableName, byte[] key, byte[] value);
+    KVWriteBatch writeBatch();
+    KVBulkLoad bulkLoad();
 }
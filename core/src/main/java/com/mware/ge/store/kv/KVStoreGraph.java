@@ -39,31 +39,65 @@ package com.mware.ge.store.kv;
 import com.github.freva.asciitable.AsciiTable;
 import com.github.freva.asciitable.Column;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Striped;
 import com.mware.ge.*;
 import com.mware.ge.collection.CombiningIterable;
 import com.mware.ge.collection.Iterators;
 import com.mware.ge.collection.Pair;
 import com.mware.ge.collection.PrefetchingIterator;
-
+import com.mware.ge.mutation.ElementMutation;
+import com.mware.ge.security.ByteSequence;
 import com.mware.ge.store.*;
 import com.mware.ge.store.decoder.*;
 import com.mware.ge.store.mutations.ElementMutationBuilder;
 import com.mware.ge.store.mutations.StoreColumnUpdate;
 import com.mware.ge.store.mutations.StoreMutation;
+import com.mware.ge.util.ConvertingIterable;
+import com.mware.ge.util.GeLogger;
+import com.mware.ge.util.GeLoggerFactory;
 import com.mware.ge.util.IncreasingTime;
+import com.mware.ge.util.IterableUtils;
 import com.mware.ge.util.LookAheadIterable;
+import com.mware.ge.util.StreamUtils;
+import com.mware.ge.values.storable.StreamingPropertyValueRef;
 import org.apache.commons.io.IOUtils;
 import org.apache.curator.shaded.com.google.common.io.Files;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex, StorableEdge> {
+    private static final GeLogger LOGGER = GeLoggerFactory.getLogger(KVStoreGraph.class);
+    private static final byte[] COUNTERS_INITIALIZED_KEY = KVKeyUtils.encodeId("_initialized".getBytes(StandardCharsets.UTF_8));
+    private static final byte[] DELETE_ROW_COLUMN_FAMILY = StorableElement.DELETE_ROW_COLUMN_FAMILY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DELETE_ROW_COLUMN_QUALIFIER = StorableElement.DELETE_ROW_COLUMN_QUALIFIER.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VERTEX_SIGNAL_COLUMN = StorableVertex.CF_SIGNAL.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EDGE_SIGNAL_COLUMN = StorableEdge.CF_SIGNAL.getBytes(StandardCharsets.UTF_8);
+    private static final String METADATA_VERSIONED_KEY = "kv.versioned";
+    private static final int PRUNE_BATCH_SIZE = 10000;
+    private static final int ROW_LOCK_STRIPES = 1024;
+
     protected KVStore kvStore;
+    private final ThreadLocal<PendingWrite> currentWrite = new ThreadLocal<>();
+    private final ThreadLocal<KVSnapshot> pinnedSnapshot = new ThreadLocal<>();
+    // bumped once a write is committed, a snapshot taken at the same generation sees the same data as the cache
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+    private final Map<KVSnapshot, Long> snapshotGenerations = Collections.synchronizedMap(new WeakHashMap<>());
+    private volatile KVBulkLoad bulkLoad;
+    // held while the rows of a write are counted and the write is committed, so a new row is counted once
+    private final Striped<Lock> rowLocks = Striped.lock(ROW_LOCK_STRIPES);
+    private volatile boolean rowCountsInitialized;
 
     public KVStoreGraph(StorableGraphConfiguration config) {
         super(config);
@@ -72,8 +106,292 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
         kvStore.open();
     }
 
+    @Override
+    protected void setup() {
+        super.setup();
+        setupKeyLayout();
+        setupRowCounts();
+    }
+
+    /**
+     * The counters of a new graph are maintained from the start. A graph created before the counters were maintained
+     * has to be counted once with {@link #rebuildRowCounts()}, until then the element counts are not available.
+     */
+    private void setupRowCounts() {
+        if (kvStore.getCounter(getCountersTableName(), COUNTERS_INITIALIZED_KEY) != 0L) {
+            rowCountsInitialized = true;
+            return;
+        }
+        boolean empty = !kvStore.containsPrefix(getVerticesTableName(), new byte[0])
+                && !kvStore.containsPrefix(getEdgesTableName(), new byte[0]);
+        if (empty) {
+            try (KVWriteBatch batch = kvStore.writeBatch()) {
+                batch.increment(getCountersTableName(), COUNTERS_INITIALIZED_KEY, 1L);
+                batch.commit();
+            }
+            rowCountsInitialized = true;
+        } else {
+            LOGGER.warn("the element counters of the graph are not initialized, run rebuildRowCounts() to count the elements");
+        }
+    }
+
+    /**
+     * The key layout can't change once the graph holds data, a graph created before the layout was recorded is
+     * unversioned.
+     */
+    private void setupKeyLayout() {
+        Object versioned = getMetadata(METADATA_VERSIONED_KEY);
+        if (versioned == null) {
+            boolean empty = !kvStore.containsPrefix(getVerticesTableName(), new byte[0])
+                    && !kvStore.containsPrefix(getEdgesTableName(), new byte[0])
+                    && !kvStore.containsPrefix(getExtendedDataTableName(), new byte[0]);
+            if (!empty && isVersioned()) {
+                throw new GeException("The graph holds unversioned data, it can't be opened with versioned keys");
+            }
+            setMetadata(METADATA_VERSIONED_KEY, empty && isVersioned());
+        } else if (!versioned.equals(isVersioned())) {
+            throw new GeException("Invalid key layout. Expected versioned=" + isVersioned() + " found " + versioned);
+        }
+    }
+
+    /**
+     * When true, the element tables keep the past versions of every column, the timestamp being appended to the key.
+     */
+    protected boolean isVersioned() {
+        return false;
+    }
+
+    /**
+     * The number of versions kept per column in versioned mode, 0 keeps them all.
+     */
+    protected int getMaxVersions() {
+        return 0;
+    }
+
+    /**
+     * The age in milliseconds past which the old versions of a column are dropped, 0 keeps them forever. The newest
+     * version is never dropped.
+     */
+    protected long getVersionsTtl() {
+        return 0L;
+    }
+
+    private boolean isVersionedTable(String tableName) {
+        return isVersioned() && (tableName.equals(getVerticesTableName())
+                || tableName.equals(getEdgesTableName())
+                || tableName.equals(getExtendedDataTableName()));
+    }
+
+    private long getOldestVersionTimestamp() {
+        long ttl = getVersionsTtl();
+        return ttl > 0 ? System.currentTimeMillis() - ttl : Long.MIN_VALUE;
+    }
+
+    /**
+     * Reduces a scan of an element table to the newest version of each column as of the end time. The end time is
+     * ignored by unversioned graphs, which only have the current version.
+     */
+    protected ScanIterator latestVersions(ScanIterator iter, Long endTime) {
+        if (!isVersioned()) {
+            return iter;
+        }
+        return new VersionsScanIterator(iter, getMaxVersions(), getOldestVersionTimestamp(), endTime, true);
+    }
+
+    /**
+     * Reindexes the whole graph with a {@link KVGraphReindexer}, discarding the checkpoints of an interrupted
+     * reindex.
+     */
+    @Override
+    public void reindex(Authorizations authorizations) {
+        new KVGraphReindexer(
+                this,
+                ForkJoinPool.getCommonPoolParallelism(),
+                getDefaultScanPartitions(),
+                KVGraphReindexer.BATCH_SIZE_DEFAULT
+        ).reindex(authorizations);
+    }
+
+    /**
+     * Splits the vertices into at most maxRanges id ranges of roughly the same size, which can be scanned in parallel
+     * with {@link #getVerticesInRange(IdRange, FetchHints, Long, Authorizations)}.
+     */
+    public List<IdRange> getVertexRanges(int maxRanges) {
+        return kvStore.splitRanges(getVerticesTableName(), maxRanges);
+    }
+
+    /**
+     * Splits the edges into at most maxRanges id ranges of roughly the same size, which can be scanned in parallel
+     * with {@link #getEdgesInRange(IdRange, FetchHints, Long, Authorizations)}.
+     */
+    public List<IdRange> getEdgeRanges(int maxRanges) {
+        return kvStore.splitRanges(getEdgesTableName(), maxRanges);
+    }
+
+    /**
+     * Returns all the vertices as a parallel stream, each id range being scanned and decoded by a worker of the
+     * common fork join pool. The vertices are not ordered.
+     */
+    public Stream<Vertex> getVerticesInParallel(FetchHints fetchHints, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        return getVertexRanges(getDefaultScanPartitions()).parallelStream()
+                .flatMap(range -> StreamUtils.stream(readInSnapshot(snapshot, () -> getVerticesInRange(range, fetchHints, null, authorizations))));
+    }
+
+    /**
+     * Returns all the edges as a parallel stream, each id range being scanned and decoded by a worker of the
+     * common fork join pool. The edges are not ordered.
+     */
+    public Stream<Edge> getEdgesInParallel(FetchHints fetchHints, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        return getEdgeRanges(getDefaultScanPartitions()).parallelStream()
+                .flatMap(range -> StreamUtils.stream(readInSnapshot(snapshot, () -> getEdgesInRange(range, fetchHints, null, authorizations))));
+    }
+
+    /**
+     * Takes a snapshot of the store, to be pinned with {@link #pinSnapshot(KVSnapshot)}. The caller closes it once
+     * the reads are done.
+     */
+    public KVSnapshot createSnapshot() {
+        // read before taking the snapshot, a write committed in between makes the generation look older than it is
+        long generation = writeGeneration.get();
+        boolean idle = writesInFlight.get() == 0;
+        KVSnapshot snapshot = kvStore.snapshot();
+        if (idle) {
+            snapshotGenerations.put(snapshot, generation);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Makes the reads started by the current thread see the store as of the snapshot, instead of the live store,
+     * until {@link #unpinSnapshot()}. The element cache is only used meanwhile if nothing was written since the
+     * snapshot was taken, otherwise it may hold newer elements.
+     */
+    public void pinSnapshot(KVSnapshot snapshot) {
+        pinnedSnapshot.set(snapshot);
+    }
+
+    public void unpinSnapshot() {
+        pinnedSnapshot.remove();
+    }
+
+    /**
+     * Runs the reader with the snapshot pinned to the current thread, for reads handed over to other threads.
+     */
+    public <T> T readInSnapshot(KVSnapshot snapshot, Supplier<T> reader) {
+        KVSnapshot previous = pinnedSnapshot.get();
+        pinnedSnapshot.set(snapshot);
+        try {
+            return reader.get();
+        } finally {
+            pinnedSnapshot.set(previous);
+        }
+    }
+
+    @Override
+    protected boolean isElementCacheUsable() {
+        return isElementCacheUsable(pinnedSnapshot.get());
+    }
+
+    /**
+     * The cache holds the elements of the writes in progress and of the last committed ones, so it only matches a
+     * snapshot while no write has been made since the snapshot was taken. Writes can start at any time, the check
+     * is repeated after an element has been read from the cache and before one is put in it.
+     */
+    private boolean isElementCacheUsable(KVSnapshot snapshot) {
+        if (!super.isElementCacheUsable()) {
+            return false;
+        }
+        if (snapshot == null) {
+            return true;
+        }
+        Long generation = snapshotGenerations.get(snapshot);
+        // in flight first, a finished write bumps the generation before leaving
+        return generation != null && writesInFlight.get() == 0 && writeGeneration.get() == generation;
+    }
+
+    private void beginWrite() {
+        writesInFlight.incrementAndGet();
+    }
+
+    private void endWrite() {
+        writeGeneration.incrementAndGet();
+        writesInFlight.decrementAndGet();
+    }
+
+    /**
+     * A few ranges per worker, so that uneven ranges still keep all the workers busy.
+     */
+    protected int getDefaultScanPartitions() {
+        return ForkJoinPool.getCommonPoolParallelism() * 4;
+    }
+
     @Override
     public Iterable<Vertex> getVerticesInRange(IdRange idRange, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        return decodeVertices(() -> latestVersions(kvStore.scan(getVerticesTableName(), idRange, snapshot), endTime), fetchHints, authorizations);
+    }
+
+    @Override
+    public Iterable<Vertex> getVertices(Iterable<String> ids, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        boolean useCache = isElementCacheUsable(snapshot) && endTime == null;
+        Set<String> orderedIds = new LinkedHashSet<>();
+        Map<String, Vertex> cachedVertices = new HashMap<>();
+        Set<String> idsToFetch = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id == null || !orderedIds.add(id)) {
+                continue;
+            }
+            if (useCache) {
+                Vertex vertex = elementCacheService.getIfPresent(VERTEX_CACHE_NAME, id);
+                if (vertex != null && vertex.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(vertex.getAuthorizations())
+                        && isElementCacheUsable(snapshot)) {
+                    cachedVertices.put(id, vertex);
+                    continue;
+                }
+            }
+            idsToFetch.add(id);
+        }
+
+        if (idsToFetch.isEmpty()) {
+            return inIdOrder(orderedIds, cachedVertices, Collections.emptyList());
+        }
+
+        Iterable<Vertex> fetchedVertices = decodeVertices(() -> latestVersions(kvStore.scanRows(getVerticesTableName(), idsToFetch, snapshot), endTime), fetchHints, authorizations);
+        if (useCache) {
+            fetchedVertices = new ConvertingIterable<Vertex, Vertex>(fetchedVertices) {
+                @Override
+                protected Vertex convert(Vertex vertex) {
+                    if (isElementCacheUsable(snapshot)) {
+                        elementCacheService.put(VERTEX_CACHE_NAME, vertex.getId(), vertex, elementCacheOptions);
+                    }
+                    return vertex;
+                }
+            };
+        }
+        return inIdOrder(orderedIds, cachedVertices, fetchedVertices);
+    }
+
+    /**
+     * The rows are read in key order, this puts the cached and the fetched elements back in the order of the
+     * requested ids. Repeated and missing ids are skipped.
+     */
+    private static <T extends Element> Iterable<T> inIdOrder(Collection<String> ids, Map<String, T> cached, Iterable<T> fetched) {
+        return () -> {
+            Map<String, T> elements = new HashMap<>(cached);
+            for (T element : IterableUtils.toList(fetched)) {
+                elements.put(element.getId(), element);
+            }
+            return ids.stream()
+                    .map(elements::get)
+                    .filter(Objects::nonNull)
+                    .iterator();
+        };
+    }
+
+    protected Iterable<Vertex> decodeVertices(Supplier<ScanIterator> scanSupplier, FetchHints fetchHints, Authorizations authorizations) {
         return new LookAheadIterable<VertexElementData, Vertex>() {
             ScanIterator iter;
 
@@ -119,7 +437,7 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
 
             @Override
             protected Iterator<VertexElementData> createIterator() {
-                iter = getKvStore().scan(getVerticesTableName(), idRange);
+                iter = scanSupplier.get();
 
                 Iterator<Pair<StoreKey, StoreValue>> mappingIterator =
                         Iterators.map(o -> Pair.of(KVKeyUtils.storeKey(o.first()), StoreValue.deserialize(o.other())), iter);
@@ -135,6 +453,52 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
 
     @Override
     public Iterable<Edge> getEdgesInRange(IdRange idRange, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        return decodeEdges(() -> latestVersions(kvStore.scan(getEdgesTableName(), idRange, snapshot), endTime), fetchHints, authorizations);
+    }
+
+    @Override
+    public Iterable<Edge> getEdges(Iterable<String> ids, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        KVSnapshot snapshot = pinnedSnapshot.get();
+        boolean useCache = isElementCacheUsable(snapshot) && endTime == null;
+        Set<String> orderedIds = new LinkedHashSet<>();
+        Map<String, Edge> cachedEdges = new HashMap<>();
+        Set<String> idsToFetch = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id == null || !orderedIds.add(id)) {
+                continue;
+            }
+            if (useCache) {
+                Edge edge = elementCacheService.getIfPresent(EDGE_CACHE_NAME, id);
+                if (edge != null && edge.getFetchHints().hasFetchHints(fetchHints) && authorizations.contains(edge.getAuthorizations())
+                        && isElementCacheUsable(snapshot)) {
+                    cachedEdges.put(id, edge);
+                    continue;
+                }
+            }
+            idsToFetch.add(id);
+        }
+
+        if (idsToFetch.isEmpty()) {
+            return inIdOrder(orderedIds, cachedEdges, Collections.emptyList());
+        }
+
+        Iterable<Edge> fetchedEdges = decodeEdges(() -> latestVersions(kvStore.scanRows(getEdgesTableName(), idsToFetch, snapshot), endTime), fetchHints, authorizations);
+        if (useCache) {
+            fetchedEdges = new ConvertingIterable<Edge, Edge>(fetchedEdges) {
+                @Override
+                protected Edge convert(Edge edge) {
+                    if (isElementCacheUsable(snapshot)) {
+                        elementCacheService.put(EDGE_CACHE_NAME, edge.getId(), edge, elementCacheOptions);
+                    }
+                    return edge;
+                }
+            };
+        }
+        return inIdOrder(orderedIds, cachedEdges, fetchedEdges);
+    }
+
+    protected Iterable<Edge> decodeEdges(Supplier<ScanIterator> scanSupplier, FetchHints fetchHints, Authorizations authorizations) {
         return new LookAheadIterable<EdgeElementData, Edge>() {
             ScanIterator iter;
 
@@ -174,7 +538,7 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
 
             @Override
             protected Iterator<EdgeElementData> createIterator() {
-                iter = kvStore.scan(getEdgesTableName(), idRange);
+                iter = scanSupplier.get();
                 Iterator<Pair<StoreKey, StoreValue>> mappingIterator =
                         Iterators.map(o -> Pair.of(KVKeyUtils.storeKey(o.first()), StoreValue.deserialize(o.other())), iter);
                 return new EdgeDecoder(Iterators.prefetching(mappingIterator), KVStoreGraph.this, fetchHints, authorizations)
@@ -195,6 +559,7 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
             Authorizations authorizations
     ) {
         List<Iterable<ExtendedDataRow>> iterables = new ArrayList<>();
+        KVSnapshot snapshot = pinnedSnapshot.get();
 
         for (IdRange range : (List<IdRange>) ranges) {
             iterables.add(new LookAheadIterable<Pair<StoreKey, StoreValue>, ExtendedDataRow>() {
@@ -214,9 +579,7 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
                     while (storeIterable.hasNext()) {
                         Pair<StoreKey, StoreValue> next = storeIterable.peek();
                         if (next != null) {
-                            String id = source.first().id();
-                            String nextId = next.first().id();
-                            if (id.equals(nextId)) {
+                            if (source.first().idEquals(next.first())) {
                                 mutations.add(storeIterable.next());
                             } else {
                                 break;
@@ -245,7 +608,7 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
 
                 @Override
                 protected Iterator<Pair<StoreKey, StoreValue>> createIterator() {
-                    iter = kvStore.scan(getExtendedDataTableName(), range);
+                    iter = latestVersions(kvStore.scan(getExtendedDataTableName(), range, snapshot), null);
                     Iterator<Pair<StoreKey, StoreValue>> mappingIterator =
                             Iterators.map(o -> Pair.of(KVKeyUtils.storeKey(o.first()), StoreValue.deserialize(o.other())), iter);
 
@@ -263,6 +626,133 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
         return new CombiningIterable<>(iterables);
     }
 
+    @Override
+    public Iterable<HistoricalPropertyValue> getHistoricalPropertyValues(
+            Element element,
+            String key,
+            String name,
+            Visibility visibility,
+            Long startTime,
+            Long endTime,
+            Authorizations authorizations
+    ) {
+        if (!isVersioned()) {
+            throw new UnsupportedOperationException("Historical properties are only kept by versioned graphs");
+        }
+
+        String tableName = element instanceof Edge ? getEdgesTableName() : getVerticesTableName();
+        Map<ByteSequence, HistoricalPropertyValue> results = new HashMap<>();
+        // one entry per version, as in the Accumulo implementation a soft delete only cancels one of them
+        Map<String, List<String>> activeVisibilities = new HashMap<>();
+        Map<String, Pair<StoreKey, Long>> softDeleteObserved = new HashMap<>();
+        Map<String, List<Long>> propertyTimestamps = new HashMap<>();
+
+        ScanIterator rowIter = kvStore.scanRows(tableName, Collections.singleton(element.getId()), pinnedSnapshot.get());
+        try (ScanIterator iter = new VersionsScanIterator(rowIter, getMaxVersions(), getOldestVersionTimestamp(), endTime, false)) {
+            while (iter.hasNext()) {
+                Pair<byte[], byte[]> pair = iter.next();
+                long timestamp = KVKeyUtils.keyVersion(pair.first());
+                if (startTime != null && timestamp < startTime) {
+                    continue;
+                }
+                StoreKey storeKey = KVKeyUtils.storeKey(pair.first());
+                if (!authorizations.canRead(storeKey.visibility())) {
+                    continue;
+                }
+
+                String columnFamily = storeKey.cf();
+                if (StorableElement.CF_PROPERTY.equals(columnFamily)) {
+                    if (visibility != null && !storeKey.visibilityString().equals(visibility.getVisibilityString())) {
+                        continue;
+                    }
+                    PropertyColumnQualifierByteSequence columnQualifier = new PropertyColumnQualifierByteSequence(storeKey.cqSequence());
+                    String propertyKey = getNameSubstitutionStrategy().inflate(columnQualifier.getPropertyKey().toString());
+                    String propertyName = getNameSubstitutionStrategy().inflate(columnQualifier.getPropertyName().toString());
+                    if ((name != null && !propertyName.equals(name)) || (key != null && !propertyKey.equals(key))) {
+                        continue;
+                    }
+
+                    Object value = geSerializer.bytesToObject(element, StoreValue.deserialize(pair.other()).value());
+                    if (value instanceof StreamingPropertyValueRef) {
+                        value = ((StreamingPropertyValueRef) value).toStreamingPropertyValue(this, timestamp);
+                    }
+                    HistoricalPropertyValue hpv =
+                            new HistoricalPropertyValue.HistoricalPropertyValueBuilder(propertyKey, propertyName, timestamp)
+                                    .propertyVisibility(storeKey.visibility())
+                                    .value(value)
+                                    .metadata(Metadata.create())
+                                    .build();
+                    results.put(columnQualifier.getDiscriminator(storeKey.visSequence(), timestamp), hpv);
+
+                    String propertyIdentifier = propertyKey + ":" + propertyName;
+                    activeVisibilities.computeIfAbsent(propertyIdentifier, k -> new ArrayList<>()).add(storeKey.visibilityString());
+                    // newest first, as the versions are read
+                    propertyTimestamps.computeIfAbsent(propertyIdentifier + ":" + storeKey.visibilityString(), k -> new ArrayList<>()).add(timestamp);
+                } else if (StorableElement.CF_PROPERTY_SOFT_DELETE.equals(columnFamily)) {
+                    PropertyColumnQualifierByteSequence columnQualifier = new PropertyColumnQualifierByteSequence(storeKey.cqSequence());
+                    String propertyIdentifier = getNameSubstitutionStrategy().inflate(columnQualifier.getPropertyKey().toString())
+                            + ":" + getNameSubstitutionStrategy().inflate(columnQualifier.getPropertyName().toString());
+                    List<String> active = activeVisibilities.get(propertyIdentifier);
+                    if (active != null) {
+                        active.remove(storeKey.visibilityString());
+                    }
+                    softDeleteObserved.put(propertyIdentifier, Pair.of(storeKey, timestamp));
+                } else if (StorableElement.CF_PROPERTY_METADATA.equals(columnFamily)) {
+                    PropertyMetadataColumnQualifierByteSequence columnQualifier = new PropertyMetadataColumnQualifierByteSequence(storeKey.cqSequence());
+                    HistoricalPropertyValue hpv = results.get(columnQualifier.getPropertyDiscriminator(timestamp));
+                    if (hpv == null) {
+                        continue;
+                    }
+                    com.mware.ge.values.storable.Value value = geSerializer.bytesToObject(element, StoreValue.deserialize(pair.other()).value());
+                    hpv.getMetadata().add(
+                            getNameSubstitutionStrategy().inflate(columnQualifier.getMetadataKey().toString()),
+                            value,
+                            storeKey.visibility()
+                    );
+                }
+            }
+        } catch (IOException ex) {
+            throw new GeException("Could not read the history of " + element.getId(), ex);
+        }
+
+        // a soft deleted property shows up as a deleted version of its last value
+        for (Map.Entry<String, Pair<StoreKey, Long>> softDelete : softDeleteObserved.entrySet()) {
+            String propertyIdentifier = softDelete.getKey();
+            StoreKey storeKey = softDelete.getValue().first();
+            long softDeleteTimestamp = softDelete.getValue().other();
+            List<String> active = activeVisibilities.get(propertyIdentifier);
+            if (active != null && !active.isEmpty()) {
+                continue;
+            }
+
+            Long propertyTimestamp = propertyTimestamps.getOrDefault(propertyIdentifier + ":" + storeKey.visibilityString(), Collections.emptyList())
+                    .stream()
+                    .filter(ts -> ts <= softDeleteTimestamp)
+                    .findFirst()
+                    .orElse(null);
+            if (propertyTimestamp == null) {
+                continue;
+            }
+            PropertyColumnQualifierByteSequence columnQualifier = new PropertyColumnQualifierByteSequence(storeKey.cqSequence());
+            HistoricalPropertyValue property = results.get(columnQualifier.getDiscriminator(storeKey.visSequence(), propertyTimestamp));
+            if (property == null) {
+                continue;
+            }
+
+            long timestamp = softDeleteTimestamp + 1;
+            HistoricalPropertyValue hpv =
+                    new HistoricalPropertyValue.HistoricalPropertyValueBuilder(property.getPropertyKey(), property.getPropertyName(), timestamp)
+                            .propertyVisibility(storeKey.visibility())
+                            .metadata(property.getMetadata())
+                            .value(property.getValue())
+                            .isDeleted(true)
+                            .build();
+            results.put(columnQualifier.getDiscriminator(storeKey.visSequence(), timestamp), hpv);
+        }
+
+        return new TreeSet<>(results.values());
+    }
+
 
     @Override
     protected void addMutations(GeObjectType objectType, StoreMutation... mutations) {
@@ -283,24 +773,399 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
     }
 
 
+    /**
+     * Saves the mutations in a single write batch, so either all of them are written or, when a mutation fails,
+     * none of them.
+     * <p>
+     * Reads from the store made while the mutations are saved, including the reads of the mutations themselves,
+     * don't see the pending writes of the batch: a mutation can't read an element saved by an earlier mutation of
+     * the same call. Only the element cache may hold the elements saved so far.
+     * <p>
+     * The search index is updated as each element is saved and is not rolled back when the batch is dropped. The
+     * ids of the elements that may be indexed with the dropped changes are logged, they have to be reindexed.
+     */
+    @Override
+    public Iterable<Element> saveElementMutations(
+            Iterable<ElementMutation<? extends Element>> mutations,
+            Authorizations authorizations
+    ) {
+        if (currentWrite.get() != null) {
+            return super.saveElementMutations(mutations, authorizations);
+        }
+
+        KVBulkLoad bulkLoad = this.bulkLoad;
+        if (bulkLoad != null) {
+            try {
+                currentWrite.set(new PendingWrite(bulkLoad, false));
+                return super.saveElementMutations(mutations, authorizations);
+            } finally {
+                currentWrite.remove();
+            }
+        }
+
+        // collect the mutations of all elements and write them to the store at once
+        beginWrite();
+        boolean committed = false;
+        try (KVWriteBatch batch = kvStore.writeBatch()) {
+            PendingWrite write = new PendingWrite(batch, true);
+            currentWrite.set(write);
+            Iterable<Element> elements = super.saveElementMutations(mutations, authorizations);
+            commit(write);
+            committed = true;
+            return elements;
+        } finally {
+            currentWrite.remove();
+            if (!committed) {
+                dropSavedElements(mutations);
+            }
+            endWrite();
+        }
+    }
+
+    /**
+     * Forgets the elements of a batch that was not written: they were cached and indexed as they were saved.
+     */
+    private void dropSavedElements(Iterable<ElementMutation<? extends Element>> mutations) {
+        List<String> ids = new ArrayList<>();
+        for (ElementMutation<? extends Element> m : mutations) {
+            ids.add(m.getId());
+            if (!cacheEnabled) {
+                continue;
+            }
+            if (m.getElementType() == ElementType.VERTEX) {
+                elementCacheService.invalidate(VERTEX_CACHE_NAME, m.getId());
+            } else {
+                elementCacheService.invalidate(EDGE_CACHE_NAME, m.getId());
+            }
+        }
+        LOGGER.warn("save of %d element(s) failed, the search index may hold changes that were not written: %s", ids.size(), ids);
+    }
+
     private void _addMutations(String tableName, StoreMutation... mutations) {
+        PendingWrite write = currentWrite.get();
+        if (write != null) {
+            addMutationsToBatch(write, tableName, mutations);
+            return;
+        }
+
+        KVBulkLoad bulkLoad = this.bulkLoad;
+        if (bulkLoad != null) {
+            addMutationsToBatch(new PendingWrite(bulkLoad, false), tableName, mutations);
+            return;
+        }
+
+        beginWrite();
+        try (KVWriteBatch ownBatch = kvStore.writeBatch()) {
+            PendingWrite write = new PendingWrite(ownBatch, true);
+            addMutationsToBatch(write, tableName, mutations);
+            commit(write);
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void addMutationsToBatch(PendingWrite write, String tableName, StoreMutation... mutations) {
+        byte[] signalColumn = getSignalColumn(tableName);
+        boolean versioned = isVersionedTable(tableName);
         for (StoreMutation m : mutations) {
+            boolean putsSignal = false;
+            boolean deletesRow = false;
             List<StoreColumnUpdate> updates = m.getUpdates();
             for (int i = 0; i < updates.size(); i++) {
                 StoreColumnUpdate u = updates.get(i);
-                ByteBuffer key = KVKeyUtils.keyFromMutation(m, u.getColumnFamily(), u.getColumnQualifier(), u.getColumnVisibility());
+                byte[] key = KVKeyUtils.keyFromMutation(m, u.getColumnFamily(), u.getColumnQualifier(), u.getColumnVisibility()).array();
                 if (u.isDeleted()) {
-                    kvStore.delete(tableName, key.array());
+                    if (versioned) {
+                        // like an Accumulo delete, it removes the versions up to the delete timestamp
+                        long ts = u.getTimestamp() == 0L ? Long.MAX_VALUE : u.getTimestamp();
+                        write.batch.deleteRange(tableName, KVKeyUtils.versionedKey(key, ts), KVKeyUtils.prefixEnd(key));
+                    } else {
+                        write.batch.delete(tableName, key);
+                    }
                 } else {
                     long ts = u.getTimestamp() == 0L ? IncreasingTime.currentTimeMillis() : u.getTimestamp();
                     byte[] storeValue = new StoreValue(ts, u.getValue()).serialize();
-                    kvStore.put(tableName, key.array(), storeValue);
+                    write.batch.put(tableName, versioned ? KVKeyUtils.versionedKey(key, ts) : key, storeValue);
+
+                    if (signalColumn != null) {
+                        putsSignal |= Arrays.equals(signalColumn, u.getColumnFamily());
+                        deletesRow |= isDeleteRowMarker(u.getColumnFamily(), u.getColumnQualifier(), u.getValue());
+                    }
+                }
+            }
+
+            if (write.maintainRowCounts && (putsSignal || deletesRow)) {
+                String rowKey = tableName + KVKeyUtils.ID_VALUE_SEPARATOR + new String(m.getRow(), StandardCharsets.UTF_8);
+                RowChange change = write.rows.computeIfAbsent(rowKey, k -> new RowChange(tableName, signalColumn, m.getRow()));
+                change.putsSignal |= putsSignal;
+                change.deletesRow |= deletesRow;
+            }
+        }
+    }
+
+    /**
+     * Commits the write together with the row counter updates. The rows are counted against the committed data while
+     * their locks are held, so concurrent writers of the same row see each other's writes and count it once.
+     */
+    private void commit(PendingWrite write) {
+        if (write.rows.isEmpty()) {
+            write.batch.commit();
+            return;
+        }
+
+        // the stripes come in a fixed order, which keeps writers locking overlapping rows from deadlocking
+        List<Lock> locked = new ArrayList<>();
+        try {
+            for (Lock lock : rowLocks.bulkGet(write.rows.keySet())) {
+                lock.lock();
+                locked.add(lock);
+            }
+            for (RowChange change : write.rows.values()) {
+                updateRowCount(write.batch, change);
+            }
+            write.batch.commit();
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * A row is counted while it has a signal column and no delete row marker.
+     */
+    private void updateRowCount(KVWriteBatch batch, RowChange change) {
+        boolean signal = kvStore.containsPrefix(change.tableName, KVKeyUtils.columnPrefix(change.row, change.signalColumn));
+        boolean hasSignal = signal || change.putsSignal;
+        // without a signal column the row is not counted whatever its marker
+        boolean deleted = hasSignal && kvStore.containsPrefix(change.tableName,
+                KVKeyUtils.columnPrefix(change.row, DELETE_ROW_COLUMN_FAMILY, DELETE_ROW_COLUMN_QUALIFIER));
+
+        boolean counted = signal && !deleted;
+        boolean nowCounted = hasSignal && !(deleted || change.deletesRow);
+        if (counted != nowCounted) {
+            batch.increment(getCountersTableName(), rowCountKey(change.tableName), nowCounted ? 1L : -1L);
+        }
+    }
+
+    /**
+     * Routes all the writes to a bulk load until {@link #finishBulkLoad()}. The bulk loaded elements can't be read
+     * before the load is finished, so the loaded mutations must not depend on reading each other.
+     */
+    public synchronized void startBulkLoad() {
+        if (bulkLoad != null) {
+            throw new GeException("A bulk load is already in progress");
+        }
+        bulkLoad = kvStore.bulkLoad();
+        // the whole load counts as a single write, the saved elements are cached before they can be read
+        beginWrite();
+    }
+
+    /**
+     * Writes the bulk loaded data to the store and recomputes the row counters, which are not maintained during
+     * the load.
+     */
+    public synchronized void finishBulkLoad() {
+        KVBulkLoad load = bulkLoad;
+        if (load == null) {
+            throw new GeException("No bulk load in progress");
+        }
+
+        bulkLoad = null;
+        try {
+            try {
+                load.commit();
+            } finally {
+                load.close();
+            }
+
+            rebuildRowCounts();
+            if (cacheEnabled) {
+                elementCacheService.invalidate(VERTEX_CACHE_NAME);
+                elementCacheService.invalidate(EDGE_CACHE_NAME);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    public synchronized void abortBulkLoad() {
+        KVBulkLoad load = bulkLoad;
+        bulkLoad = null;
+        if (load != null) {
+            load.close();
+            endWrite();
+        }
+    }
+
+    /**
+     * Recomputes the row counters from the vertex and edge tables with a full scan. Used to initialize the counters
+     * of a database created before they were maintained, or to repair them. Writes running meanwhile may be missed.
+     */
+    public void rebuildRowCounts() {
+        try (KVWriteBatch batch = kvStore.writeBatch()) {
+            for (String tableName : Arrays.asList(getVerticesTableName(), getEdgesTableName())) {
+                byte[] counterKey = rowCountKey(tableName);
+                long count = countRows(tableName, getSignalColumn(tableName));
+                batch.increment(getCountersTableName(), counterKey, count - kvStore.getCounter(getCountersTableName(), counterKey));
+            }
+            if (!rowCountsInitialized) {
+                batch.increment(getCountersTableName(), COUNTERS_INITIALIZED_KEY, 1L);
+            }
+            batch.commit();
+        }
+        rowCountsInitialized = true;
+    }
+
+    private long countRows(String tableName, byte[] signalColumn) {
+        long count = 0;
+        try (ScanIterator iter = latestVersions(kvStore.scan(tableName), null)) {
+            StoreKey rowKey = null;
+            boolean signal = false;
+            boolean deleted = false;
+            while (iter.hasNext()) {
+                Pair<byte[], byte[]> pair = iter.next();
+                StoreKey key = KVKeyUtils.storeKey(pair.first());
+                if (rowKey == null || !rowKey.idEquals(key)) {
+                    if (signal && !deleted) {
+                        count++;
+                    }
+                    rowKey = key;
+                    signal = false;
+                    deleted = false;
+                }
+
+                if (key.cfEquals(signalColumn)) {
+                    signal = true;
+                } else if (key.cfEquals(DELETE_ROW_COLUMN_FAMILY) && key.cqEquals(DELETE_ROW_COLUMN_QUALIFIER)
+                        && StoreValue.deserialize(pair.other()).valueEquals(ElementMutationBuilder.DELETE_ROW_VALUE)) {
+                    deleted = true;
+                }
+            }
+            if (signal && !deleted) {
+                count++;
+            }
+        } catch (IOException ex) {
+            throw new GeException("Could not count the rows of " + tableName, ex);
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the versions past the retention of the graph, which the reads otherwise skip. It can run while the
+     * graph is in use, but is best followed by a compaction to actually reclaim the space.
+     */
+    public void pruneVersions() {
+        if (!isVersioned()) {
+            return;
+        }
 
+        int maxVersions = getMaxVersions();
+        long oldestTimestamp = getOldestVersionTimestamp();
+        for (String tableName : Arrays.asList(getVerticesTableName(), getEdgesTableName(), getExtendedDataTableName())) {
+            KVWriteBatch batch = kvStore.writeBatch();
+            try (ScanIterator iter = kvStore.scan(tableName)) {
+                byte[] column = null;
+                int versionIndex = 0;
+                while (iter.hasNext()) {
+                    byte[] key = iter.next().first();
+                    if (column == null || !KVKeyUtils.sameColumn(column, key)) {
+                        column = key;
+                        versionIndex = 0;
+                    } else {
+                        versionIndex++;
+                    }
+
+                    if (!VersionsScanIterator.isRetained(versionIndex, KVKeyUtils.keyVersion(key), maxVersions, oldestTimestamp)) {
+                        batch.delete(tableName, key);
+                        if (batch.size() >= PRUNE_BATCH_SIZE) {
+                            batch.commit();
+                            batch.close();
+                            batch = kvStore.writeBatch();
+                        }
+                    }
                 }
+                batch.commit();
+            } catch (IOException ex) {
+                throw new GeException("Could not prune the versions of " + tableName, ex);
+            } finally {
+                batch.close();
             }
         }
     }
 
+    /**
+     * The counters are maintained on write, so the count ignores the authorizations and includes hidden elements.
+     */
+    @Override
+    protected long getRowCountFromTable(String tableName, String signalColumn, Authorizations authorizations) {
+        if (!rowCountsInitialized) {
+            throw new GeException("The element counters are not initialized, run rebuildRowCounts() first");
+        }
+        return kvStore.getCounter(getCountersTableName(), rowCountKey(tableName));
+    }
+
+    private byte[] getSignalColumn(String tableName) {
+        if (tableName.equals(getVerticesTableName())) {
+            return VERTEX_SIGNAL_COLUMN;
+        } else if (tableName.equals(getEdgesTableName())) {
+            return EDGE_SIGNAL_COLUMN;
+        }
+        return null;
+    }
+
+    private static boolean isDeleteRowMarker(byte[] cf, byte[] cq, byte[] value) {
+        return Arrays.equals(DELETE_ROW_COLUMN_FAMILY, cf)
+                && Arrays.equals(DELETE_ROW_COLUMN_QUALIFIER, cq)
+                && Arrays.equals(ElementMutationBuilder.DELETE_ROW_VALUE, value);
+    }
+
+    private static byte[] rowCountKey(String tableName) {
+        return KVKeyUtils.encodeId(tableName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String getCountersTableName(String tableNamePrefix) {
+        return tableNamePrefix.concat("_c");
+    }
+
+    public String getCountersTableName() {
+        return getCountersTableName(getConfiguration().getTableNamePrefix());
+    }
+
+    public static String getPropertyIndexTableName(String tableNamePrefix) {
+        return tableNamePrefix.concat("_pi");
+    }
+
+    /**
+     * The table of the {@link KVSearchIndex} entries, created with the graph tables whichever search index is used.
+     */
+    public String getPropertyIndexTableName() {
+        return getPropertyIndexTableName(getConfiguration().getTableNamePrefix());
+    }
+
+    /**
+     * Adds the writes to the batch of the element mutations being saved, so they are committed together, or commits
+     * them in a batch of their own when no save is in progress.
+     */
+    public void writeWithPendingMutations(Consumer<KVWriteBatch> writes) {
+        PendingWrite write = currentWrite.get();
+        if (write != null) {
+            writes.accept(write.batch);
+            return;
+        }
+
+        KVBulkLoad bulkLoad = this.bulkLoad;
+        if (bulkLoad != null) {
+            writes.accept(bulkLoad);
+            return;
+        }
+
+        try (KVWriteBatch batch = kvStore.writeBatch()) {
+            writes.accept(batch);
+            batch.commit();
+        }
+    }
+
     @Override
     public void dumpGraph() {
         dumpTable(getVerticesTableName(), "VERTICES");
@@ -418,4 +1283,29 @@ public abstract class KVStoreGraph extends AbstractStorableGraph<StorableVertex,
     public KVStore getKvStore() {
         return kvStore;
     }
+
+    private static class PendingWrite {
+        private final KVWriteBatch batch;
+        private final boolean maintainRowCounts;
+        private final Map<String, RowChange> rows = new HashMap<>();
+
+        private PendingWrite(KVWriteBatch batch, boolean maintainRowCounts) {
+            this.batch = batch;
+            this.maintainRowCounts = maintainRowCounts;
+        }
+    }
+
+    private static class RowChange {
+        private final String tableName;
+        private final byte[] signalColumn;
+        private final byte[] row;
+        private boolean putsSignal;
+        private boolean deletesRow;
+
+        private RowChange(String tableName, byte[] signalColumn, byte[] row) {
+            this.tableName = tableName;
+            this.signalColumn = signalColumn;
+            this.row = row;
+        }
+    }
 }
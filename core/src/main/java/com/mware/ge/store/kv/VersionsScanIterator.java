@@ -0,0 +1,116 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.store.kv;
+
+import com.mware.ge.collection.Pair;
+import com.mware.ge.collection.PrefetchingIterator;
+
+import java.io.IOException;
+
+/**
+ * Reads a table whose keys carry a version, see {@link KVKeyUtils#versionedKey(byte[], long)}. The versions past the
+ * retention of the graph are skipped, then the ones newer than the end time. Either the newest remaining version of
+ * every column is returned, or all of them, newest first.
+ */
+public class VersionsScanIterator extends PrefetchingIterator<Pair<byte[], byte[]>> implements ScanIterator {
+    private final ScanIterator iter;
+    private final int maxVersions;
+    private final long oldestTimestamp;
+    private final Long endTime;
+    private final boolean latestOnly;
+    private byte[] column;
+    private int versionIndex;
+    private boolean columnDone;
+
+    /**
+     * @param maxVersions     the number of versions kept per column, 0 keeps them all
+     * @param oldestTimestamp the versions older than this are dropped, except the newest version of a column
+     * @param endTime         the versions newer than this are skipped, null to read up to now
+     */
+    public VersionsScanIterator(ScanIterator iter, int maxVersions, long oldestTimestamp, Long endTime, boolean latestOnly) {
+        this.iter = iter;
+        this.maxVersions = maxVersions;
+        this.oldestTimestamp = oldestTimestamp;
+        this.endTime = endTime;
+        this.latestOnly = latestOnly;
+    }
+
+    @Override
+    protected Pair<byte[], byte[]> fetchNextOrNull() {
+        while (iter.hasNext()) {
+            Pair<byte[], byte[]> pair = iter.next();
+            byte[] key = pair.first();
+            if (column == null || !KVKeyUtils.sameColumn(column, key)) {
+                column = key;
+                versionIndex = 0;
+                columnDone = false;
+            } else {
+                versionIndex++;
+            }
+
+            if (columnDone) {
+                continue;
+            }
+
+            long timestamp = KVKeyUtils.keyVersion(key);
+            if (!isRetained(versionIndex, timestamp, maxVersions, oldestTimestamp)) {
+                // the remaining versions are older still
+                columnDone = true;
+                continue;
+            }
+            if (endTime != null && timestamp > endTime) {
+                continue;
+            }
+
+            columnDone = latestOnly;
+            return pair;
+        }
+        return null;
+    }
+
+    static boolean isRetained(int versionIndex, long timestamp, int maxVersions, long oldestTimestamp) {
+        if (versionIndex == 0) {
+            return true;
+        }
+        return (maxVersions <= 0 || versionIndex < maxVersions) && timestamp >= oldestTimestamp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        iter.close();
+    }
+}
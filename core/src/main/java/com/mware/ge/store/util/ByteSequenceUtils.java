@@ -47,8 +47,19 @@ public class ByteSequenceUtils {
         if (byteSequence.length() != bytes.length) {
             return false;
         }
-        if (byteSequence.isBackedByArray() && byteSequence.offset() == 0) {
-            return Arrays.equals(bytes, byteSequence.getBackingArray());
+        if (byteSequence.isBackedByArray()) {
+            // the sequence can be a part of a larger backing array
+            byte[] data = byteSequence.getBackingArray();
+            int offset = byteSequence.offset();
+            if (offset == 0 && data.length == bytes.length) {
+                return Arrays.equals(bytes, data);
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (data[offset + i] != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
         }
 
         for (int i = 0; i < bytes.length; i++) {
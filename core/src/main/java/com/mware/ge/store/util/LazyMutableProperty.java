@@ -163,6 +163,14 @@ public class LazyMutableProperty extends MutableProperty {
         return cachedPropertyValue;
     }
 
+    /**
+     * The size of the serialized value, or -1 once the value has been deserialized.
+     */
+    public int getSerializedValueSize() {
+        byte[] bytes = propertyValue;
+        return bytes == null ? -1 : bytes.length;
+    }
+
     @Override
     public Visibility getVisibility() {
         return this.visibility;
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.tools;
+
+import com.mware.ge.*;
+import com.mware.ge.store.kv.KVStoreGraph;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Restores a backup into an empty KV store graph through a bulk load, which writes the data files of the store
+ * directly instead of going through its regular write path.
+ */
+public class GraphBulkRestore extends GraphRestore {
+    private final Set<String> skippedVertexIds = new HashSet<>();
+    private boolean bulkLoading;
+
+    public GraphBulkRestore() {
+    }
+
+    public GraphBulkRestore(String rootDir) {
+        super(rootDir);
+    }
+
+    public static void main(String[] args) throws Exception {
+        GraphBulkRestore graphBulkRestore = new GraphBulkRestore();
+        graphBulkRestore.run(args);
+    }
+
+    @Override
+    public long restore(Graph graph, InputStream in, Authorizations authorizations, long nrRestored) throws IOException {
+        if (bulkLoading) {
+            // next backup file of the same restore
+            return super.restore(graph, in, authorizations, nrRestored);
+        }
+        if (!(graph instanceof KVStoreGraph)) {
+            throw new GeException("Bulk restore is only supported for KV store graphs, found: " + graph.getClass().getName());
+        }
+
+        KVStoreGraph kvStoreGraph = (KVStoreGraph) graph;
+        kvStoreGraph.startBulkLoad();
+        bulkLoading = true;
+        try {
+            long restored = super.restore(graph, in, authorizations, nrRestored);
+            System.out.println("Ingesting " + restored + " elements");
+            kvStoreGraph.finishBulkLoad();
+            return restored;
+        } catch (IOException | RuntimeException ex) {
+            kvStoreGraph.abortBulkLoad();
+            throw ex;
+        } finally {
+            bulkLoading = false;
+        }
+    }
+
+    @Override
+    protected Element restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
+        Element vertex = super.restoreVertex(graph, json, authorizations);
+        if (vertex == null) {
+            skippedVertexIds.add(json.getString("id"));
+        }
+        return vertex;
+    }
+
+    /**
+     * The vertices are not readable during the bulk load, the edges are created from the vertex ids of the backup.
+     */
+    @Override
+    protected Element restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
+        String outVertexId = json.getString("outVertexId");
+        String inVertexId = json.getString("inVertexId");
+        if (skippedVertexIds.contains(outVertexId) || skippedVertexIds.contains(inVertexId)) {
+            throw new GeException("Edge " + json.getString("id") + " references a skipped vertex");
+        }
+
+        EdgeBuilderByVertexId e = graph.prepareEdge(json.getString("id"), outVertexId, inVertexId, json.getString("label"), jsonToVisibility(json));
+        jsonToProperties(json, e);
+        edges.increment();
+        return e.save(authorizations);
+    }
+}
@@ -36,7 +36,32 @@
  */
 package com.mware.ge.tools;
 
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.mware.ge.GeException;
+import com.mware.ge.Graph;
+import com.mware.ge.store.kv.KVGraphReindexer;
+import com.mware.ge.store.kv.KVStoreGraph;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Parameters(separators = "=")
 public class GraphReindex extends GraphToolBase {
+    @Parameter(names = {"--parallelism"}, description = "Number of id ranges reindexed concurrently")
+    private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    @Parameter(names = {"--ranges"}, description = "Maximum number of id ranges per table, each range is a checkpoint")
+    private int ranges = 1024;
+
+    @Parameter(names = {"--batchSize"}, description = "Number of elements sent to the search index at once")
+    private int batchSize = KVGraphReindexer.BATCH_SIZE_DEFAULT;
+
+    @Parameter(names = {"--resume"}, description = "Continue an interrupted reindex from its checkpoints, with the same --ranges")
+    private boolean resume = false;
+
+    @Parameter(names = {"--restart"}, description = "Discard the checkpoints of a previous reindex and start from scratch, the default without --resume")
+    private boolean restart = false;
+
     public static void main(String[] args) throws Exception {
         GraphReindex graphReindex = new GraphReindex();
         graphReindex.run(args);
@@ -45,9 +70,22 @@ public class GraphReindex extends GraphToolBase {
     protected void run(String[] args) throws Exception {
         super.run(args);
 
+        if (resume && restart) {
+            throw new GeException("--resume and --restart can not be used together");
+        }
+
         System.out.println("Starting reindex");
         long startTime = System.currentTimeMillis();
-        getGraph().reindex(getAuthorizations());
+        Graph graph = getGraph();
+        if (graph instanceof KVStoreGraph) {
+            KVGraphReindexer reindexer = new KVGraphReindexer((KVStoreGraph) graph, parallelism, ranges, batchSize);
+            reindexer.reindex(getAuthorizations(), resume);
+        } else {
+            if (resume) {
+                System.out.println("The graph does not support resuming a reindex, reindexing everything");
+            }
+            graph.reindex(getAuthorizations());
+        }
         long endTime = System.currentTimeMillis();
         System.out.println("Reindexing complete (" + (endTime - startTime) + "ms)");
     }
@@ -229,7 +229,7 @@ public class GraphRestore extends GraphToolBase {
         return new String(buffer.toByteArray());
     }
 
-    private Element restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
+    protected Element restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
         Visibility visibility = jsonToVisibility(json);
         String vertexId = json.getString("id");
         VertexBuilder v = graph.prepareVertex(vertexId, visibility, SchemaConstants.CONCEPT_TYPE_THING);
@@ -241,7 +241,7 @@ public class GraphRestore extends GraphToolBase {
         return v.save(authorizations);
     }
 
-    private Element restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
+    protected Element restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
         Visibility visibility = jsonToVisibility(json);
         String edgeId = json.getString("id");
         String outVertexId = json.getString("outVertexId");
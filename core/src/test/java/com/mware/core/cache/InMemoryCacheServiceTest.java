@@ -0,0 +1,93 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.core.cache;
+
+import com.mware.ge.metric.DropWizardMetricRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class InMemoryCacheServiceTest {
+    private final DropWizardMetricRegistry metricRegistry = new DropWizardMetricRegistry();
+    private final InMemoryCacheService cacheService = new InMemoryCacheService(metricRegistry);
+
+    @Test
+    public void countsHitsAndMisses() {
+        CacheOptions cacheOptions = new CacheOptions().setMaximumSize(10L);
+        cacheService.put("c1", "k1", "v1", cacheOptions);
+
+        assertEquals("v1", cacheService.getIfPresent("c1", "k1"));
+        assertNull(cacheService.getIfPresent("c1", "k2"));
+        cacheService.invalidate("c1", "k1");
+        assertNull(cacheService.getIfPresent("c1", "k1"));
+
+        assertEquals(1L, gaugeValue("c1", "hits"));
+        assertEquals(2L, gaugeValue("c1", "misses"));
+    }
+
+    @Test
+    public void evictsByWeight() {
+        CacheOptions cacheOptions = new CacheOptions()
+                .setMaximumWeight(100L)
+                .setWeigher(value -> 10);
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("c1", "k" + i, "v" + i, cacheOptions);
+        }
+
+        int present = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cacheService.getIfPresent("c1", "k" + i) != null) {
+                present++;
+            }
+        }
+        assertTrue(present < 100);
+        assertTrue(gaugeValue("c1", "evictions") > 0);
+    }
+
+    private long gaugeValue(String cacheName, String name) {
+        DropWizardMetricRegistry.Gauge<?> gauge = (DropWizardMetricRegistry.Gauge<?>) metricRegistry.getGauge(
+                metricRegistry.createName(InMemoryCacheService.class, cacheName, name),
+                null
+        );
+        return (Long) gauge.getGauge().getValue();
+    }
+}
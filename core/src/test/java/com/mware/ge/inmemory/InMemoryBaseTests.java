@@ -37,19 +37,21 @@
 package com.mware.ge.inmemory;
 
 import com.mware.core.model.schema.SchemaConstants;
-import com.mware.ge.GeTypeException;
-import com.mware.ge.GraphConfiguration;
-import com.mware.ge.Vertex;
+import com.mware.ge.*;
 import com.mware.ge.base.GraphBaseTests;
 import com.mware.ge.base.GraphTestSetup;
 import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.util.IncreasingTime;
 import com.mware.ge.values.storable.TextValue;
 import org.junit.Test;
 
 import java.util.Map;
 
+import static com.mware.core.model.schema.SchemaConstants.CONCEPT_TYPE_THING;
+import static com.mware.ge.util.GeAssert.assertIdsAnyOrder;
 import static com.mware.ge.values.storable.Values.stringValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class InMemoryBaseTests extends GraphBaseTests implements GraphTestSetup {
     @Override
@@ -75,4 +77,126 @@ public class InMemoryBaseTests extends GraphBaseTests implements GraphTestSetup
             assertEquals("StringWrappingStringValue", ex.getValueClass().getSimpleName());
         }
     }
+
+    @Test
+    public void testAdjacencyIndexAfterEdgeDelete() {
+        addEdgesForAdjacency();
+
+        getGraph().deleteEdge("e1", AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, null, AUTHORIZATIONS_A), "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v2", Direction.BOTH, null, AUTHORIZATIONS_A));
+
+        // the id can be reused for an edge between other vertices
+        getGraph().addEdge("e1", "v3", "v1", LABEL_LABEL3, VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().flush();
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, null, AUTHORIZATIONS_A), "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.IN, LABEL_LABEL3, AUTHORIZATIONS_A), "e1");
+        assertIdsAnyOrder(edgeIds("v3", Direction.BOTH, null, AUTHORIZATIONS_A), "e1", "e2");
+    }
+
+    @Test
+    public void testAdjacencyIndexAfterEdgeSoftDelete() {
+        addEdgesForAdjacency();
+        long beforeDeleteTime = IncreasingTime.currentTimeMillis();
+
+        getGraph().softDeleteEdge("e1", AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, null, AUTHORIZATIONS_A), "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v2", Direction.IN, null, AUTHORIZATIONS_A));
+
+        // soft deleted edges are still read in the past
+        Vertex v1 = getGraph().getVertex("v1", getGraph().getDefaultFetchHints(), beforeDeleteTime, AUTHORIZATIONS_A);
+        assertIdsAnyOrder(v1.getEdgeIds(Direction.OUT, AUTHORIZATIONS_A), "e1", "e2");
+        assertIdsAnyOrder(v1.getEdgeIds(Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A), "e1");
+    }
+
+    @Test
+    public void testAdjacencyIndexAfterEdgeAlterVisibility() {
+        addEdgesForAdjacency();
+
+        getGraph().getEdge("e1", AUTHORIZATIONS_A).prepareMutation()
+                .alterElementVisibility(VISIBILITY_B)
+                .save(AUTHORIZATIONS_A_AND_B);
+        getGraph().flush();
+
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, null, AUTHORIZATIONS_A), "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, null, AUTHORIZATIONS_A_AND_B), "e1", "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A_AND_B), "e1");
+        assertIdsAnyOrder(edgeIds("v2", Direction.IN, null, AUTHORIZATIONS_A_AND_B), "e1");
+    }
+
+    @Test
+    public void testAdjacencyIndexAfterEdgeLabelChange() {
+        addEdgesForAdjacency();
+
+        getGraph().getEdge("e1", AUTHORIZATIONS_A).prepareMutation()
+                .alterEdgeLabel(LABEL_LABEL2)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL2, AUTHORIZATIONS_A), "e1", "e2");
+        assertIdsAnyOrder(edgeIds("v2", Direction.IN, LABEL_LABEL2, AUTHORIZATIONS_A), "e1");
+    }
+
+    @Test
+    public void testAdjacencyIndexAfterVertexDelete() {
+        addEdgesForAdjacency();
+
+        getGraph().deleteVertex("v2", AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        assertNull(getGraph().getEdge("e1", AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v1", Direction.BOTH, null, AUTHORIZATIONS_A), "e2");
+        assertIdsAnyOrder(edgeIds("v1", Direction.OUT, LABEL_LABEL1, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v3", Direction.IN, null, AUTHORIZATIONS_A), "e2");
+
+        // a new vertex with the same id has no edges
+        getGraph().addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A, CONCEPT_TYPE_THING);
+        getGraph().flush();
+        assertIdsAnyOrder(edgeIds("v2", Direction.BOTH, null, AUTHORIZATIONS_A));
+    }
+
+    @Test
+    public void testAdjacencyIndexAfterEdgeEndpointChange() {
+        addEdgesForAdjacency();
+        long beforeChangeTime = IncreasingTime.currentTimeMillis();
+
+        getGraph().prepareEdge("e1", "v1", "v3", LABEL_LABEL1, VISIBILITY_A).save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        assertIdsAnyOrder(edgeIds("v2", Direction.IN, null, AUTHORIZATIONS_A));
+        assertIdsAnyOrder(edgeIds("v3", Direction.IN, null, AUTHORIZATIONS_A), "e1", "e2");
+
+        // reads in the past see the edge at its old endpoints
+        Vertex v2 = getGraph().getVertex("v2", getGraph().getDefaultFetchHints(), beforeChangeTime, AUTHORIZATIONS_A);
+        assertIdsAnyOrder(v2.getEdgeIds(Direction.IN, AUTHORIZATIONS_A), "e1");
+        assertIdsAnyOrder(v2.getEdgeIds(Direction.IN, LABEL_LABEL1, AUTHORIZATIONS_A), "e1");
+        assertEquals("v1", v2.getEdgeInfos(Direction.IN, AUTHORIZATIONS_A).iterator().next().getVertexId());
+        Vertex v3 = getGraph().getVertex("v3", getGraph().getDefaultFetchHints(), beforeChangeTime, AUTHORIZATIONS_A);
+        assertIdsAnyOrder(v3.getEdgeIds(Direction.IN, AUTHORIZATIONS_A), "e2");
+    }
+
+    // v1 -label1-> v2 (e1), v1 -label2-> v3 (e2)
+    private void addEdgesForAdjacency() {
+        getGraph().addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A, CONCEPT_TYPE_THING);
+        getGraph().addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A, CONCEPT_TYPE_THING);
+        getGraph().addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A, CONCEPT_TYPE_THING);
+        getGraph().addEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().addEdge("e2", "v1", "v3", LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A);
+        getGraph().flush();
+    }
+
+    private Iterable<String> edgeIds(String vertexId, Direction direction, String label, Authorizations authorizations) {
+        Vertex vertex = getGraph().getVertex(vertexId, authorizations);
+        return label == null
+                ? vertex.getEdgeIds(direction, authorizations)
+                : vertex.getEdgeIds(direction, label, authorizations);
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.inmemory;
+
+import com.mware.ge.*;
+import com.mware.ge.inmemory.mutations.AlterConceptTypeMutation;
+import com.mware.ge.inmemory.mutations.AlterVisibilityMutation;
+import com.mware.ge.inmemory.mutations.ElementTimestampMutation;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+
+import static com.mware.ge.util.IterableUtils.toList;
+import static com.mware.ge.values.storable.Values.stringValue;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class InMemoryTableElementTest {
+    private static final Authorizations AUTHORIZATIONS_EMPTY = new Authorizations();
+    private static final Authorizations AUTHORIZATIONS_A = new Authorizations("a");
+
+    private InMemoryTableVertex element;
+
+    @Before
+    public void before() {
+        element = new InMemoryTableVertex("v1");
+        element.addAll(
+                new ElementTimestampMutation(100L),
+                new AlterVisibilityMutation(100L, Visibility.EMPTY)
+        );
+    }
+
+    @Test
+    public void testOutOfOrderMutationsRebuildState() {
+        addValue("v-300", 300L);
+        addValue("v-200", 200L);
+
+        Property property = element.getProperty("k1", "prop1", Visibility.EMPTY, FetchHints.ALL, AUTHORIZATIONS_EMPTY);
+        assertEquals(stringValue("v-300"), property.getValue());
+        assertEquals(300L, property.getTimestamp());
+
+        element.addAll(new ElementTimestampMutation(50L));
+        assertEquals(100L, element.getTimestamp());
+        assertEquals(50L, element.getFirstTimestamp());
+
+        element.addAll(new AlterConceptTypeMutation(200L, "newer"), new AlterConceptTypeMutation(150L, "older"));
+        assertEquals("newer", element.findLastMutation(AlterConceptTypeMutation.class).getNewConceptType());
+    }
+
+    @Test
+    public void testGetPropertiesAtEndTime() {
+        addValue("v-200", 200L);
+        addValue("v-300", 300L);
+        element.appendSoftDeletePropertyMutation("k1", "prop1", Visibility.EMPTY, 400L);
+
+        assertEquals(0, propertiesAt(150L).size());
+        assertEquals(stringValue("v-200"), propertiesAt(250L).get(0).getValue());
+        assertEquals(stringValue("v-300"), propertiesAt(350L).get(0).getValue());
+        assertEquals(0, propertiesAt(450L).size());
+        assertEquals(0, propertiesAt(null).size());
+
+        addValue("v-500", 500L);
+        assertEquals(stringValue("v-300"), propertiesAt(350L).get(0).getValue());
+        assertEquals(stringValue("v-500"), propertiesAt(null).get(0).getValue());
+    }
+
+    @Test
+    public void testIsDeletedAtEndTime() {
+        element.appendSoftDeleteMutation(200L);
+        element.addAll(new ElementTimestampMutation(300L));
+
+        assertFalse(element.isDeleted(null, AUTHORIZATIONS_EMPTY));
+        assertTrue(element.isDeleted(50L, AUTHORIZATIONS_EMPTY));
+        assertFalse(element.isDeleted(150L, AUTHORIZATIONS_EMPTY));
+        assertTrue(element.isDeleted(250L, AUTHORIZATIONS_EMPTY));
+        assertFalse(element.isDeleted(350L, AUTHORIZATIONS_EMPTY));
+
+        element.appendSoftDeleteMutation(250L);
+        assertFalse(element.isDeleted(null, AUTHORIZATIONS_EMPTY));
+
+        element.appendSoftDeleteMutation(400L);
+        assertTrue(element.isDeleted(null, AUTHORIZATIONS_EMPTY));
+        assertFalse(element.isDeleted(350L, AUTHORIZATIONS_EMPTY));
+    }
+
+    @Test
+    public void testHiddenThenVisible() {
+        Visibility visibilityA = new Visibility("a");
+        element.appendMarkHiddenMutation(visibilityA);
+        assertTrue(element.isHidden(AUTHORIZATIONS_A));
+        assertFalse(element.isHidden(AUTHORIZATIONS_EMPTY));
+        assertTrue(element.getHiddenVisibilities().contains(visibilityA));
+
+        element.appendMarkVisibleMutation(visibilityA);
+        assertFalse(element.isHidden(AUTHORIZATIONS_A));
+        assertTrue(element.getHiddenVisibilities().isEmpty());
+    }
+
+    @Test
+    public void testHistoricalPropertyValues() {
+        addValue("v-200", 200L);
+        addValue("v-300", 300L);
+
+        List<HistoricalPropertyValue> values = toList(element.getHistoricalPropertyValues(
+                "k1", "prop1", Visibility.EMPTY, null, null, AUTHORIZATIONS_EMPTY));
+        assertEquals(2, values.size());
+        assertEquals(stringValue("v-300"), values.get(0).getValue());
+        assertEquals(300L, values.get(0).getTimestamp());
+        assertEquals(stringValue("v-200"), values.get(1).getValue());
+        assertEquals(200L, values.get(1).getTimestamp());
+
+        values = toList(element.getHistoricalPropertyValues(
+                "k1", "prop1", Visibility.EMPTY, 250L, null, AUTHORIZATIONS_EMPTY));
+        assertEquals(1, values.size());
+        assertEquals(stringValue("v-300"), values.get(0).getValue());
+
+        values = toList(element.getHistoricalPropertyValues(
+                "k1", "prop1", Visibility.EMPTY, null, 250L, AUTHORIZATIONS_EMPTY));
+        assertEquals(1, values.size());
+        assertEquals(stringValue("v-200"), values.get(0).getValue());
+    }
+
+    @Test
+    public void testAlterVisibility() {
+        Visibility visibilityB = new Visibility("b");
+        element.appendAlterVisibilityMutation(visibilityB);
+        assertEquals(visibilityB, element.getVisibility());
+
+        element.addAll(new AlterVisibilityMutation(50L, new Visibility("c")));
+        assertEquals(visibilityB, element.getVisibility());
+    }
+
+    private void addValue(String value, long timestamp) {
+        element.appendAddPropertyValueMutation("k1", "prop1", stringValue(value), Metadata.create(), Visibility.EMPTY, timestamp);
+    }
+
+    private List<Property> propertiesAt(Long endTime) {
+        return toList(element.getProperties(FetchHints.ALL, endTime, AUTHORIZATIONS_EMPTY));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.store.kv;
+
+import com.mware.ge.store.StoreKey;
+import com.mware.ge.store.StoreValue;
+import com.mware.ge.store.mutations.StoreMutation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KVKeyUtilsTest {
+    private static final byte[] CF = bytes("PROP");
+    private static final byte[] CQ = bytes("key\u001fname");
+    private static final byte[] VIS = bytes("a");
+
+    @Test
+    public void testStoreKeyRoundTrip() {
+        byte[] key = key("v\u00e9rtex1", CF, CQ, VIS);
+        StoreKey storeKey = KVKeyUtils.storeKey(key);
+
+        assertEquals("v\u00e9rtex1", storeKey.id());
+        assertEquals("PROP", storeKey.cf());
+        assertEquals("key\u001fname", storeKey.cq());
+        assertEquals("a", storeKey.visibilityString());
+        assertArrayEquals(VIS, storeKey.vis());
+        assertTrue(storeKey.cfEquals(CF));
+        assertFalse(storeKey.cfEquals(bytes("PRO")));
+        assertTrue(storeKey.cqEquals(CQ));
+        assertFalse(storeKey.cqEquals(bytes("key\u001fnamf")));
+    }
+
+    @Test
+    public void testStoreKeyPartsShareTheKeyArray() {
+        byte[] key = key("v1", CF, CQ, VIS);
+        StoreKey storeKey = KVKeyUtils.storeKey(key);
+
+        assertSame(key, storeKey.cqSequence().getBackingArray());
+        assertSame(key, storeKey.visSequence().getBackingArray());
+
+        // copies handed out must not write through to the key
+        byte[] vis = storeKey.vis();
+        assertNotSame(key, vis);
+        vis[0] = 'b';
+        assertEquals("a", storeKey.visibilityString());
+        assertArrayEquals(VIS, storeKey.vis());
+    }
+
+    @Test
+    public void testStoreKeyOfVersionedKey() {
+        byte[] key = KVKeyUtils.versionedKey(key("v1", CF, CQ, VIS), 1234L);
+        StoreKey storeKey = KVKeyUtils.storeKey(key);
+
+        assertEquals("v1", storeKey.id());
+        assertEquals("PROP", storeKey.cf());
+        assertEquals("key\u001fname", storeKey.cq());
+        assertArrayEquals(VIS, storeKey.vis());
+        assertEquals(1234L, KVKeyUtils.keyVersion(key));
+    }
+
+    @Test
+    public void testStoreKeyWithEmptyParts() {
+        byte[] empty = new byte[0];
+        StoreKey storeKey = KVKeyUtils.storeKey(key("v1", CF, empty, empty));
+
+        assertEquals("v1", storeKey.id());
+        assertEquals("", storeKey.cq());
+        assertTrue(storeKey.cqEquals(empty));
+        assertEquals("", storeKey.visibilityString());
+        assertEquals(0, storeKey.vis().length);
+    }
+
+    @Test
+    public void testIdEquals() {
+        StoreKey v1Prop = KVKeyUtils.storeKey(key("v1", CF, CQ, VIS));
+        StoreKey v1Other = KVKeyUtils.storeKey(key("v1", bytes("OTHER"), CQ, new byte[0]));
+        StoreKey v10 = KVKeyUtils.storeKey(key("v10", CF, CQ, VIS));
+
+        assertTrue(v1Prop.idEquals(v1Other));
+        assertFalse(v1Prop.idEquals(v10));
+        assertFalse(v10.idEquals(v1Prop));
+    }
+
+    @Test
+    public void testStoreValueRoundTrip() {
+        byte[] value = bytes("value");
+        byte[] serialized = new StoreValue(42L, value).serialize();
+        StoreValue storeValue = StoreValue.deserialize(serialized);
+
+        assertEquals(42L, storeValue.ts());
+        assertTrue(storeValue.valueEquals(value));
+        assertFalse(storeValue.valueEquals(bytes("valuf")));
+        assertFalse(storeValue.valueEquals(bytes("val")));
+        assertArrayEquals(value, storeValue.value());
+        assertArrayEquals(serialized, storeValue.serialize());
+
+        // the value is copied out of the serialized bytes
+        serialized[Long.BYTES] = 'X';
+        assertArrayEquals(value, storeValue.value());
+    }
+
+    @Test
+    public void testStoreValueWithEmptyValue() {
+        StoreValue storeValue = StoreValue.deserialize(new StoreValue(7L, new byte[0]).serialize());
+
+        assertEquals(7L, storeValue.ts());
+        assertEquals(0, storeValue.value().length);
+        assertTrue(storeValue.valueEquals(new byte[0]));
+    }
+
+    private static byte[] key(String row, byte[] cf, byte[] cq, byte[] vis) {
+        return KVKeyUtils.keyFromMutation(new StoreMutation(row), cf, cq, vis).array();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.ge;
+
+import com.mware.ge.ElementId;
+import com.mware.ge.collection.Pair;
+import com.mware.ge.cypher.query.StatisticProvider;
+import com.mware.ge.values.storable.Value;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Least recently used cache of the stored properties of the elements read by one query. It only holds the state
+ * read from the graph; the pending mutations of the query are applied on top of it by the caller, so it has to be
+ * invalidated only when the stored state changes (commit, delete).
+ * <p>
+ * Hits and misses are exposed as page cache statistics so that they show up in the PROFILE output. They are also
+ * counted per thread, to charge them to the operator running on the thread when operators run in parallel.
+ */
+public class ElementPropertyCache implements StatisticProvider {
+    private final int maxSize;
+    private final Map<ElementId, CachedProperties> elements;
+    private final ThreadLocal<long[]> threadCounts = ThreadLocal.withInitial(() -> new long[2]);
+    private long hits;
+    private long misses;
+    // incremented by every invalidation, a load that started before one is not cached
+    private long generation;
+
+    public ElementPropertyCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.elements = new LinkedHashMap<ElementId, CachedProperties>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ElementId, CachedProperties> eldest) {
+                return size() > ElementPropertyCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached properties of the element or loads them with {@code loader} on a miss. A null result of the
+     * loader is not cached. The loader runs outside of the lock, so threads missing the same element may load it
+     * concurrently; the first loaded properties are kept.
+     */
+    public CachedProperties get(ElementId elementId, Function<ElementId, CachedProperties> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedProperties properties = elements.get(elementId);
+            if (properties != null) {
+                hits++;
+                threadCounts.get()[0]++;
+                return properties;
+            }
+            misses++;
+            threadCounts.get()[1]++;
+            loadGeneration = generation;
+        }
+
+        CachedProperties properties = loader.apply(elementId);
+        if (properties == null || maxSize <= 0) {
+            return properties;
+        }
+        synchronized (this) {
+            if (loadGeneration != generation) {
+                return properties;
+            }
+            CachedProperties existing = elements.putIfAbsent(elementId, properties);
+            return existing == null ? properties : existing;
+        }
+    }
+
+    public synchronized void invalidate(ElementId elementId) {
+        generation++;
+        elements.remove(elementId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        elements.clear();
+    }
+
+    @Override
+    public synchronized long getPageCacheHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getPageCacheMisses() {
+        return misses;
+    }
+
+    @Override
+    public long getThreadPageCacheHits() {
+        return threadCounts.get()[0];
+    }
+
+    @Override
+    public long getThreadPageCacheMisses() {
+        return threadCounts.get()[1];
+    }
+
+    public static class CachedProperties {
+        private final Map<Pair<String, String>, Value> properties;
+        private final Map<String, Value> defaultKeyProperties;
+
+        public CachedProperties(Map<Pair<String, String>, Value> properties) {
+            this.properties = Collections.unmodifiableMap(properties);
+            Map<String, Value> defaultKeyProperties = new HashMap<>();
+            properties.forEach((propId, value) -> {
+                if (propId.first() == null || propId.first().isEmpty()) {
+                    defaultKeyProperties.put(propId.other(), value);
+                }
+            });
+            this.defaultKeyProperties = Collections.unmodifiableMap(defaultKeyProperties);
+        }
+
+        /**
+         * @return all stored properties by (key, name)
+         */
+        public Map<Pair<String, String>, Value> getProperties() {
+            return properties;
+        }
+
+        /**
+         * @return the stored properties with an empty key, by name
+         */
+        public Map<String, Value> getDefaultKeyProperties() {
+            return defaultKeyProperties;
+        }
+    }
+}
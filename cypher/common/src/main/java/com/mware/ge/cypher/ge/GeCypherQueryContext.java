@@ -63,6 +63,7 @@ import com.mware.ge.cypher.procedure.impl.QualifiedName;
 import com.mware.ge.cypher.query.ClientConnectionInfo;
 import com.mware.ge.cypher.query.ExecutingQuery;
 import com.mware.ge.cypher.query.KernelStatement;
+import com.mware.ge.cypher.query.StatisticProvider;
 import com.mware.ge.cypher.schema.IndexDescriptorFactory;
 import com.mware.ge.cypher.schema.SchemaDescriptor;
 import com.mware.ge.cypher.schema.SchemaDescriptorFactory;
@@ -76,6 +77,8 @@ import com.mware.ge.io.ResourceTracker;
 import com.mware.ge.mutation.*;
 import com.mware.ge.query.QueryResultsIterable;
 import com.mware.ge.search.IndexHint;
+import com.mware.ge.store.kv.KVSnapshot;
+import com.mware.ge.store.kv.KVStoreGraph;
 import com.mware.ge.util.ConvertingIterable;
 import com.mware.ge.search.IndexHint;
 import com.mware.ge.util.IterableUtils;
@@ -96,6 +99,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -131,6 +136,11 @@ public class GeCypherQueryContext {
 
     private final Map<String, ElementMutation<? extends Element>> elementBuilders = new HashMap<>();
     private final List<ElementId> deletedElements = new ArrayList<>();
+    private final Map<String, String> deletedVertexConceptTypes = new HashMap<>();
+    private final Map<String, String> deletedEdgeLabels = new HashMap<>();
+    private final GeStatisticsHolder statistics;
+    private final ElementPropertyCache elementCache;
+    private volatile KVSnapshot snapshot;
 
     public GeCypherQueryContext(
             String query,
@@ -141,7 +151,9 @@ public class GeCypherQueryContext {
             Procedures procedures,
             DependencyResolver dependencyResolver,
             WorkQueueRepository workQueueRepository,
-            String workspaceId
+            String workspaceId,
+            int elementCacheSize,
+            GeStatisticsHolder statistics
     ) {
         this.query = query;
         this.params = params;
@@ -165,12 +177,18 @@ public class GeCypherQueryContext {
         this.propertiesByName.putAll(this.schema.getPropertiesByName());
         this.esShards = graph.getSearchIndex().getNumShards();
         this.executor = Executors.newFixedThreadPool(QUERY_THREADPOOL_SIZE);
+        this.elementCache = new ElementPropertyCache(elementCacheSize);
+        this.statistics = statistics;
     }
 
     public GraphWithSearchIndex getGraph() {
         return graph;
     }
 
+    public GeStatisticsHolder getStatistics() {
+        return statistics;
+    }
+
     public Authorizations getAuthorizations() {
         return authorizations;
     }
@@ -211,6 +229,10 @@ public class GeCypherQueryContext {
         throw new UnsupportedOperationException("not implemented");
     }
 
+    public StatisticProvider getElementCacheStatistics() {
+        return elementCache;
+    }
+
     public ExecutingQuery executingQuery() {
         return this.executingQuery;
     }
@@ -223,10 +245,62 @@ public class GeCypherQueryContext {
         return userMetaData;
     }
 
+    /**
+     * Takes a snapshot of the store when the graph supports it, so that all the reads of the query see the same state
+     * of the graph even while other clients write to it. The reads done through {@link #readInSnapshot(Supplier)} use
+     * it, whichever thread consumes the result, until {@link #releaseSnapshot()}.
+     */
+    public void takeSnapshot() {
+        if (snapshot == null && graph instanceof KVStoreGraph) {
+            snapshot = ((KVStoreGraph) graph).createSnapshot();
+        }
+    }
+
+    /**
+     * Releases the snapshot once the result of the query is closed. Later reads see the live store.
+     */
+    public synchronized void releaseSnapshot() {
+        KVSnapshot snapshot = this.snapshot;
+        this.snapshot = null;
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    /**
+     * Runs the reader with the snapshot of the query pinned to the current thread, if there is one.
+     */
+    public <T> T readInSnapshot(Supplier<T> reader) {
+        KVSnapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            return reader.get();
+        }
+        return ((KVStoreGraph) graph).readInSnapshot(snapshot, reader);
+    }
+
     public void commit() {
         final Collection<ElementMutation<? extends Element>> values = elementBuilders.values();
         LOGGER.debug("Committing transaction");
 
+        // the deleted elements that were not in hand when they were deleted are read once, before they are gone
+        List<String> unknownVertexIds = deletedElements.stream()
+                .filter(e -> ElementType.VERTEX.equals(e.getElementType()))
+                .map(ElementId::getId)
+                .filter(id -> !deletedVertexConceptTypes.containsKey(id))
+                .collect(Collectors.toList());
+        if (!unknownVertexIds.isEmpty()) {
+            graph.getVertices(unknownVertexIds, FetchHints.EDGE_REFS, authorizations).forEach(this::vertexDeleted);
+        }
+        List<String> unknownEdgeIds = deletedElements.stream()
+                .filter(e -> ElementType.EDGE.equals(e.getElementType()))
+                .map(ElementId::getId)
+                .filter(id -> !deletedEdgeLabels.containsKey(id))
+                .collect(Collectors.toList());
+        if (!unknownEdgeIds.isEmpty()) {
+            graph.getEdges(unknownEdgeIds, FetchHints.NONE, authorizations)
+                    .forEach(e -> deletedEdgeLabels.put(e.getId(), e.getLabel()));
+        }
+
         graph.deleteElements(deletedElements.stream(), authorizations);
         Iterable<Element> elements = graph.saveElementMutations(values, authorizations);
 
@@ -256,31 +330,102 @@ public class GeCypherQueryContext {
             }
         }
 
-        Optional<ElementMutation<? extends Element>> aVertexMutation = values.parallelStream().filter(m -> ElementType.VERTEX.equals(m.getElementType())).findFirst();
-        if (aVertexMutation.isPresent()) {
-            GeStatisticsHolder.nodeByLabelCount.invalidateAll();
-            GeStatisticsHolder.nodeAllCount.invalidateAll();
-            GeStatisticsHolder.nodesByPropertiesCount.invalidateAll();
-            GeStatisticsHolder.nodesByPropertiesDinctinctCount.invalidateAll();
-        }
-
-        Optional<ElementMutation<? extends Element>> aEdgeMutation = values.parallelStream().filter(m -> ElementType.EDGE.equals(m.getElementType())).findAny();
-        if (aEdgeMutation.isPresent()) {
-            GeStatisticsHolder.relByLabelCount.invalidateAll();
-        }
+        updateStatistics(values, deletedVertexConceptTypes.values(), deletedEdgeLabels.values());
 
         elementBuilders.clear();
         deletedElements.clear();
+        deletedVertexConceptTypes.clear();
+        deletedEdgeLabels.clear();
+        elementCache.invalidateAll();
 
         graph.flush();
     }
 
+    /**
+     * Applies the committed mutations to the planner statistics. Counts that can be derived from the mutations are
+     * adjusted, the ones that can't are invalidated and will be reloaded when needed.
+     */
+    private void updateStatistics(
+            Collection<ElementMutation<? extends Element>> mutations,
+            Collection<String> deletedVertexConceptTypes,
+            Collection<String> deletedEdgeLabels
+    ) {
+        for (String conceptType : deletedVertexConceptTypes) {
+            vertexAdded(conceptType, -1);
+            invalidatePropertyCounts(conceptType);
+        }
+        for (String edgeLabel : deletedEdgeLabels) {
+            edgeAdded(edgeLabel, -1);
+        }
+
+        for (ElementMutation<? extends Element> mutation : mutations) {
+            if (mutation instanceof VertexMutation) {
+                VertexMutation vertexMutation = (VertexMutation) mutation;
+                if (!(mutation instanceof ExistingElementMutation)) {
+                    String conceptType = vertexMutation.getConceptType();
+                    vertexAdded(conceptType, 1);
+                    Set<String> propertyNames = new HashSet<>();
+                    mutation.getProperties().forEach(p -> propertyNames.add(p.getName()));
+                    propertyNames.forEach(name ->
+                            statistics.nodesByPropertiesCount.add(GeStatisticsHolder.propertyKey(conceptType, name), 1));
+                } else {
+                    String oldConceptType = ((ExistingElementMutation<Vertex>) mutation).getElement().getConceptType();
+                    String newConceptType = vertexMutation.getNewConceptType();
+                    if (newConceptType != null && !newConceptType.equals(oldConceptType)) {
+                        statistics.nodeByLabelCount.add(oldConceptType, -1);
+                        statistics.nodeByLabelCount.add(newConceptType, 1);
+                        invalidatePropertyCounts(oldConceptType);
+                        invalidatePropertyCounts(newConceptType);
+                    } else {
+                        invalidatePropertyCounts(oldConceptType, mutation);
+                    }
+                }
+            } else if (mutation instanceof EdgeMutation) {
+                EdgeMutation edgeMutation = (EdgeMutation) mutation;
+                if (!(mutation instanceof ExistingElementMutation)) {
+                    edgeAdded(edgeMutation.getEdgeLabel(), 1);
+                } else if (edgeMutation.getNewEdgeLabel() != null) {
+                    edgeAdded(((ExistingElementMutation<Edge>) mutation).getElement().getLabel(), -1);
+                    edgeAdded(edgeMutation.getNewEdgeLabel(), 1);
+                }
+            }
+        }
+    }
+
+    private void vertexAdded(String conceptType, long delta) {
+        statistics.nodeAllCount.add("", delta);
+        statistics.nodeByLabelCount.add(conceptType, delta);
+    }
+
+    private void edgeAdded(String edgeLabel, long delta) {
+        statistics.relByLabelCount.add(GeStatisticsHolder.relationshipKey(null, null, null), delta);
+        statistics.relByLabelCount.add(GeStatisticsHolder.relationshipKey(null, edgeLabel, null), delta);
+        // the concept types of the edge endpoints are not known here
+        statistics.relByLabelCount.invalidateIf(key -> {
+            String[] parts = key.split("\\|", -1);
+            return (!parts[0].isEmpty() || !parts[2].isEmpty()) && (parts[1].isEmpty() || parts[1].equals(edgeLabel));
+        });
+    }
+
+    private void invalidatePropertyCounts(String conceptType) {
+        statistics.invalidatePropertyCounts(conceptType, null);
+    }
+
+    private void invalidatePropertyCounts(String conceptType, ElementMutation<? extends Element> mutation) {
+        Set<String> propertyNames = new HashSet<>();
+        mutation.getProperties().forEach(p -> propertyNames.add(p.getName()));
+        mutation.getPropertyDeletes().forEach(p -> propertyNames.add(p.getName()));
+        mutation.getPropertySoftDeletes().forEach(p -> propertyNames.add(p.getName()));
+        for (String propertyName : propertyNames) {
+            statistics.invalidatePropertyCounts(conceptType, propertyName);
+        }
+    }
+
     /**
      * Returns the property map for an element, considering its mutations
      * Note: Only properties with an empty key will be considered
      */
     public Map<String, Value> getElementProperties(String elementId, ElementType elementType) {
-        Map<String, Value> result = new HashMap<>();
         Set<Pair<String, String>> propsBeingDeleted = new HashSet<>();
         Map<Pair<String, String>, Value> propsBeingChanged = new HashMap<>();
 
@@ -288,6 +433,7 @@ public class GeCypherQueryContext {
             ElementMutation mutation = elementBuilders.get(elementId);
             if (!(mutation instanceof ExistingElementMutation)) {
                 // tis is a new element
+                Map<String, Value> result = new HashMap<>();
                 mutation.getProperties().forEach(p -> {
                     Property prop = (Property) p;
                     if (StringUtils.isEmpty(prop.getKey())) {
@@ -307,24 +453,28 @@ public class GeCypherQueryContext {
         }
 
         // get the original element as well
-        Element e = graph.getElement(ElementId.create(elementType, elementId), FetchHints.PROPERTIES, authorizations);
-        if (e == null)
+        ElementPropertyCache.CachedProperties stored = elementCache.get(ElementId.create(elementType, elementId), this::loadElementProperties);
+        if (stored == null)
             throw new EntityNotFoundException(ElementType.VERTEX, elementId);
 
+        if (propsBeingDeleted.isEmpty() && propsBeingChanged.isEmpty()) {
+            return new HashMap<>(stored.getDefaultKeyProperties());
+        }
+
         Map<Pair<String, String>, Value> finalProps = new HashMap<>(propsBeingChanged);
 
-        for (Property p : e.getProperties()) {
-            Pair<String, String> propId = pair(p.getKey(), p.getName());
+        stored.getProperties().forEach((propId, value) -> {
             // remove deleted & soft deleted props
             if (propsBeingDeleted.contains(propId))
-                continue;
+                return;
 
             if (!propsBeingChanged.containsKey(propId)) {
                 // it's not deleted or changed, so add the original property
-                finalProps.put(propId, p.getValue());
+                finalProps.put(propId, value);
             }
-        }
+        });
 
+        Map<String, Value> result = new HashMap<>();
         finalProps.forEach((propId, value) -> {
             if (StringUtils.isEmpty(propId.first())) {
                 result.put(propId.other(), value);
@@ -334,6 +484,18 @@ public class GeCypherQueryContext {
         return result;
     }
 
+    private ElementPropertyCache.CachedProperties loadElementProperties(ElementId elementId) {
+        Element e = graph.getElement(elementId, FetchHints.PROPERTIES, authorizations);
+        if (e == null)
+            return null;
+
+        Map<Pair<String, String>, Value> properties = new HashMap<>();
+        for (Property p : e.getProperties()) {
+            properties.put(pair(p.getKey(), p.getName()), p.getValue());
+        }
+        return new ElementPropertyCache.CachedProperties(properties);
+    }
+
     public void setConceptType(String vertexId, String conceptType) {
         if (elementBuilders.containsKey(vertexId)) {
             VertexMutation vm = (VertexMutation) elementBuilders.get(vertexId);
@@ -411,10 +573,29 @@ public class GeCypherQueryContext {
     }
 
     public void deleteElement(String elementId, ElementType elementType) {
-        if (elementBuilders.containsKey(elementId)) {
-            elementBuilders.remove(elementId);
-        } else {
+        elementCache.invalidate(ElementId.create(elementType, elementId));
+        ElementMutation<? extends Element> mutation = elementBuilders.remove(elementId);
+        if (mutation == null) {
+            deletedElements.add(ElementId.create(elementType, elementId));
+        } else if (mutation instanceof ExistingElementMutation) {
+            // a stored element with pending changes, it still has to be deleted
             deletedElements.add(ElementId.create(elementType, elementId));
+            Element element = ((ExistingElementMutation<? extends Element>) mutation).getElement();
+            if (element instanceof Edge) {
+                deletedEdgeLabels.put(elementId, ((Edge) element).getLabel());
+            } else if (element instanceof Vertex && element.getFetchHints().isIncludeAllEdgeRefs()) {
+                vertexDeleted((Vertex) element);
+            }
+        }
+    }
+
+    /**
+     * Records what the statistics need to know about a deleted vertex. Deleting a vertex deletes its edges too.
+     */
+    private void vertexDeleted(Vertex vertex) {
+        deletedVertexConceptTypes.put(vertex.getId(), vertex.getConceptType());
+        for (EdgeInfo edgeInfo : vertex.getEdgeInfos(Direction.BOTH, authorizations)) {
+            deletedEdgeLabels.put(edgeInfo.getEdgeId(), edgeInfo.getLabel());
         }
     }
 
@@ -537,6 +718,13 @@ public class GeCypherQueryContext {
         return mutation;
     }
 
+    /**
+     * @return true if the vertex was created, changed or deleted in this query and the persisted state is stale
+     */
+    public boolean hasPendingChanges(String vertexId) {
+        return elementBuilders.containsKey(vertexId) || deletedElements.contains(ElementId.create(ElementType.VERTEX, vertexId));
+    }
+
     public NodeValue getVertexById(String id, boolean throwException) {
         if (deletedElements.contains(ElementId.create(ElementType.VERTEX, id)))
             return null;
@@ -555,6 +743,36 @@ public class GeCypherQueryContext {
         }
     }
 
+    /**
+     * Like {@link #getVertexById(String, boolean)} with throwException set, for several ids at once. The vertices
+     * that are neither pending nor deleted are checked with a single read. The result follows the order of the ids.
+     */
+    public List<NodeValue> getVerticesById(List<String> ids) {
+        List<String> stored = new ArrayList<>();
+        for (String id : ids) {
+            if (!deletedElements.contains(ElementId.create(ElementType.VERTEX, id)) && !elementBuilders.containsKey(id)) {
+                stored.add(id);
+            }
+        }
+        Map<String, Boolean> exists = stored.isEmpty()
+                ? Collections.emptyMap()
+                : graph.doVerticesExist(stored, authorizations);
+
+        List<NodeValue> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (deletedElements.contains(ElementId.create(ElementType.VERTEX, id))) {
+                results.add(null);
+            } else if (elementBuilders.containsKey(id)) {
+                results.add(new GeVertexMutationWrappingNodeValue((VertexMutation) elementBuilders.get(id), this));
+            } else if (exists.getOrDefault(id, false)) {
+                results.add(new GeVertexWrappingNodeValue(id, graph, authorizations));
+            } else {
+                throw new EntityNotFoundException(ElementType.VERTEX, id);
+            }
+        }
+        return results;
+    }
+
     public RelationshipValue getEdgeById(String id, boolean throwException) {
         if (deletedElements.contains(ElementId.create(ElementType.VERTEX, id)))
             return null;
@@ -628,7 +846,7 @@ public class GeCypherQueryContext {
                     edgesStream
                             .collect(StreamUtil.unorderedBatches(100, Collectors.toList()))
                             .parallelStream()
-                            .map(batch -> graph.getEdges(batch, FetchHints.PROPERTIES, authorizations))
+                            .map(batch -> readInSnapshot(() -> graph.getEdges(batch, FetchHints.PROPERTIES, authorizations)))
                             .flatMap(StreamUtils::stream)
                             .map(e -> new GeEdgeWrappingValue(e, this))
                             .collect(Collectors.toList())
@@ -638,6 +856,105 @@ public class GeCypherQueryContext {
         return edgesCreated.iterator();
     }
 
+    /**
+     * Bulk variant of {@link #getEdgesForVertex(String, Direction, Optional)}: loads the vertices, their edges and the
+     * vertices on the other side of those edges with one multi-get each. Returns the edges keyed by the requested
+     * vertex id, every requested id has an entry.
+     */
+    public Map<String, List<RelationshipValue>> getEdgesForVertices(Collection<String> vertexIds, Direction direction, Optional<String[]> edgeLabels) {
+        return getEdgesForVertices(vertexIds, direction, edgeLabels, true);
+    }
+
+    /**
+     * Like {@link #getEdgesForVertices(Collection, Direction, Optional)}, the vertices on the other side of the edges
+     * are only read up front when loadOtherVertices is set, otherwise they are loaded when first used. With
+     * {@link Direction#BOTH} a self-loop is returned once.
+     */
+    public Map<String, List<RelationshipValue>> getEdgesForVertices(Collection<String> vertexIds, Direction direction, Optional<String[]> edgeLabels, boolean loadOtherVertices) {
+        Map<String, List<RelationshipValue>> results = new HashMap<>();
+        for (String vertexId : vertexIds) {
+            results.put(vertexId, new ArrayList<>());
+        }
+        boolean filterLabels = edgeLabels.isPresent() && edgeLabels.get().length > 0;
+
+        // search mutations for a relationship
+        for (ElementMutation<? extends Element> mutation : elementBuilders.values()) {
+            if (!(mutation instanceof EdgeBuilderBase)) {
+                continue;
+            }
+            EdgeBuilderBase ebb = (EdgeBuilderBase) mutation;
+            if (filterLabels && !ArrayUtils.contains(edgeLabels.get(), ebb.hasChanges() ? ebb.getNewEdgeLabel() : ebb.getEdgeLabel())) {
+                continue;
+            }
+            for (Direction d : direction == Direction.BOTH ? new Direction[]{Direction.OUT, Direction.IN} : new Direction[]{direction}) {
+                if (d == Direction.IN && direction == Direction.BOTH && ebb.getVertexId(Direction.IN).equals(ebb.getVertexId(Direction.OUT))) {
+                    continue;
+                }
+                List<RelationshipValue> edges = results.get(ebb.getVertexId(d));
+                if (edges != null) {
+                    edges.add(new GeEdgeBuilderWrappingValue(ebb, this));
+                }
+            }
+        }
+
+        List<Vertex> vertices = readInSnapshot(() -> IterableUtils.toList(graph.getVertices(vertexIds, FetchHints.EDGE_REFS, authorizations)));
+        Map<String, List<String>> edgeIdsByVertexId = new HashMap<>();
+        Set<String> allEdgeIds = new LinkedHashSet<>();
+        for (Vertex v : vertices) {
+            Iterable<String> edgeIds = edgeLabels.isPresent()
+                    ? v.getEdgeIds(direction, edgeLabels.get(), authorizations)
+                    : v.getEdgeIds(direction, authorizations);
+            // both directions list a self-loop
+            List<String> ids = direction == Direction.BOTH
+                    ? new ArrayList<>(new LinkedHashSet<>(IterableUtils.toList(edgeIds)))
+                    : IterableUtils.toList(edgeIds);
+            edgeIdsByVertexId.put(v.getId(), ids);
+            allEdgeIds.addAll(ids);
+        }
+        if (allEdgeIds.isEmpty()) {
+            return results;
+        }
+
+        Map<String, Edge> edgesById = allEdgeIds.stream()
+                .collect(StreamUtil.unorderedBatches(100, Collectors.toList()))
+                .parallelStream()
+                .map(batch -> readInSnapshot(() -> graph.getEdges(batch, FetchHints.PROPERTIES, authorizations)))
+                .flatMap(StreamUtils::stream)
+                .collect(Collectors.toMap(Element::getId, e -> e, (e1, e2) -> e1));
+
+        Map<String, NodeValue> otherVertices = new HashMap<>();
+        if (loadOtherVertices) {
+            Set<String> otherVertexIds = new HashSet<>();
+            edgeIdsByVertexId.forEach((vertexId, edgeIds) -> {
+                for (String edgeId : edgeIds) {
+                    Edge edge = edgesById.get(edgeId);
+                    if (edge != null) {
+                        otherVertexIds.add(edge.getOtherVertexId(vertexId));
+                    }
+                }
+            });
+            for (Vertex v : readInSnapshot(() -> IterableUtils.toList(graph.getVertices(otherVertexIds, FetchHints.PROPERTIES, authorizations)))) {
+                GeVertexWrappingNodeValue node = new GeVertexWrappingNodeValue(v.getId(), graph, authorizations);
+                node.setGraphElement(v);
+                otherVertices.put(v.getId(), node);
+            }
+        }
+
+        edgeIdsByVertexId.forEach((vertexId, edgeIds) -> {
+            List<RelationshipValue> edges = results.get(vertexId);
+            for (String edgeId : edgeIds) {
+                Edge edge = edgesById.get(edgeId);
+                if (edge == null) {
+                    continue;
+                }
+                NodeValue other = otherVertices.get(edge.getOtherVertexId(vertexId));
+                boolean otherIsStart = !vertexId.equals(edge.getVertexId(Direction.OUT));
+                edges.add(new GeEdgeWrappingValue(edge, otherIsStart ? other : null, otherIsStart ? null : other, this));
+            }
+        });
+        return results;
+    }
+
     public Iterator<NodeValue> getVertices() {
         return Iterators.map(vertexId -> {
             if (elementBuilders.containsKey(vertexId))
@@ -648,12 +965,11 @@ public class GeCypherQueryContext {
     }
 
     public Iterable<NodeValue> getVertices(List<String> ids) {
-        return Iterables.map(vertex -> {
-            if (elementBuilders.containsKey(vertex.getId()))
-                return new GeVertexMutationWrappingNodeValue((VertexMutation) elementBuilders.get(vertex.getId()), GeCypherQueryContext.this);
-            else
-                return new GeVertexWrappingNodeValue(vertex);
-        }, graph.getVertices(ids, FetchHints.ALL, authorizations));
+        return getVertices(ids, FetchHints.ALL);
+    }
+
+    private Iterable<NodeValue> getVertices(List<String> ids, FetchHints fetchHints) {
+        return Iterables.map(this::toNodeValue, graph.getVertices(ids, fetchHints, authorizations));
     }
 
     public Iterator<RelationshipValue> getEdges() {
@@ -731,43 +1047,130 @@ public class GeCypherQueryContext {
         final List<Future<List<NodeValue>>> futures = new ArrayList<>();
         final List<NodeValue> result = new ArrayList<>();
 
+        for (VertexScanPartition partition : getVertexScanPartitions(conceptType, esShards)) {
+            futures.add(executor.submit(() -> partition.scan(vertices -> IterableUtils.toList(vertices))));
+        }
+
+        futures.forEach(f -> {
+            try {
+                result.addAll(f.get());
+            } catch (InterruptedException | ExecutionException ex) {
+                throw new GeException("Interrupted while loading data", ex);
+            }
+        });
+
+        return result;
+    }
+
+    public List<VertexScanPartition> getVertexScanPartitions(String conceptType, int maxPartitions) {
+        return getVertexScanPartitions(conceptType, maxPartitions, FetchHints.ALL);
+    }
+
+    /**
+     * Splits a scan of the vertices into partitions that can be consumed concurrently, from different threads.
+     * A scan of all the vertices is split into id ranges of the store, a scan of the vertices with a concept type
+     * into the shards of the search index plus one partition for the vertices created by this query.
+     *
+     * @param conceptType   the concept type of the vertices, or null for all the vertices
+     * @param maxPartitions the maximum number of id ranges of a full scan
+     * @param fetchHints    the data read with the vertices, with {@link FetchHints#NONE} only the ids are read and
+     *                      the vertices are loaded when they are used
+     */
+    public List<VertexScanPartition> getVertexScanPartitions(String conceptType, int maxPartitions, FetchHints fetchHints) {
+        List<VertexScanPartition> partitions = new ArrayList<>();
+        boolean idsOnly = fetchHints.equals(FetchHints.NONE);
+
+        if (conceptType == null) {
+            if (graph instanceof KVStoreGraph) {
+                KVStoreGraph kvGraph = (KVStoreGraph) graph;
+                for (IdRange range : kvGraph.getVertexRanges(maxPartitions)) {
+                    partitions.add(new VertexScanPartition() {
+                        @Override
+                        public <T> T scan(Function<Iterator<NodeValue>, T> reader) {
+                            return readInSnapshot(() -> reader.apply(Iterators.map(
+                                    vertex -> idsOnly ? toLazyNodeValue(vertex.getId()) : toNodeValue(vertex),
+                                    kvGraph.getVerticesInRange(range, fetchHints, null, authorizations).iterator()
+                            )));
+                        }
+                    });
+                }
+            } else {
+                partitions.add(new VertexScanPartition() {
+                    @Override
+                    public <T> T scan(Function<Iterator<NodeValue>, T> reader) {
+                        return reader.apply(getVertices());
+                    }
+                });
+            }
+            return partitions;
+        }
+
         for (int i = 0; i < esShards; i++) {
             final int shard = i;
-            futures.add(
-                    executor.submit(() -> {
+            partitions.add(new VertexScanPartition() {
+                @Override
+                public <T> T scan(Function<Iterator<NodeValue>, T> reader) {
+                    return readInSnapshot(() -> {
                         try (QueryResultsIterable<String> ids = graph.query(authorizations)
                                 .hasConceptType(conceptType)
                                 .setShard(String.valueOf(shard))
                                 .vertexIds()) {
-
-                            final Iterable<NodeValue> vertices = getVertices(IterableUtils.toList(ids));
-                            return IterableUtils.toList(vertices);
+                            List<String> idList = IterableUtils.toList(ids);
+                            return reader.apply(idsOnly
+                                    ? Iterators.map(GeCypherQueryContext.this::toLazyNodeValue, idList.iterator())
+                                    : getVertices(idList, fetchHints).iterator());
                         } catch (IOException ex) {
                             throw new GeException("Could not load Accumulo elements", ex);
                         }
-                    })
-            );
+                    });
+                }
+            });
         }
 
-        futures.forEach(f -> {
-            try {
-                result.addAll(f.get());
-            } catch (InterruptedException | ExecutionException ex) {
-                throw new GeException("Interrupted while loading data", ex);
+        partitions.add(new VertexScanPartition() {
+            @Override
+            public <T> T scan(Function<Iterator<NodeValue>, T> reader) {
+                List<NodeValue> created = new ArrayList<>();
+                elementBuilders.values().forEach(m -> {
+                    if (m instanceof VertexMutation) {
+                        VertexMutation vm = (VertexMutation) m;
+                        if (conceptType.equals(vm.getConceptType())) {
+                            created.add(new GeVertexWrappingNodeValue(vm.getId(), graph, authorizations));
+                        }
+                    }
+                });
+                return reader.apply(created.iterator());
             }
         });
 
-        elementBuilders.values().forEach(m -> {
-            if (m instanceof VertexMutation) {
-                VertexMutation vm = (VertexMutation) m;
-                if (conceptType.equals(vm.getConceptType())) {
-                    result.add(new GeVertexWrappingNodeValue(vm.getId(), graph, authorizations));
+        return partitions;
+    }
 
-                }
-            }
-        });
+    private NodeValue toNodeValue(Vertex vertex) {
+        if (elementBuilders.containsKey(vertex.getId()))
+            return new GeVertexMutationWrappingNodeValue((VertexMutation) elementBuilders.get(vertex.getId()), this);
+        else
+            return new GeVertexWrappingNodeValue(vertex);
+    }
 
-        return result;
+    /**
+     * Wraps the id of a vertex, the vertex is only read if it is used.
+     */
+    private NodeValue toLazyNodeValue(String vertexId) {
+        if (elementBuilders.containsKey(vertexId))
+            return new GeVertexMutationWrappingNodeValue((VertexMutation) elementBuilders.get(vertexId), this);
+        else
+            return new GeVertexWrappingNodeValue(vertexId, authorizations, graph);
+    }
+
+    /**
+     * A part of a vertex scan, see {@link #getVertexScanPartitions(String, int, FetchHints)}.
+     */
+    public interface VertexScanPartition {
+        /**
+         * Runs the reader over the vertices of the partition, in the read snapshot of the query.
+         */
+        <T> T scan(Function<Iterator<NodeValue>, T> reader);
     }
 
     public Set<String> getIndexablePropertyKeys(String conceptType, String workspaceId) {
@@ -36,30 +36,213 @@
  */
 package com.mware.ge.cypher.ge;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.mware.ge.cypher.internal.util.Cardinality;
+import com.mware.core.lifecycle.LifecycleAdapter;
+import com.mware.core.util.BcLogger;
+import com.mware.core.util.BcLoggerFactory;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
-public class GeStatisticsHolder {
-    public static Cache<String, Cardinality> relByLabelCount = CacheBuilder.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build();
+/**
+ * Counts used by the Cypher planner for one graph. A count is loaded from the search index the first time it is
+ * needed and then kept up to date with the deltas of the mutations committed by Cypher queries, so planning reads it
+ * from memory. While the holder is started, a background task reloads all counts from the index periodically, to
+ * correct the drift caused by writes made outside of Cypher, and drops the counts that were not used for a while.
+ */
+public class GeStatisticsHolder extends LifecycleAdapter {
+    private final static BcLogger LOGGER = BcLoggerFactory.getLogger(GeStatisticsHolder.class);
+    static final long EXPIRE_AFTER_ACCESS_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long RECONCILIATION_PERIOD_MINUTES = 10;
+
+    public final Counts relByLabelCount = new Counts();
+    public final Counts nodeByLabelCount = new Counts();
+    public final Counts nodeAllCount = new Counts();
+    public final Counts nodesByPropertiesCount = new Counts();
+    public final Counts nodesByPropertiesDinctinctCount = new Counts();
+
+    private ScheduledExecutorService reconciliation;
+
+    @Override
+    public synchronized void start() {
+        if (reconciliation == null) {
+            reconciliation = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cypher-statistics-reconciliation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciliation.scheduleWithFixedDelay(
+                    this::reconcile,
+                    RECONCILIATION_PERIOD_MINUTES,
+                    RECONCILIATION_PERIOD_MINUTES,
+                    TimeUnit.MINUTES
+            );
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (reconciliation != null) {
+            reconciliation.shutdownNow();
+            reconciliation = null;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        invalidateAll();
+    }
+
+    public void reconcile() {
+        relByLabelCount.reconcile();
+        nodeByLabelCount.reconcile();
+        nodeAllCount.reconcile();
+        nodesByPropertiesCount.reconcile();
+        nodesByPropertiesDinctinctCount.reconcile();
+    }
+
+    public void invalidateAll() {
+        relByLabelCount.invalidateAll();
+        nodeByLabelCount.invalidateAll();
+        nodeAllCount.invalidateAll();
+        nodesByPropertiesCount.invalidateAll();
+        nodesByPropertiesDinctinctCount.invalidateAll();
+    }
+
+    /**
+     * Key of a relationship count, an absent concept type or edge label is represented by an empty string.
+     */
+    public static String relationshipKey(String fromConceptType, String edgeLabel, String toConceptType) {
+        return nullToEmpty(fromConceptType) + "|" + nullToEmpty(edgeLabel) + "|" + nullToEmpty(toConceptType);
+    }
+
+    /**
+     * Key of a property count, the concept type followed by the property names.
+     */
+    public static String propertyKey(String conceptType, String... propertyNames) {
+        StringBuilder key = new StringBuilder(conceptType);
+        for (String propertyName : propertyNames) {
+            key.append('|').append(propertyName);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Drops the property counts of a concept type, or only the ones that include the property when it is not null.
+     */
+    public void invalidatePropertyCounts(String conceptType, String propertyName) {
+        Predicate<String> matches = key -> {
+            String[] parts = key.split("\\|", -1);
+            if (!parts[0].equals(conceptType)) {
+                return false;
+            }
+            if (propertyName == null) {
+                return true;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].equals(propertyName)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+        nodesByPropertiesCount.invalidateIf(matches);
+        nodesByPropertiesDinctinctCount.invalidateIf(matches);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public static class Counts {
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+        private final LongSupplier clock;
+
+        public Counts() {
+            this(System::currentTimeMillis);
+        }
+
+        Counts(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        /**
+         * Returns the count for the key, calling the loader if it is not known yet. Exceptions of the loader are
+         * propagated and nothing is cached.
+         */
+        public long get(String key, LongSupplier loader) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry loaded = new Entry(loader, loader.getAsLong(), clock.getAsLong());
+                entry = entries.putIfAbsent(key, loaded);
+                if (entry == null) {
+                    entry = loaded;
+                }
+            }
+            entry.lastAccess = clock.getAsLong();
+            return Math.max(0, entry.count.get());
+        }
+
+        /**
+         * Adds a delta to the count for the key, if it is known. Unknown counts will be loaded from the index when
+         * first needed, the delta is part of them then. The count is not clamped here, a delta applied before the
+         * index caught up with it must still cancel out with the matching reload; {@link #get} never returns less
+         * than 0.
+         */
+        public void add(String key, long delta) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.count.addAndGet(delta);
+            }
+        }
+
+        public void invalidate(String key) {
+            entries.remove(key);
+        }
+
+        public void invalidateIf(Predicate<String> key) {
+            entries.keySet().removeIf(key);
+        }
 
-    public static Cache<String, Cardinality> nodeByLabelCount = CacheBuilder.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build();
+        public void invalidateAll() {
+            entries.clear();
+        }
 
-    public static Cache<String, Cardinality> nodeAllCount = CacheBuilder.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build();
+        /**
+         * Reloads the known counts and drops the idle ones. A reload applies the difference between the loaded count
+         * and the count before the load, so the deltas added while the loader runs are kept.
+         */
+        void reconcile() {
+            long now = clock.getAsLong();
+            entries.forEach((key, entry) -> {
+                if (now - entry.lastAccess > EXPIRE_AFTER_ACCESS_MILLIS) {
+                    entries.remove(key, entry);
+                } else {
+                    try {
+                        long before = entry.count.get();
+                        long loaded = entry.loader.getAsLong();
+                        entry.count.addAndGet(loaded - before);
+                    } catch (RuntimeException ex) {
+                        LOGGER.warn("Could not reconcile planner statistics for %s: %s", key, ex.getMessage());
+                    }
+                }
+            });
+        }
+    }
 
-    public static Cache<String, Cardinality> nodesByPropertiesCount = CacheBuilder.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build();
+    private static class Entry {
+        private final LongSupplier loader;
+        private final AtomicLong count;
+        private volatile long lastAccess;
 
-    public static Cache<String, Cardinality> nodesByPropertiesDinctinctCount = CacheBuilder.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build();
+        private Entry(LongSupplier loader, long count, long lastAccess) {
+            this.loader = loader;
+            this.count = new AtomicLong(count);
+            this.lastAccess = lastAccess;
+        }
+    }
 }
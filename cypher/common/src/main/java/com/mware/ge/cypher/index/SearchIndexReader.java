@@ -20,14 +20,17 @@
  */
 package com.mware.ge.cypher.index;
 
-import com.drew.lang.Iterables;
+import com.mware.ge.FetchHints;
+import com.mware.ge.FetchHintsBuilder;
 import com.mware.ge.GeException;
+import com.mware.ge.Vertex;
 import com.mware.ge.cypher.ge.GeCypherQueryContext;
 import com.mware.ge.cypher.schema.IndexDescriptor;
 import com.mware.ge.cypher.util.NodeValueIndexCursor;
 import com.mware.ge.query.*;
 import com.mware.ge.values.storable.DateTimeValue;
 import com.mware.ge.values.storable.Value;
+import com.mware.ge.values.storable.Values;
 import com.mware.ge.values.virtual.NodeValue;
 
 import java.io.IOException;
@@ -53,12 +56,12 @@ public class SearchIndexReader {
 
         addSortToQuery(query, index, indexOrder);
 
-        return new GeNodeValueIndexCursor(query.vertexIds());
+        return new GeNodeValueIndexCursor(query, needsValues, index.properties());
     }
 
     public NodeValueIndexCursor seek(IndexReference index, IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates) {
         Query query = toGeQuery(index, indexOrder, predicates);
-        return new GeNodeValueIndexCursor(query.vertexIds());
+        return new GeNodeValueIndexCursor(query, needsValues, index.properties());
     }
 
     private Query toGeQuery(IndexReference index, IndexOrder indexOrder, IndexQuery... predicates) {
@@ -145,17 +148,26 @@ public class SearchIndexReader {
         assert predicates.length == 1 : "composite indexes not yet supported for this operation";
     }
 
+    /**
+     * Streams the search results in the order returned by the search index. The query is only executed on the first
+     * call to {@link #next()}, so a limit hint given before that is applied to the search itself. When values are
+     * needed, the vertices are fetched page by page together with the ids and only with the indexed properties.
+     */
     class GeNodeValueIndexCursor implements NodeValueIndexCursor, NodeValueClient {
+        private final Query query;
+        private final String[] propertyNames;
         private boolean needsValues;
         private boolean closed;
-        private QueryResultsIterable<String> iterable;
-        private Iterator<String> iterator;
-        private String vertex;
+        private QueryResultsIterable<?> iterable;
+        private Iterator<?> iterator;
+        private String vertexId;
+        private Vertex vertex;
 
-        GeNodeValueIndexCursor(QueryResultsIterable<String> results) {
-            this.iterable = results;
+        GeNodeValueIndexCursor(Query query, boolean needsValues, String[] propertyNames) {
+            this.query = query;
+            this.needsValues = needsValues;
+            this.propertyNames = propertyNames;
             this.closed = false;
-            this.iterator = Iterables.toSet(this.iterable).iterator();
         }
 
         @Override
@@ -163,34 +175,72 @@ public class SearchIndexReader {
             this.needsValues = needsValues;
         }
 
+        @Override
+        public void limitHint(long limit) {
+            if (iterator == null && limit >= 0) {
+                query.limit(limit);
+            }
+        }
+
         @Override
         public boolean hasValue() {
-            return vertex != null;
+            return vertexId != null;
         }
 
         @Override
         public Value propertyValue(String propertyName) {
-            NodeValue v = queryContext.getVertexById(vertex, false);
-            return (Value) v.properties().get(propertyName);
+            if (vertex == null || queryContext.hasPendingChanges(vertexId)) {
+                NodeValue v = queryContext.getVertexById(vertexId, false);
+                return (Value) v.properties().get(propertyName);
+            }
+            Value value = vertex.getPropertyValue(propertyName);
+            return value == null ? Values.NO_VALUE : value;
         }
 
         @Override
         public String nodeReference() {
-            return vertex;
+            return vertexId;
         }
 
         @Override
         public boolean next() {
+            if (closed) {
+                return false;
+            }
+            if (iterator == null) {
+                if (needsValues) {
+                    FetchHints fetchHints = new FetchHintsBuilder()
+                            .setPropertyNamesToInclude(propertyNames)
+                            .build();
+                    iterable = query.vertices(fetchHints);
+                } else {
+                    iterable = query.vertexIds();
+                }
+                iterator = iterable.iterator();
+            }
+
             if (iterator.hasNext()) {
-                vertex = iterator.next();
+                Object next = iterator.next();
+                if (next instanceof Vertex) {
+                    vertex = (Vertex) next;
+                    vertexId = vertex.getId();
+                } else {
+                    vertex = null;
+                    vertexId = (String) next;
+                }
                 return true;
             } else {
+                vertex = null;
+                vertexId = null;
                 return false;
             }
         }
 
         @Override
         public void close() {
+            if (this.closed) {
+                return;
+            }
             this.closed = true;
             if (this.iterable != null) {
                 try {
@@ -36,5 +36,20 @@ public interface StatisticProvider {
     long getPageCacheHits();
 
     long getPageCacheMisses();
+
+    /**
+     * The hits of the calling thread only, so that they can be charged to the operator running on it. Providers
+     * which do not count per thread return the totals.
+     */
+    default long getThreadPageCacheHits() {
+        return getPageCacheHits();
+    }
+
+    /**
+     * The misses of the calling thread only, see {@link #getThreadPageCacheHits()}.
+     */
+    default long getThreadPageCacheMisses() {
+        return getPageCacheMisses();
+    }
 }
 
@@ -37,6 +37,13 @@ public interface NodeValueIndexCursor extends AutoCloseablePlus {
 
     boolean next();
 
+    /**
+     * Tells the cursor that at most {@code limit} entries will be read. Must be called before the first
+     * {@link #next()}; cursors which cannot use it ignore it.
+     */
+    default void limitHint(long limit) {
+    }
+
     class Empty implements NodeValueIndexCursor {
 
         @Override
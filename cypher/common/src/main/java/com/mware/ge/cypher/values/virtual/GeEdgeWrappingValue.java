@@ -44,6 +44,15 @@ public class GeEdgeWrappingValue extends RelationshipValue implements GraphLoada
         this.loaded = true;
     }
 
+    /**
+     * Wraps an edge whose end vertices were already loaded. Either node may be null, it is then resolved lazily.
+     */
+    public GeEdgeWrappingValue(Edge edge, NodeValue startNode, NodeValue endNode, GeCypherQueryContext queryContext) {
+        this(edge, queryContext);
+        this.startNode = startNode;
+        this.endNode = endNode;
+    }
+
     public Edge getEdge() {
         return edge;
     }
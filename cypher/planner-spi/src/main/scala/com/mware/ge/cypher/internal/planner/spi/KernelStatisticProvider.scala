@@ -35,6 +35,16 @@ trait KernelStatisticProvider {
     * @return observer page cache misses that was caused by particular query execution
     */
   def getPageCacheMisses: Long
+
+  /**
+    * @return page cache hits observed by the calling thread only, the totals when they are not counted per thread
+    */
+  def getThreadPageCacheHits: Long = getPageCacheHits
+
+  /**
+    * @return page cache misses observed by the calling thread only, the totals when they are not counted per thread
+    */
+  def getThreadPageCacheMisses: Long = getPageCacheMisses
 }
 
 object EmptyKernelStatisticProvider extends KernelStatisticProvider {
@@ -116,4 +116,7 @@ case class CypherPlannerConfiguration(queryCacheSize: Int,
                                       csvBufferSize: Int,
                                       nonIndexedLabelWarningThreshold: Long,
                                       planWithMinimumCardinalityEstimates: Boolean,
-                                      lenientCreateRelationship: Boolean)
+                                      lenientCreateRelationship: Boolean,
+                                      expandBatchSize: Int,
+                                      sortBufferRows: Int,
+                                      aggregationWorkers: Int)
@@ -236,7 +236,10 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    expandBatchSize = 1000,
+    sortBufferRows = 100000,
+    aggregationWorkers = 0
   )
 
   def buildPlannerQuery(query: String, lookup: Option[QualifiedName => ProcedureSignature] = None) = {
@@ -71,7 +71,10 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    expandBatchSize = 1000,
+    sortBufferRows = 100000,
+    aggregationWorkers = 0
   )
   val realConfig = RealLogicalPlanningConfiguration(cypherCompilerConfig)
 
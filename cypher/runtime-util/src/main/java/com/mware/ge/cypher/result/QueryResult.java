@@ -37,6 +37,15 @@ public interface QueryResult {
     <E extends Exception> void accept(QueryResultVisitor<E> visitor)
             throws E;
 
+    /**
+     * Visits at most {@code maxRecords} records. Unlike {@link #accept(QueryResultVisitor)} the result is not closed
+     * while records remain, so a later call continues where this one stopped.
+     *
+     * @return true if the result has more records
+     */
+    <E extends Exception> boolean accept(QueryResultVisitor<E> visitor, long maxRecords)
+            throws E;
+
     interface QueryResultVisitor<E extends Exception> {
         boolean visit(Record row) throws E;
     }
@@ -27,7 +27,7 @@ import java.net.URL
 import com.mware.ge.cypher.Path
 import com.mware.ge.Element
 import com.mware.ge.cypher.index.{IndexQuery, IndexReference}
-import com.mware.ge.cypher.internal.planner.spi.{IdempotentResult, IndexDescriptor, TokenContext}
+import com.mware.ge.cypher.internal.planner.spi.{EmptyKernelStatisticProvider, IdempotentResult, IndexDescriptor, KernelStatisticProvider, TokenContext}
 import com.mware.ge.cypher.util.NodeValueIndexCursor
 import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.expressions.SemanticDirection
@@ -42,6 +42,11 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def resources: ResourceManager
 
+  /**
+    * Statistics of the caches used by this query, reported per operator by PROFILE.
+    */
+  def kernelStatisticProvider: KernelStatisticProvider = EmptyKernelStatisticProvider
+
   def nodeOps: Operations[NodeValue]
 
   def relationshipOps: Operations[RelationshipValue]
@@ -54,6 +59,14 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def getRelationshipsForIds(node: String, dir: SemanticDirection, types: Option[Array[String]]): Iterator[RelationshipValue]
 
+  /**
+   * Expands several nodes at once. Implementations backed by a remote store should override this to fetch the
+   * relationships of all nodes with as few reads as possible, and the nodes on the other side too when
+   * `loadNeighbours` is set. The result has an entry for every requested node.
+   */
+  def getRelationshipsForIdsBatch(nodes: Seq[String], dir: SemanticDirection, types: Option[Array[String]], loadNeighbours: Boolean): Map[String, Seq[RelationshipValue]] =
+    nodes.map(node => node -> getRelationshipsForIds(node, dir, types).toIndexedSeq).toMap
+
   def getOrCreateLabelId(labelName: String): String
 
   def isLabelSetOnNode(label: String, node: String): Boolean
@@ -95,6 +108,18 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def getNodesByLabel(label: String): Iterator[NodeValue]
 
+  /**
+    * Splits a scan of all the nodes, or of the nodes with the given label, into partitions that can be consumed
+    * concurrently, from different threads. When the reader doesn't need the properties, the nodes are only read
+    * from the store if they are used.
+    */
+  def nodeScanPartitions(label: Option[String], maxPartitions: Int, needsProperties: Boolean): Seq[NodeScanPartition] = {
+    val nodes = () => label.map(getNodesByLabel).getOrElse(nodeOps.all)
+    Seq(new NodeScanPartition {
+      override def scan[T](reader: Iterator[NodeValue] => T): T = reader(nodes())
+    })
+  }
+
   def getOptStatistics: Option[QueryStatistics] = None
 
   def getImportURL(url: URL): Either[String,URL]
@@ -166,6 +191,12 @@ trait QueryContext extends TokenContext with DbAccess {
 
   override def nodeById(id: String): NodeValue = nodeOps.getById(id)
 
+  /**
+   * Looks up several nodes at once, in the order of `ids`. Implementations backed by a remote store should override
+   * this to check all nodes with as few reads as possible.
+   */
+  def nodesByIdBatch(ids: Seq[String]): Seq[NodeValue] = ids.map(nodeById)
+
   override def relationshipById(id: String): RelationshipValue = relationshipOps.getById(id)
 
   override def propertyKey(name: String): String = name
@@ -216,6 +247,10 @@ trait Operations[T] {
   def getByIdIfExists(id: String): Option[T]
 }
 
+trait NodeScanPartition {
+  def scan[T](reader: Iterator[NodeValue] => T): T
+}
+
 trait KernelPredicate[T] {
   def test(obj: T): Boolean
 }
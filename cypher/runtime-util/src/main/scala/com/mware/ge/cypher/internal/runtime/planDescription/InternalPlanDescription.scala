@@ -139,6 +139,12 @@ object InternalPlanDescription {
 
     case class DbHits(value: Long) extends Argument
 
+    case class PageCacheHits(value: Long) extends Argument
+
+    case class PageCacheMisses(value: Long) extends Argument
+
+    case class PageCacheHitRatio(value: Double) extends Argument
+
     case class Order(order: ProvidedOrder) extends Argument
 
     case class ColumnsLeft(value: Seq[String]) extends Argument
@@ -344,6 +350,8 @@ final case class CompactedPlanDescription(similar: Seq[InternalPlanDescription])
 
   override val arguments: Seq[Argument] = {
     var dbHits: Option[Long] = None
+    var pageCacheHits: Option[Long] = None
+    var pageCacheMisses: Option[Long] = None
     var time: Option[Long] = None
     var rows: Option[Long] = None
 
@@ -351,12 +359,16 @@ final case class CompactedPlanDescription(similar: Seq[InternalPlanDescription])
       (acc, plan) =>
         val args = plan.arguments.filter {
           case DbHits(v) => dbHits = Some(dbHits.map(_ + v).getOrElse(v)); false
+          case PageCacheHits(v) => pageCacheHits = Some(pageCacheHits.map(_ + v).getOrElse(v)); false
+          case PageCacheMisses(v) => pageCacheMisses = Some(pageCacheMisses.map(_ + v).getOrElse(v)); false
+          case PageCacheHitRatio(_) => false
           case Time(v) => time = Some(time.map(_ + v).getOrElse(v)); false
           case Rows(v) => rows = Some(rows.map(o => Math.max(o, v)).getOrElse(v)); false
           case _ => true
         }
         acc ++ args
-    }.toIndexedSeq ++ dbHits.map(DbHits.apply) ++ time.map(Time.apply) ++ rows.map(Rows.apply)
+    }.toIndexedSeq ++ dbHits.map(DbHits.apply) ++ pageCacheHits.map(PageCacheHits.apply) ++
+      pageCacheMisses.map(PageCacheMisses.apply) ++ time.map(Time.apply) ++ rows.map(Rows.apply)
   }
 
   override def find(name: String): Seq[InternalPlanDescription] = similar.last.find(name)
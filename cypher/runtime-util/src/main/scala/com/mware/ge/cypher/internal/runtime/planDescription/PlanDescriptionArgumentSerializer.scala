@@ -60,6 +60,9 @@ object PlanDescriptionArgumentSerializer {
       case KeyNames(keys) => keys.map(removeGeneratedNames).mkString(SEPARATOR)
       case KeyExpressions(expressions) => expressions.mkString(SEPARATOR)
       case DbHits(value) => Long.box(value)
+      case PageCacheHits(value) => Long.box(value)
+      case PageCacheMisses(value) => Long.box(value)
+      case PageCacheHitRatio(value) => Double.box(value)
       case _: EntityByIdRhs => arg.toString
       case Rows(value) => Long.box(value)
       case Time(value) => Long.box(value)
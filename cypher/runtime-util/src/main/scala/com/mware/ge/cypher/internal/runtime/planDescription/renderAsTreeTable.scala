@@ -150,6 +150,9 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     case EstimatedRows(count) => mapping(ESTIMATED_ROWS, Right(format(count)), columns)
     case Rows(count) => mapping(ROWS, Right(count.toString), columns)
     case DbHits(count) => mapping(HITS, Right(count.toString), columns)
+    case PageCacheHits(count) => mapping(PAGE_CACHE_HITS, Right(count.toString), columns)
+    case PageCacheMisses(count) => mapping(PAGE_CACHE_MISSES, Right(count.toString), columns)
+    case PageCacheHitRatio(ratio) => mapping(PAGE_CACHE_HIT_RATIO, Right("%.4f".format(ratio)), columns)
     case Time(nanos) => mapping(TIME, Right("%.3f".format(nanos/1000000.0)), columns)
     case Order(providedOrder) => mapping(ORDER, Left(PlanDescriptionArgumentSerializer.serializeProvidedOrder(providedOrder)), columns)
     case _ => None
@@ -169,6 +172,9 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     description.arguments.collect { case x
       if !x.isInstanceOf[Rows] &&
         !x.isInstanceOf[DbHits] &&
+        !x.isInstanceOf[PageCacheHits] &&
+        !x.isInstanceOf[PageCacheMisses] &&
+        !x.isInstanceOf[PageCacheHitRatio] &&
         !x.isInstanceOf[EstimatedRows] &&
         !x.isInstanceOf[Order] &&
         !x.isInstanceOf[Planner] &&
@@ -24,6 +24,7 @@ import com.mware.ge.cypher.builtin.proc.jdbc.JdbcProcedures;
 import com.mware.ge.cypher.builtin.proc.spatial.SpecialBuiltInProcedures;
 import com.mware.ge.cypher.exception.ProcedureException;
 import com.mware.ge.cypher.ge.GeCypherQueryContext;
+import com.mware.ge.cypher.ge.GeStatisticsHolder;
 import com.mware.ge.cypher.internal.CacheTracer;
 import com.mware.ge.cypher.internal.CypherConfiguration;
 import com.mware.ge.cypher.internal.StringCacheMonitor;
@@ -67,6 +68,7 @@ public class GeCypherExecutionEngine {
     private final CypherConfiguration cypherConfig;
     private final InternalCypherExecutionEngine executionEngine;
     private final Procedures procedures;
+    private final GeStatisticsHolder statistics = new GeStatisticsHolder();
     private final Monitors monitors = new Monitors();
     private final Dependencies dependencyResolver = new Dependencies();
     private final GraphWithSearchIndex graph;
@@ -115,6 +117,7 @@ public class GeCypherExecutionEngine {
 
         procedures = setupProcedures();
         lifeSupportService.add(procedures);
+        lifeSupportService.add(statistics);
         cypherConfig = CypherConfiguration.fromConfig();
         CacheTracer cacheTracer = new MonitoringCacheTracer(monitors.newMonitor(StringCacheMonitor.class));
         CompilationTracer tracer = new TimingCompilationTracer(monitors.newMonitor(TimingCompilationTracer.EventListener.class));
@@ -168,7 +171,7 @@ public class GeCypherExecutionEngine {
     }
 
     public GeCypherQueryContext newGeQueryContext(Authorizations authorizations, String workspaceId, String query, MapValue parameters) {
-        return new GeCypherQueryContext(query, parameters, graph, authorizations, schemaRepository, procedures, dependencyResolver, workQueueRepository, workspaceId);
+        return new GeCypherQueryContext(query, parameters, graph, authorizations, schemaRepository, procedures, dependencyResolver, workQueueRepository, workspaceId, cypherConfig.elementCacheSize(), statistics);
     }
 
     public Result executeQuery(String query, Authorizations authorizations) {
@@ -225,6 +228,10 @@ public class GeCypherExecutionEngine {
         return graph;
     }
 
+    public GeStatisticsHolder getStatistics() {
+        return statistics;
+    }
+
     public SchemaRepository getSchemaRepository() {
         return schemaRepository;
     }
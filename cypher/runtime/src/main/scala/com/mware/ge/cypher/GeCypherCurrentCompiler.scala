@@ -89,7 +89,8 @@ case class GeCypherCurrentCompiler[CONTEXT <: RuntimeContext](executionEngine: G
       logicalPlanResult.plannerContext.clock,
       logicalPlanResult.plannerContext.debugOptions,
       queryType == READ_ONLY,
-      preParsedQuery.useCompiledExpressions)
+      preParsedQuery.useCompiledExpressions,
+      preParsedQuery.sortBufferRows)
 
     val executionPlan: ExecutionPlan = runtime.compileToExecutable(planState, runtimeContext)
 
@@ -208,7 +209,8 @@ case class GeCypherCurrentCompiler[CONTEXT <: RuntimeContext](executionEngine: G
             context.executingQuery(),
             internalExecutionResult,
             runSafely,
-            executionEngine.getMonitors.newMonitor(classOf[QueryExecutionMonitor])
+            executionEngine.getMonitors.newMonitor(classOf[QueryExecutionMonitor]),
+            context
           )
         )
       }(e => taskCloser.close(false))
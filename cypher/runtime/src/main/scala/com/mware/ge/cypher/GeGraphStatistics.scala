@@ -46,22 +46,23 @@ import com.mware.ge.cypher.internal.planner.spi.{GraphStatistics, IndexDescripto
 import com.mware.ge.cypher.internal.planner.spi._
 import com.mware.ge.cypher.internal.util._
 
+import java.util.function.LongSupplier
+
 import scala.collection.JavaConverters._
 
 object GeGraphStatistics {
-  def apply(graph: Graph): GraphStatistics = new StatisticsCompletingGraphStatistics(new BaseGeGraphStatistics(graph))
+  def apply(graph: Graph, holder: GeStatisticsHolder): GraphStatistics =
+    new StatisticsCompletingGraphStatistics(new BaseGeGraphStatistics(graph, holder))
 
-  class BaseGeGraphStatistics(val graph: Graph) extends GraphStatistics with ResourceCloser {
+  class BaseGeGraphStatistics(val graph: Graph, holder: GeStatisticsHolder) extends GraphStatistics with ResourceCloser {
     val authorizations: Authorizations = new Authorizations("administrator");
 
     override def nodesWithLabelCardinality(labelId: Option[LabelId], planContext: PlanContext): Cardinality = {
-      var retValue: Cardinality = GeStatisticsHolder.nodeByLabelCount.getIfPresent(labelId.get.id)
-
-      if (retValue == null) {
-        if (labelId.isEmpty || labelId.get.id == "")
-          retValue = nodesAllCardinality()
-        else {
-          val conceptType = labelId.get.id
+      if (labelId.isEmpty || labelId.get.id == "")
+        nodesAllCardinality()
+      else {
+        val conceptType = labelId.get.id
+        atLeastOne(holder.nodeByLabelCount.get(conceptType, loader {
           val q = graph.query(new Authorizations())
             .addAggregation(new TermsAggregation("count", SearchIndex.CONCEPT_TYPE_FIELD_NAME))
             .limit(0L)
@@ -73,57 +74,49 @@ object GeGraphStatistics {
                 .find(b => b.key == conceptType)
           )
 
-          if (found.isEmpty)
-            retValue = atLeastOne(0)
-          else
-            retValue = atLeastOne(found.get.count)
-        }
-
-        GeStatisticsHolder.nodeByLabelCount.put(labelId.get.id, retValue);
+          found.map(_.count).getOrElse(0L)
+        }))
       }
-
-      retValue
     }
 
     override def nodesAllCardinality(): Cardinality = {
-      var retValue = GeStatisticsHolder.nodeAllCount.getIfPresent("")
-      if (retValue == null) {
-        val count = withResources(graph.query(new Authorizations())
+      atLeastOne(holder.nodeAllCount.get("", loader {
+        withResources(graph.query(new Authorizations())
           .limit(0L)
           .vertexIds(IdFetchHint.NONE))(
           iterable =>
             iterable.getTotalHits
         )
-        retValue = atLeastOne(count)
-        GeStatisticsHolder.nodeAllCount.put("", retValue)
-      }
-      retValue
+      }))
     }
 
     override def cardinalityByLabelsAndRelationshipType(fromLabel: Option[LabelId], relTypeId: Option[RelTypeId], toLabel: Option[LabelId], planContext: PlanContext): Cardinality = {
-      val query = graph.query(authorizations).asInstanceOf[QueryBase]
+      val cacheKey = GeStatisticsHolder.relationshipKey(fromLabel.map(_.id).orNull, relTypeId.map(_.id).orNull, toLabel.map(_.id).orNull)
 
-      if (fromLabel.isDefined) {
-        val conceptType = fromLabel.get.id
-        query.hasOutVertexTypes(conceptType)
-      }
+      atLeastOne(holder.relByLabelCount.get(cacheKey, loader {
+        val query = graph.query(authorizations).asInstanceOf[QueryBase]
 
-      if (toLabel.isDefined) {
-        val conceptType = toLabel.get.id
-        query.hasInVertexTypes(conceptType)
-      }
+        if (fromLabel.isDefined) {
+          val conceptType = fromLabel.get.id
+          query.hasOutVertexTypes(conceptType)
+        }
 
-      if (relTypeId.isDefined) {
-        val edgeLabel = relTypeId.get.id
-        query.hasEdgeLabel(edgeLabel)
-      }
+        if (toLabel.isDefined) {
+          val conceptType = toLabel.get.id
+          query.hasInVertexTypes(conceptType)
+        }
 
-      query.limit(0L)
+        if (relTypeId.isDefined) {
+          val edgeLabel = relTypeId.get.id
+          query.hasEdgeLabel(edgeLabel)
+        }
 
-      val count = withResources(query.edgeIds(IdFetchHint.NONE))(
-        iterable => iterable.getTotalHits
-      )
-      atLeastOne(count)
+        query.limit(0L)
+
+        withResources(query.edgeIds(IdFetchHint.NONE))(
+          iterable => iterable.getTotalHits
+        )
+      }))
     }
 
     override def uniqueValueSelectivity(index: IndexDescriptor, planContext: PlanContext): Option[Selectivity] = {
@@ -159,11 +152,9 @@ object GeGraphStatistics {
     }
 
     private def nodeByConceptAndPropertyCount(index: IndexDescriptor): Cardinality = {
-      var cacheKey = index.label.id
-      index.properties.foreach(pk => cacheKey += "_" + pk.id)
-      var indexCardinality = GeStatisticsHolder.nodesByPropertiesCount.getIfPresent(cacheKey)
-      if (indexCardinality == null) {
-        val counts = withResources(graph.query(authorizations)
+      val cacheKey = GeStatisticsHolder.propertyKey(index.label.id, index.properties.map(_.id): _*)
+      Cardinality(holder.nodesByPropertiesCount.get(cacheKey, loader {
+        withResources(graph.query(authorizations)
           .hasConceptType(index.label.id)
           .has(index.property.id)
           .limit(0L)
@@ -171,19 +162,14 @@ object GeGraphStatistics {
           iterable =>
             iterable.getTotalHits
         )
-
-        indexCardinality = Cardinality(counts)
-        GeStatisticsHolder.nodesByPropertiesCount.put(cacheKey, indexCardinality)
-      }
-      indexCardinality
+      }))
     }
 
     private def countDistinctValues(index: IndexDescriptor): Cardinality = {
-      val cacheKey = index.label.id + "_" + index.property.id
-      var distinctCardinality = GeStatisticsHolder.nodesByPropertiesDinctinctCount.getIfPresent(cacheKey)
-      if (distinctCardinality == null) {
-        try {
-          val counts = withResources(graph.query(authorizations)
+      val cacheKey = GeStatisticsHolder.propertyKey(index.label.id, index.property.id)
+      try {
+        atLeastOne(holder.nodesByPropertiesDinctinctCount.get(cacheKey, loader {
+          withResources(graph.query(authorizations)
             .hasConceptType(index.label.id)
             .addAggregation(new CardinalityAggregation("count", index.property.id))
             .vertexIds(IdFetchHint.NONE))(
@@ -191,14 +177,15 @@ object GeGraphStatistics {
               iterable.getAggregationResult("count", classOf[CardinalityResult])
                 .value()
           )
-          distinctCardinality = atLeastOne(counts.doubleValue())
-          GeStatisticsHolder.nodesByPropertiesDinctinctCount.put(cacheKey, distinctCardinality)
-        } catch {
-          case _: GeException =>
-            Cardinality.EMPTY
-        }
+        }))
+      } catch {
+        case _: GeException =>
+          Cardinality.EMPTY
       }
-      distinctCardinality
+    }
+
+    private def loader(count: => Long): LongSupplier = new LongSupplier {
+      override def getAsLong: Long = count
     }
 
     /**
@@ -0,0 +1,400 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher
+
+import java.util.Optional
+
+import com.mware.ge.cypher.ge.GeCypherQueryContext
+import com.mware.ge.cypher.internal.expressions.SemanticDirection
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{OnlyDirectionExpander, TypeAndDirectionExpander}
+import com.mware.ge.cypher.internal.runtime.{Expander, KernelPredicate}
+import com.mware.ge.cypher.values.virtual.{GeEdgeWrappingValue, GeVertexWrappingNodeValue}
+import com.mware.ge.values.VirtualValue
+import com.mware.ge.values.virtual.{NodeValue, RelationshipValue}
+import com.mware.ge.{Direction, Element}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/**
+  * Traversals on top of the graph API. Every BFS level, or the children of a node in depth first expansions, are
+  * expanded with bulk adjacency reads (see [[GeCypherQueryContext#getEdgesForVertices]]) instead of one read per node.
+  * The nodes on the other side of the relationships are only read up front when node filters need them.
+  *
+  * @param fallbackSlack how much longer than the shortest length the paths searched when no shortest path matches
+  *                      the path predicate may be
+  */
+class GeGraphTraversal(queryContext: GeCypherQueryContext,
+                       batchSize: Int = GeGraphTraversal.DEFAULT_BATCH_SIZE,
+                       fallbackSlack: Int = GeGraphTraversal.DEFAULT_FALLBACK_SLACK) {
+
+  import GeGraphTraversal._
+
+  /**
+    * All paths starting at `startId` with a length between `minHops` and `maxHops` which do not repeat a
+    * relationship. Paths are produced depth first and lazily, only the paths on the way to the current one are
+    * held in memory.
+    */
+  def variableLengthPathExpand(startId: String,
+                               minHops: Option[Int],
+                               maxHops: Option[Int],
+                               direction: SemanticDirection,
+                               relTypes: Seq[String]): Iterator[Path] = {
+    val startNode = queryContext.getVertexById(startId, false)
+    if (startNode == null) {
+      return Iterator.empty
+    }
+
+    val steps = Seq(Step(direction, if (relTypes.isEmpty) None else Some(relTypes.toArray)))
+    new PathExpansion(startNode, steps, minHops.getOrElse(1), maxHops.getOrElse(Int.MaxValue), Seq.empty, Seq.empty)
+  }
+
+  def singleShortestPath(left: String, right: String, depth: Int, expander: Expander,
+                         pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Option[Path] = {
+    val paths = shortestPaths(left, right, depth, expander, pathPredicate, filters, single = true)
+    if (paths.hasNext) Some(paths.next()) else None
+  }
+
+  def allShortestPath(left: String, right: String, depth: Int, expander: Expander,
+                      pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Iterator[Path] =
+    shortestPaths(left, right, depth, expander, pathPredicate, filters, single = false)
+
+  /**
+    * Bidirectional BFS. The side with the smaller frontier is expanded one whole level at a time; once the two
+    * searches meet, every path through the meeting nodes of minimal total length is a candidate. If none of the
+    * candidates matches `pathPredicate`, the longer paths may go through nodes the BFS already visited, so they are
+    * searched exhaustively, one length at a time. The exhaustive search grows exponentially with the length, it stops
+    * `fallbackSlack` past the shortest length, or at `maxDepth` when that comes first.
+    */
+  private def shortestPaths(left: String, right: String, maxDepth: Int, expander: Expander,
+                            pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]],
+                            single: Boolean): Iterator[Path] = {
+    val nodeFilters = (expander.nodeFilters ++ filters).distinct
+    val startNode = queryContext.getVertexById(left, false)
+    val endNode = queryContext.getVertexById(right, false)
+    if (startNode == null || endNode == null || !accepts(startNode, nodeFilters) || !accepts(endNode, nodeFilters)) {
+      return Iterator.empty
+    }
+
+    if (left == right) {
+      val path = GePath(Vector(startNode), Vector.empty)
+      return if (pathPredicate.test(path)) Iterator.single(path) else Iterator.empty
+    }
+
+    val forward = new SearchSide(left, startNode, steps(expander, reversed = false))
+    val backward = new SearchSide(right, endNode, steps(expander, reversed = true))
+
+    while (forward.frontier.nonEmpty && backward.frontier.nonEmpty && forward.depth + backward.depth < maxDepth) {
+      val (side, other) = if (forward.frontier.size <= backward.frontier.size) (forward, backward) else (backward, forward)
+      val discovered = side.expandLevel(expander.relFilters, nodeFilters)
+      val meetings = discovered.filter(other.depths.contains)
+      if (meetings.nonEmpty) {
+        val length = meetings.map(id => forward.depths(id) + backward.depths(id)).min
+        val candidates = meetings.iterator
+          .filter(id => forward.depths(id) + backward.depths(id) == length)
+          .flatMap { meeting =>
+            for {
+              head <- forward.pathsTo(meeting)
+              tail <- backward.pathsTo(meeting)
+            } yield head.concat(tail.reverse)
+          }
+          .filter(path => path.hasUniqueRelationships && pathPredicate.test(path))
+          .buffered
+        if (candidates.hasNext) {
+          return if (single) Iterator.single(candidates.head) else candidates
+        }
+        val fallbackDepth = if (length.toLong + fallbackSlack > maxDepth) maxDepth else length + fallbackSlack
+        return exhaustiveShortestPaths(startNode, right, length + 1, fallbackDepth, steps(expander, reversed = false),
+          expander.relFilters, nodeFilters, pathPredicate, single)
+      }
+    }
+    Iterator.empty
+  }
+
+  /**
+    * The shortest paths from `startNode` to `right` matching `pathPredicate` with a length of at least `minLength`,
+    * found by expanding all the paths of each length in turn. The search stops at `maxDepth`, or once there are no
+    * paths of the current length left since no longer path can exist then.
+    */
+  private def exhaustiveShortestPaths(startNode: NodeValue, right: String, minLength: Int, maxDepth: Int, steps: Seq[Step],
+                                      relFilters: Seq[KernelPredicate[Element]], nodeFilters: Seq[KernelPredicate[Element]],
+                                      pathPredicate: KernelPredicate[Path], single: Boolean): Iterator[Path] = {
+    var length = minLength
+    while (length <= maxDepth) {
+      val expansion = new PathExpansion(startNode, steps, length, length, relFilters, nodeFilters)
+      val paths = expansion.filter(path => path.endNodeId == right && pathPredicate.test(path)).buffered
+      if (paths.hasNext) {
+        return if (single) Iterator.single(paths.head) else paths
+      }
+      if (!expansion.reachedMaxLength) {
+        return Iterator.empty
+      }
+      length += 1
+    }
+    Iterator.empty
+  }
+
+  /**
+    * Depth first expansion of the paths from `startNode` with a length between `minLength` and `maxLength` which
+    * do not repeat a relationship. The stack holds one frame per relationship of the current path; the relationships
+    * of all the nodes reached from a frame are read together, with one bulk read, when the first of them is expanded.
+    */
+  private class PathExpansion(startNode: NodeValue, steps: Seq[Step], minLength: Int, maxLength: Int,
+                              relFilters: Seq[KernelPredicate[Element]], nodeFilters: Seq[KernelPredicate[Element]])
+    extends Iterator[GePath] {
+
+    private val stack = mutable.ArrayStack[Frame]()
+    private var nextPath: GePath = _
+
+    /**
+      * True once a path of `maxLength` was expanded.
+      */
+    var reachedMaxLength = false
+
+    {
+      val startPath = GePath(Vector(startNode), Vector.empty)
+      if (minLength <= 0) {
+        nextPath = startPath
+      }
+      if (maxLength > 0) {
+        stack.push(new Frame(startPath, expand(Seq(startNode.id()), steps, nodeFilters.nonEmpty).getOrElse(startNode.id(), Seq.empty)))
+      }
+    }
+
+    override def hasNext: Boolean = {
+      while (nextPath == null && stack.nonEmpty) {
+        val frame = stack.top
+        if (frame.index >= frame.relationships.size) {
+          stack.pop()
+        } else {
+          val rel = frame.relationships(frame.index)
+          frame.index += 1
+          if (!frame.path.containsRelationship(rel) && accepts(rel, relFilters)) {
+            val node = otherNode(rel, frame.path.endNodeId)
+            if (accepts(node, nodeFilters)) {
+              val path = frame.path.append(rel, node)
+              if (path.length() < maxLength) {
+                stack.push(new Frame(path, frame.relationshipsOf(node.id())))
+              } else {
+                reachedMaxLength = true
+              }
+              if (path.length() >= minLength) {
+                nextPath = path
+              }
+            }
+          }
+        }
+      }
+      nextPath != null
+    }
+
+    override def next(): GePath = {
+      if (!hasNext) {
+        throw new NoSuchElementException
+      }
+      val path = nextPath
+      nextPath = null
+      path
+    }
+
+    private class Frame(val path: GePath, val relationships: Seq[RelationshipValue]) {
+      var index = 0
+      private var adjacency: Map[String, Seq[RelationshipValue]] = _
+
+      def relationshipsOf(nodeId: String): Seq[RelationshipValue] = {
+        if (adjacency == null) {
+          adjacency = expand(relationships.map(_.otherNodeId(path.endNodeId)).distinct, steps, nodeFilters.nonEmpty)
+        }
+        adjacency.getOrElse(nodeId, Seq.empty)
+      }
+    }
+  }
+
+  private class SearchSide(rootId: String, rootNode: NodeValue, steps: Seq[Step]) {
+    val depths = mutable.HashMap[String, Int](rootId -> 0)
+    val nodes = mutable.HashMap[String, NodeValue](rootId -> rootNode)
+    val parents = mutable.HashMap[String, mutable.ArrayBuffer[(RelationshipValue, String)]]()
+    var frontier: Seq[String] = Seq(rootId)
+    var depth = 0
+
+    /**
+      * Expands the whole frontier and returns the nodes seen for the first time. Nodes reached by several
+      * relationships at the same depth keep all of them as parents, so every shortest path can be rebuilt.
+      */
+    def expandLevel(relFilters: Seq[KernelPredicate[Element]], nodeFilters: Seq[KernelPredicate[Element]]): Seq[String] = {
+      val relationships = expand(frontier, steps, nodeFilters.nonEmpty)
+      val discovered = mutable.LinkedHashSet[String]()
+      for {
+        nodeId <- frontier
+        rel <- relationships.getOrElse(nodeId, Seq.empty)
+        if accepts(rel, relFilters)
+      } {
+        val otherId = rel.otherNodeId(nodeId)
+        depths.get(otherId) match {
+          case None =>
+            val node = otherNode(rel, nodeId)
+            if (accepts(node, nodeFilters)) {
+              depths.put(otherId, depth + 1)
+              nodes.put(otherId, node)
+              parents.getOrElseUpdate(otherId, mutable.ArrayBuffer()) += (rel -> nodeId)
+              discovered += otherId
+            }
+          case Some(d) if d == depth + 1 =>
+            parents(otherId) += (rel -> nodeId)
+          case _ =>
+        }
+      }
+      depth += 1
+      frontier = discovered.toVector
+      frontier
+    }
+
+    /**
+      * All paths from the root of this side to `nodeId` along the recorded parents.
+      */
+    def pathsTo(nodeId: String): Iterator[GePath] =
+      if (nodeId == rootId) {
+        Iterator.single(GePath(Vector(rootNode), Vector.empty))
+      } else {
+        parents(nodeId).iterator.flatMap {
+          case (rel, parentId) => pathsTo(parentId).map(_.append(rel, nodes(nodeId)))
+        }
+      }
+  }
+
+  /**
+    * Reads the relationships of all `nodeIds` in batches, merging the results of the individual steps. The nodes on
+    * the other side are read with the relationships only with `loadOtherNodes`, otherwise when first used.
+    */
+  private def expand(nodeIds: Seq[String], steps: Seq[Step], loadOtherNodes: Boolean): Map[String, Seq[RelationshipValue]] = {
+    val result = mutable.HashMap[String, mutable.LinkedHashMap[String, RelationshipValue]]()
+    for {
+      batch <- nodeIds.grouped(math.max(1, batchSize))
+      step <- steps
+      (nodeId, rels) <- queryContext.getEdgesForVertices(batch.asJava, step.direction, Optional.ofNullable(step.types.orNull), loadOtherNodes).asScala
+    } {
+      val byId = result.getOrElseUpdate(nodeId, mutable.LinkedHashMap())
+      rels.asScala.foreach(rel => byId.getOrElseUpdate(rel.id(), rel))
+    }
+    result.map { case (nodeId, rels) => nodeId -> rels.values.toVector }.toMap
+  }
+}
+
+object GeGraphTraversal {
+  val DEFAULT_BATCH_SIZE = 1000
+  val DEFAULT_FALLBACK_SLACK = 2
+
+  private case class Step(semanticDirection: SemanticDirection, types: Option[Array[String]]) {
+    def direction: Direction = semanticDirection match {
+      case SemanticDirection.INCOMING => Direction.IN
+      case SemanticDirection.OUTGOING => Direction.OUT
+      case SemanticDirection.BOTH => Direction.BOTH
+    }
+  }
+
+  private def steps(expander: Expander, reversed: Boolean): Seq[Step] = {
+    def dir(d: SemanticDirection) = if (reversed) d.reversed else d
+
+    expander match {
+      case e: OnlyDirectionExpander =>
+        Seq(Step(dir(e.direction), None))
+      case e: TypeAndDirectionExpander =>
+        e.typDirs.groupBy(_._2).map {
+          case (d, typDirs) => Step(dir(d), Some(typDirs.map(_._1).toArray))
+        }.toSeq
+      case e =>
+        throw new IllegalArgumentException("Unsupported expander: " + e.getClass.getName)
+    }
+  }
+
+  private def otherNode(rel: RelationshipValue, nodeId: String): NodeValue =
+    if (rel.startNodeId() == nodeId) rel.endNode() else rel.startNode()
+
+  // relationships and nodes created in the current query have no graph element yet and always pass the filters
+  private def accepts(rel: RelationshipValue, filters: Seq[KernelPredicate[Element]]): Boolean =
+    filters.isEmpty || (rel match {
+      case e: GeEdgeWrappingValue if e.getEdge != null => filters.forall(_.test(e.getEdge))
+      case _ => true
+    })
+
+  private def accepts(node: NodeValue, filters: Seq[KernelPredicate[Element]]): Boolean =
+    filters.isEmpty || (node match {
+      case v: GeVertexWrappingNodeValue =>
+        val vertex = v.getVertex
+        vertex != null && filters.forall(_.test(vertex))
+      case _ => true
+    })
+}
+
+case class GePath(nodeList: Vector[NodeValue], relationshipList: Vector[RelationshipValue]) extends Path {
+
+  def endNodeId: String = nodeList.last.id()
+
+  def append(rel: RelationshipValue, node: NodeValue): GePath = GePath(nodeList :+ node, relationshipList :+ rel)
+
+  def reverse: GePath = GePath(nodeList.reverse, relationshipList.reverse)
+
+  /**
+    * Joins two paths where the end node of this path is the start node of `other`.
+    */
+  def concat(other: GePath): GePath = GePath(nodeList ++ other.nodeList.tail, relationshipList ++ other.relationshipList)
+
+  def containsRelationship(rel: RelationshipValue): Boolean = relationshipList.exists(_.id() == rel.id())
+
+  def hasUniqueRelationships: Boolean = relationshipList.map(_.id()).distinct.size == relationshipList.size
+
+  override def startNode(): NodeValue = nodeList.head
+
+  override def endNode(): NodeValue = nodeList.last
+
+  override def lastRelationship(): RelationshipValue = relationshipList.lastOption.orNull
+
+  override def relationships(): java.lang.Iterable[RelationshipValue] = relationshipList.asJava
+
+  override def nodes(): java.lang.Iterable[NodeValue] = nodeList.asJava
+
+  override def length(): Int = relationshipList.size
+
+  override def iterator(): java.util.Iterator[VirtualValue] = {
+    val values: Iterator[VirtualValue] = nodeList.iterator.zipAll(relationshipList.iterator.map(Some(_)), null, None).flatMap {
+      case (node, rel) => Iterator[VirtualValue](node) ++ rel.iterator
+    }
+    values.asJava
+  }
+
+  override def toString: String = nodeList.map(_.id()).mkString("(", ")-(", ")")
+}
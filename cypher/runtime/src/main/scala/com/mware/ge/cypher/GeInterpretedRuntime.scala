@@ -64,7 +64,10 @@ object GeInterpretedRuntime extends CypherRuntime[RuntimeContext] {
       context.readOnly,
       columns,
       logicalPlan,
-      context.config.lenientCreateRelationship)
+      context.config.lenientCreateRelationship,
+      context.config.expandBatchSize,
+      context.config.sortBufferRows,
+      context.config.aggregationWorkers)
 
     new GeInterpretedRuntime(periodicCommitInfo,
       resultBuilderFactory,
@@ -92,7 +95,7 @@ object GeInterpretedRuntime extends CypherRuntime[RuntimeContext] {
       }
 
       if (doProfile)
-        builder.setPipeDecorator(new Profiler(profileInformation))
+        builder.setPipeDecorator(new Profiler(profileInformation, queryContext.kernelStatisticProvider))
 
       builder.build(params,
         readOnly,
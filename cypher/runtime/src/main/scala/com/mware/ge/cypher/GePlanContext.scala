@@ -54,7 +54,7 @@ import scala.collection.JavaConverters._
 
 object GePlanContext {
   def apply(executionEngine: GeCypherExecutionEngine, queryContext: GeCypherQueryContext): GePlanContext =
-    new GePlanContext(executionEngine, queryContext, InstrumentedGraphStatistics(GeGraphStatistics(executionEngine.getGraph), new MutableGraphStatisticsSnapshot()))
+    new GePlanContext(executionEngine, queryContext, InstrumentedGraphStatistics(GeGraphStatistics(executionEngine.getGraph, executionEngine.getStatistics), new MutableGraphStatisticsSnapshot()))
 }
 
 class GePlanContext(val executionEngine: GeCypherExecutionEngine, val queryContext: GeCypherQueryContext, val statistics: InstrumentedGraphStatistics)
@@ -49,11 +49,11 @@ import com.mware.ge.query.aggregations.{TermsAggregation, TermsResult}
 import com.mware.ge.search.SearchIndex
 import org.apache.commons.lang3.StringUtils
 import com.mware.ge.cypher.internal.runtime._
-import com.mware.ge.cypher.internal.runtime.interpreted.IndexDescriptorCompatibility
+import com.mware.ge.cypher.internal.runtime.interpreted.{IndexDescriptorCompatibility, ProfileKernelStatisticProvider}
 import com.mware.ge.cypher.internal.expressions.SemanticDirection
 import com.mware.ge.cypher.internal.logical.plans._
 import com.mware.ge.cypher.index.IndexQuery.ExactPredicate
-import com.mware.ge.cypher.internal.planner.spi.{IdempotentResult, IndexDescriptor}
+import com.mware.ge.cypher.internal.planner.spi.{IdempotentResult, IndexDescriptor, KernelStatisticProvider}
 import com.mware.ge.cypher.values.virtual.{GeEdgeBuilderWrappingValue, GeEdgeWrappingValue, GeVertexMutationWrappingNodeValue, GeVertexWrappingNodeValue, GeWrappingPath}
 import com.mware.ge.values.{AnyValue, ValueMapper}
 import com.mware.ge.values.storable.{TextValue, ValueGroup, Values}
@@ -69,6 +69,10 @@ class GeQueryContext(val executionEngine: GeCypherExecutionEngine,
 
   private lazy val valueMapper: ValueMapper[java.lang.Object] = new DefaultValueMapper()
   private val indexReader = new SearchIndexReader(queryContext)
+  private lazy val traversal = new GeGraphTraversal(queryContext)
+
+  override lazy val kernelStatisticProvider: KernelStatisticProvider =
+    new ProfileKernelStatisticProvider(queryContext.getElementCacheStatistics)
 
   override def withActiveRead: QueryContext = this
 
@@ -107,14 +111,24 @@ class GeQueryContext(val executionEngine: GeCypherExecutionEngine,
   }
 
   override def getRelationshipsForIds(node: String, dir: SemanticDirection, types: Option[Array[String]]): Iterator[RelationshipValue] = {
-    val geDir = dir match {
-      case SemanticDirection.INCOMING => Direction.IN
-      case SemanticDirection.OUTGOING => Direction.OUT
-      case SemanticDirection.BOTH => Direction.BOTH
-    }
+    queryContext.getEdgesForVertex(node, toGeDirection(dir), java.util.Optional.ofNullable(types.orNull))
+      .asScala
+  }
 
-    queryContext.getEdgesForVertex(node, geDir, java.util.Optional.ofNullable(types.orNull))
+  override def getRelationshipsForIdsBatch(nodes: Seq[String], dir: SemanticDirection, types: Option[Array[String]], loadNeighbours: Boolean): Map[String, Seq[RelationshipValue]] = {
+    queryContext.getEdgesForVertices(nodes.asJava, toGeDirection(dir), java.util.Optional.ofNullable(types.orNull), loadNeighbours)
       .asScala
+      .map { case (node, relationships) => node -> relationships.asScala.toIndexedSeq }
+      .toMap
+  }
+
+  override def nodesByIdBatch(ids: Seq[String]): Seq[NodeValue] =
+    queryContext.getVerticesById(ids.asJava).asScala.toIndexedSeq
+
+  private def toGeDirection(dir: SemanticDirection): Direction = dir match {
+    case SemanticDirection.INCOMING => Direction.IN
+    case SemanticDirection.OUTGOING => Direction.OUT
+    case SemanticDirection.BOTH => Direction.BOTH
   }
 
   override def getOrCreateLabelId(labelName: String): String = {
@@ -265,6 +279,14 @@ class GeQueryContext(val executionEngine: GeCypherExecutionEngine,
       .asScala
   }
 
+  override def nodeScanPartitions(label: Option[String], maxPartitions: Int, needsProperties: Boolean): Seq[NodeScanPartition] =
+    queryContext.getVertexScanPartitions(label.orNull, maxPartitions, if (needsProperties) FetchHints.ALL else FetchHints.NONE).asScala.map(partition => new NodeScanPartition {
+      override def scan[T](reader: Iterator[NodeValue] => T): T =
+        partition.scan(new java.util.function.Function[java.util.Iterator[NodeValue], T] {
+          override def apply(nodes: java.util.Iterator[NodeValue]): T = reader(nodes.asScala)
+        })
+    })
+
   override def getImportURL(url: URL): Either[String, URL] = Right(url)
 
   override def withAnyOpenQueryContext[T](work: QueryContext => T): T = work(this)
@@ -287,11 +309,14 @@ class GeQueryContext(val executionEngine: GeCypherExecutionEngine,
     }
   }
 
-  override def variableLengthPathExpand(realNode: String, minHops: Option[Int], maxHops: Option[Int], direction: SemanticDirection, relTypes: Seq[String]): Iterator[Path] = ???
+  override def variableLengthPathExpand(realNode: String, minHops: Option[Int], maxHops: Option[Int], direction: SemanticDirection, relTypes: Seq[String]): Iterator[Path] =
+    traversal.variableLengthPathExpand(realNode, minHops, maxHops, direction, relTypes)
 
-  override def singleShortestPath(left: String, right: String, depth: Int, expander: Expander, pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Option[Path] = ???
+  override def singleShortestPath(left: String, right: String, depth: Int, expander: Expander, pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Option[Path] =
+    traversal.singleShortestPath(left, right, depth, expander, pathPredicate, filters)
 
-  override def allShortestPath(left: String, right: String, depth: Int, expander: Expander, pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Iterator[Path] = ???
+  override def allShortestPath(left: String, right: String, depth: Int, expander: Expander, pathPredicate: KernelPredicate[Path], filters: Seq[KernelPredicate[Element]]): Iterator[Path] =
+    traversal.allShortestPath(left, right, depth, expander, pathPredicate, filters)
 
   override def nodeCountByCountStore(labelId: String): Long = {
     if (StringUtils.isEmpty(labelId)) {
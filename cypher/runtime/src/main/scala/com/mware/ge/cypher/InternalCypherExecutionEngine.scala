@@ -23,6 +23,7 @@
 package com.mware.ge.cypher
 
 import java.time.Clock
+import java.util.function.Supplier
 
 import com.mware.core.util.BcLoggerFactory
 import com.mware.ge.collection.Pair
@@ -73,19 +74,25 @@ class InternalCypherExecutionEngine(val executionEngine: GeCypherExecutionEngine
     val queryTracer = tracer.compileQuery(query)
 
     try {
-      val start = System.currentTimeMillis();
-      val preParsedQuery = preParser.preParseQuery(query, profile)
-      val executableQuery = getOrCompile(context, preParsedQuery, queryTracer, params)
-      if (preParsedQuery.executionMode.name != "explain") {
-        checkParameters(executableQuery.paramNames, params, executableQuery.extractedParams)
-      }
-      val combinedParams = params.updatedWith(executableQuery.extractedParams)
-      if (logger.isDebugEnabled)
-        logger.debug("Query compilation ("+ Thread.currentThread.getName +"): "+(System.currentTimeMillis() - start))
-      val result = executableQuery.execute(context, preParsedQuery, combinedParams, context.getAuthorizations)
-      result
+      // the snapshot follows the result and is released when the result is closed
+      context.takeSnapshot()
+      context.readInSnapshot(new Supplier[Result] {
+        override def get(): Result = {
+          val start = System.currentTimeMillis();
+          val preParsedQuery = preParser.preParseQuery(query, profile)
+          val executableQuery = getOrCompile(context, preParsedQuery, queryTracer, params)
+          if (preParsedQuery.executionMode.name != "explain") {
+            checkParameters(executableQuery.paramNames, params, executableQuery.extractedParams)
+          }
+          val combinedParams = params.updatedWith(executableQuery.extractedParams)
+          if (logger.isDebugEnabled)
+            logger.debug("Query compilation ("+ Thread.currentThread.getName +"): "+(System.currentTimeMillis() - start))
+          executableQuery.execute(context, preParsedQuery, combinedParams, context.getAuthorizations)
+        }
+      })
     } catch {
       case t: Throwable =>
+        context.releaseSnapshot()
         throw t
     } finally {
       queryTracer.close()
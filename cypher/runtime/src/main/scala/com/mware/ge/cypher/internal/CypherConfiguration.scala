@@ -55,7 +55,10 @@ object CypherConfiguration {
       10000,
       false,
       30000,
-      1
+      1,
+      1000,
+      10000,
+      100000
     )
   }
 
@@ -92,7 +95,10 @@ case class CypherConfiguration(version: CypherVersion,
                                morselSize: Int,
                                doSchedulerTracing: Boolean,
                                waitTimeout: Int,
-                               recompilationLimit: Int) {
+                               recompilationLimit: Int,
+                               expandBatchSize: Int,
+                               elementCacheSize: Int,
+                               sortBufferRows: Int) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -115,6 +121,9 @@ case class CypherConfiguration(version: CypherVersion,
       csvBufferSize = csvBufferSize,
       nonIndexedLabelWarningThreshold = 10000,
       planWithMinimumCardinalityEstimates = planWithMinimumCardinalityEstimates,
-      lenientCreateRelationship = lenientCreateRelationship
+      lenientCreateRelationship = lenientCreateRelationship,
+      expandBatchSize = expandBatchSize,
+      sortBufferRows = sortBufferRows,
+      aggregationWorkers = workers
     )
 }
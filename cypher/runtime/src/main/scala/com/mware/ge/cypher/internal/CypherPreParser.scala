@@ -44,7 +44,7 @@ case object CypherPreParser extends org.parboiled.scala.Parser with Base {
   def Cypher: Rule1[ConfigurationOptions] = rule("CYPHER options") {
     keyword("CYPHER") ~~
       optional(VersionNumber) ~~
-      zeroOrMore(PlannerOption | RuntimeOption | ExpressionEngineOption | StrategyOption | DebugFlag, WS) ~~> ConfigurationOptions
+      zeroOrMore(PlannerOption | RuntimeOption | ExpressionEngineOption | StrategyOption | DebugFlag | SortBufferRowsFlag, WS) ~~> ConfigurationOptions
   }
 
   def PlannerOption: Rule1[PreParserOption] = rule("planner option") (
@@ -74,6 +74,10 @@ case object CypherPreParser extends org.parboiled.scala.Parser with Base {
     keyword("debug") ~~ "=" ~~ SymbolicNameString ~~> DebugOption
   }
 
+  def SortBufferRowsFlag: Rule1[SortBufferRowsOption] = rule("sort buffer option") {
+    keyword("sortBufferRows") ~~ "=" ~~ (Digits ~> SortBufferRowsOption)
+  }
+
   def ExpressionEngineOption: Rule1[ExpressionEnginePreParserOption] = rule("expression engine option") (
     option("expressionEngine", "interpreted") ~ push(InterpretedExpressionOption)
       | option("expressionEngine", "compiled") ~ push(CompiledExpressionOption)
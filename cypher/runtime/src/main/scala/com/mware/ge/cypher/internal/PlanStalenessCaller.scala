@@ -45,7 +45,7 @@ class PlanStalenessCaller[EXECUTABLE_QUERY](clock: Clock,
     val reusability = reusabilityInfo(cachedExecutableQuery, cypherQueryContext)
     reusability match {
       case MaybeReusable(ref) =>
-        staleness(ref, GeGraphStatistics(cypherQueryContext.getGraph))
+        staleness(ref, GeGraphStatistics(cypherQueryContext.getGraph, cypherQueryContext.getStatistics))
 
       case FineToReuse => NotStale
       case NeedsReplan(x) => Stale(x)
@@ -39,6 +39,7 @@ case class PreParsedQuery(statement: String,
                           updateStrategy: CypherUpdateStrategy,
                           expressionEngine: CypherExpressionEngineOption,
                           debugOptions: Set[String],
+                          sortBufferRows: Option[Int],
                           recompilationLimitReached: Boolean = false) {
 
   val statementWithVersionAndPlanner: String = {
@@ -62,7 +63,9 @@ case class PreParsedQuery(statement: String,
 
     val debugFlags = debugOptions.map(flag => s"debug=$flag").mkString(" ")
 
-    s"CYPHER ${version.name} $plannerInfo $runtimeInfo $updateStrategyInfo $expressionEngineInfo $debugFlags $statement"
+    val sortBufferInfo = sortBufferRows.map(rows => s"sortBufferRows=$rows").getOrElse("")
+
+    s"CYPHER ${version.name} $plannerInfo $runtimeInfo $updateStrategyInfo $expressionEngineInfo $debugFlags $sortBufferInfo $statement"
   }
 
   def useCompiledExpressions: Boolean = expressionEngine == CypherExpressionEngineOption.compiled ||
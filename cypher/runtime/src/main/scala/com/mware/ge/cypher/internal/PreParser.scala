@@ -89,6 +89,7 @@ class PreParser(configuredVersion: CypherVersion,
     val expressionEngine: PPOption[CypherExpressionEngineOption] = new PPOption(configuredExpressionEngine)
     val updateStrategy: PPOption[CypherUpdateStrategy] = new PPOption(CypherUpdateStrategy.default)
     var debugOptions: Set[String] = Set()
+    val sortBufferRows: PPOption[Option[Int]] = new PPOption(None)
 
     def parseOptions(options: Seq[PreParserOption]): Unit =
       for (option <- options) {
@@ -107,6 +108,11 @@ class PreParser(configuredVersion: CypherVersion,
             updateStrategy.selectOrThrow( CypherUpdateStrategy(u.name), "Can't specify multiple conflicting update strategies")
           case DebugOption(debug) =>
             debugOptions = debugOptions + debug.toLowerCase()
+          case SortBufferRowsOption(rows) =>
+            val parsed = try { rows.toInt } catch { case _: NumberFormatException => 0 }
+            if (parsed <= 0)
+              throw new InvalidPreparserOption(s"Invalid sortBufferRows value: $rows")
+            sortBufferRows.selectOrThrow(Some(parsed), "Can't specify multiple conflicting sort buffer sizes")
           case engine: ExpressionEnginePreParserOption =>
             expressionEngine.selectOrThrow(CypherExpressionEngineOption(engine.name), "Can't specify multiple conflicting expression engines")
 
@@ -138,7 +144,8 @@ class PreParser(configuredVersion: CypherVersion,
                    runtime.pick,
                    updateStrategy.pick,
                    expressionEngine.pick,
-                   debugOptions)
+                   debugOptions,
+                   sortBufferRows.pick)
   }
 
   private class PPOption[T](val default: T) {
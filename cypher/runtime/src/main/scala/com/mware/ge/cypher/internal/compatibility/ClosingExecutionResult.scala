@@ -25,9 +25,11 @@ package com.mware.ge.cypher.internal.compatibility
 import java.io.PrintWriter
 import java.util
 import java.util.NoSuchElementException
+import java.util.function.Supplier
 
 import com.mware.ge.io.ResourceIterator
 import com.mware.ge.cypher.exceptionHandler.RunSafely
+import com.mware.ge.cypher.ge.GeCypherQueryContext
 import com.mware.ge.cypher.internal.runtime.planDescription.InternalPlanDescription
 import com.mware.ge.cypher.internal.runtime._
 import com.mware.ge.cypher.result.QueryResult.QueryResultVisitor
@@ -49,15 +51,20 @@ import com.mware.ge.cypher.query.{ExecutingQuery, QueryExecutionMonitor}
   *
   * Finally this class report to the [[innerMonitor]] when the query is closed.
   *
+  * The rows are produced in the store snapshot of the query, on whichever thread reads them, and the snapshot is
+  * released when the result is closed.
+  *
   * @param query metadata about the executing query
   * @param inner the actual result
   * @param runSafely RunSafely which converts any exception into the public exception space (subtypes of org.neo4j.cypher.CypherException)
   * @param innerMonitor monitor to report closing of the query to
+  * @param context the query context holding the store snapshot
   */
 class ClosingExecutionResult private(val query: ExecutingQuery,
                                      val inner: InternalExecutionResult,
                                      runSafely: RunSafely,
-                                     innerMonitor: QueryExecutionMonitor) extends InternalExecutionResult {
+                                     innerMonitor: QueryExecutionMonitor,
+                                     context: GeCypherQueryContext) extends InternalExecutionResult {
 
   self =>
 
@@ -66,8 +73,10 @@ class ClosingExecutionResult private(val query: ExecutingQuery,
   override def initiate(): Unit = {
     safely { inner.initiate() }
 
-    if (inner.isClosed)
+    if (inner.isClosed) {
+      context.releaseSnapshot()
       monitor.endSuccess(query)
+    }
   }
 
   override def javaIterator: ResourceIterator[java.util.Map[String, AnyRef]] = {
@@ -138,7 +147,11 @@ class ClosingExecutionResult private(val query: ExecutingQuery,
     }
 
   override def close(reason: CloseReason): Unit = runSafely({
-    inner.close(reason)
+    try {
+      inSnapshot { inner.close(reason) }
+    } finally {
+      context.releaseSnapshot()
+    }
     reason match {
       case Success => monitor.endSuccess(query)
       case Failure => monitor.endFailure(query, null)
@@ -160,21 +173,34 @@ class ClosingExecutionResult private(val query: ExecutingQuery,
       inner.accept(visitor)
     }
 
+  override def accept[EX <: Exception](visitor: QueryResultVisitor[EX], maxRecords: Long): Boolean =
+    safely {
+      val hasMore = inner.accept(visitor, maxRecords)
+      if (!hasMore)
+        close(Success)
+      hasMore
+    }
+
   override def executionMode: ExecutionMode = safely { inner.executionMode }
 
   override def toString: String = runSafely { inner.toString }
 
   // HELPERS
 
-  private def safely[T](body: => T): T = runSafely(body)(closeOnError)
+  private def safely[T](body: => T): T = runSafely(inSnapshot(body))(closeOnError)
 
   private def safelyAndClose[T](body: => T): T =
     runSafely({
-      val x = body
+      val x = inSnapshot(body)
       close(Success)
       x
     })(closeOnError)
 
+  private def inSnapshot[T](body: => T): T =
+    context.readInSnapshot(new Supplier[T] {
+      override def get(): T = body
+    })
+
   private def closeIfEmpty(iterator: java.util.Iterator[_]): Unit =
     if (!iterator.hasNext) {
       close(Success)
@@ -210,9 +236,10 @@ object ClosingExecutionResult {
   def wrapAndInitiate(query: ExecutingQuery,
                       inner: InternalExecutionResult,
                       runSafely: RunSafely,
-                      innerMonitor: QueryExecutionMonitor): ClosingExecutionResult = {
+                      innerMonitor: QueryExecutionMonitor,
+                      context: GeCypherQueryContext): ClosingExecutionResult = {
 
-    val result = new ClosingExecutionResult(query, inner, runSafely, innerMonitor)
+    val result = new ClosingExecutionResult(query, inner, runSafely, innerMonitor, context)
     result.initiate()
     result
   }
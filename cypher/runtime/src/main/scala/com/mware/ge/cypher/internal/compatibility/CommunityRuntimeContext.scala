@@ -43,7 +43,8 @@ case class CommunityRuntimeContextCreator(config: CypherPlannerConfiguration) ex
                       clock: Clock,
                       debugOptions: Set[String],
                       readOnly: Boolean,
-                      ignore: Boolean
+                      ignore: Boolean,
+                      sortBufferRows: Option[Int]
                      ): RuntimeContext =
-    CommunityRuntimeContext(tokenContext, readOnly, config)
+    CommunityRuntimeContext(tokenContext, readOnly, sortBufferRows.fold(config)(rows => config.copy(sortBufferRows = rows)))
 }
@@ -151,6 +151,13 @@ class CompatibilityClosingExecutionResult(val query: ExecutingQuery,
     endQueryExecution()
   }
 
+  override def accept[EX <: Exception](visitor: QueryResultVisitor[EX], maxRecords: Long): Boolean = runSafely {
+    val hasMore = inner.accept(visitor, maxRecords)
+    if (!hasMore)
+      endQueryExecution()
+    hasMore
+  }
+
   override def toString: String = runSafely {
     inner.toString()
   }
@@ -75,7 +75,8 @@ trait RuntimeContextCreator[CONTEXT <: RuntimeContext] {
              clock: Clock,
              debugOptions: Set[String],
              readOnly: Boolean,
-             compileExpressions: Boolean
+             compileExpressions: Boolean,
+             sortBufferRows: Option[Int]
             ): CONTEXT
 }
 
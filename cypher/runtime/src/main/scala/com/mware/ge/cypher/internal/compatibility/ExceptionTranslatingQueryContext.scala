@@ -27,7 +27,7 @@ import java.net.URL
 import com.mware.ge.cypher.Path
 import com.mware.ge.Element
 import com.mware.ge.cypher.index.{IndexQuery, IndexReference}
-import com.mware.ge.cypher.internal.planner.spi.IndexDescriptor
+import com.mware.ge.cypher.internal.planner.spi.{IndexDescriptor, KernelStatisticProvider}
 import com.mware.ge.cypher.util.NodeValueIndexCursor
 import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.runtime._
@@ -45,6 +45,8 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
 
   override def resources: ResourceManager = inner.resources
 
+  override def kernelStatisticProvider: KernelStatisticProvider = inner.kernelStatisticProvider
+
   override def setLabelsOnNode(node: String, labelIds: Iterator[String]): Int =
     translateException(inner.setLabelsOnNode(node, labelIds))
 
@@ -105,6 +107,11 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getNodesByLabel(label: String): Iterator[NodeValue] =
     translateException(inner.getNodesByLabel(label))
 
+  override def nodeScanPartitions(label: Option[String], maxPartitions: Int, needsProperties: Boolean): Seq[NodeScanPartition] =
+    translateException(inner.nodeScanPartitions(label, maxPartitions, needsProperties)).map(partition => new NodeScanPartition {
+      override def scan[T](reader: Iterator[NodeValue] => T): T = translateException(partition.scan(reader))
+    })
+
   override def nodeAsMap(id: String): MapValue = translateException(inner.nodeAsMap(id))
 
   override def relationshipAsMap(id: String): MapValue = translateException(inner.relationshipAsMap(id))
@@ -201,6 +208,12 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getRelationshipsForIds(node: String, dir: SemanticDirection, types: Option[Array[String]]) =
     translateException(inner.getRelationshipsForIds(node, dir, types))
 
+  override def getRelationshipsForIdsBatch(nodes: Seq[String], dir: SemanticDirection, types: Option[Array[String]], loadNeighbours: Boolean) =
+    translateException(inner.getRelationshipsForIdsBatch(nodes, dir, types, loadNeighbours))
+
+  override def nodesByIdBatch(ids: Seq[String]) =
+    translateException(inner.nodesByIdBatch(ids))
+
    override def indexSeekByContains[RESULT <: AnyRef](index: IndexReference,
                                                      needsValues: Boolean,
                                                      indexOrder: IndexOrder,
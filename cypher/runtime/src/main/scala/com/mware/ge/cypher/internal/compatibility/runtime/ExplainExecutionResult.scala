@@ -63,6 +63,7 @@ case class ExplainExecutionResult(fieldNames: Array[String],
 
   override def accept[EX <: Exception](visitor: ResultVisitor[EX]): Unit = {}
   override def accept[EX <: Exception](visitor: QueryResultVisitor[EX]): Unit = {}
+  override def accept[EX <: Exception](visitor: QueryResultVisitor[EX], maxRecords: Long): Boolean = false
 
   override def executionMode: ExecutionMode = ExplainMode
 
@@ -77,7 +77,10 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     readOnly: Boolean,
                                                     columns: List[String],
                                                     logicalPlan: LogicalPlan,
-                                                    lenientCreateRelationship: Boolean)
+                                                    lenientCreateRelationship: Boolean,
+                                                    expandBatchSize: Int,
+                                                    sortBufferRows: Int,
+                                                    aggregationWorkers: Int)
   extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan) {
 
   override def create(queryContext: QueryContext): ExecutionResultBuilder = InterpretedExecutionWorkflowBuilder(queryContext: QueryContext)
@@ -90,7 +93,10 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                      pipeDecorator,
                      triadicState = mutable.Map.empty,
                      repeatableReads = mutable.Map.empty,
-                     lenientCreateRelationship = lenientCreateRelationship)
+                     lenientCreateRelationship = lenientCreateRelationship,
+                     expandBatchSize = expandBatchSize,
+                     sortBufferRows = sortBufferRows,
+                     aggregationWorkers = aggregationWorkers)
     }
 
     override def buildResultIterator(results: Iterator[ExecutionContext], readOnly: Boolean): IteratorBasedResult = {
@@ -199,6 +199,38 @@ class StandardInternalExecutionResult(context: QueryContext,
     }
   }
 
+  private lazy val suspendedCursor = new MaterializedResultCursor
+
+  override def accept[E <: Exception](visitor: QueryResultVisitor[E], maxRecords: Long): Boolean = {
+    if (isMaterialized) {
+      var visited = 0L
+      var continue = true
+      while (continue && visited < maxRecords && suspendedCursor.hasNext) {
+        suspendedCursor.next()
+        continue = visitor.visit(suspendedCursor.record())
+        visited += 1
+      }
+      val hasMore = suspendedCursor.hasNext
+      if (!hasMore)
+        close(Success)
+      hasMore
+    } else if (isOpen) {
+      runtimeResult.accept(new QueryResultVisitor[E] {
+        private var visited = 0L
+        override def visit(record: QueryResult.Record): Boolean = {
+          visited += 1
+          visitor.visit(record) && visited < maxRecords
+        }
+      })
+      val hasMore = runtimeResult.consumptionState != ConsumptionState.EXHAUSTED
+      if (!hasMore)
+        close(Success)
+      hasMore
+    } else {
+      false
+    }
+  }
+
   class MaterializedResultCursor {
     private var i = -1
     def next(): Boolean = {
@@ -206,6 +238,8 @@ class StandardInternalExecutionResult(context: QueryContext,
       i < materializedResult.size()
     }
 
+    def hasNext: Boolean = i + 1 < materializedResult.size()
+
     def record(): QueryResult.Record = MaterializedRecord(materializedResult.get(i))
 
     case class MaterializedRecord(override val fields: Array[AnyValue]) extends QueryResult.Record
@@ -51,6 +51,10 @@ class InterpretedProfileInformation extends QueryProfile {
   }
 }
 
-case class PageCacheStats(hits: Long, misses: Long)
+case class PageCacheStats(hits: Long, misses: Long) {
+  def +(other: PageCacheStats): PageCacheStats = PageCacheStats(hits + other.hits, misses + other.misses)
+
+  def -(other: PageCacheStats): PageCacheStats = PageCacheStats(hits - other.hits, misses - other.misses)
+}
 
 
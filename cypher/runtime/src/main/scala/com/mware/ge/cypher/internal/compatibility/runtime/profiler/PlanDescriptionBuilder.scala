@@ -59,6 +59,9 @@ class PlanDescriptionBuilder(logicalPlan: LogicalPlan,
         BuildPlanDescription(input)
           .addArgument(Arguments.Rows, data.rows)
           .addArgument(Arguments.DbHits, data.dbHits)
+          .addArgument(Arguments.PageCacheHits, data.pageCacheHits)
+          .addArgument(Arguments.PageCacheMisses, data.pageCacheMisses)
+          .addArgument(Arguments.PageCacheHitRatio, data.pageCacheHitRatio())
           .addArgument(Arguments.Time, data.time())
         .plan
     }
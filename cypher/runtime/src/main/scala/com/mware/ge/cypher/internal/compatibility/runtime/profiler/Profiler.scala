@@ -24,6 +24,7 @@ package com.mware.ge.cypher.internal.compatibility.runtime.profiler
 
 import com.mware.ge.cypher.util.{NodeValueIndexCursor, RelationshipIterator, RelationshipVisitor, StringIterator}
 import com.mware.ge.cypher.internal.compatibility.runtime.helpers.PrimitiveLongHelper
+import com.mware.ge.cypher.internal.planner.spi.KernelStatisticProvider
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeDecorator, QueryState}
 import com.mware.ge.cypher.internal.runtime.interpreted.{DelegatingOperations, DelegatingQueryContext, ExecutionContext}
 import com.mware.ge.cypher.internal.runtime.{Operations, QueryContext}
@@ -31,15 +32,16 @@ import com.mware.ge.cypher.internal.util.attribution.Id
 import com.mware.ge.values.storable.Value
 import com.mware.ge.values.virtual.{NodeValue, RelationshipValue}
 
-class Profiler(stats: InterpretedProfileInformation) extends PipeDecorator {
+class Profiler(stats: InterpretedProfileInformation, statisticProvider: KernelStatisticProvider) extends PipeDecorator {
   outerProfiler =>
 
   private var parentPipe: Option[Pipe] = None
+  private val pageCacheTracker = new PageCacheTracker(stats, statisticProvider)
 
   def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
     val oldCount = stats.rowMap.get(pipe.id).map(_.count).getOrElse(0L)
     val resultIter =
-      new ProfilingIterator(iter, oldCount, pipe.id)
+      new ProfilingIterator(iter, oldCount, pipe.id, pageCacheTracker)
 
     stats.rowMap(pipe.id) = resultIter
     resultIter
@@ -130,6 +132,8 @@ final class ProfilingPipeQueryContext(inner: QueryContext, val p: Pipe)
 
     override def nodeReference(): String = inner.nodeReference()
 
+    override def limitHint(limit: Long): Unit = inner.limitHint(limit)
+
     override def next(): Boolean = {
       increment()
       inner.next()
@@ -151,22 +155,49 @@ final class ProfilingPipeQueryContext(inner: QueryContext, val p: Pipe)
   override def relationshipOps: Operations[RelationshipValue] = new ProfilerOperations(inner.relationshipOps)
 }
 
-class ProfilingIterator(inner: Iterator[ExecutionContext], startValue: Long, pipeId: Id) extends Iterator[ExecutionContext]
+/**
+  * Charges the page cache hits and misses to the pipes causing them. The calls to the iterator of a pipe are measured
+  * and the hits and misses of the calls to its source pipes, which are nested in them, are taken out and charged to
+  * the source pipes instead.
+  */
+class PageCacheTracker(stats: InterpretedProfileInformation, statisticProvider: KernelStatisticProvider) {
+  // the hits and misses of the measured calls nested in the current one, per thread for the parallel pipes
+  private val nested = new ThreadLocal[PageCacheStats] {
+    override def initialValue(): PageCacheStats = PageCacheStats(0L, 0L)
+  }
+
+  def measure[T](pipeId: Id)(call: => T): T = {
+    val outerNested = nested.get()
+    nested.set(PageCacheStats(0L, 0L))
+    val start = current
+    try {
+      call
+    } finally {
+      val total = current - start
+      val own = total - nested.get()
+      stats.pageCacheMap.synchronized {
+        stats.pageCacheMap(pipeId) = stats.pageCacheMap.getOrElse(pipeId, PageCacheStats(0L, 0L)) + own
+      }
+      nested.set(outerNested + total)
+    }
+  }
+
+  // the calls of other threads run other pipes, they must not be charged to this one
+  private def current: PageCacheStats =
+    PageCacheStats(statisticProvider.getThreadPageCacheHits, statisticProvider.getThreadPageCacheMisses)
+}
+
+class ProfilingIterator(inner: Iterator[ExecutionContext], startValue: Long, pipeId: Id,
+                        pageCacheTracker: PageCacheTracker) extends Iterator[ExecutionContext]
   with Counter {
 
   _count = startValue
-  private var updatedStatistics = false
 
-  def hasNext: Boolean = {
-    val hasNext = inner.hasNext
-    if (!hasNext && !updatedStatistics) {
-      // TODO: update statistics
-      updatedStatistics = true
-    }
-    hasNext
+  def hasNext: Boolean = pageCacheTracker.measure(pipeId) {
+    inner.hasNext
   }
 
-  def next(): ExecutionContext = {
+  def next(): ExecutionContext = pageCacheTracker.measure(pipeId) {
     increment()
     inner.next()
   }
@@ -29,7 +29,7 @@ import com.mware.ge.cypher.Path
 import com.mware.ge.cypher.index.{IndexQuery, IndexReference}
 import com.mware.ge.cypher.internal.expressions.SemanticDirection
 import com.mware.ge.cypher.internal.logical.plans.{IndexOrder, QualifiedName}
-import com.mware.ge.cypher.internal.planner.spi.IndexDescriptor
+import com.mware.ge.cypher.internal.planner.spi.{IndexDescriptor, KernelStatisticProvider}
 import com.mware.ge.cypher.internal.runtime._
 import com.mware.ge.cypher.util.{NodeValueIndexCursor, RelationshipIterator, StringIterator}
 import com.mware.ge.values.AnyValue
@@ -50,6 +50,8 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
 
   override def resources: ResourceManager = inner.resources
 
+  override def kernelStatisticProvider: KernelStatisticProvider = inner.kernelStatisticProvider
+
   override def withActiveRead: QueryContext = inner.withActiveRead
 
   override def setLabelsOnNode(node: String, labelIds: Iterator[String]): Int =
@@ -75,6 +77,14 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
   override def getRelationshipsForIds(node: String, dir: SemanticDirection, types: Option[Array[String]]): Iterator[RelationshipValue] =
   manyDbHits(inner.getRelationshipsForIds(node, dir, types))
 
+  override def getRelationshipsForIdsBatch(nodes: Seq[String], dir: SemanticDirection, types: Option[Array[String]], loadNeighbours: Boolean): Map[String, Seq[RelationshipValue]] =
+    inner.getRelationshipsForIdsBatch(nodes, dir, types, loadNeighbours).map {
+      case (node, relationships) => node -> manyDbHits(relationships.iterator).toIndexedSeq
+    }
+
+  override def nodesByIdBatch(ids: Seq[String]): Seq[NodeValue] =
+    manyDbHits(inner.nodesByIdBatch(ids).iterator).toIndexedSeq
+
   override def nodeOps = inner.nodeOps
 
   override def relationshipOps = inner.relationshipOps
@@ -127,6 +137,9 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
 
   override def getNodesByLabel(id: String): Iterator[NodeValue] = manyDbHits(inner.getNodesByLabel(id))
 
+  override def nodeScanPartitions(label: Option[String], maxPartitions: Int, needsProperties: Boolean): Seq[NodeScanPartition] =
+    inner.nodeScanPartitions(label, maxPartitions, needsProperties)
+
   override def nodeAsMap(id: String): MapValue = {
     val map = inner.nodeAsMap(id)
     //one hit finding the node, then finding the properies
@@ -238,6 +238,9 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
 
   override def getCachedPropertyAt(offset: Int): Value = fail()
 
+  def cachedPropertyEntries: Iterator[(CachedNodeProperty, Value)] =
+    if (cachedProperties == null) Iterator.empty else cachedProperties.iterator
+
   override def invalidateCachedProperties(node: String): Unit = {
     if (cachedProperties != null)
       cachedProperties.keys.filter(cnp => apply(cnp.nodeVariableName) match {
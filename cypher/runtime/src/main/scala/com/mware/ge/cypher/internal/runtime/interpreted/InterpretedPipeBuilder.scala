@@ -29,7 +29,7 @@ import com.mware.ge.cypher.internal.runtime.ProcedureCallMode
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.convert.PatternConverters._
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection}
-import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression}
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression, Add => CommandAdd}
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.predicates.{Predicate, True}
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.{QueryState, _}
 import com.mware.ge.cypher.internal.logical.plans
@@ -190,8 +190,8 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         TopNPipe(source, buildExpression(limit),
           ExecutionContextOrdering.asComparator(sortItems.map(translateColumnOrder).toList))(id = id)
 
-      case LimitPlan(_, count, DoNotIncludeTies) =>
-        LimitPipe(source, buildExpression(count))(id = id)
+      case LimitPlan(sourcePlan, count, DoNotIncludeTies) =>
+        LimitPipe(pushDownLimit(source, sourcePlan, count), buildExpression(count))(id = id)
 
       case LimitPlan(_, count, IncludeTies) =>
         (source, count) match {
@@ -347,6 +347,23 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
     }
   }
 
+  /**
+    * Lets an index seek or scan directly below a LIMIT (optionally behind a SKIP) stop the search after the rows
+    * the LIMIT will read.
+    */
+  private def pushDownLimit(source: Pipe, sourcePlan: LogicalPlan, count: ASTExpression): Pipe =
+    (source, sourcePlan) match {
+      case (index: IndexLimitHint, _) =>
+        index.withLimitHint(getBuildExpression(source.id)(count))
+
+      case (skip@SkipPipe(index: IndexLimitHint, skipExp), SkipPlan(_, skipCount)) =>
+        val buildExpression = getBuildExpression(skip.source.id)
+        val limit = CommandAdd(buildExpression(skipCount), buildExpression(count))
+        SkipPipe(index.withLimitHint(limit), skipExp)(id = skip.id)
+
+      case _ => source
+    }
+
   private def varLengthPredicate(id: Id, predicates: Seq[(LogicalVariable, ASTExpression)]): VarLengthPredicate = {
     //Creates commands out of the predicates
     def asCommand(predicates: Seq[(LogicalVariable, ASTExpression)]): ((ExecutionContext, QueryState, AnyValue) => Boolean, Seq[Predicate]) = {
@@ -34,4 +34,12 @@ class ProfileKernelStatisticProvider(statisticProvider: StatisticProvider) exten
   override def getPageCacheMisses: Long = {
     statisticProvider.getPageCacheMisses
   }
+
+  override def getThreadPageCacheHits: Long = {
+    statisticProvider.getThreadPageCacheHits
+  }
+
+  override def getThreadPageCacheMisses: Long = {
+    statisticProvider.getThreadPageCacheMisses
+  }
 }
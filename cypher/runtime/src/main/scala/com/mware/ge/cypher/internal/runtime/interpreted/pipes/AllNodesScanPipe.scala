@@ -25,11 +25,19 @@ package com.mware.ge.cypher.internal.runtime.interpreted.pipes
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.util.attribution.Id
 
-case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends Pipe {
+case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends Pipe with ParallelScanSource {
 
   protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
     val baseContext = state.newExecutionContext(executionContextFactory)
     state.query.nodeOps.all.map(n => executionContextFactory.copyWith(baseContext, ident, n))
   }
 
+  override def scanPartitions(state: QueryState, maxPartitions: Int, needsProperties: Boolean): Seq[RowScanPartition] = {
+    val baseContext = state.newExecutionContext(executionContextFactory)
+    state.query.nodeScanPartitions(None, maxPartitions, needsProperties).map(partition => new RowScanPartition {
+      override def scan[T](reader: Iterator[ExecutionContext] => T): T =
+        partition.scan(nodes => reader(nodes.map(n => executionContextFactory.copyWith(baseContext, ident, n))))
+    })
+  }
+
 }
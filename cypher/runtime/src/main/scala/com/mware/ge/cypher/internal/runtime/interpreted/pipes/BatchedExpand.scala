@@ -0,0 +1,91 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.expressions.SemanticDirection
+import com.mware.ge.cypher.internal.runtime.QueryContext
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.values.AnyValue
+import com.mware.ge.values.virtual.{NodeValue, RelationshipValue}
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Used by the expand pipes to read the relationships of a whole morsel of input rows with a single bulk request
+ * instead of one request per row. Rows are still produced in input order.
+ */
+trait BatchedExpand {
+
+  /**
+   * Groups the input into morsels without reading ahead more than needed: the first morsel has a single row and
+   * every following one doubles in size up to the expand batch size, so a LIMIT above the expand only pulls a few
+   * more rows than it returns.
+   */
+  protected def morsels(input: Iterator[ExecutionContext], state: QueryState): Iterator[Seq[ExecutionContext]] = {
+    val maxSize = math.max(1, state.expandBatchSize)
+    new Iterator[Seq[ExecutionContext]] {
+      private var size = 1
+
+      override def hasNext: Boolean = input.hasNext
+
+      override def next(): Seq[ExecutionContext] = {
+        if (!input.hasNext) Iterator.empty.next()
+        val morsel = new ArrayBuffer[ExecutionContext](size)
+        while (morsel.size < size && input.hasNext) {
+          morsel += input.next()
+        }
+        size = math.min(size * 2, maxSize)
+        morsel
+      }
+    }
+  }
+
+  /**
+   * Returns the relationships of every distinct node among `fromNodes`, keyed by node id. Values that are not
+   * nodes are skipped. The nodes on the other side are only read up front when `loadNeighbours` is set, otherwise
+   * they are loaded when first used.
+   */
+  protected def expandMorsel(query: QueryContext,
+                             fromNodes: Seq[AnyValue],
+                             dir: SemanticDirection,
+                             relTypes: Option[Array[String]],
+                             loadNeighbours: Boolean): Map[String, Seq[RelationshipValue]] = {
+    val nodeIds = fromNodes.collect { case n: NodeValue => n.id() }.distinct
+    if (nodeIds.isEmpty) Map.empty
+    else query.getRelationshipsForIdsBatch(nodeIds, dir, relTypes, loadNeighbours)
+  }
+}
@@ -45,7 +45,7 @@ import scala.collection.mutable.ArrayBuffer
  * - cache all found connecting relationships.
  *
  */
-trait CachingExpandInto {
+trait CachingExpandInto extends BatchedExpand {
 
   /**
    * Finds all relationships connecting fromNode and toNode.
@@ -81,6 +81,28 @@ trait CachingExpandInto {
       relIterator(query, fromNode, toNode, alternate(), relTypes, relCache, dir)
   }
 
+  /**
+   * Finds the connecting relationships for all node pairs of a morsel that are not cached yet, expanding every
+   * distinct start node with a single bulk request. The result is keyed by (fromNode id, toNode id) and is also
+   * added to the cache while it has room. Only the ids of the other nodes are compared, so they are not loaded.
+   */
+  protected def findRelationshipsForMorsel(query: QueryContext, pairs: Seq[(NodeValue, NodeValue)],
+                                           relCache: RelationshipsCache, dir: SemanticDirection,
+                                           relTypes: Option[Array[String]]): Map[(String, String), Seq[RelationshipValue]] = {
+    val missing = pairs.filter { case (fromNode, toNode) => relCache.get(fromNode, toNode, dir).isEmpty }
+    if (missing.isEmpty) {
+      Map.empty
+    } else {
+      val relationshipsByNode = expandMorsel(query, missing.map(_._1), dir, relTypes, loadNeighbours = false)
+      missing.map {
+        case (fromNode, toNode) =>
+          val connected = relationshipsByNode.getOrElse(fromNode.id(), Seq.empty).filter(rel => rel.otherNode(fromNode) == toNode)
+          relCache.put(fromNode, toNode, connected, dir)
+          (fromNode.id(), toNode.id()) -> connected
+      }.toMap
+    }
+  }
+
   private var alternateState = false
 
   private def alternate(): Boolean = {
@@ -24,10 +24,10 @@ package com.mware.ge.cypher.internal.runtime.interpreted.pipes
 
 import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
-import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression}
-import com.mware.ge.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, CachedNodeProperty, Expression, KeysFunction, LabelsFunction, PropertiesFunction, Property}
+import com.mware.ge.cypher.internal.runtime.interpreted.pipes.aggregation.{AggregationFunction, MergeableAggregationFunction}
 import com.mware.ge.cypher.internal.util.attribution.Id
-import com.mware.ge.values.virtual.{ListValue, MapValue, VirtualValues}
+import com.mware.ge.values.virtual.{ListValue, VirtualValues}
 
 import scala.collection.{immutable, mutable}
 import scala.collection.mutable.{Map => MutableMap}
@@ -89,34 +89,70 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
         }
     }
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+  private val aggregationNames: IndexedSeq[String] = aggregations.keys.toIndexedSeq
 
-    val result = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
-    val keyNames = keyExpressions.keySet.toList
-    val aggregationNames: IndexedSeq[String] = aggregations.keys.toIndexedSeq
-    val keyNamesSize = keyNames.size
-    val mapSize = keyNamesSize + aggregationNames.size
-
-    def createEmptyResult(params: MapValue): Iterator[ExecutionContext] = {
-      val newMap = MutableMaps.empty[String, AnyValue]
-      val values = aggregations.map(_._2.createAggregationFunction.result(state))
-      val aggregationNamesAndFunctions: IndexedSeq[(String, AnyValue)] = aggregationNames zip values
-
-      aggregationNamesAndFunctions.toMap
-        .foreach { case (name, zeroValue) => newMap += name -> zeroValue}
-      Iterator.single(ExecutionContext(newMap))
-    }
+  private val mapSize = keyExpressions.size + aggregationNames.size
+
+  private val mergeable = aggregations.values.forall(_.createAggregationFunction.isInstanceOf[MergeableAggregationFunction])
+
+  // the nodes of a parallel scan are only decoded up front when the aggregation reads them, like in count(n.prop)
+  private val readsNodes = (keyExpressions.values ++ aggregations.values).exists(_.exists {
+    case _: Property | _: CachedNodeProperty | _: PropertiesFunction | _: KeysFunction | _: LabelsFunction => true
+    case _ => false
+  })
 
-    // This code is not pretty. It's full of asInstanceOf calls and other things that might irk you.
-    // You'll just have to trust that the original authors spent time profiling and making sure that this
-    // code runs really fast.
-    // If you feel like cleaning it up - please make sure to not regress in performance. This is a hot spot.
-    def createResults(groupingKey: AnyValue, aggregator: scala.Seq[AggregationFunction]): ExecutionContext = {
-      val newMap = MutableMaps.create[String, AnyValue](mapSize)
-      createResultFunction(newMap, groupingKey)
-      (aggregationNames zip aggregator.map(_.result(state))).foreach(newMap += _)
-      ExecutionContext(newMap)
+  override def createResults(state: QueryState): Iterator[ExecutionContext] = source match {
+    // profiling counts rows and db hits on the calling thread, so PROFILE keeps the serial aggregation
+    case scan: ParallelScanSource if mergeable && state.decorator == NullPipeDecorator && aggregationWorkers(state) > 1 =>
+      val decoratedState = state.decorator.decorate(this, state)
+      decoratedState.setExecutionContextFactory(executionContextFactory)
+      state.decorator.decorate(this, parallelResults(scan, decoratedState))
+    case _ =>
+      super.createResults(state)
+  }
+
+  // the workers of all the queries share a bounded pool, a query never asks for more workers than the pool has
+  private def aggregationWorkers(state: QueryState): Int =
+    math.min(state.aggregationWorkers, ParallelAggregation.poolSize)
+
+  private def parallelResults(scan: ParallelScanSource, state: QueryState): Iterator[ExecutionContext] = {
+    val workers = aggregationWorkers(state)
+    val aggregation = new ParallelAggregation(groupingFunction, aggregations.values.toIndexedSeq, workers, state.sortBufferRows)
+    val groups = aggregation.aggregate(scan.scanPartitions(state, workers * 4, readsNodes), state)
+
+    if (!groups.hasNext && keyExpressions.isEmpty) {
+      createEmptyResult(state)
+    } else {
+      groups.map {
+        case (key, aggregator) => createResults(key, aggregator, state)
+      }
     }
+  }
+
+  private def createEmptyResult(state: QueryState): Iterator[ExecutionContext] = {
+    val newMap = MutableMaps.empty[String, AnyValue]
+    val values = aggregations.map(_._2.createAggregationFunction.result(state))
+    val aggregationNamesAndFunctions: IndexedSeq[(String, AnyValue)] = aggregationNames zip values
+
+    aggregationNamesAndFunctions.toMap
+      .foreach { case (name, zeroValue) => newMap += name -> zeroValue}
+    Iterator.single(ExecutionContext(newMap))
+  }
+
+  // This code is not pretty. It's full of asInstanceOf calls and other things that might irk you.
+  // You'll just have to trust that the original authors spent time profiling and making sure that this
+  // code runs really fast.
+  // If you feel like cleaning it up - please make sure to not regress in performance. This is a hot spot.
+  private def createResults(groupingKey: AnyValue, aggregator: scala.Seq[AggregationFunction], state: QueryState): ExecutionContext = {
+    val newMap = MutableMaps.create[String, AnyValue](mapSize)
+    createResultFunction(newMap, groupingKey)
+    (aggregationNames zip aggregator.map(_.result(state))).foreach(newMap += _)
+    ExecutionContext(newMap)
+  }
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+
+    val result = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
 
     input.foreach(ctx => {
       val groupingValue: AnyValue = groupingFunction(ctx, state)
@@ -127,11 +163,11 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       functions.foreach(func => func(ctx, state))
     })
 
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
+    if (result.isEmpty && keyExpressions.isEmpty) {
+      createEmptyResult(state)
     } else {
       result.map {
-        case (key, aggregator) => createResults(key, aggregator)
+        case (key, aggregator) => createResults(key, aggregator, state)
       }.toIterator
     }
   }
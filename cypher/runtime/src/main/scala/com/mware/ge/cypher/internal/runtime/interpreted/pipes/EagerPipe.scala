@@ -28,8 +28,6 @@ import com.mware.ge.cypher.internal.util.attribution.Id
 case class EagerPipe(src: Pipe)(val id: Id = Id.INVALID_ID)
   extends PipeWithSource(src) {
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val buffer = input.toIndexedSeq
-    buffer.toIterator
-  }
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    new SpillingRowBuffer(state.sortBufferRows, state).buffer(input)
 }
@@ -36,22 +36,25 @@ case class ExpandAllPipe(source: Pipe,
                          toName: String,
                          dir: SemanticDirection,
                          types: LazyTypes)
-                        (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+                        (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) with BatchedExpand {
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    input.flatMap {
-      row =>
-        getFromNode(row) match {
-          case n: NodeValue =>
-            val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
-            relationships.map { r =>
+    morsels(input, state).flatMap {
+      morsel =>
+        val fromNodes = morsel.map(getFromNode)
+        val relationshipsByNode = expandMorsel(state.query, fromNodes, dir, types.types(state.query), loadNeighbours = true)
+
+        morsel.iterator.zip(fromNodes.iterator).flatMap {
+          case (row, n: NodeValue) =>
+            val relationships: Seq[RelationshipValue] = relationshipsByNode.getOrElse(n.id(), Seq.empty)
+            relationships.iterator.map { r =>
                 val other = r.otherNode(n)
                 executionContextFactory.copyWith(row, relName, r, toName, other)
             }
 
-          case Values.NO_VALUE => None
+          case (_, Values.NO_VALUE) => None
 
-          case value => throw new InternalException(s"Expected to find a node at '$fromName' but found $value instead")
+          case (_, value) => throw new InternalException(s"Expected to find a node at '$fromName' but found $value instead")
         }
     }
   }
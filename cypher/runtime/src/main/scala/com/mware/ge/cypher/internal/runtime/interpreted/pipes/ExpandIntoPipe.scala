@@ -53,25 +53,42 @@ case class ExpandIntoPipe(source: Pipe,
     //cache of known connected nodes
     val relCache = new RelationshipsCache(CACHE_SIZE)
 
-    input.flatMap {
-      row =>
-        val fromNode = getRowNode(row, fromName)
-        fromNode match {
-          case fromNode: NodeValue =>
-            val toNode = getRowNode(row, toName)
-            toNode match {
-              case Values.NO_VALUE => Iterator.empty
-              case n: NodeValue =>
+    morsels(input, state).flatMap {
+      morsel =>
+        val pairs = morsel.flatMap {
+          row =>
+            getRowNode(row, fromName) match {
+              case fromNode: NodeValue => getRowNode(row, toName) match {
+                case toNode: NodeValue => Some((fromNode, toNode))
+                case _ => None
+              }
+              case _ => None
+            }
+        }
+        val morselRelationships = findRelationshipsForMorsel(state.query, pairs, relCache, dir, lazyTypes.types(state.query))
 
-                val relationships = relCache.get(fromNode, n, dir)
-                  .getOrElse(findRelationships(state.query, fromNode, n, relCache, dir, lazyTypes.types(state.query)))
+        morsel.iterator.flatMap {
+          row =>
+            val fromNode = getRowNode(row, fromName)
+            fromNode match {
+              case fromNode: NodeValue =>
+                val toNode = getRowNode(row, toName)
+                toNode match {
+                  case Values.NO_VALUE => Iterator.empty
+                  case n: NodeValue =>
 
-                if (relationships.isEmpty) Iterator.empty
-                else relationships.map(r => executionContextFactory.copyWith(row, relName, r))
-              case _ => throw new InternalException(s"$toNode must be node or null")
-            }
+                    val relationships = relCache.get(fromNode, n, dir)
+                      .orElse(morselRelationships.get((fromNode.id(), n.id())))
+                      .map(_.iterator)
+                      .getOrElse(findRelationships(state.query, fromNode, n, relCache, dir, lazyTypes.types(state.query)))
 
-          case Values.NO_VALUE => Iterator.empty
+                    if (relationships.isEmpty) Iterator.empty
+                    else relationships.map(r => executionContextFactory.copyWith(row, relName, r))
+                  case _ => throw new InternalException(s"$toNode must be node or null")
+                }
+
+              case Values.NO_VALUE => Iterator.empty
+            }
         }
     }
   }
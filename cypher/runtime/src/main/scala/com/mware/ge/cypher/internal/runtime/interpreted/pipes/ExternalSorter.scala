@@ -0,0 +1,260 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import java.io._
+import java.util
+import java.util.Comparator
+
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/**
+  * Sorts rows while keeping at most `bufferRows` of them on the heap. Whenever the buffer fills up it is sorted and
+  * written to a temporary run file, and the runs are merged back lazily while the result is consumed.
+  */
+class ExternalSorter(comparator: Comparator[ExecutionContext], bufferRows: Int, state: QueryState) {
+
+  private val limit = math.max(1, bufferRows)
+
+  def sort(input: Iterator[ExecutionContext]): Iterator[ExecutionContext] = top(input, Long.MaxValue)
+
+  /**
+    * Returns the first `count` rows of the sorted input. Once the runs hold twice `count` rows they are merged into
+    * a single run of the first `count` rows, and from then on input rows that sort after the last row of that run
+    * are dropped as they are read, so the runs never hold much more than twice `count` rows.
+    */
+  def top(input: Iterator[ExecutionContext], count: Long): Iterator[ExecutionContext] = {
+    val codec = new RowSpillCodec(state)
+    val runs = mutable.ArrayBuffer[SpillFile]()
+    val buffer = new util.ArrayList[ExecutionContext]()
+    var spilledRows = 0L
+    // the last of the first `count` rows seen so far, once the runs were compacted
+    var cutoff: ExecutionContext = null
+
+    def spill(rows: Iterator[ExecutionContext]): ExecutionContext = {
+      val run = new SpillFile(codec, state)
+      runs += run
+      var last: ExecutionContext = null
+      var written = 0L
+      while (written < count && rows.hasNext) {
+        last = rows.next()
+        run.write(last)
+        written += 1
+      }
+      run.finishWriting()
+      spilledRows += written
+      last
+    }
+
+    try {
+      while (input.hasNext) {
+        val row = input.next()
+        if (cutoff == null || comparator.compare(row, cutoff) < 0) {
+          buffer.add(row)
+          if (buffer.size() >= limit) {
+            buffer.sort(comparator)
+            spill(buffer.asScala.iterator)
+            buffer.clear()
+            if (spilledRows - count >= count) {
+              val merged = runs.toList
+              runs.clear()
+              spilledRows = 0
+              try cutoff = spill(new MergingIterator(merged.map(_.iterator), comparator))
+              finally merged.foreach(_.discard())
+            }
+          }
+        }
+      }
+    } catch {
+      case t: Throwable =>
+        runs.foreach(_.discard())
+        throw t
+    }
+
+    buffer.sort(comparator)
+    val sorted =
+      if (runs.isEmpty)
+        buffer.asScala.iterator
+      else
+        new MergingIterator(runs.map(_.iterator) :+ buffer.asScala.iterator, comparator)
+    if (count == Long.MaxValue)
+      sorted
+    else {
+      var c: Long = 0
+      sorted.takeWhile { _ => c = c + 1; c <= count }
+    }
+  }
+}
+
+/**
+  * Buffers its whole input while keeping at most `bufferRows` rows on the heap, the rest goes to a temporary file.
+  * Rows come back in the order they were read.
+  */
+class SpillingRowBuffer(bufferRows: Int, state: QueryState) {
+
+  private val limit = math.max(1, bufferRows)
+
+  def buffer(input: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    val head = new mutable.ArrayBuffer[ExecutionContext]()
+    while (input.hasNext && head.size < limit) {
+      head += input.next()
+    }
+
+    if (!input.hasNext)
+      head.iterator
+    else {
+      val tail = new SpillFile(new RowSpillCodec(state), state)
+      try {
+        input.foreach(tail.write)
+      } catch {
+        case t: Throwable =>
+          tail.discard()
+          throw t
+      }
+      tail.finishWriting()
+      head.iterator ++ tail.iterator
+    }
+  }
+}
+
+/**
+  * K-way merge of sorted row iterators. Ties are broken by the position of the source so that the merge is stable.
+  */
+class MergingIterator(sources: Seq[Iterator[ExecutionContext]], comparator: Comparator[ExecutionContext])
+  extends Iterator[ExecutionContext] {
+
+  private class Head(var row: ExecutionContext, val source: Iterator[ExecutionContext], val index: Int)
+
+  private val heads = new util.PriorityQueue[Head](math.max(1, sources.size), new Comparator[Head] {
+    override def compare(a: Head, b: Head): Int = {
+      val c = comparator.compare(a.row, b.row)
+      if (c != 0) c else Integer.compare(a.index, b.index)
+    }
+  })
+
+  sources.zipWithIndex.foreach {
+    case (source, index) if source.hasNext => heads.add(new Head(source.next(), source, index))
+    case _ =>
+  }
+
+  override def hasNext: Boolean = !heads.isEmpty
+
+  override def next(): ExecutionContext = {
+    if (heads.isEmpty) throw new NoSuchElementException("next on empty iterator")
+    val head = heads.poll()
+    val row = head.row
+    if (head.source.hasNext) {
+      head.row = head.source.next()
+      heads.add(head)
+    }
+    row
+  }
+}
+
+/**
+  * Temporary file of rows encoded with a [[RowSpillCodec]]. The file is traced by the resources of the query, so
+  * it is removed when the query is closed even if the rows were never read back; it is also removed as soon as
+  * it has been read to the end, or discarded when the rows are not going to be read.
+  */
+class SpillFile(codec: RowSpillCodec, state: QueryState) extends AutoCloseable {
+
+  private[pipes] val file = File.createTempFile("cypher-spill-", ".rows")
+  private var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), SpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = _
+  private var rows = 0L
+  private var closed = false
+
+  // spill files can be written and read by aggregation workers, the resource manager is not thread safe
+  private val resources = state.query.resources
+  resources.synchronized(resources.trace(this))
+
+  def write(row: ExecutionContext): Unit = {
+    codec.write(out, row)
+    rows += 1
+  }
+
+  def finishWriting(): Unit = {
+    out.close()
+    out = null
+  }
+
+  /**
+    * Reads the rows back. Can only be called once, after [[finishWriting]].
+    */
+  def iterator: Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    private var remaining = rows
+
+    override def hasNext: Boolean = remaining > 0
+
+    override def next(): ExecutionContext = {
+      if (remaining <= 0) throw new NoSuchElementException("next on empty iterator")
+      if (in == null)
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), SpillFile.BUFFER_SIZE))
+      val row = codec.read(in)
+      remaining -= 1
+      if (remaining == 0)
+        resources.synchronized(resources.release(SpillFile.this))
+      row
+    }
+  }
+
+  /**
+    * Deletes the file without waiting for the end of the query, when the rows are not going to be read.
+    */
+  def discard(): Unit =
+    if (!closed)
+      resources.synchronized(resources.release(this))
+
+  override def close(): Unit = {
+    if (!closed) {
+      closed = true
+      try {
+        if (out != null) out.close()
+        if (in != null) in.close()
+      } finally {
+        file.delete()
+      }
+    }
+  }
+}
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+}
@@ -26,6 +26,9 @@ import com.mware.ge.cypher.util.NodeValueIndexCursor
 import com.mware.ge.cypher.internal.runtime.QueryContext
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.logical.plans.CachedNodeProperty
+import com.mware.ge.values.storable.Value
+
+import scala.collection.mutable.ArrayBuffer
 
 /**
   * Provides a helper method for index pipes that get nodes together with actual property values.
@@ -39,21 +42,56 @@ trait IndexPipeWithValues extends Pipe {
   // the cached node properties where we will get values
   val indexCachedNodeProperties: Array[CachedNodeProperty]
 
+  /**
+    * Reads the index in batches that double from 1 up to `batchSize` rows, and looks up the nodes of each batch
+    * with a single [[QueryContext.nodesByIdBatch]] call. Small first batches keep LIMIT queries cheap, while
+    * large scans do not pay one graph read per row.
+    */
   class IndexIterator(queryContext: QueryContext,
                       baseContext: ExecutionContext,
-                      cursor: NodeValueIndexCursor
+                      cursor: NodeValueIndexCursor,
+                      batchSize: Int = 1
                      ) extends IndexIteratorBase[ExecutionContext](cursor) {
 
+    // fetchNext() is called from the base constructor, so these must not have initializers
+    private var buffered: Iterator[ExecutionContext] = _
+    private var batchRows: Int = _
+
     override protected def fetchNext(): ExecutionContext = {
-      if (cursor.next()) {
-        val newContext = executionContextFactory.copyWith(baseContext, ident, queryContext.nodeById(cursor.nodeReference()))
+      if (buffered == null || !buffered.hasNext)
+        buffered = fetchBatch()
+      if (buffered.hasNext) buffered.next() else null
+    }
+
+    private def fetchBatch(): Iterator[ExecutionContext] = {
+      batchRows = if (batchRows == 0) 1 else Math.min(batchRows * 2, Math.max(batchSize, 1))
+      val ids = new ArrayBuffer[String](batchRows)
+      val values = new ArrayBuffer[Array[Value]](batchRows)
+      while (ids.size < batchRows && cursor.next()) {
+        ids += cursor.nodeReference()
+        val rowValues = new Array[Value](indexPropertyIndices.length)
         var i = 0
         while (i < indexPropertyIndices.length) {
-          newContext.setCachedProperty(indexCachedNodeProperties(i), cursor.propertyValue(indexCachedNodeProperties(i).propertyKey.name))
+          rowValues(i) = cursor.propertyValue(indexCachedNodeProperties(i).propertyKey.name)
           i += 1
         }
-        newContext
-      } else null
+        values += rowValues
+      }
+
+      if (ids.isEmpty)
+        Iterator.empty
+      else {
+        val nodes = queryContext.nodesByIdBatch(ids)
+        nodes.indices.iterator.map { row =>
+          val newContext = executionContextFactory.copyWith(baseContext, ident, nodes(row))
+          var i = 0
+          while (i < indexPropertyIndices.length) {
+            newContext.setCachedProperty(indexCachedNodeProperties(i), values(row)(i))
+            i += 1
+          }
+          newContext
+        }
+      }
     }
   }
 }
@@ -26,7 +26,7 @@ import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.util.attribution.Id
 
 case class NodeByLabelScanPipe(ident: String, label: LazyLabel)
-                              (val id: Id = Id.INVALID_ID) extends Pipe  {
+                              (val id: Id = Id.INVALID_ID) extends Pipe with ParallelScanSource {
 
   protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
 
@@ -40,4 +40,17 @@ case class NodeByLabelScanPipe(ident: String, label: LazyLabel)
     }
   }
 
+  override def scanPartitions(state: QueryState, maxPartitions: Int, needsProperties: Boolean): Seq[RowScanPartition] = {
+    label.getOptId(state.query) match {
+      case Some(labelId) =>
+        val baseContext = state.newExecutionContext(executionContextFactory)
+        state.query.nodeScanPartitions(Some(labelId.id), maxPartitions, needsProperties).map(partition => new RowScanPartition {
+          override def scan[T](reader: Iterator[ExecutionContext] => T): T =
+            partition.scan(nodes => reader(nodes.map(n => executionContextFactory.copyWith(baseContext, ident, n))))
+        })
+      case None =>
+        Seq.empty
+    }
+  }
+
 }
@@ -25,6 +25,7 @@ package com.mware.ge.cypher.internal.runtime.interpreted.pipes
 import com.mware.ge.cypher.index.IndexReference
 import com.mware.ge.cypher.internal.runtime.QueryContext
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{Expression, NumericHelper}
 import com.mware.ge.cypher.internal.logical.plans.{CachedNodeProperty, IndexOrder, IndexedProperty}
 import com.mware.ge.cypher.internal.expressions.LabelToken
 import com.mware.ge.cypher.internal.util.attribution.Id
@@ -34,14 +35,19 @@ import scala.collection.Iterator
 case class NodeIndexScanPipe(ident: String,
                              label: LabelToken,
                              property: IndexedProperty,
-                             indexOrder: IndexOrder)
-                            (val id: Id = Id.INVALID_ID) extends Pipe with IndexPipeWithValues {
+                             indexOrder: IndexOrder,
+                             limitHint: Option[Expression] = None)
+                            (val id: Id = Id.INVALID_ID) extends Pipe with IndexPipeWithValues with IndexLimitHint with NumericHelper {
 
   private val needsValues = property.shouldGetValue
   override val indexPropertyIndices: Array[Int] = if (needsValues) Array(0) else Array.empty
   override val indexCachedNodeProperties: Array[CachedNodeProperty] =
     if (needsValues) Array(property.asCachedNodeProperty(ident)) else Array.empty
 
+  limitHint.foreach(_.registerOwningPipe(this))
+
+  override def withLimitHint(limit: Expression): Pipe = copy(limitHint = Some(limit))(id)
+
   private var reference: IndexReference = IndexReference.NO_INDEX
 
   private def reference(context: QueryContext): IndexReference = {
@@ -53,6 +59,7 @@ case class NodeIndexScanPipe(ident: String,
   protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
     val baseContext = state.newExecutionContext(executionContextFactory)
     val cursor = state.query.indexScan(reference(state.query), needsValues, indexOrder)
-    new IndexIterator(state.query, baseContext, cursor)
+    limitHint.foreach(exp => cursor.limitHint(asPrimitiveLong(exp(baseContext, state))))
+    new IndexIterator(state.query, baseContext, cursor, state.expandBatchSize)
   }
 }
@@ -25,7 +25,7 @@ package com.mware.ge.cypher.internal.runtime.interpreted.pipes
 import com.mware.ge.cypher.index.IndexReference
 import com.mware.ge.cypher.internal.runtime.QueryContext
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
-import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{Expression, NumericHelper}
 import com.mware.ge.cypher.internal.logical.plans._
 import com.mware.ge.cypher.internal.expressions.LabelToken
 import com.mware.ge.cypher.internal.util.attribution.Id
@@ -35,8 +35,9 @@ case class NodeIndexSeekPipe(ident: String,
                              properties: Array[IndexedProperty],
                              valueExpr: QueryExpression[Expression],
                              indexMode: IndexSeekMode = IndexSeek,
-                             indexOrder: IndexOrder)
-                            (val id: Id = Id.INVALID_ID) extends Pipe with NodeIndexSeeker with IndexPipeWithValues {
+                             indexOrder: IndexOrder,
+                             limitHint: Option[Expression] = None)
+                            (val id: Id = Id.INVALID_ID) extends Pipe with NodeIndexSeeker with IndexPipeWithValues with IndexLimitHint with NumericHelper {
 
   override val propertyIds: Array[String] = properties.map(_.propertyKeyToken.nameId.id)
 
@@ -55,14 +56,20 @@ case class NodeIndexSeekPipe(ident: String,
   }
 
   valueExpr.expressions.foreach(_.registerOwningPipe(this))
+  limitHint.foreach(_.registerOwningPipe(this))
+
+  override def withLimitHint(limit: Expression): Pipe = copy(limitHint = Some(limit))(id)
 
   protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
     val indexReference = reference(state.query)
     val baseContext = state.newExecutionContext(executionContextFactory)
 
-    indexSeek(state, indexReference, needsValues, indexOrder, baseContext).flatMap(
-      cursor => new IndexIterator(state.query, baseContext, cursor)
-    )
+    val limit = limitHint.map(exp => asPrimitiveLong(exp(baseContext, state)))
+
+    indexSeek(state, indexReference, needsValues, indexOrder, baseContext).flatMap { cursor =>
+      limit.foreach(cursor.limitHint)
+      new IndexIterator(state.query, baseContext, cursor, state.expandBatchSize)
+    }
   }
 
   def canEqual(other: Any): Boolean = other.isInstanceOf[NodeIndexSeekPipe]
@@ -59,7 +59,7 @@ abstract class AbstractNodeIndexStringScanPipe(ident: String,
 
     val resultNodes = value match {
       case value: TextValue =>
-        new IndexIterator(state.query, baseContext, queryContextCall(state, reference(state.query), value))
+        new IndexIterator(state.query, baseContext, queryContextCall(state, reference(state.query), value), state.expandBatchSize)
       case Values.NO_VALUE =>
         Iterator.empty
       case x => throw new CypherTypeException(s"Expected a string value, but got $x")
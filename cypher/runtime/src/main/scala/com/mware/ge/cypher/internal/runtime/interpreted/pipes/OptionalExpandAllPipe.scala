@@ -34,17 +34,19 @@ import com.mware.ge.values.virtual.NodeValue
 case class OptionalExpandAllPipe(source: Pipe, fromName: String, relName: String, toName: String, dir: SemanticDirection,
                                  types: LazyTypes, predicate: Predicate)
                                 (val id: Id = Id.INVALID_ID)
-  extends PipeWithSource(source) {
+  extends PipeWithSource(source) with BatchedExpand {
 
   predicate.registerOwningPipe(this)
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    input.flatMap {
-      row =>
-        val fromNode = getFromNode(row)
-        fromNode match {
-          case n: NodeValue =>
-            val relationships = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
+    morsels(input, state).flatMap {
+      morsel =>
+        val fromNodes = morsel.map(getFromNode)
+        val relationshipsByNode = expandMorsel(state.query, fromNodes, dir, types.types(state.query), loadNeighbours = true)
+
+        morsel.iterator.zip(fromNodes.iterator).flatMap {
+          case (row, n: NodeValue) =>
+            val relationships = relationshipsByNode.getOrElse(n.id(), Seq.empty).iterator
             val matchIterator = relationships.map { r =>
                 val other = r.otherNode(n)
                 executionContextFactory.copyWith(row, relName, r, toName, other)
@@ -56,10 +58,10 @@ case class OptionalExpandAllPipe(source: Pipe, fromName: String, relName: String
               matchIterator
             }
 
-          case value if value == Values.NO_VALUE =>
+          case (row, value) if value == Values.NO_VALUE =>
             Iterator(withNulls(row))
 
-          case value =>
+          case (_, value) =>
             throw new InternalException(s"Expected to find a node at '$fromName' but found $value instead")
         }
     }
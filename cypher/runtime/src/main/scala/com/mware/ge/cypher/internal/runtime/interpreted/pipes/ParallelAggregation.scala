@@ -0,0 +1,238 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+import java.util.concurrent._
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.AggregationExpression
+import com.mware.ge.cypher.internal.runtime.interpreted.pipes.aggregation.MergeableAggregationFunction
+import com.mware.ge.values.AnyValue
+
+import scala.collection.JavaConverters._
+
+/**
+  * Aggregates the rows of a [[ParallelScanSource]] on a pool of worker threads.
+  *
+  * Each worker takes whole scan partitions and aggregates them into its own partial states, hashing the grouping keys
+  * into a fixed number of partitions. When a worker holds more groups than its share of the budget, its partial
+  * states are spilled to disk, one file per partition. The partial states of every partition are merged afterwards:
+  * on the workers when everything stayed in memory, or one partition at a time while the result is consumed when
+  * something was spilled.
+  */
+class ParallelAggregation(groupingFunction: (ExecutionContext, QueryState) => AnyValue,
+                          aggregations: IndexedSeq[AggregationExpression],
+                          workers: Int,
+                          budgetRows: Int) {
+
+  import ParallelAggregation._
+
+  private type Groups = util.HashMap[AnyValue, Array[MergeableAggregationFunction]]
+
+  private val nPartitions = workers * 4
+
+  def aggregate(scanPartitions: Seq[RowScanPartition],
+                state: QueryState): Iterator[(AnyValue, Array[MergeableAggregationFunction])] = {
+    val pending = new ConcurrentLinkedQueue[RowScanPartition](scanPartitions.asJava)
+    val spills = Array.fill(nPartitions)(new ConcurrentLinkedQueue[SpillFile]())
+    val workerBudget = math.max(1, budgetRows / workers)
+
+    val partials = runOnWorkers(math.min(workers, scanPartitions.size), () => {
+      val workerState = state.forWorkerThread
+      val groups = Array.fill(nPartitions)(new Groups())
+      var size = 0
+
+      var scanPartition = pending.poll()
+      while (scanPartition != null) {
+        scanPartition.scan(rows => rows.foreach { row =>
+          val key = groupingFunction(row, workerState)
+          val partitionGroups = groups(partitionOf(key))
+          var functions = partitionGroups.get(key)
+          if (functions == null) {
+            functions = newFunctions()
+            partitionGroups.put(key, functions)
+            size += 1
+          }
+          var i = 0
+          while (i < functions.length) {
+            functions(i)(row, workerState)
+            i += 1
+          }
+
+          if (size > workerBudget) {
+            spill(groups, spills, state)
+            size = 0
+          }
+        })
+        scanPartition = pending.poll()
+      }
+      groups
+    })
+
+    val spilled = spills.exists(!_.isEmpty)
+    val merged: Iterator[Groups] =
+      if (spilled) {
+        (0 until nPartitions).iterator.map(p => mergePartition(p, partials, spills(p), state))
+      } else {
+        val nextPartition = new AtomicInteger()
+        val result = new Array[Groups](nPartitions)
+        runOnWorkers(math.min(workers, nPartitions), () => {
+          var p = nextPartition.getAndIncrement()
+          while (p < nPartitions) {
+            result(p) = mergePartition(p, partials, spills(p), state)
+            p = nextPartition.getAndIncrement()
+          }
+        })
+        result.iterator
+      }
+
+    merged.flatMap(groups => groups.entrySet().asScala.iterator.map(e => (e.getKey, e.getValue)))
+  }
+
+  private def partitionOf(key: AnyValue): Int = (key.hashCode() & Int.MaxValue) % nPartitions
+
+  private def newFunctions(): Array[MergeableAggregationFunction] =
+    aggregations.map(_.createAggregationFunction.asInstanceOf[MergeableAggregationFunction]).toArray
+
+  private def spill(groups: Array[Groups], spills: Array[ConcurrentLinkedQueue[SpillFile]], state: QueryState): Unit = {
+    var p = 0
+    while (p < nPartitions) {
+      if (!groups(p).isEmpty) {
+        val file = new SpillFile(new RowSpillCodec(state), state)
+        groups(p).asScala.foreach {
+          case (key, functions) =>
+            val row = ExecutionContext.empty
+            row.set(KEY_COLUMN, key)
+            var i = 0
+            while (i < functions.length) {
+              row.set(stateColumn(i), functions(i).partialState)
+              i += 1
+            }
+            file.write(row)
+        }
+        file.finishWriting()
+        spills(p).add(file)
+        groups(p).clear()
+      }
+      p += 1
+    }
+  }
+
+  private def mergePartition(p: Int, partials: Seq[Array[Groups]], spills: util.Queue[SpillFile], state: QueryState): Groups = {
+    val merged = new Groups()
+    partials.foreach { workerGroups =>
+      workerGroups(p).asScala.foreach {
+        case (key, functions) =>
+          val existing = merged.get(key)
+          if (existing == null) {
+            merged.put(key, functions)
+          } else {
+            var i = 0
+            while (i < existing.length) {
+              existing(i).merge(functions(i).partialState)
+              i += 1
+            }
+          }
+      }
+      workerGroups(p) = null
+    }
+
+    var file = spills.poll()
+    while (file != null) {
+      file.iterator.foreach { row =>
+        val key = row(KEY_COLUMN)
+        var functions = merged.get(key)
+        if (functions == null) {
+          functions = newFunctions()
+          merged.put(key, functions)
+        }
+        var i = 0
+        while (i < functions.length) {
+          functions(i).merge(row(stateColumn(i)))
+          i += 1
+        }
+      }
+      file = spills.poll()
+    }
+    merged
+  }
+
+  private def runOnWorkers[T](n: Int, work: () => T): Seq[T] = {
+    val futures = (0 until n).map(_ => pool.submit(new Callable[T] {
+      override def call(): T = work()
+    }))
+    try {
+      futures.map(_.get())
+    } catch {
+      case e: ExecutionException =>
+        futures.foreach(_.cancel(true))
+        throw e.getCause
+      case e: InterruptedException =>
+        futures.foreach(_.cancel(true))
+        Thread.currentThread().interrupt()
+        throw e
+    }
+  }
+}
+
+object ParallelAggregation {
+  private val KEY_COLUMN = "key"
+
+  private def stateColumn(i: Int): String = i.toString
+
+  private val threadCount = new AtomicInteger()
+
+  /**
+    * The number of threads shared by the aggregations of all the queries. The work of concurrent queries is queued
+    * instead of starting more threads.
+    */
+  val poolSize: Int = Runtime.getRuntime.availableProcessors()
+
+  private lazy val pool: ExecutorService = {
+    val executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue[Runnable](), new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val thread = new Thread(r, "cypher-aggregation-" + threadCount.incrementAndGet())
+        thread.setDaemon(true)
+        thread
+      }
+    })
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+}
@@ -41,7 +41,10 @@ class QueryState(val query: QueryContext,
                  val triadicState: mutable.Map[String, LongSet] = mutable.Map.empty,
                  val repeatableReads: mutable.Map[Pipe, Seq[ExecutionContext]] = mutable.Map.empty,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
-                 val lenientCreateRelationship: Boolean = false) {
+                 val lenientCreateRelationship: Boolean = false,
+                 val expandBatchSize: Int = QueryState.defaultExpandBatchSize,
+                 val sortBufferRows: Int = QueryState.defaultSortBufferRows,
+                 val aggregationWorkers: Int = QueryState.defaultAggregationWorkers) {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _exFactory: ExecutionContextFactory = _
@@ -69,11 +72,11 @@ class QueryState(val query: QueryContext,
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, expandBatchSize, sortBufferRows, aggregationWorkers)
 
   def withInitialContext(initialContext: ExecutionContext) =
     new QueryState(query, resources, params, decorator, Some(initialContext), triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, expandBatchSize, sortBufferRows, aggregationWorkers)
 
   /**
     * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -87,7 +90,18 @@ class QueryState(val query: QueryContext,
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, expandBatchSize, sortBufferRows, aggregationWorkers)
+
+  /**
+    * A copy of this state for evaluating expressions on another thread. The per-thread caches are not shared.
+    */
+  def forWorkerThread: QueryState = {
+    val workerState = new QueryState(query, resources, params, decorator, initialContext, triadicState,
+                                     repeatableReads, new SingleThreadedLRUCache(maxSize = 16), lenientCreateRelationship,
+                                     expandBatchSize, sortBufferRows, aggregationWorkers)
+    workerState.setExecutionContextFactory(_exFactory)
+    workerState
+  }
 
   def setExecutionContextFactory(exFactory: ExecutionContextFactory) = {
     _exFactory = exFactory
@@ -99,6 +113,13 @@ class QueryState(val query: QueryContext,
 object QueryState {
 
   val defaultStatistics = QueryStatistics()
+
+  val defaultExpandBatchSize = 1000
+
+  val defaultSortBufferRows = 100000
+
+  // 0 or 1 keeps the aggregations serial, parallel aggregation is opt-in
+  val defaultAggregationWorkers = 0
 }
 
 trait ExecutionContextFactory {
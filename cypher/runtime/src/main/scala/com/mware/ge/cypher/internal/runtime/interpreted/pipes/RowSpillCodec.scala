@@ -0,0 +1,238 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import java.io.{DataInputStream, DataOutputStream}
+
+import com.mware.ge.cypher.internal.logical.plans.CachedNodeProperty
+import com.mware.ge.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext}
+import com.mware.ge.cypher.internal.util.InternalException
+import com.mware.ge.function.ThrowingBiConsumer
+import com.mware.ge.serializer.kryo.quickSerializers.QuickKryoGeSerializer
+import com.mware.ge.values.AnyValue
+import com.mware.ge.values.storable.{Value, Values}
+import com.mware.ge.values.virtual._
+
+import scala.collection.mutable
+
+/**
+  * Compact binary encoding of rows spilled to disk by the memory bounded pipes.
+  *
+  * Column names and cached property keys are written as indexes into per-codec dictionaries that stay on the heap,
+  * storable values go through the quick serializer of the graph, and nodes and relationships are written as ids and
+  * re-read from the query context when the row is decoded.
+  */
+class RowSpillCodec(state: QueryState) {
+  import RowSpillCodec._
+
+  private val columns = mutable.ArrayBuffer[String]()
+  private val columnIndexes = mutable.HashMap[String, Int]()
+  private val cachedKeys = mutable.ArrayBuffer[CachedNodeProperty]()
+  private val cachedKeyIndexes = mutable.HashMap[CachedNodeProperty, Int]()
+
+  def write(out: DataOutputStream, row: ExecutionContext): Unit = {
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        out.writeInt(columnIndexes.getOrElseUpdate(key, { columns += key; columns.size - 1 }))
+        writeValue(out, value)
+    }
+
+    val cached = row match {
+      case ctx: MapExecutionContext => ctx.cachedPropertyEntries
+      case _ => Iterator.empty
+    }
+    val entries = cached.toSeq
+    out.writeInt(entries.size)
+    entries.foreach {
+      case (key, value) =>
+        out.writeInt(cachedKeyIndexes.getOrElseUpdate(key, { cachedKeys += key; cachedKeys.size - 1 }))
+        writeValue(out, value)
+    }
+  }
+
+  def read(in: DataInputStream): ExecutionContext = {
+    val row = ExecutionContext.empty
+    var columnCount = in.readInt()
+    while (columnCount > 0) {
+      val key = columns(in.readInt())
+      row.set(key, readValue(in))
+      columnCount -= 1
+    }
+
+    var cachedCount = in.readInt()
+    while (cachedCount > 0) {
+      val key = cachedKeys(in.readInt())
+      row.setCachedProperty(key, readValue(in).asInstanceOf[Value])
+      cachedCount -= 1
+    }
+    row
+  }
+
+  private def writeValue(out: DataOutputStream, value: AnyValue): Unit = value match {
+    case null =>
+      out.writeByte(TAG_NULL)
+
+    case Values.NO_VALUE =>
+      out.writeByte(TAG_NO_VALUE)
+
+    case v: Value =>
+      out.writeByte(TAG_STORABLE)
+      val bytes = serializer.objectToBytes(v)
+      out.writeInt(bytes.length)
+      out.write(bytes)
+
+    case n: NodeValue =>
+      out.writeByte(TAG_NODE)
+      out.writeUTF(n.id())
+
+    case n: VirtualNodeValue =>
+      out.writeByte(TAG_NODE_REFERENCE)
+      out.writeUTF(n.id())
+
+    case r: RelationshipValue =>
+      out.writeByte(TAG_RELATIONSHIP)
+      out.writeUTF(r.id())
+
+    case r: VirtualRelationshipValue =>
+      out.writeByte(TAG_RELATIONSHIP_REFERENCE)
+      out.writeUTF(r.id())
+
+    case p: PathValue =>
+      out.writeByte(TAG_PATH)
+      val nodes = p.nodes()
+      val relationships = p.relationships()
+      out.writeInt(nodes.length)
+      nodes.foreach(n => out.writeUTF(n.id()))
+      out.writeInt(relationships.length)
+      relationships.foreach(r => out.writeUTF(r.id()))
+
+    case l: ListValue =>
+      out.writeByte(TAG_LIST)
+      val size = l.size()
+      out.writeInt(size)
+      var i = 0
+      while (i < size) {
+        writeValue(out, l.value(i))
+        i += 1
+      }
+
+    case m: MapValue =>
+      out.writeByte(TAG_MAP)
+      out.writeInt(m.size())
+      m.foreach(new ThrowingBiConsumer[String, AnyValue, RuntimeException] {
+        override def accept(k: String, v: AnyValue): Unit = {
+          out.writeUTF(k)
+          writeValue(out, v)
+        }
+      })
+
+    case x =>
+      throw new InternalException(s"Cannot spill value of type ${x.getClass.getSimpleName} to disk")
+  }
+
+  private def readValue(in: DataInputStream): AnyValue = in.readByte() match {
+    case TAG_NULL =>
+      null
+
+    case TAG_NO_VALUE =>
+      Values.NO_VALUE
+
+    case TAG_STORABLE =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      serializer.bytesToObject[Value](bytes)
+
+    case TAG_NODE =>
+      node(in.readUTF())
+
+    case TAG_NODE_REFERENCE =>
+      VirtualValues.node(in.readUTF())
+
+    case TAG_RELATIONSHIP =>
+      relationship(in.readUTF())
+
+    case TAG_RELATIONSHIP_REFERENCE =>
+      VirtualValues.relationship(in.readUTF())
+
+    case TAG_PATH =>
+      val nodes = Array.fill(in.readInt())(state.query.nodeById(in.readUTF()))
+      val relationships = Array.fill(in.readInt())(state.query.relationshipById(in.readUTF()))
+      VirtualValues.path(nodes, relationships)
+
+    case TAG_LIST =>
+      val values = Array.fill(in.readInt())(readValue(in))
+      VirtualValues.list(values: _*)
+
+    case TAG_MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = in.readUTF()
+        values(i) = readValue(in)
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+
+    case tag =>
+      throw new InternalException(s"Unknown spilled value tag $tag")
+  }
+
+  // entities deleted after the row was spilled come back as plain references, like the rest of the runtime sees them
+  private def node(id: String): AnyValue =
+    state.query.nodeOps.getByIdIfExists(id).getOrElse(VirtualValues.node(id))
+
+  private def relationship(id: String): AnyValue =
+    state.query.relationshipOps.getByIdIfExists(id).getOrElse(VirtualValues.relationship(id))
+}
+
+object RowSpillCodec {
+  private val TAG_NULL: Byte = 0
+  private val TAG_NO_VALUE: Byte = 1
+  private val TAG_STORABLE: Byte = 2
+  private val TAG_NODE: Byte = 3
+  private val TAG_NODE_REFERENCE: Byte = 4
+  private val TAG_RELATIONSHIP: Byte = 5
+  private val TAG_RELATIONSHIP_REFERENCE: Byte = 6
+  private val TAG_PATH: Byte = 7
+  private val TAG_LIST: Byte = 8
+  private val TAG_MAP: Byte = 9
+
+  private val serializer = new QuickKryoGeSerializer(false)
+}
@@ -35,11 +35,8 @@ case class SortPipe(source: Pipe, orderBy: Seq[ColumnOrder])
 
   private val comparator = ExecutionContextOrdering.asComparator(orderBy)
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = input.toArray
-    java.util.Arrays.sort(array, comparator)
-    array.toIterator
-  }
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    new ExternalSorter(comparator, state.sortBufferRows, state).sort(input)
 }
 
 case class ExecutionContextOrdering(order: ColumnOrder) extends scala.Ordering[ExecutionContext] {
@@ -31,11 +31,11 @@ import com.mware.ge.cypher.internal.util.attribution.Id
 import com.mware.ge.values.storable.NumberValue
 
 import scala.collection.JavaConverters._
-import scala.collection.mutable
 
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
- * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier.
+ * When the limit is larger than the sort budget of the query the top rows are kept in spilled runs instead.
  */
 abstract class TopPipe(source: Pipe, comparator: Comparator[ExecutionContext]) extends PipeWithSource(source)
 
@@ -44,8 +44,6 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
 
   countExpression.registerOwningPipe(this)
 
-  private val initialFallbackSortArraySize = Int.MaxValue/8 // This should not be too big so as to risk out-of-memory on the first allocation
-
   protected override def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     if (input.isEmpty) Iterator.empty
     else {
@@ -54,17 +52,9 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
       if (longCount <= 0) {
         Iterator.empty
       }
-      else if (longCount > Int.MaxValue) {
-        // For count values larger than the maximum 32-bit integer we fallback on a full sort instead of allocating a huge top table
-        // (Instead of throw new IllegalArgumentException(s"ORDER BY + LIMIT $longCount exceeds the maximum value of ${Int.MaxValue}"))
-        // NOTE: If the _input size_ is larger than Int.MaxValue this will still fail, since an array cannot hold that many elements
-        val buffer = new mutable.ArrayBuffer[ExecutionContext](initialFallbackSortArraySize)
-        buffer += first
-        buffer ++= input
-        val array = buffer.toArray
-        java.util.Arrays.sort(array, comparator)
-        var c: Long = 0 // Counter to be used inside of stream
-        array.toStream.takeWhile { _ => c = c + 1; c <= longCount }.iterator
+      else if (longCount > state.sortBufferRows) {
+        // A top table of size count would not fit the sort budget, so the top rows are kept in spilled runs
+        new ExternalSorter(comparator, state.sortBufferRows, state).top(Iterator.single(first) ++ input, longCount)
       }
       else {
         // The main case: allocate a table of size count to hold the top rows
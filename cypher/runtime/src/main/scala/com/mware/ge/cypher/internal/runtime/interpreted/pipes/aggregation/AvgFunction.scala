@@ -27,7 +27,9 @@ import java.time.temporal.ChronoUnit
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
+import com.mware.ge.values.AnyValue
 import com.mware.ge.values.storable._
+import com.mware.ge.values.virtual.{ListValue, VirtualValues}
 import com.mware.ge.values.utils.ValueMath.overflowSafeAdd
 
 /**
@@ -35,7 +37,7 @@ import com.mware.ge.values.utils.ValueMath.overflowSafeAdd
  * https://en.wikipedia.org/wiki/Moving_average#Cumulative_moving_average
  */
 class AvgFunction(val value: Expression)
-  extends AggregationFunction
+  extends MergeableAggregationFunction
     with NumericOrDurationAggregationExpression {
 
   def name = "AVG"
@@ -56,6 +58,42 @@ class AvgFunction(val value: Expression)
       DurationValue.approximate(monthsRunningAvg, daysRunningAvg, secondsRunningAvg, nanosRunningAvg)
   }
 
+  /**
+    * The count and the running averages, or NO_VALUE when nothing has been aggregated yet.
+    */
+  override def partialState: AnyValue = aggregatingType match {
+    case None =>
+      Values.NO_VALUE
+    case Some(AggregatingNumbers) =>
+      VirtualValues.list(Values.longValue(count), sumNumber)
+    case Some(AggregatingDurations) =>
+      VirtualValues.list(Values.longValue(count), Values.doubleValue(monthsRunningAvg), Values.doubleValue(daysRunningAvg),
+                         Values.doubleValue(secondsRunningAvg), Values.doubleValue(nanosRunningAvg))
+  }
+
+  override def merge(partial: AnyValue): Unit = partial match {
+    case Values.NO_VALUE =>
+    case averages: ListValue =>
+      val otherCount = averages.value(0).asInstanceOf[NumberValue].longValue()
+      val total = count + otherCount
+      if (averages.size() == 2) {
+        actOnNumberOrDuration(averages.value(1), number => {
+          val diff = number.minus(sumNumber)
+          sumNumber = overflowSafeAdd(sumNumber, diff.times(otherCount.toDouble).dividedBy(total.toDouble))
+        }, _ => ())
+      } else {
+        actOnNumberOrDuration(DurationValue.ZERO, _ => (), _ => {
+          def mergeAvg(avg: Double, offset: Int): Double =
+            avg + (averages.value(offset).asInstanceOf[NumberValue].doubleValue() - avg) * otherCount / total
+          monthsRunningAvg = mergeAvg(monthsRunningAvg, 1)
+          daysRunningAvg = mergeAvg(daysRunningAvg, 2)
+          secondsRunningAvg = mergeAvg(secondsRunningAvg, 3)
+          nanosRunningAvg = mergeAvg(nanosRunningAvg, 4)
+        })
+      }
+      count = total
+  }
+
   override def apply(data: ExecutionContext, state: QueryState) {
     val vl = value(data, state)
     actOnNumberOrDuration(vl,
@@ -27,11 +27,11 @@ import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
 import com.mware.ge.values.storable.Values
-import com.mware.ge.values.virtual.VirtualValues
+import com.mware.ge.values.virtual.{ListValue, VirtualValues}
 
 import scala.collection.mutable.ArrayBuffer
 
-class CollectFunction(value:Expression) extends AggregationFunction {
+class CollectFunction(value:Expression) extends MergeableAggregationFunction {
   val collection = new ArrayBuffer[AnyValue]()
 
   override def apply(data: ExecutionContext, state:QueryState) {
@@ -42,4 +42,15 @@ class CollectFunction(value:Expression) extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def partialState: AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def merge(partial: AnyValue): Unit = {
+    val values = partial.asInstanceOf[ListValue]
+    var i = 0
+    while (i < values.size()) {
+      collection += values.value(i)
+      i += 1
+    }
+  }
 }
@@ -26,9 +26,9 @@ import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
-import com.mware.ge.values.storable.Values
+import com.mware.ge.values.storable.{NumberValue, Values}
 
-class CountFunction(value: Expression) extends AggregationFunction {
+class CountFunction(value: Expression) extends MergeableAggregationFunction {
   var count: Long = 0
 
   override def apply(data: ExecutionContext, state: QueryState) {
@@ -39,4 +39,8 @@ class CountFunction(value: Expression) extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def partialState: AnyValue = Values.longValue(count)
+
+  override def merge(partial: AnyValue): Unit = count += partial.asInstanceOf[NumberValue].longValue()
 }
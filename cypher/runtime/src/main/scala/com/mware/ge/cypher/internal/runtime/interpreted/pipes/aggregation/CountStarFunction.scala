@@ -25,9 +25,9 @@ package com.mware.ge.cypher.internal.runtime.interpreted.pipes.aggregation
 import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
-import com.mware.ge.values.storable.Values
+import com.mware.ge.values.storable.{NumberValue, Values}
 
-class CountStarFunction extends AggregationFunction {
+class CountStarFunction extends MergeableAggregationFunction {
   var count:Long = 0
 
   override def apply(data: ExecutionContext, state: QueryState) {
@@ -35,5 +35,9 @@ class CountStarFunction extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def partialState: AnyValue = Values.longValue(count)
+
+  override def merge(partial: AnyValue): Unit = count += partial.asInstanceOf[NumberValue].longValue()
 }
 
@@ -28,7 +28,7 @@ import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Exp
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
 import com.mware.ge.values.storable.Values
 
-trait MinMax extends AggregationFunction {
+trait MinMax extends MergeableAggregationFunction {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
   def name: String
@@ -44,6 +44,13 @@ trait MinMax extends AggregationFunction {
     }
   }
 
+  override def partialState: AnyValue = biggestSeen
+
+  override def merge(partial: AnyValue): Unit = partial match {
+    case Values.NO_VALUE =>
+    case x: AnyValue => checkIfLargest(x)
+  }
+
   private def checkIfLargest(value: AnyValue) {
     if (biggestSeen == Values.NO_VALUE) {
       biggestSeen = value
@@ -26,10 +26,11 @@ import com.mware.ge.values.AnyValue
 import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
 import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import com.mware.ge.cypher.internal.runtime.interpreted.pipes.QueryState
+import com.mware.ge.values.storable.Values
 import com.mware.ge.values.utils.ValueMath.overflowSafeAdd
 
 class SumFunction(val value: Expression)
-  extends AggregationFunction
+  extends MergeableAggregationFunction
     with NumericOrDurationAggregationExpression {
 
   def name = "SUM"
@@ -43,8 +44,22 @@ class SumFunction(val value: Expression)
       sumDuration
   }
 
+  override def partialState: AnyValue = aggregatingType match {
+    case None =>
+      Values.NO_VALUE
+    case Some(AggregatingNumbers) =>
+      sumNumber
+    case Some(AggregatingDurations) =>
+      sumDuration
+  }
+
+  override def merge(partial: AnyValue): Unit = add(partial)
+
   override def apply(data: ExecutionContext, state: QueryState) {
-    val vl = value(data, state)
+    add(value(data, state))
+  }
+
+  private def add(vl: AnyValue): Unit = {
     actOnNumberOrDuration(vl,
       number => {
         sumNumber = overflowSafeAdd(sumNumber, number)
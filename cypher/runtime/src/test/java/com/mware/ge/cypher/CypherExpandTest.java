@@ -0,0 +1,100 @@
+package com.mware.ge.cypher;
+
+import com.mware.core.GraphTestBase;
+import com.mware.core.lifecycle.LifeSupportService;
+import com.mware.ge.Authorizations;
+import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.inmemory.InMemoryGraphFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The expand pipes read the relationships of their input rows in batches, they should return the same rows as
+ * expanding one row at a time.
+ */
+public class CypherExpandTest extends GraphTestBase {
+    private GeCypherExecutionEngine ee;
+    private Authorizations authorizations;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        authorizations = getGraphAuthorizations();
+
+        // a -> b, a -> c, c -> a, b -> b
+        query("CREATE (a:N {name: 'a'}), (b:N {name: 'b'}), (c:N {name: 'c'}) " +
+                "CREATE (a)-[:T {name: 'ab'}]->(b), (a)-[:T {name: 'ac'}]->(c), (c)-[:T {name: 'ca'}]->(a), (b)-[:T {name: 'bb'}]->(b)");
+    }
+
+    @Test
+    public void testExpandOutgoing() {
+        assertEquals(Arrays.asList("a-ab-b", "a-ac-c", "b-bb-b", "c-ca-a"), sorted(query(
+                "MATCH (x:N)-[r]->(y) RETURN x.name + '-' + r.name + '-' + y.name AS path")));
+    }
+
+    @Test
+    public void testExpandIncoming() {
+        assertEquals(Arrays.asList("a-ca-c", "b-ab-a", "b-bb-b", "c-ac-a"), sorted(query(
+                "MATCH (x:N)<-[r]-(y) RETURN x.name + '-' + r.name + '-' + y.name AS path")));
+    }
+
+    @Test
+    public void testExpandBothReturnsSelfLoopsOnce() {
+        assertEquals(Arrays.asList("a-ab-b", "a-ac-c", "a-ca-c", "b-ab-a", "b-bb-b", "c-ac-a", "c-ca-a"), sorted(query(
+                "MATCH (x:N)-[r]-(y) RETURN x.name + '-' + r.name + '-' + y.name AS path")));
+    }
+
+    @Test
+    public void testExpandBothReturnsPendingSelfLoopsOnce() {
+        assertEquals(Collections.singletonList("d-dd-d"), query(
+                "CREATE (d:M {name: 'd'})-[:T {name: 'dd'}]->(d) WITH d " +
+                        "MATCH (d)-[r]-(y) RETURN d.name + '-' + r.name + '-' + y.name AS path"));
+    }
+
+    @Test
+    public void testExpandInto() {
+        assertEquals(Arrays.asList("a-ac-c", "c-ca-a"), sorted(query(
+                "MATCH (x:N)-[:T]->(y:N)-[:T]->(x) WHERE x <> y MATCH (x)-[r]->(y) RETURN x.name + '-' + r.name + '-' + y.name AS path")));
+        assertEquals(Collections.singletonList("b-bb-b"), query(
+                "MATCH (x:N)-[:T]->(x) MATCH (x)-[r]-(x) RETURN x.name + '-' + r.name + '-' + x.name AS path"));
+    }
+
+    @Test
+    public void testExpandWithLimit() {
+        assertEquals(2, query("MATCH (x:N)-[r]-(y) RETURN r.name AS path LIMIT 2").size());
+        assertEquals(Collections.singletonList("c-ca-a"), query(
+                "MATCH (x:N)-[r]->(y) WITH x.name + '-' + r.name + '-' + y.name AS path ORDER BY path SKIP 3 LIMIT 5 RETURN path"));
+    }
+
+    private List<Object> query(String query) {
+        List<Object> paths = new ArrayList<>();
+        Result r = ee.executeQuery(query, authorizations);
+        try {
+            while (r.hasNext()) {
+                paths.add(r.next().get("path"));
+            }
+        } finally {
+            r.close();
+        }
+        return paths;
+    }
+
+    private List<Object> sorted(List<Object> values) {
+        values.sort((o1, o2) -> ((String) o1).compareTo((String) o2));
+        return values;
+    }
+
+    @Override
+    protected TestGraphFactory graphFactory() {
+        return new InMemoryGraphFactory();
+    }
+}
@@ -0,0 +1,124 @@
+package com.mware.ge.cypher;
+
+import com.mware.core.GraphTestBase;
+import com.mware.core.lifecycle.LifeSupportService;
+import com.mware.core.model.clientapi.dto.PropertyType;
+import com.mware.core.model.clientapi.dto.TextIndexHint;
+import com.mware.core.model.schema.Concept;
+import com.mware.core.model.schema.SchemaFactory;
+import com.mware.ge.Authorizations;
+import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.inmemory.InMemoryGraphFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.mware.core.model.schema.SchemaRepository.PUBLIC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Index seeks read the search index in batches and stop after the rows a LIMIT (and a SKIP in front of it) will
+ * read, they should still return the same rows as reading the whole index.
+ */
+public class CypherIndexSeekTest extends GraphTestBase {
+    private GeCypherExecutionEngine ee;
+    private Authorizations authorizations;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        SchemaFactory factory = new SchemaFactory(getSchemaRepository()).forNamespace(PUBLIC);
+        Concept code = factory.newConcept()
+                .parent(factory.getOrCreateThingConcept())
+                .conceptType("Code")
+                .save();
+        factory.newConceptProperty()
+                .concepts(code)
+                .name("code")
+                .type(PropertyType.STRING)
+                .textIndexHints(TextIndexHint.EXACT_MATCH)
+                .save();
+
+        ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        authorizations = getGraphAuthorizations();
+
+        for (int i = 0; i < 10; i++) {
+            query(String.format("CREATE (:Code {code: 'c%02d'})", i));
+        }
+    }
+
+    @Test
+    public void testSeekIsPlanned() {
+        Result r = ee.executeQuery("EXPLAIN MATCH (n:Code) WHERE n.code = 'c03' RETURN n.code AS code", authorizations);
+        try {
+            String plan = r.getExecutionPlanDescription().toString();
+            assertTrue(plan, plan.contains("NodeIndexSeek"));
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void testSeek() {
+        assertEquals(Collections.singletonList("c03"), query("MATCH (n:Code) WHERE n.code = 'c03' RETURN n.code AS code"));
+        assertEquals(Arrays.asList("c01", "c05", "c08"), sorted(query(
+                "MATCH (n:Code) WHERE n.code IN ['c08', 'c01', 'c05', 'x'] RETURN n.code AS code")));
+    }
+
+    @Test
+    public void testSeekWithOrderSkipAndLimit() {
+        assertEquals(Arrays.asList("c06", "c05", "c04"), query(
+                "MATCH (n:Code) WHERE n.code IN ['c01', 'c02', 'c04', 'c05', 'c06', 'c08', 'c09'] " +
+                        "RETURN n.code AS code ORDER BY code DESC SKIP 2 LIMIT 3"));
+    }
+
+    @Test
+    public void testSeekWithLimit() {
+        String seek = "MATCH (n:Code) WHERE n.code IN ['c01', 'c02', 'c04', 'c05', 'c06', 'c08', 'c09'] RETURN n.code AS code";
+        assertEquals(3, query(seek + " LIMIT 3").size());
+        assertEquals(7, query(seek + " LIMIT 20").size());
+        assertEquals(0, query(seek + " LIMIT 0").size());
+    }
+
+    @Test
+    public void testSeekWithSkipAndLimit() {
+        String seek = "MATCH (n:Code) WHERE n.code IN ['c01', 'c02', 'c04', 'c05', 'c06', 'c08', 'c09'] RETURN n.code AS code";
+        List<Object> all = query(seek);
+        assertEquals(7, all.size());
+
+        // the limit pushed to the index covers the skipped rows, otherwise these rows would be missing
+        assertEquals(3, query(seek + " SKIP 2 LIMIT 3").size());
+        assertEquals(2, query(seek + " SKIP 5 LIMIT 3").size());
+        assertEquals(0, query(seek + " SKIP 7 LIMIT 3").size());
+        assertEquals(all.subList(2, 7), query(seek + " SKIP 2 LIMIT 10"));
+    }
+
+    private List<Object> query(String query) {
+        List<Object> codes = new ArrayList<>();
+        Result r = ee.executeQuery(query, authorizations);
+        try {
+            while (r.hasNext()) {
+                codes.add(r.next().get("code"));
+            }
+        } finally {
+            r.close();
+        }
+        return codes;
+    }
+
+    private List<Object> sorted(List<Object> values) {
+        values.sort((o1, o2) -> ((String) o1).compareTo((String) o2));
+        return values;
+    }
+
+    @Override
+    protected TestGraphFactory graphFactory() {
+        return new InMemoryGraphFactory();
+    }
+}
@@ -0,0 +1,127 @@
+package com.mware.ge.cypher;
+
+import com.mware.core.GraphTestBase;
+import com.mware.core.cache.InMemoryCacheService;
+import com.mware.core.lifecycle.LifeSupportService;
+import com.mware.ge.Authorizations;
+import com.mware.ge.Visibility;
+import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.metric.DropWizardMetricRegistry;
+import com.mware.ge.rocksdb.RocksDBGraph;
+import com.mware.ge.rocksdb.RocksDBGraphConfiguration;
+import com.mware.ge.store.StorableGraphConfiguration;
+import com.mware.ge.store.kv.KVSnapshot;
+import com.mware.ge.store.kv.KVStoreGraph;
+import com.mware.ge.values.storable.Values;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mware.core.model.schema.SchemaConstants.CONCEPT_TYPE_THING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The queries on a RocksDB graph read from a snapshot, they should still be served by the element cache.
+ */
+public class CypherSnapshotCacheTest extends GraphTestBase {
+    @Test
+    public void testReadInSnapshotHitsElementCache() {
+        GeCypherExecutionEngine ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        Authorizations authorizations = getGraphAuthorizations();
+
+        execute(ee, "CREATE (:A {name: 'a1'}), (:A {name: 'a2'})", authorizations);
+        assertEquals(2, names(ee, authorizations).size());
+
+        long hits = vertexCacheHits();
+        List<Object> names = names(ee, authorizations);
+        assertEquals(2, names.size());
+        assertTrue(names.contains("a1") && names.contains("a2"));
+        assertTrue(vertexCacheHits() > hits);
+    }
+
+    @Test
+    public void testWritesAreSeenByLaterQueries() {
+        GeCypherExecutionEngine ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        Authorizations authorizations = getGraphAuthorizations();
+
+        execute(ee, "CREATE (:A {name: 'a1'})", authorizations);
+        assertEquals(1, names(ee, authorizations).size());
+
+        execute(ee, "MATCH (n:A) SET n.name = 'b1'", authorizations);
+        List<Object> names = names(ee, authorizations);
+        assertEquals(1, names.size());
+        assertEquals("b1", names.get(0));
+    }
+
+    @Test
+    public void testSnapshotIgnoresElementsCachedByLaterWrites() {
+        KVStoreGraph graph = (KVStoreGraph) getGraph();
+        Authorizations authorizations = getGraphAuthorizations();
+        graph.prepareVertex("v1", Visibility.EMPTY, CONCEPT_TYPE_THING)
+                .setProperty("name", Values.stringValue("a1"), Visibility.EMPTY)
+                .save(authorizations);
+
+        try (KVSnapshot snapshot = graph.createSnapshot()) {
+            assertEquals(Values.stringValue("a1"), graph.readInSnapshot(snapshot, () -> graph.getVertex("v1", authorizations)).getPropertyValue("name"));
+
+            graph.prepareVertex("v1", Visibility.EMPTY, CONCEPT_TYPE_THING)
+                    .setProperty("name", Values.stringValue("b1"), Visibility.EMPTY)
+                    .save(authorizations);
+            assertEquals(Values.stringValue("b1"), graph.getVertex("v1", authorizations).getPropertyValue("name"));
+
+            assertEquals(Values.stringValue("a1"), graph.readInSnapshot(snapshot, () -> graph.getVertex("v1", authorizations)).getPropertyValue("name"));
+        }
+    }
+
+    private void execute(GeCypherExecutionEngine ee, String query, Authorizations authorizations) {
+        Result r = ee.executeQuery(query, authorizations);
+        try {
+            while (r.hasNext()) {
+                r.next();
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    private List<Object> names(GeCypherExecutionEngine ee, Authorizations authorizations) {
+        List<Object> names = new ArrayList<>();
+        Result r = ee.executeQuery("MATCH (n:A) RETURN n.name AS name", authorizations);
+        try {
+            while (r.hasNext()) {
+                names.add(r.next().get("name"));
+            }
+        } finally {
+            r.close();
+        }
+        return names;
+    }
+
+    private long vertexCacheHits() {
+        DropWizardMetricRegistry metricRegistry = (DropWizardMetricRegistry) getGraph().getMetricsRegistry();
+        DropWizardMetricRegistry.Gauge<?> gauge = (DropWizardMetricRegistry.Gauge<?>) metricRegistry.getGauge(
+                metricRegistry.createName(InMemoryCacheService.class, "v", "hits"),
+                null
+        );
+        return (Long) gauge.getGauge().getValue();
+    }
+
+    @Override
+    protected TestGraphFactory graphFactory() {
+        return () -> {
+            Map<String, Object> config = new HashMap<>();
+            config.put(RocksDBGraphConfiguration.STREAMING_PROPERTY_VALUE_DATA_FOLDER, Files.createTempDirectory("bc_spv.").toString());
+            config.put(RocksDBGraphConfiguration.DATA_PATH, Files.createTempDirectory("bc_data.").toString());
+            config.put(RocksDBGraphConfiguration.WAL_PATH, Files.createTempDirectory("bc_wal.").toString());
+            config.put(StorableGraphConfiguration.ELEMENT_CACHE_ENABLED, true);
+            return RocksDBGraph.create(config);
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.mware.ge.cypher.ge;
+
+import com.mware.core.GraphTestBase;
+import com.mware.core.lifecycle.LifeSupportService;
+import com.mware.ge.Authorizations;
+import com.mware.ge.ElementId;
+import com.mware.ge.ElementType;
+import com.mware.ge.Visibility;
+import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.cypher.GeCypherExecutionEngine;
+import com.mware.ge.cypher.query.StatisticProvider;
+import com.mware.ge.inmemory.InMemoryGraphFactory;
+import com.mware.ge.values.storable.Value;
+import com.mware.ge.values.virtual.VirtualValues;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.mware.core.model.schema.SchemaConstants.CONCEPT_TYPE_THING;
+import static com.mware.core.model.schema.SchemaRepository.PUBLIC;
+import static com.mware.ge.values.storable.Values.stringValue;
+import static org.junit.Assert.*;
+
+public class ElementPropertyCacheTest extends GraphTestBase {
+    private Authorizations authorizations;
+    private GeCypherQueryContext context;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        authorizations = getGraphAuthorizations();
+        getGraph().prepareVertex("v1", Visibility.EMPTY, CONCEPT_TYPE_THING)
+                .setProperty("name", stringValue("a"), Visibility.EMPTY)
+                .setProperty("age", stringValue("10"), Visibility.EMPTY)
+                .save(authorizations);
+        getGraph().flush();
+
+        GeCypherExecutionEngine ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        context = ee.newGeQueryContext(authorizations, PUBLIC, "", VirtualValues.EMPTY_MAP);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedElements() {
+        ElementPropertyCache cache = new ElementPropertyCache(2);
+        List<ElementId> loaded = new ArrayList<>();
+
+        get(cache, "a", loaded);
+        get(cache, "b", loaded);
+        get(cache, "a", loaded);
+        get(cache, "c", loaded);
+        assertEquals(ids("a", "b", "c"), loaded);
+
+        // b was the least recently used when c was added
+        get(cache, "a", loaded);
+        get(cache, "c", loaded);
+        get(cache, "b", loaded);
+        assertEquals(ids("a", "b", "c", "b"), loaded);
+        assertEquals(3, cache.getPageCacheHits());
+        assertEquals(4, cache.getPageCacheMisses());
+    }
+
+    @Test
+    public void testDoesNotCacheMissingElementsOrWithoutSize() {
+        ElementPropertyCache cache = new ElementPropertyCache(2);
+        assertNull(cache.get(vertexId("a"), id -> null));
+        assertNull(cache.get(vertexId("a"), id -> null));
+        assertEquals(2, cache.getPageCacheMisses());
+
+        ElementPropertyCache disabled = new ElementPropertyCache(0);
+        List<ElementId> loaded = new ArrayList<>();
+        get(disabled, "a", loaded);
+        get(disabled, "a", loaded);
+        assertEquals(ids("a", "a"), loaded);
+    }
+
+    @Test
+    public void testCountsPerThread() throws InterruptedException {
+        ElementPropertyCache cache = new ElementPropertyCache(2);
+        get(cache, "a", new ArrayList<>());
+
+        Thread other = new Thread(() -> {
+            get(cache, "a", new ArrayList<>());
+            get(cache, "a", new ArrayList<>());
+        });
+        other.start();
+        other.join();
+
+        assertEquals(2, cache.getPageCacheHits());
+        assertEquals(1, cache.getPageCacheMisses());
+        assertEquals(0, cache.getThreadPageCacheHits());
+        assertEquals(1, cache.getThreadPageCacheMisses());
+    }
+
+    @Test
+    public void testLoadsOutsideOfTheLock() throws InterruptedException {
+        ElementPropertyCache cache = new ElementPropertyCache(2);
+        get(cache, "a", new ArrayList<>());
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread loader = new Thread(() -> cache.get(vertexId("b"), id -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new ElementPropertyCache.CachedProperties(Collections.emptyMap());
+        }));
+        loader.start();
+        try {
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            // served while the other thread is still loading
+            get(cache, "a", new ArrayList<>());
+            assertEquals(1, cache.getThreadPageCacheHits());
+        } finally {
+            release.countDown();
+            loader.join();
+        }
+    }
+
+    @Test
+    public void testDoesNotCacheLoadsThatRaceWithAnInvalidation() {
+        ElementPropertyCache cache = new ElementPropertyCache(2);
+        cache.get(vertexId("a"), id -> {
+            cache.invalidate(id);
+            return new ElementPropertyCache.CachedProperties(Collections.emptyMap());
+        });
+
+        List<ElementId> loaded = new ArrayList<>();
+        get(cache, "a", loaded);
+        assertEquals(ids("a"), loaded);
+    }
+
+    @Test
+    public void testServesStoredPropertiesFromCache() {
+        assertEquals(stringValue("a"), properties().get("name"));
+        assertEquals(stringValue("a"), properties().get("name"));
+
+        StatisticProvider statistics = context.getElementCacheStatistics();
+        assertEquals(1, statistics.getPageCacheMisses());
+        assertEquals(1, statistics.getPageCacheHits());
+    }
+
+    @Test
+    public void testPendingMutationsAreAppliedOverCachedProperties() {
+        assertEquals(stringValue("a"), properties().get("name"));
+
+        context.setProperty("v1", ElementType.VERTEX, "name", stringValue("b"));
+        context.removeProperty("v1", ElementType.VERTEX, "age");
+        Map<String, Value> properties = properties();
+        assertEquals(stringValue("b"), properties.get("name"));
+        assertFalse(properties.containsKey("age"));
+
+        // the cache still holds the stored state, the graph is not written before the commit
+        assertEquals(1, context.getElementCacheStatistics().getPageCacheMisses());
+        assertEquals(stringValue("a"), getGraph().getVertex("v1", authorizations).getPropertyValue("name"));
+    }
+
+    @Test
+    public void testInvalidatesOnCommit() {
+        assertEquals(stringValue("a"), properties().get("name"));
+
+        context.setProperty("v1", ElementType.VERTEX, "name", stringValue("b"));
+        context.commit();
+
+        assertEquals(stringValue("b"), properties().get("name"));
+        assertEquals(2, context.getElementCacheStatistics().getPageCacheMisses());
+    }
+
+    @Test
+    public void testInvalidatesOnDelete() {
+        assertEquals(stringValue("a"), properties().get("name"));
+
+        context.deleteElement("v1", ElementType.VERTEX);
+        properties();
+        assertEquals(2, context.getElementCacheStatistics().getPageCacheMisses());
+    }
+
+    private Map<String, Value> properties() {
+        return context.getElementProperties("v1", ElementType.VERTEX);
+    }
+
+    private static void get(ElementPropertyCache cache, String id, List<ElementId> loaded) {
+        assertNotNull(cache.get(vertexId(id), elementId -> {
+            loaded.add(elementId);
+            return new ElementPropertyCache.CachedProperties(Collections.emptyMap());
+        }));
+    }
+
+    private static ElementId vertexId(String id) {
+        return ElementId.create(ElementType.VERTEX, id);
+    }
+
+    private static List<ElementId> ids(String... ids) {
+        List<ElementId> result = new ArrayList<>();
+        for (String id : ids) {
+            result.add(vertexId(id));
+        }
+        return result;
+    }
+
+    @Override
+    protected TestGraphFactory graphFactory() {
+        return new InMemoryGraphFactory();
+    }
+}
@@ -0,0 +1,234 @@
+package com.mware.ge.cypher.ge;
+
+import com.mware.core.GraphTestBase;
+import com.mware.core.lifecycle.LifeSupportService;
+import com.mware.ge.Authorizations;
+import com.mware.ge.base.TestGraphFactory;
+import com.mware.ge.cypher.GeCypherExecutionEngine;
+import com.mware.ge.cypher.Result;
+import com.mware.ge.inmemory.InMemoryGraphFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.mware.ge.cypher.ge.GeStatisticsHolder.relationshipKey;
+import static org.junit.Assert.assertEquals;
+
+public class GeStatisticsHolderTest extends GraphTestBase {
+    private static final LongSupplier NOT_LOADED = () -> {
+        throw new AssertionError("the count should have been cached");
+    };
+
+    private GeCypherExecutionEngine ee;
+    private GeStatisticsHolder statistics;
+    private Authorizations authorizations;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        ee = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        statistics = ee.getStatistics();
+        authorizations = getGraphAuthorizations();
+    }
+
+    @Test
+    public void testCountIsLoadedOnce() {
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts();
+        AtomicLong loads = new AtomicLong();
+
+        assertEquals(5, counts.get("k", () -> 5 + loads.getAndIncrement()));
+        assertEquals(5, counts.get("k", () -> 5 + loads.getAndIncrement()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testDeltasAreAppliedToKnownCounts() {
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts();
+        counts.get("k", () -> 5);
+
+        counts.add("k", 3);
+        counts.add("k", -1);
+        assertEquals(7, counts.get("k", NOT_LOADED));
+
+        counts.add("k", -10);
+        assertEquals(0, counts.get("k", NOT_LOADED));
+        counts.add("k", 10);
+        assertEquals(7, counts.get("k", NOT_LOADED));
+
+        // unknown counts include the delta once they are loaded
+        counts.add("other", 1);
+        assertEquals(2, counts.get("other", () -> 2));
+    }
+
+    @Test
+    public void testReconcileReloadsCounts() {
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts();
+        AtomicLong indexed = new AtomicLong(5);
+        counts.get("k", indexed::get);
+        counts.add("k", 1);
+
+        indexed.set(10);
+        counts.reconcile();
+        assertEquals(10, counts.get("k", NOT_LOADED));
+    }
+
+    @Test
+    public void testReconcileKeepsDeltasAddedWhileLoading() {
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts();
+        AtomicLong indexed = new AtomicLong(5);
+        AtomicLong reloads = new AtomicLong();
+        counts.get("k", () -> {
+            if (reloads.getAndIncrement() > 0) {
+                // a query commits a new element while the index is being read
+                counts.add("k", 1);
+            }
+            return indexed.get();
+        });
+
+        indexed.set(10);
+        counts.reconcile();
+        assertEquals(11, counts.get("k", NOT_LOADED));
+    }
+
+    @Test
+    public void testReconcileKeepsCountWhenLoaderFails() {
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts();
+        AtomicLong indexed = new AtomicLong(5);
+        counts.get("k", () -> {
+            if (indexed.get() < 0) {
+                throw new IllegalStateException("index unavailable");
+            }
+            return indexed.get();
+        });
+
+        indexed.set(-1);
+        counts.reconcile();
+        assertEquals(5, counts.get("k", NOT_LOADED));
+    }
+
+    @Test
+    public void testReconcileEvictsIdleCounts() {
+        AtomicLong now = new AtomicLong(0);
+        GeStatisticsHolder.Counts counts = new GeStatisticsHolder.Counts(now::get);
+        counts.get("idle", () -> 1);
+        counts.get("used", () -> 2);
+
+        now.set(GeStatisticsHolder.EXPIRE_AFTER_ACCESS_MILLIS);
+        counts.get("used", NOT_LOADED);
+        now.set(GeStatisticsHolder.EXPIRE_AFTER_ACCESS_MILLIS + 1);
+        counts.reconcile();
+
+        assertEquals(2, counts.get("used", NOT_LOADED));
+        assertEquals(3, counts.get("idle", () -> 3));
+    }
+
+    @Test
+    public void testInvalidatePropertyCountsMatchesConceptTypeExactly() {
+        statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a", "x"), () -> 1);
+        statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a", "x", "y"), () -> 2);
+        statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a_b", "x"), () -> 3);
+        statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("ab", "x"), () -> 4);
+
+        statistics.invalidatePropertyCounts("a", "y");
+        assertEquals(1, statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a", "x"), NOT_LOADED));
+        assertEquals(20, statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a", "x", "y"), () -> 20));
+
+        statistics.invalidatePropertyCounts("a", null);
+        assertEquals(10, statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a", "x"), () -> 10));
+        assertEquals(3, statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("a_b", "x"), NOT_LOADED));
+        assertEquals(4, statistics.nodesByPropertiesCount.get(GeStatisticsHolder.propertyKey("ab", "x"), NOT_LOADED));
+    }
+
+    @Test
+    public void testCommitAppliesDeltas() {
+        query("CREATE (:N {name: 'a'})-[:T]->(:N {name: 'b'})");
+        primeCounts(2, 1, 1, 0);
+
+        query("CREATE (a:N {name: 'c'})-[:T]->(b:N {name: 'd'}), (a)-[:U]->(b)");
+        assertCounts(4, 3, 2, 1);
+
+        query("MATCH (:N {name: 'c'})-[r:U]->() DELETE r");
+        assertCounts(4, 2, 2, 0);
+    }
+
+    @Test
+    public void testVertexDeleteSubtractsItsEdges() {
+        // a -> b, a -> c, b -> c
+        query("CREATE (a:N {name: 'a'}), (b:N {name: 'b'}), (c:N {name: 'c'}) " +
+                "CREATE (a)-[:T]->(b), (a)-[:T]->(c), (b)-[:U]->(c)");
+        primeCounts(3, 3, 2, 1);
+
+        query("MATCH (a:N {name: 'a'}) DETACH DELETE a");
+        assertCounts(2, 1, 0, 1);
+    }
+
+    @Test
+    public void testVertexDeleteDoesNotSubtractDeletedEdgesTwice() {
+        query("CREATE (a:N {name: 'a'}), (b:N {name: 'b'}), (c:N {name: 'c'}) " +
+                "CREATE (a)-[:T]->(b), (a)-[:T]->(c), (b)-[:U]->(c)");
+        primeCounts(3, 3, 2, 1);
+
+        query("MATCH (b:N {name: 'b'})-[r:U]->() DETACH DELETE r, b");
+        assertCounts(2, 1, 1, 0);
+    }
+
+    @Test
+    public void testDeleteOfUpdatedVertex() {
+        query("CREATE (a:N {name: 'a'}), (b:N {name: 'b'}) CREATE (a)-[:T]->(b)");
+        primeCounts(2, 1, 1, 0);
+
+        query("MATCH (a:N {name: 'a'}) SET a.name = 'c' DETACH DELETE a");
+        assertCounts(1, 0, 0, 0);
+        assertEquals(0L, count("MATCH (n:N) WHERE n.name IN ['a', 'c'] RETURN count(*)"));
+    }
+
+    @Test
+    public void testEnginesDoNotShareCounts() {
+        GeCypherExecutionEngine other = new GeCypherExecutionEngine(
+                getGraph(), getSchemaRepository(), new LifeSupportService(), getUserRepository(), null, null, null, null, null, null, null, null);
+        statistics.nodeByLabelCount.get("N", () -> 1);
+        assertEquals(2, other.getStatistics().nodeByLabelCount.get("N", () -> 2));
+    }
+
+    private void primeCounts(long vertices, long edges, long edgesT, long edgesU) {
+        statistics.nodeByLabelCount.get("N", () -> vertices);
+        statistics.relByLabelCount.get(relationshipKey(null, null, null), () -> edges);
+        statistics.relByLabelCount.get(relationshipKey(null, "T", null), () -> edgesT);
+        statistics.relByLabelCount.get(relationshipKey(null, "U", null), () -> edgesU);
+    }
+
+    private void assertCounts(long vertices, long edges, long edgesT, long edgesU) {
+        assertEquals(vertices, statistics.nodeByLabelCount.get("N", NOT_LOADED));
+        assertEquals(edges, statistics.relByLabelCount.get(relationshipKey(null, null, null), NOT_LOADED));
+        assertEquals(edgesT, statistics.relByLabelCount.get(relationshipKey(null, "T", null), NOT_LOADED));
+        assertEquals(edgesU, statistics.relByLabelCount.get(relationshipKey(null, "U", null), NOT_LOADED));
+    }
+
+    private long count(String query) {
+        Result r = ee.executeQuery(query, authorizations);
+        try {
+            return ((Number) r.next().values().iterator().next()).longValue();
+        } finally {
+            r.close();
+        }
+    }
+
+    private void query(String query) {
+        Result r = ee.executeQuery(query, authorizations);
+        try {
+            while (r.hasNext()) {
+                r.next();
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    @Override
+    protected TestGraphFactory graphFactory() {
+        return new InMemoryGraphFactory();
+    }
+}
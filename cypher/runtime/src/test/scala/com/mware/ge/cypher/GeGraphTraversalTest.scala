@@ -0,0 +1,189 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher
+
+import java.util.Optional
+
+import com.mware.ge.Direction
+import com.mware.ge.cypher.ge.GeCypherQueryContext
+import com.mware.ge.cypher.internal.expressions.SemanticDirection
+import com.mware.ge.cypher.internal.runtime.KernelPredicate
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{OnlyDirectionExpander, TypeAndDirectionExpander}
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+import com.mware.ge.values.storable.Values
+import com.mware.ge.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+import org.mockito.Matchers.{any, anyBoolean, anyString}
+import org.mockito.Mockito.{times, verify, when}
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+
+import scala.collection.JavaConverters._
+
+class GeGraphTraversalTest extends CypherFunSuite {
+  private val nodes = Seq("a", "b", "c", "d", "e", "f").map(id => id -> VirtualValues.nodeValue(id, Values.stringArray(), VirtualValues.EMPTY_MAP)).toMap
+
+  // a -KNOWS-> b -KNOWS-> c -KNOWS-> d -KNOWS-> a, c -KNOWS-> e, a -LIKES-> c, a -KNOWS-> f -KNOWS-> d
+  private val relationships = Seq(
+    rel("r1", "a", "KNOWS", "b"),
+    rel("r2", "b", "KNOWS", "c"),
+    rel("r3", "c", "KNOWS", "d"),
+    rel("r4", "a", "LIKES", "c"),
+    rel("r5", "d", "KNOWS", "a"),
+    rel("r6", "c", "KNOWS", "e"),
+    rel("r7", "a", "KNOWS", "f"),
+    rel("r8", "f", "KNOWS", "d")
+  )
+
+  private var queryContext: GeCypherQueryContext = _
+  private var traversal: GeGraphTraversal = _
+
+  override protected def beforeEach(): Unit = {
+    super.beforeEach()
+    queryContext = mock[GeCypherQueryContext]
+    when(queryContext.getVertexById(anyString(), anyBoolean())).thenAnswer(new Answer[NodeValue] {
+      override def answer(invocation: InvocationOnMock): NodeValue = nodes.getOrElse(invocation.getArguments()(0).asInstanceOf[String], null)
+    })
+    when(queryContext.getEdgesForVertices(any(), any(), any(), anyBoolean())).thenAnswer(new Answer[java.util.Map[String, java.util.List[RelationshipValue]]] {
+      override def answer(invocation: InvocationOnMock): java.util.Map[String, java.util.List[RelationshipValue]] = {
+        val args = invocation.getArguments
+        val nodeIds = args(0).asInstanceOf[java.util.Collection[String]].asScala
+        val direction = args(1).asInstanceOf[Direction]
+        val types = args(2).asInstanceOf[Optional[Array[String]]]
+        nodeIds.map { nodeId =>
+          nodeId -> relationships.filter { r =>
+            (!types.isPresent || types.get.contains(r.`type`().stringValue())) &&
+              (direction match {
+                case Direction.OUT => r.startNodeId() == nodeId
+                case Direction.IN => r.endNodeId() == nodeId
+                case Direction.BOTH => r.startNodeId() == nodeId || r.endNodeId() == nodeId
+              })
+          }.asJava
+        }.toMap.asJava
+      }
+    })
+    traversal = new GeGraphTraversal(queryContext)
+  }
+
+  test("variable length expand respects the length bounds") {
+    expand("a", Some(1), Some(2), SemanticDirection.OUTGOING, Seq("KNOWS")) should equal(Set("ab", "abc", "af", "afd"))
+    expand("a", Some(2), Some(3), SemanticDirection.OUTGOING, Seq("KNOWS")) should equal(Set("abc", "abcd", "abce", "afd", "afda"))
+    expand("a", Some(0), Some(1), SemanticDirection.OUTGOING, Seq("KNOWS")) should equal(Set("a", "ab", "af"))
+  }
+
+  test("variable length expand filters on direction and relationship types") {
+    expand("c", Some(1), Some(1), SemanticDirection.INCOMING, Seq.empty) should equal(Set("cb", "ca"))
+    expand("c", Some(1), Some(1), SemanticDirection.BOTH, Seq("KNOWS")) should equal(Set("cb", "cd", "ce"))
+    expand("a", Some(1), Some(2), SemanticDirection.OUTGOING, Seq("LIKES")) should equal(Set("ac"))
+  }
+
+  test("variable length expand never repeats a relationship") {
+    val paths = traversal.variableLengthPathExpand("a", None, None, SemanticDirection.OUTGOING, Seq("KNOWS")).toList
+
+    paths.foreach(path => path.relationships().asScala.map(_.id()).toSeq.distinct.size should equal(path.length()))
+    paths.map(ids).toSet should equal(Set(
+      "ab", "abc", "abcd", "abcda", "abcdaf", "abcdafd", "abce",
+      "af", "afd", "afda", "afdab", "afdabc", "afdabcd", "afdabce"))
+  }
+
+  test("variable length expand is depth first and lazy") {
+    val paths = traversal.variableLengthPathExpand("a", Some(1), None, SemanticDirection.OUTGOING, Seq("KNOWS"))
+
+    ids(paths.next()) should equal("ab")
+    ids(paths.next()) should equal("abc")
+    // the adjacency of a, of the nodes reached from a and of the nodes reached from b
+    verify(queryContext, times(3)).getEdgesForVertices(any(), any(), any(), anyBoolean())
+  }
+
+  test("variable length expand of a missing node is empty") {
+    traversal.variableLengthPathExpand("x", Some(1), None, SemanticDirection.OUTGOING, Seq.empty).toList shouldBe empty
+  }
+
+  test("single shortest path returns one of the shortest paths") {
+    val path = traversal.singleShortestPath("a", "d", Int.MaxValue, allOutgoing, anyPath, Seq.empty)
+
+    path.map(ids) should (equal(Some("acd")) or equal(Some("afd")))
+  }
+
+  test("all shortest paths returns every path of the shortest length") {
+    traversal.allShortestPath("a", "d", Int.MaxValue, allOutgoing, anyPath, Seq.empty).map(ids).toSet should equal(Set("acd", "afd"))
+    traversal.allShortestPath("a", "d", Int.MaxValue, knows, anyPath, Seq.empty).map(ids).toSet should equal(Set("afd"))
+    traversal.allShortestPath("a", "d", 1, allOutgoing, anyPath, Seq.empty).toList shouldBe empty
+  }
+
+  test("shortest paths fall back to an exhaustive search when no shortest path matches the predicate") {
+    // the BFS reaches c from a directly, the path through b is only found by the exhaustive search
+    val withoutLikesAndR8 = pathPredicate(_.forall(r => r.`type`().stringValue() != "LIKES" && r.id() != "r8"))
+
+    traversal.singleShortestPath("a", "d", Int.MaxValue, allOutgoing, withoutLikesAndR8, Seq.empty).map(ids) should equal(Some("abcd"))
+    traversal.allShortestPath("a", "d", Int.MaxValue, allOutgoing, withoutLikesAndR8, Seq.empty).map(ids).toList should equal(List("abcd"))
+    traversal.allShortestPath("a", "d", 2, allOutgoing, withoutLikesAndR8, Seq.empty).toList shouldBe empty
+  }
+
+  test("the exhaustive search of the shortest paths is bounded by the slack") {
+    val withoutLikesAndR8 = pathPredicate(_.forall(r => r.`type`().stringValue() != "LIKES" && r.id() != "r8"))
+    val withoutSlack = new GeGraphTraversal(queryContext, fallbackSlack = 0)
+
+    withoutSlack.singleShortestPath("a", "d", Int.MaxValue, allOutgoing, withoutLikesAndR8, Seq.empty) should equal(None)
+    new GeGraphTraversal(queryContext, fallbackSlack = 1)
+      .singleShortestPath("a", "d", Int.MaxValue, allOutgoing, withoutLikesAndR8, Seq.empty).map(ids) should equal(Some("abcd"))
+  }
+
+  test("shortest paths end when no path of any length matches the predicate") {
+    val none = pathPredicate(_ => false)
+
+    traversal.singleShortestPath("a", "d", Int.MaxValue, allOutgoing, none, Seq.empty) should equal(None)
+    traversal.allShortestPath("a", "d", Int.MaxValue, allOutgoing, none, Seq.empty).toList shouldBe empty
+  }
+
+  private def expand(startId: String, minHops: Option[Int], maxHops: Option[Int], direction: SemanticDirection, types: Seq[String]): Set[String] =
+    traversal.variableLengthPathExpand(startId, minHops, maxHops, direction, types).map(ids).toSet
+
+  private def ids(path: Path): String = path.nodes().asScala.map(_.id()).mkString
+
+  private def rel(id: String, start: String, typ: String, end: String): RelationshipValue =
+    VirtualValues.relationshipValue(id, nodes(start), nodes(end), Values.stringValue(typ), VirtualValues.EMPTY_MAP)
+
+  private def knows = TypeAndDirectionExpander(Seq.empty, Seq.empty, Seq("KNOWS" -> SemanticDirection.OUTGOING))
+
+  private def allOutgoing = OnlyDirectionExpander(Seq.empty, Seq.empty, SemanticDirection.OUTGOING)
+
+  private def anyPath = pathPredicate(_ => true)
+
+  private def pathPredicate(f: Seq[RelationshipValue] => Boolean): KernelPredicate[Path] = new KernelPredicate[Path] {
+    override def test(path: Path): Boolean = f(path.relationships().asScala.toSeq)
+  }
+}
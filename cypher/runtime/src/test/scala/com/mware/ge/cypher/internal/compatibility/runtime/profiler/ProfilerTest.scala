@@ -0,0 +1,140 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.compatibility.runtime.profiler
+
+import java.util.concurrent.atomic.AtomicLong
+
+import com.mware.ge.cypher.internal.planner.spi.KernelStatisticProvider
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.interpreted.pipes.ArgumentPipe
+import com.mware.ge.cypher.internal.util.attribution.Id
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+
+class ProfilerTest extends CypherFunSuite {
+
+  test("page cache hits and misses are charged to the operator causing them") {
+    val statistics = new TestStatisticProvider
+    val stats = new InterpretedProfileInformation
+    val profiler = new Profiler(stats, statistics)
+    val leaf = ArgumentPipe()(Id(0))
+    val parent = ArgumentPipe()(Id(1))
+
+    // every row of the leaf causes one hit and two misses, the parent causes ten more hits per row on top of that
+    val leafRows = profiler.decorate(leaf, rows(3) { statistics.hits += 1; statistics.misses += 2 })
+    val parentRows = profiler.decorate(parent, leafRows.map { row =>
+      statistics.hits += 10
+      row
+    })
+    parentRows.size should equal(3)
+
+    val leafProfile = stats.operatorProfile(0)
+    leafProfile.rows() should equal(3)
+    leafProfile.pageCacheHits() should equal(3)
+    leafProfile.pageCacheMisses() should equal(6)
+
+    val parentProfile = stats.operatorProfile(1)
+    parentProfile.rows() should equal(3)
+    parentProfile.pageCacheHits() should equal(30)
+    parentProfile.pageCacheMisses() should equal(0)
+  }
+
+  test("page cache hits and misses of a partially consumed operator are counted") {
+    val statistics = new TestStatisticProvider
+    val stats = new InterpretedProfileInformation
+    val profiler = new Profiler(stats, statistics)
+
+    val leafRows = profiler.decorate(ArgumentPipe()(Id(0)), rows(10) { statistics.misses += 1 })
+    leafRows.take(4).size should equal(4)
+
+    stats.operatorProfile(0).pageCacheMisses() should equal(4)
+  }
+
+  test("page cache hits and misses of other threads are not charged to the operator") {
+    val statistics = new ThreadStatisticProvider
+    val stats = new InterpretedProfileInformation
+    val profiler = new Profiler(stats, statistics)
+
+    // while the leaf produces a row another thread causes a hundred hits
+    val leafRows = profiler.decorate(ArgumentPipe()(Id(0)), rows(3) {
+      statistics.hit(1)
+      val other = new Thread(new Runnable {
+        override def run(): Unit = statistics.hit(100)
+      })
+      other.start()
+      other.join()
+    })
+    leafRows.size should equal(3)
+
+    stats.operatorProfile(0).pageCacheHits() should equal(3)
+    statistics.getPageCacheHits should equal(303)
+  }
+
+  private def rows(count: Int)(onRow: => Unit): Iterator[ExecutionContext] =
+    Iterator.fill(count) {
+      onRow
+      ExecutionContext.empty
+    }
+
+  private class TestStatisticProvider extends KernelStatisticProvider {
+    var hits = 0L
+    var misses = 0L
+
+    override def getPageCacheHits: Long = hits
+
+    override def getPageCacheMisses: Long = misses
+  }
+
+  private class ThreadStatisticProvider extends KernelStatisticProvider {
+    private val hits = new AtomicLong()
+    private val threadHits = new ThreadLocal[AtomicLong] {
+      override def initialValue(): AtomicLong = new AtomicLong()
+    }
+
+    def hit(count: Long): Unit = {
+      hits.addAndGet(count)
+      threadHits.get().addAndGet(count)
+    }
+
+    override def getPageCacheHits: Long = hits.get()
+
+    override def getPageCacheMisses: Long = 0
+
+    override def getThreadPageCacheHits: Long = threadHits.get().get()
+
+    override def getThreadPageCacheMisses: Long = 0
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.expressions.SemanticDirection
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.util.attribution.Id
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+import com.mware.ge.values.storable.Values
+import com.mware.ge.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+import org.mockito.Matchers.{any, anyBoolean, eq => is}
+import org.mockito.Mockito.{never, verify, when}
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+
+import scala.collection.mutable
+
+class ExpandAllPipeTest extends CypherFunSuite {
+
+  private def node(id: String): NodeValue = VirtualValues.nodeValue(id, Values.stringArray(), VirtualValues.EMPTY_MAP)
+
+  private def rel(id: String, from: NodeValue, to: NodeValue): RelationshipValue =
+    VirtualValues.relationshipValue(id, from, to, Values.stringValue("T"), VirtualValues.EMPTY_MAP)
+
+  private val nodes = (0 until 20).map(i => node(s"n$i"))
+
+  // every node has one relationship to the next one
+  private def stateExpanding(batchSize: Int, batches: mutable.ArrayBuffer[Seq[String]]): QueryState = {
+    val state = QueryStateHelper.withSortBuffer(1000)
+    when(state.query.getRelationshipsForIdsBatch(any(), any(), any(), anyBoolean())).thenAnswer(new Answer[Map[String, Seq[RelationshipValue]]] {
+      override def answer(invocation: InvocationOnMock): Map[String, Seq[RelationshipValue]] = {
+        val ids = invocation.getArguments()(0).asInstanceOf[Seq[String]]
+        batches += ids
+        ids.map(id => id -> Seq(rel(s"r$id", node(id), node(s"$id'")))).toMap
+      }
+    })
+    new QueryState(state.query, state.resources, state.params, expandBatchSize = batchSize)
+  }
+
+  private def countingInput(pulled: mutable.ArrayBuffer[String]): Iterator[ExecutionContext] =
+    nodes.iterator.map { n =>
+      pulled += n.id()
+      ExecutionContext.from("a" -> n)
+    }
+
+  private def pipeOver(input: => Iterator[ExecutionContext]): Pipe = new Pipe {
+    override val id: Id = Id.INVALID_ID
+    override protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = input
+  }
+
+  test("expand returns the rows in input order") {
+    val batches = mutable.ArrayBuffer[Seq[String]]()
+    val state = stateExpanding(4, batches)
+
+    val rows = ExpandAllPipe(FakePipe(nodes.map(n => ExecutionContext.from("a" -> n)))(), "a", "r", "b",
+      SemanticDirection.OUTGOING, LazyTypes.empty)().createResults(state).toList
+
+    rows.map(_("b").asInstanceOf[NodeValue].id()) should equal(nodes.map(n => s"${n.id()}'"))
+  }
+
+  test("expand grows its batches from a single row up to the batch size") {
+    val batches = mutable.ArrayBuffer[Seq[String]]()
+    val state = stateExpanding(4, batches)
+
+    ExpandAllPipe(FakePipe(nodes.map(n => ExecutionContext.from("a" -> n)))(), "a", "r", "b",
+      SemanticDirection.OUTGOING, LazyTypes.empty)().createResults(state).toList
+
+    batches.map(_.size) should equal(Seq(1, 2, 4, 4, 4, 4, 1))
+  }
+
+  test("expand under a limit only reads the rows it needs") {
+    val batches = mutable.ArrayBuffer[Seq[String]]()
+    val pulled = mutable.ArrayBuffer[String]()
+    val state = stateExpanding(1000, batches)
+
+    val rows = ExpandAllPipe(pipeOver(countingInput(pulled)), "a", "r", "b",
+      SemanticDirection.OUTGOING, LazyTypes.empty)().createResults(state).take(1).toList
+
+    rows should have size 1
+    pulled should equal(Seq("n0"))
+    batches should equal(Seq(Seq("n0")))
+  }
+
+  test("expand into does not load the nodes on the other side") {
+    val batches = mutable.ArrayBuffer[Seq[String]]()
+    val state = stateExpanding(1000, batches)
+    val input = nodes.map(n => ExecutionContext.from("a" -> n, "b" -> node(s"${n.id()}'")))
+
+    val rows = ExpandIntoPipe(FakePipe(input)(), "a", "r", "b", SemanticDirection.OUTGOING, LazyTypes.empty)()
+      .createResults(state).toList
+
+    rows should have size nodes.size
+    verify(state.query, never()).getRelationshipsForIdsBatch(any(), any(), any(), is(true))
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.Literal
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+import com.mware.ge.values.storable.{LongValue, Values}
+
+class ExternalSorterTest extends CypherFunSuite {
+
+  private def row(i: Int): ExecutionContext = ExecutionContext.from("x" -> Values.longValue(i))
+
+  private def values(rows: Seq[ExecutionContext]): Seq[Long] =
+    rows.map(_.apply("x").asInstanceOf[LongValue].value())
+
+  private def failingAfter(rows: Int): Iterator[ExecutionContext] =
+    (0 until rows).reverseIterator.map(row) ++ new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = true
+      override def next(): ExecutionContext = throw new IllegalStateException("source failed")
+    }
+
+  test("sort spills runs and merges them back in order") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(3, monitor)
+    val input = Seq(5, 1, 9, 3, 7, 2, 8, 0, 6, 4).map(row)
+
+    val sorted = SortPipe(FakePipe(input)(), Seq(Ascending("x")))().createResults(state).toList
+
+    values(sorted) should equal(0L to 9L)
+    monitor.traced.size should equal(3)
+    monitor.filesOnDisk shouldBe empty
+  }
+
+  test("sort keeps rows on the heap when they fit in the buffer") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(100, monitor)
+
+    val sorted = SortPipe(FakePipe(Seq(3, 1, 2).map(row))(), Seq(Descending("x")))().createResults(state).toList
+
+    values(sorted) should equal(Seq(3L, 2L, 1L))
+    monitor.traced shouldBe empty
+  }
+
+  test("sort removes the spilled runs when the input fails") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor)
+
+    an[IllegalStateException] should be thrownBy
+      new ExternalSorter(ExecutionContextOrdering.asComparator(Seq(Ascending("x"))), 2, state).sort(failingAfter(5))
+
+    monitor.traced should not be empty
+    monitor.filesOnDisk shouldBe empty
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("top keeps the first rows in spilled runs when the limit exceeds the buffer") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor)
+    val input = (0 until 40).map(i => (i * 17) % 40).map(row)
+
+    val top = TopNPipe(FakePipe(input)(), Literal(5), ExecutionContextOrdering.asComparator(Seq(Ascending("x"))))()
+      .createResults(state).toList
+
+    values(top) should equal(0L to 4L)
+    // without dropping the rows after the cutoff every pair of input rows would have been spilled
+    monitor.traced.size should be < 20
+    monitor.filesOnDisk.size should be <= 3
+  }
+
+  test("top drops the rows after the cutoff and keeps ties in input order") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor)
+    val input = (0 until 30).map(i => ExecutionContext.from("x" -> Values.longValue(i % 3), "i" -> Values.longValue(i)))
+
+    val top = new ExternalSorter(ExecutionContextOrdering.asComparator(Seq(Ascending("x"))), 2, state).top(input.iterator, 4).toList
+
+    top.map(_.apply("i").asInstanceOf[LongValue].value()) should equal(Seq(0L, 3L, 6L, 9L))
+  }
+
+  test("top over a small input keeps the rows on the heap") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(10, monitor)
+
+    val top = TopNPipe(FakePipe(Seq(3, 1, 2).map(row))(), Literal(20), ExecutionContextOrdering.asComparator(Seq(Descending("x"))))()
+      .createResults(state).toList
+
+    values(top) should equal(Seq(3L, 2L, 1L))
+    monitor.traced shouldBe empty
+  }
+
+  test("eager buffer returns rows in input order across the spilled tail") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor)
+    val input = Seq(4, 2, 7, 1, 3).map(row)
+
+    val buffered = EagerPipe(FakePipe(input)())().createResults(state).toList
+
+    values(buffered) should equal(Seq(4L, 2L, 7L, 1L, 3L))
+    monitor.traced.size should equal(1)
+    monitor.filesOnDisk shouldBe empty
+  }
+
+  test("eager buffer removes the spilled tail when the input fails") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor)
+
+    an[IllegalStateException] should be thrownBy new SpillingRowBuffer(2, state).buffer(failingAfter(5))
+
+    monitor.traced.size should equal(1)
+    monitor.filesOnDisk shouldBe empty
+    state.query.resources.allResources shouldBe empty
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.expressions.{LabelToken, PropertyKeyToken}
+import com.mware.ge.cypher.internal.logical.plans.{GetValue, IndexOrderNone, IndexedProperty}
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions.{Add, Literal}
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+import com.mware.ge.cypher.internal.util.{LabelId, PropertyKeyId}
+import com.mware.ge.cypher.util.NodeValueIndexCursor
+import com.mware.ge.values.storable.{Value, Values}
+import com.mware.ge.values.virtual.{NodeValue, VirtualValues}
+import org.mockito.Matchers.{any, anyBoolean}
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+
+import scala.collection.mutable
+
+class NodeIndexScanPipeTest extends CypherFunSuite {
+
+  private val label = LabelToken("Person", LabelId("Person"))
+  private val property = IndexedProperty(PropertyKeyToken("name", PropertyKeyId("name")), GetValue)
+
+  private def node(id: String): NodeValue = VirtualValues.nodeValue(id, Values.stringArray(), VirtualValues.EMPTY_MAP)
+
+  // deliberately not sorted by id, the index order is the one to keep
+  private val ids = (0 until 20).map(i => s"n${(i * 7) % 20}")
+
+  /** Serves the ids in order, stopping after the limit hint like the search index cursor does. */
+  private class FakeCursor(ids: Seq[String]) extends NodeValueIndexCursor {
+    var limit: Option[Long] = None
+    var read = 0
+    private var current: String = _
+    private var closed = false
+
+    override def limitHint(limit: Long): Unit = {
+      if (read == 0)
+        this.limit = Some(limit)
+    }
+
+    override def next(): Boolean = {
+      if (read < ids.size && limit.forall(read < _)) {
+        current = ids(read)
+        read += 1
+        true
+      } else {
+        current = null
+        false
+      }
+    }
+
+    override def nodeReference(): String = current
+
+    override def hasValue: Boolean = current != null
+
+    override def propertyValue(propertyName: String): Value = Values.stringValue(s"$current.$propertyName")
+
+    override def close(): Unit = closed = true
+
+    override def isClosed: Boolean = closed
+  }
+
+  private def stateScanning(cursor: NodeValueIndexCursor, batchSize: Int, batches: mutable.ArrayBuffer[Seq[String]]): QueryState = {
+    val state = QueryStateHelper.withSortBuffer(1000)
+    when(state.query.indexScan[AnyRef](any(), anyBoolean(), any())).thenReturn(cursor)
+    when(state.query.nodesByIdBatch(any())).thenAnswer(new Answer[Seq[NodeValue]] {
+      override def answer(invocation: InvocationOnMock): Seq[NodeValue] = {
+        val ids = invocation.getArguments()(0).asInstanceOf[Seq[String]]
+        batches += ids.toList
+        ids.map(node)
+      }
+    })
+    new QueryState(state.query, state.resources, state.params, expandBatchSize = batchSize)
+  }
+
+  test("index scan returns the nodes in index order with their values") {
+    val state = stateScanning(new FakeCursor(ids), 4, mutable.ArrayBuffer())
+
+    val rows = NodeIndexScanPipe("n", label, property, IndexOrderNone)().createResults(state).toList
+
+    rows.map(_("n").asInstanceOf[NodeValue].id()) should equal(ids)
+    rows.map(_.getCachedProperty(property.asCachedNodeProperty("n"))) should equal(ids.map(id => Values.stringValue(s"$id.name")))
+  }
+
+  test("index scan looks up the nodes in batches growing up to the batch size") {
+    val batches = mutable.ArrayBuffer[Seq[String]]()
+    val state = stateScanning(new FakeCursor(ids), 4, batches)
+
+    NodeIndexScanPipe("n", label, property, IndexOrderNone)().createResults(state).toList
+
+    batches.map(_.size) should equal(Seq(1, 2, 4, 4, 4, 4, 1))
+    batches.flatten should equal(ids)
+  }
+
+  test("index scan under a limit only reads a few rows ahead") {
+    val cursor = new FakeCursor(ids)
+    val state = stateScanning(cursor, 1000, mutable.ArrayBuffer())
+
+    val rows = NodeIndexScanPipe("n", label, property, IndexOrderNone)().createResults(state).take(1).toList
+
+    rows should have size 1
+    cursor.read should equal(3)
+  }
+
+  test("limit hint is passed to the cursor before it is read") {
+    val cursor = new FakeCursor(ids)
+    val state = stateScanning(cursor, 1000, mutable.ArrayBuffer())
+
+    val rows = NodeIndexScanPipe("n", label, property, IndexOrderNone)().withLimitHint(Literal(3))
+      .createResults(state).toList
+
+    cursor.limit should equal(Some(3L))
+    rows.map(_("n").asInstanceOf[NodeValue].id()) should equal(ids.take(3))
+  }
+
+  test("limit hint behind a skip covers the skipped rows too") {
+    val cursor = new FakeCursor(ids)
+    val state = stateScanning(cursor, 1000, mutable.ArrayBuffer())
+
+    val index = NodeIndexScanPipe("n", label, property, IndexOrderNone)().withLimitHint(Add(Literal(2), Literal(3)))
+    val rows = SkipPipe(index, Literal(2))().createResults(state).toList
+
+    cursor.limit should equal(Some(5L))
+    rows.map(_("n").asInstanceOf[NodeValue].id()) should equal(ids.slice(2, 5))
+  }
+}
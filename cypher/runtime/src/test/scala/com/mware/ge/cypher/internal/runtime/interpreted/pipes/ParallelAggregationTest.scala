@@ -0,0 +1,180 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.interpreted.commands.expressions._
+import com.mware.ge.cypher.internal.runtime.interpreted.pipes.aggregation.MergeableAggregationFunction
+import com.mware.ge.cypher.internal.util.test_helpers.CypherFunSuite
+import com.mware.ge.values.AnyValue
+import com.mware.ge.values.storable.{FloatingPointValue, Values}
+import com.mware.ge.values.virtual.{ListValue, VirtualValues}
+
+class ParallelAggregationTest extends CypherFunSuite {
+
+  private val aggregations: Map[String, AggregationExpression] = Map(
+    "count" -> Count(Variable("v")),
+    "countStar" -> CountStar(),
+    "sum" -> Sum(Variable("v")),
+    "avg" -> Avg(Variable("v")),
+    "min" -> Min(Variable("v")),
+    "max" -> Max(Variable("v")),
+    "collect" -> Collect(Variable("v"))
+  )
+
+  private val groupedByK: Map[String, Expression] = Map("k" -> Variable("k"))
+
+  private val keys = Seq(Values.stringValue("a"), Values.stringValue("b"), Values.stringValue("c"), Values.NO_VALUE)
+
+  // every key shows up in every partition, with nulls as values and as a grouping key, next to empty partitions
+  private val partitions: Seq[Seq[ExecutionContext]] =
+    Seq(Seq.empty) ++ (0 until 8).map { p =>
+      (0 until 25).map { i =>
+        val n = p * 25 + i
+        ExecutionContext.from("k" -> keys(n % keys.size), "v" -> (if (n % 7 == 0) Values.NO_VALUE else Values.longValue(n)))
+      }
+    } ++ Seq(Seq.empty, Seq.empty)
+
+  test("parallel aggregation gives the same groups as the serial aggregation") {
+    val serial = pipeResults(serialState, groupedByK)
+
+    serial.keySet should equal(keys.toSet[AnyValue])
+    aggregate(groupedByK, parallelState(1000)) should equal(serial)
+    pipeResults(parallelState(1000), groupedByK) should equal(serial)
+  }
+
+  test("parallel aggregation gives the same groups when the partial states are spilled") {
+    val monitor = new SpillFileMonitor
+    val state = QueryStateHelper.withSortBuffer(2, monitor, aggregationWorkers = 4)
+
+    aggregate(groupedByK, state) should equal(pipeResults(serialState, groupedByK))
+    monitor.traced should not be empty
+    monitor.filesOnDisk shouldBe empty
+  }
+
+  test("parallel aggregation without grouping keys merges all the partitions") {
+    val serial = pipeResults(serialState, Map.empty)
+
+    aggregate(Map.empty, parallelState(1000)) should equal(serial)
+    pipeResults(parallelState(1000), Map.empty) should equal(serial)
+    serial(VirtualValues.EMPTY_LIST)("countStar") should equal(Values.longValue(200))
+    serial(VirtualValues.EMPTY_LIST)("min") should equal(Values.longValue(1))
+    serial(VirtualValues.EMPTY_LIST)("max") should equal(Values.longValue(199))
+  }
+
+  test("parallel aggregation without grouping keys over empty partitions returns one row of zero values") {
+    val pipe = EagerAggregationPipe(FakeScanPipe(Seq(Seq.empty, Seq.empty))(), Map.empty, aggregations)()
+
+    val rows = pipe.createResults(parallelState(1000)).toList
+
+    rows should have size 1
+    rows.head("count") should equal(Values.longValue(0))
+    rows.head("countStar") should equal(Values.longValue(0))
+    rows.head("sum") should equal(Values.longValue(0))
+    rows.head("avg") should equal(Values.NO_VALUE)
+    rows.head("min") should equal(Values.NO_VALUE)
+    rows.head("max") should equal(Values.NO_VALUE)
+    rows.head("collect") should equal(VirtualValues.EMPTY_LIST)
+  }
+
+  test("merging the partial states of every partition gives the result of aggregating all the rows") {
+    val state = serialState
+    aggregations.foreach { case (name, expression) =>
+      val whole = expression.createAggregationFunction
+      partitions.flatten.foreach(whole(_, state))
+
+      val merged = mergeable(expression)
+      partitions.foreach { partition =>
+        val partial = mergeable(expression)
+        partition.foreach(partial(_, state))
+        merged.merge(partial.partialState)
+      }
+
+      withClue(name) {
+        normalize(merged.result(state)) should equal(normalize(whole.result(state)))
+      }
+    }
+  }
+
+  test("worker states share the query but not the per thread caches") {
+    val state = parallelState(1000)
+    val factory = CommunityExecutionContextFactory()
+    state.setExecutionContextFactory(factory)
+
+    val worker = state.forWorkerThread
+
+    worker.query should be theSameInstanceAs state.query
+    worker.resources should be theSameInstanceAs state.resources
+    worker.params should be theSameInstanceAs state.params
+    worker.decorator should be theSameInstanceAs state.decorator
+    worker.executionContextFactory should be theSameInstanceAs factory
+    worker.cachedIn should not be theSameInstanceAs(state.cachedIn)
+    worker.sortBufferRows should equal(state.sortBufferRows)
+    worker.aggregationWorkers should equal(state.aggregationWorkers)
+  }
+
+  private def serialState: QueryState = QueryStateHelper.withSortBuffer(1000)
+
+  private def parallelState(budgetRows: Int): QueryState = QueryStateHelper.withSortBuffer(budgetRows, aggregationWorkers = 4)
+
+  private def mergeable(expression: AggregationExpression): MergeableAggregationFunction =
+    expression.createAggregationFunction.asInstanceOf[MergeableAggregationFunction]
+
+  private def pipeResults(state: QueryState, keyExpressions: Map[String, Expression]): Map[AnyValue, Map[String, Any]] =
+    EagerAggregationPipe(FakeScanPipe(partitions)(), keyExpressions, aggregations)().createResults(state).map { row =>
+      val key = if (keyExpressions.isEmpty) VirtualValues.EMPTY_LIST else row("k")
+      key -> aggregations.keys.map(name => name -> normalize(row(name))).toMap
+    }.toMap
+
+  private def aggregate(keyExpressions: Map[String, Expression], state: QueryState): Map[AnyValue, Map[String, Any]] = {
+    val grouping: (ExecutionContext, QueryState) => AnyValue =
+      if (keyExpressions.isEmpty) (_, _) => VirtualValues.EMPTY_LIST else (row, _) => row("k")
+    val names = aggregations.keys.toIndexedSeq
+    val aggregation = new ParallelAggregation(grouping, names.map(aggregations), state.aggregationWorkers, state.sortBufferRows)
+
+    aggregation.aggregate(FakeScanPipe(partitions)().scanPartitions(state, 16, needsProperties = false), state).map {
+      case (key, functions) => key -> names.zip(functions.map(f => normalize(f.result(state)))).toMap
+    }.toMap
+  }
+
+  // collect keeps no order across partitions, and averages merged from partial states differ in the last bits
+  private def normalize(value: AnyValue): Any = value match {
+    case list: ListValue => list.asArray().toSeq.map(_.toString).sorted
+    case d: FloatingPointValue => BigDecimal(d.doubleValue()).setScale(6, BigDecimal.RoundingMode.HALF_UP)
+    case v => v
+  }
+}
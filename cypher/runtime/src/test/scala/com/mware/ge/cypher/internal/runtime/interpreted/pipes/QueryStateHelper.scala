@@ -0,0 +1,101 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.cypher.internal.runtime.interpreted.pipes
+
+import com.mware.ge.cypher.internal.runtime.interpreted.ExecutionContext
+import com.mware.ge.cypher.internal.runtime.{QueryContext, ResourceManager, ResourceMonitor}
+import com.mware.ge.cypher.internal.util.attribution.Id
+import com.mware.ge.values.virtual.VirtualValues
+import org.mockito.Mockito.{mock, when}
+
+import scala.collection.mutable
+
+/**
+  * Query states over a mocked query context with real resources.
+  */
+object QueryStateHelper {
+
+  def withSortBuffer(sortBufferRows: Int,
+                     monitor: ResourceMonitor = ResourceMonitor.NOOP,
+                     aggregationWorkers: Int = QueryState.defaultAggregationWorkers): QueryState = {
+    val query = mock(classOf[QueryContext])
+    val resources = new ResourceManager(monitor)
+    when(query.resources).thenReturn(resources)
+
+    new QueryState(query, ExternalCSVResource.empty, VirtualValues.EMPTY_MAP,
+                   sortBufferRows = sortBufferRows, aggregationWorkers = aggregationWorkers)
+  }
+}
+
+/**
+  * Records the spill files traced by the resources of a query.
+  */
+class SpillFileMonitor extends ResourceMonitor {
+  val traced = mutable.ArrayBuffer[SpillFile]()
+  val closed = mutable.ArrayBuffer[SpillFile]()
+
+  override def trace(resource: AutoCloseable): Unit = resource match {
+    case f: SpillFile => traced.synchronized(traced += f)
+    case _ =>
+  }
+
+  override def close(resource: AutoCloseable): Unit = resource match {
+    case f: SpillFile => closed.synchronized(closed += f)
+    case _ =>
+  }
+
+  def filesOnDisk: Seq[SpillFile] = traced.filter(_.file.exists())
+}
+
+/**
+  * A source pipe producing the given rows.
+  */
+case class FakePipe(rows: Seq[ExecutionContext])(val id: Id = Id.INVALID_ID) extends Pipe {
+  override protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = rows.iterator
+}
+
+/**
+  * A source pipe producing the rows of the given partitions, one after the other when read serially.
+  */
+case class FakeScanPipe(partitions: Seq[Seq[ExecutionContext]])(val id: Id = Id.INVALID_ID) extends Pipe with ParallelScanSource {
+  override protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = partitions.flatten.iterator
+
+  override def scanPartitions(state: QueryState, maxPartitions: Int, needsProperties: Boolean): Seq[RowScanPartition] =
+    partitions.map(rows => new RowScanPartition {
+      override def scan[T](reader: Iterator[ExecutionContext] => T): T = reader(rows.iterator)
+    })
+}
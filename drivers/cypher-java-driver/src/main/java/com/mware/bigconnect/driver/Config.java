@@ -25,6 +25,7 @@ import com.mware.bigconnect.driver.exceptions.SessionExpiredException;
 import com.mware.bigconnect.driver.exceptions.TransientException;
 import com.mware.bigconnect.driver.internal.async.pool.PoolSettings;
 import com.mware.bigconnect.driver.internal.cluster.RoutingSettings;
+import com.mware.bigconnect.driver.internal.handlers.AbstractPullAllResponseHandler;
 import com.mware.bigconnect.driver.internal.retry.RetrySettings;
 import com.mware.bigconnect.driver.net.ServerAddressResolver;
 import com.mware.bigconnect.driver.util.Immutable;
@@ -97,6 +98,7 @@ public class Config
     private final ServerAddressResolver resolver;
 
     private final boolean isMetricsEnabled;
+    private final long fetchSize;
 
     private Config( ConfigBuilder builder )
     {
@@ -118,6 +120,7 @@ public class Config
         this.resolver = builder.resolver;
 
         this.isMetricsEnabled = builder.isMetricsEnabled;
+        this.fetchSize = builder.fetchSize;
     }
 
     /**
@@ -204,6 +207,14 @@ public class Config
         return resolver;
     }
 
+    /**
+     * @return the number of records pulled per request in auto-commit transactions, {@code -1} to pull all at once.
+     */
+    public long fetchSize()
+    {
+        return fetchSize;
+    }
+
     /**
      * Start building a {@link Config} object using a newly created builder.
      *
@@ -260,7 +271,7 @@ public class Config
         private RetrySettings retrySettings = RetrySettings.DEFAULT;
         private ServerAddressResolver resolver;
         private boolean isMetricsEnabled = false;
-
+        private long fetchSize = AbstractPullAllResponseHandler.DEFAULT_FETCH_SIZE;
 
         private ConfigBuilder() {}
 
@@ -669,6 +680,29 @@ public class Config
             return this;
         }
 
+        /**
+         * Specify how many records are pulled from the server per request when running a statement in an auto-commit
+         * transaction. The next batch is requested once the buffered records were consumed, so large results are
+         * streamed instead of being buffered at once. Statements of explicit transactions always pull all their
+         * records, since they can be pipelined on the same connection.
+         * <p>
+         * This setting only applies to servers speaking Bolt V4 or later. Default value is {@code 1000}.
+         *
+         * @param size the number of records per request, {@code -1} to pull all records at once.
+         * @return this builder.
+         * @throws IllegalArgumentException when the given size is zero or negative and not {@code -1}.
+         */
+        public ConfigBuilder withFetchSize( long size )
+        {
+            if ( size <= 0 && size != -1 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The fetch size must be a positive value or -1 for all records, but was %d.", size ) );
+            }
+            this.fetchSize = size;
+            return this;
+        }
+
         /**
          * Create a config instance from this builder.
          *
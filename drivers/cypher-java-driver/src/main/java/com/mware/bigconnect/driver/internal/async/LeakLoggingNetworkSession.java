@@ -34,9 +34,9 @@ public class LeakLoggingNetworkSession extends NetworkSession
     private final String stackTrace;
 
     public LeakLoggingNetworkSession(ConnectionProvider connectionProvider, RetryLogic retryLogic, String databaseName, AccessMode mode,
-                                     BookmarkHolder bookmarkHolder, Logging logging )
+                                     BookmarkHolder bookmarkHolder, long fetchSize, Logging logging )
     {
-        super( connectionProvider, retryLogic, databaseName, mode, bookmarkHolder, logging );
+        super( connectionProvider, retryLogic, databaseName, mode, bookmarkHolder, fetchSize, logging );
         this.stackTrace = captureStackTrace();
     }
 
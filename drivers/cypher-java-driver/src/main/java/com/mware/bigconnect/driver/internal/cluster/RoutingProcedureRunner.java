@@ -40,6 +40,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 import static com.mware.bigconnect.driver.Values.parameters;
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
 import static com.mware.bigconnect.driver.internal.messaging.request.MultiDatabaseUtil.ABSENT_DB_NAME;
 
 public class RoutingProcedureRunner
@@ -88,7 +89,7 @@ public class RoutingProcedureRunner
     CompletionStage<List<Record>> runProcedure(Connection connection, Statement procedure, BookmarkHolder bookmarkHolder )
     {
         return connection.protocol()
-                .runInAutoCommitTransaction( connection, procedure, bookmarkHolder, TransactionConfig.empty(), true )
+                .runInAutoCommitTransaction( connection, procedure, bookmarkHolder, TransactionConfig.empty(), true, STREAM_LIMIT_UNLIMITED )
                 .asyncResult().thenCompose( StatementResultCursor::listAsync );
     }
 
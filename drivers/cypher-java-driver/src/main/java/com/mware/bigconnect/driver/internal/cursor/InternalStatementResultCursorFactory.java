@@ -30,6 +30,8 @@ import com.mware.bigconnect.driver.internal.spi.Connection;
 
 import java.util.concurrent.CompletionStage;
 
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
+import static com.mware.bigconnect.driver.internal.util.MetadataExtractor.ABSENT_QUERY_ID;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -42,9 +44,16 @@ public class InternalStatementResultCursorFactory implements StatementResultCurs
     private final PullAllResponseHandler pullAllHandler;
     private final boolean waitForRunResponse;
     private final Message runMessage;
+    private final long fetchSize;
 
     public InternalStatementResultCursorFactory( Connection connection, Message runMessage, RunResponseHandler runHandler, BasicPullResponseHandler pullHandler,
             PullAllResponseHandler pullAllHandler, boolean waitForRunResponse )
+    {
+        this( connection, runMessage, runHandler, pullHandler, pullAllHandler, waitForRunResponse, STREAM_LIMIT_UNLIMITED );
+    }
+
+    public InternalStatementResultCursorFactory( Connection connection, Message runMessage, RunResponseHandler runHandler, BasicPullResponseHandler pullHandler,
+            PullAllResponseHandler pullAllHandler, boolean waitForRunResponse, long fetchSize )
     {
         requireNonNull( connection );
         requireNonNull( runMessage );
@@ -58,13 +67,14 @@ public class InternalStatementResultCursorFactory implements StatementResultCurs
         this.pullHandler = pullHandler;
         this.pullAllHandler = pullAllHandler;
         this.waitForRunResponse = waitForRunResponse;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public CompletionStage<InternalStatementResultCursor> asyncResult()
     {
         // only write and flush messages when async result is wanted.
-        connection.writeAndFlush( runMessage, runHandler, PullMessage.PULL_ALL, pullAllHandler );
+        connection.writeAndFlush( runMessage, runHandler, new PullMessage( fetchSize, ABSENT_QUERY_ID ), pullAllHandler );
 
         if ( waitForRunResponse )
         {
@@ -24,10 +24,13 @@ import com.mware.bigconnect.driver.Record;
 import com.mware.bigconnect.driver.Statement;
 import com.mware.bigconnect.driver.Value;
 import com.mware.bigconnect.driver.internal.InternalRecord;
+import com.mware.bigconnect.driver.internal.messaging.request.DiscardMessage;
+import com.mware.bigconnect.driver.internal.messaging.request.PullMessage;
 import com.mware.bigconnect.driver.internal.spi.Connection;
 import com.mware.bigconnect.driver.internal.util.Futures;
 import com.mware.bigconnect.driver.internal.util.Iterables;
 import com.mware.bigconnect.driver.internal.util.MetadataExtractor;
+import com.mware.bigconnect.driver.internal.value.BooleanValue;
 import com.mware.bigconnect.driver.summary.ResultSummary;
 
 import java.util.*;
@@ -38,6 +41,7 @@ import java.util.function.Function;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
 import static com.mware.bigconnect.driver.internal.util.Futures.completedWithNull;
 import static com.mware.bigconnect.driver.internal.util.Futures.failedFuture;
 
@@ -47,11 +51,13 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
 
     static final int RECORD_BUFFER_LOW_WATERMARK = Integer.getInteger( "recordBufferLowWatermark", 300 );
     static final int RECORD_BUFFER_HIGH_WATERMARK = Integer.getInteger( "recordBufferHighWatermark", 1000 );
+    public static final long DEFAULT_FETCH_SIZE = 1000;
 
     private final Statement statement;
     private final RunResponseHandler runResponseHandler;
     protected final MetadataExtractor metadataExtractor;
     protected final Connection connection;
+    private final long fetchSize;
 
     // initialized lazily when first record arrives
     private Queue<Record> records = UNINITIALIZED_RECORDS;
@@ -60,17 +66,30 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
     private boolean finished;
     private Throwable failure;
     private ResultSummary summary;
+    // a batch ended with has_more and the next one was not requested yet
+    private boolean hasMore;
 
     private boolean ignoreRecords;
     private CompletableFuture<Record> recordFuture;
     private CompletableFuture<Throwable> failureFuture;
 
     public AbstractPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler, Connection connection, MetadataExtractor metadataExtractor )
+    {
+        this( statement, runResponseHandler, connection, metadataExtractor, STREAM_LIMIT_UNLIMITED );
+    }
+
+    /**
+     * With a {@code fetchSize} the records are pulled in batches of that size, the next batch is requested once the
+     * buffered records drop below the low watermark. This needs Bolt V4 or later.
+     */
+    public AbstractPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler, Connection connection, MetadataExtractor metadataExtractor,
+            long fetchSize )
     {
         this.statement = requireNonNull( statement );
         this.runResponseHandler = requireNonNull( runResponseHandler );
         this.metadataExtractor = requireNonNull( metadataExtractor );
         this.connection = requireNonNull( connection );
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -82,6 +101,20 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
     @Override
     public synchronized void onSuccess( Map<String,Value> metadata )
     {
+        if ( metadata.getOrDefault( "has_more", BooleanValue.FALSE ).asBoolean() )
+        {
+            hasMore = true;
+            if ( ignoreRecords )
+            {
+                discardRemaining();
+            }
+            else if ( failureFuture != null || records.size() < RECORD_BUFFER_LOW_WATERMARK )
+            {
+                pullMore();
+            }
+            return;
+        }
+
         finished = true;
         summary = extractResultSummary( metadata );
 
@@ -189,6 +222,10 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
     {
         ignoreRecords = true;
         records.clear();
+        if ( hasMore )
+        {
+            discardRemaining();
+        }
         return summaryAsync();
     }
 
@@ -223,6 +260,10 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
                 // enable auto-read, otherwise we might not read SUCCESS/FAILURE if records are not consumed
                 enableAutoRead();
                 failureFuture = new CompletableFuture<>();
+                if ( hasMore )
+                {
+                    pullMore();
+                }
             }
             return failureFuture;
         }
@@ -259,6 +300,10 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
             // less than low watermark records are now available in the buffer, tell connection to pre-fetch more
             // and populate queue with new records from network
             enableAutoRead();
+            if ( hasMore )
+            {
+                pullMore();
+            }
         }
 
         return record;
@@ -332,6 +377,20 @@ public abstract class AbstractPullAllResponseHandler implements PullAllResponseH
         return metadataExtractor.extractSummary( statement, connection, resultAvailableAfter, metadata );
     }
 
+    private void pullMore()
+    {
+        hasMore = false;
+        // when failure is requested all remaining records have to be buffered anyway
+        long size = failureFuture != null ? STREAM_LIMIT_UNLIMITED : fetchSize;
+        connection.writeAndFlush( new PullMessage( size, runResponseHandler.statementId() ), this );
+    }
+
+    private void discardRemaining()
+    {
+        hasMore = false;
+        connection.writeAndFlush( DiscardMessage.newDiscardAllMessage( runResponseHandler.statementId() ), this );
+    }
+
     private void enableAutoRead()
     {
         if ( autoReadManagementEnabled )
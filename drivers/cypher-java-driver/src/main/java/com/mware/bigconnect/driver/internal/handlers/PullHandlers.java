@@ -52,6 +52,16 @@ public class PullHandlers
         return new SessionPullAllResponseHandler( statement, runHandler, connection, bookmarkHolder, BoltProtocolV3.METADATA_EXTRACTOR );
     }
 
+    public static AbstractPullAllResponseHandler newBoltV4PullAllHandler( Statement statement, RunResponseHandler runHandler, Connection connection,
+            BookmarkHolder bookmarkHolder, ExplicitTransaction tx, long fetchSize )
+    {
+        if ( tx != null )
+        {
+            return new TransactionPullAllResponseHandler( statement, runHandler, connection, tx, BoltProtocolV3.METADATA_EXTRACTOR, fetchSize );
+        }
+        return new SessionPullAllResponseHandler( statement, runHandler, connection, bookmarkHolder, BoltProtocolV3.METADATA_EXTRACTOR, fetchSize );
+    }
+
     public static BasicPullResponseHandler newBoltV4PullHandler( Statement statement, RunResponseHandler runHandler, Connection connection,
             BookmarkHolder bookmarkHolder, ExplicitTransaction tx )
     {
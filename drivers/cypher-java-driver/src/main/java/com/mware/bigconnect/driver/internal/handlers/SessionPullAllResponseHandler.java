@@ -28,6 +28,7 @@ import com.mware.bigconnect.driver.internal.util.MetadataExtractor;
 
 import java.util.Map;
 
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
 import static java.util.Objects.requireNonNull;
 
 public class SessionPullAllResponseHandler extends AbstractPullAllResponseHandler
@@ -37,7 +38,13 @@ public class SessionPullAllResponseHandler extends AbstractPullAllResponseHandle
     public SessionPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler,
             Connection connection, BookmarkHolder bookmarkHolder, MetadataExtractor metadataExtractor )
     {
-        super( statement, runResponseHandler, connection, metadataExtractor );
+        this( statement, runResponseHandler, connection, bookmarkHolder, metadataExtractor, STREAM_LIMIT_UNLIMITED );
+    }
+
+    public SessionPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler,
+            Connection connection, BookmarkHolder bookmarkHolder, MetadataExtractor metadataExtractor, long fetchSize )
+    {
+        super( statement, runResponseHandler, connection, metadataExtractor, fetchSize );
         this.bookmarkHolder = requireNonNull( bookmarkHolder );
     }
 
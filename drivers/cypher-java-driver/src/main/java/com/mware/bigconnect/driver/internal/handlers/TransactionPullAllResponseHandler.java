@@ -28,6 +28,7 @@ import com.mware.bigconnect.driver.internal.util.MetadataExtractor;
 
 import java.util.Map;
 
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
 import static java.util.Objects.requireNonNull;
 
 public class TransactionPullAllResponseHandler extends AbstractPullAllResponseHandler
@@ -37,7 +38,13 @@ public class TransactionPullAllResponseHandler extends AbstractPullAllResponseHa
     public TransactionPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler,
             Connection connection, ExplicitTransaction tx, MetadataExtractor metadataExtractor )
     {
-        super( statement, runResponseHandler, connection, metadataExtractor );
+        this( statement, runResponseHandler, connection, tx, metadataExtractor, STREAM_LIMIT_UNLIMITED );
+    }
+
+    public TransactionPullAllResponseHandler( Statement statement, RunResponseHandler runResponseHandler,
+            Connection connection, ExplicitTransaction tx, MetadataExtractor metadataExtractor, long fetchSize )
+    {
+        super( statement, runResponseHandler, connection, metadataExtractor, fetchSize );
         this.tx = requireNonNull( tx );
     }
 
@@ -99,10 +99,13 @@ public interface BoltProtocol
      * @param waitForRunResponse {@code true} for async query execution and {@code false} for blocking query
      * execution. Makes returned cursor stage be chained after the RUN response arrives. Needed to have statement
      * keys populated.
+     * @param fetchSize the number of records pulled per request, {@code -1} to pull all records at once. Protocol
+     * versions that cannot pull in batches ignore it.
      * @return stage with cursor.
      */
     StatementResultCursorFactory runInAutoCommitTransaction(Connection connection, Statement statement,
-                                                            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse);
+                                                            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse,
+                                                            long fetchSize);
 
     /**
      * Execute the given statement in a running explicit transaction, i.e. {@link Transaction#run(Statement)}.
@@ -153,7 +153,7 @@ public class BoltProtocolV1 implements BoltProtocol
 
     @Override
     public StatementResultCursorFactory runInAutoCommitTransaction( Connection connection, Statement statement,
-            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse )
+            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse, long fetchSize )
     {
         // bookmarks are ignored for auto-commit transactions in this version of the protocol
         verifyBeforeTransaction( config, connection.databaseName() );
@@ -47,6 +47,7 @@ import java.util.concurrent.CompletionStage;
 
 import static com.mware.bigconnect.driver.internal.async.connection.ChannelAttributes.messageDispatcher;
 import static com.mware.bigconnect.driver.internal.handlers.PullHandlers.newBoltV3PullAllHandler;
+import static com.mware.bigconnect.driver.internal.messaging.request.AbstractStreamingMessage.STREAM_LIMIT_UNLIMITED;
 import static com.mware.bigconnect.driver.internal.messaging.request.CommitMessage.COMMIT;
 import static com.mware.bigconnect.driver.internal.messaging.request.MultiDatabaseUtil.assertEmptyDatabaseName;
 import static com.mware.bigconnect.driver.internal.messaging.request.RollbackMessage.ROLLBACK;
@@ -132,12 +133,12 @@ public class BoltProtocolV3 implements BoltProtocol
 
     @Override
     public StatementResultCursorFactory runInAutoCommitTransaction( Connection connection, Statement statement,
-            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse )
+            BookmarkHolder bookmarkHolder, TransactionConfig config, boolean waitForRunResponse, long fetchSize )
     {
         verifyDatabaseNameBeforeTransaction( connection.databaseName() );
         RunWithMetadataMessage runMessage =
                 autoCommitTxRunMessage( statement, config, connection.databaseName(), connection.mode(), bookmarkHolder.getBookmark() );
-        return buildResultCursorFactory( connection, statement, bookmarkHolder, null, runMessage, waitForRunResponse );
+        return buildResultCursorFactory( connection, statement, bookmarkHolder, null, runMessage, waitForRunResponse, fetchSize );
     }
 
     @Override
@@ -145,12 +146,15 @@ public class BoltProtocolV3 implements BoltProtocol
             boolean waitForRunResponse )
     {
         RunWithMetadataMessage runMessage = explicitTxRunMessage( statement );
-        return buildResultCursorFactory( connection, statement, BookmarkHolder.NO_OP, tx, runMessage, waitForRunResponse );
+        // the server keeps one open result per connection, statements of an explicit transaction can be pipelined
+        // so their results are pulled at once
+        return buildResultCursorFactory( connection, statement, BookmarkHolder.NO_OP, tx, runMessage, waitForRunResponse, STREAM_LIMIT_UNLIMITED );
     }
 
     protected StatementResultCursorFactory buildResultCursorFactory( Connection connection, Statement statement, BookmarkHolder bookmarkHolder,
-            ExplicitTransaction tx, RunWithMetadataMessage runMessage, boolean waitForRunResponse )
+            ExplicitTransaction tx, RunWithMetadataMessage runMessage, boolean waitForRunResponse, long fetchSize )
     {
+        // PULL_ALL has no size, the whole result is always pulled
         RunResponseHandler runHandler = new RunResponseHandler( METADATA_EXTRACTOR );
         AbstractPullAllResponseHandler pullHandler = newBoltV3PullAllHandler( statement, runHandler, connection, bookmarkHolder, tx );
 
@@ -34,7 +34,7 @@ import com.mware.bigconnect.driver.internal.messaging.request.RunWithMetadataMes
 import com.mware.bigconnect.driver.internal.messaging.v3.BoltProtocolV3;
 import com.mware.bigconnect.driver.internal.spi.Connection;
 
-import static com.mware.bigconnect.driver.internal.handlers.PullHandlers.newBoltV3PullAllHandler;
+import static com.mware.bigconnect.driver.internal.handlers.PullHandlers.newBoltV4PullAllHandler;
 import static com.mware.bigconnect.driver.internal.handlers.PullHandlers.newBoltV4PullHandler;
 
 public class BoltProtocolV4 extends BoltProtocolV3
@@ -50,14 +50,14 @@ public class BoltProtocolV4 extends BoltProtocolV3
 
     @Override
     protected StatementResultCursorFactory buildResultCursorFactory( Connection connection, Statement statement, BookmarkHolder bookmarkHolder,
-            ExplicitTransaction tx, RunWithMetadataMessage runMessage, boolean waitForRunResponse )
+            ExplicitTransaction tx, RunWithMetadataMessage runMessage, boolean waitForRunResponse, long fetchSize )
     {
         RunResponseHandler runHandler = new RunResponseHandler( METADATA_EXTRACTOR );
 
-        AbstractPullAllResponseHandler pullAllHandler = newBoltV3PullAllHandler( statement, runHandler, connection, bookmarkHolder, tx );
+        AbstractPullAllResponseHandler pullAllHandler = newBoltV4PullAllHandler( statement, runHandler, connection, bookmarkHolder, tx, fetchSize );
         BasicPullResponseHandler pullHandler = newBoltV4PullHandler( statement, runHandler, connection, bookmarkHolder, tx );
 
-        return new InternalStatementResultCursorFactory( connection, runMessage, runHandler, pullHandler, pullAllHandler, waitForRunResponse );
+        return new InternalStatementResultCursorFactory( connection, runMessage, runHandler, pullHandler, pullAllHandler, waitForRunResponse, fetchSize );
     }
 
     protected void verifyDatabaseNameBeforeTransaction( String databaseName )
@@ -106,6 +106,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -129,6 +130,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     public static final String EXTENDED_DATA_TABLE_NAME_FIELD_NAME = "__extendedDataTableName";
     public static final String EXTENDED_DATA_TABLE_ROW_ID_FIELD_NAME = "__extendedDataRowId";
     public static final String EXTENDED_DATA_TABLE_COLUMN_VISIBILITIES_FIELD_NAME = "__extendedDataColumnVisibilities";
+    public static final String HYDRATION_FIELD_NAME = "__hydration";
     public static final String EXACT_MATCH_FIELD_NAME = "exact";
     public static final String EXACT_MATCH_PROPERTY_NAME_SUFFIX = "." + EXACT_MATCH_FIELD_NAME;
     public static final String GEO_PROPERTY_NAME_SUFFIX = "_g";
@@ -154,6 +156,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     private final String geoShapeErrorPct;
     private final IdStrategy idStrategy = new IdStrategy();
     private final IndexRefreshTracker indexRefreshTracker;
+    private final ElasticsearchHitHydrator hitHydrator;
 
     private final Elasticsearch5ExceptionHandler exceptionHandler;
     private final boolean refreshIndexOnFlush;
@@ -163,8 +166,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     public Elasticsearch5SearchIndex(Graph graph, GraphConfiguration config) {
         this.graph = graph;
-        this.indexRefreshTracker = new IndexRefreshTracker(graph.getMetricsRegistry());
         this.config = new ElasticsearchSearchIndexConfiguration(graph, config);
+        this.indexRefreshTracker = new IndexRefreshTracker(graph.getMetricsRegistry(), this.config.getRefreshMinInterval());
         this.indexSelectionStrategy = this.config.getIndexSelectionStrategy();
         this.propertyNameVisibilitiesStore = this.config.createPropertyNameVisibilitiesStore(graph);
         this.client = createClient(this.config);
@@ -172,6 +175,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         this.geoShapeErrorPct = this.config.getGeoShapeErrorPct();
         this.exceptionHandler = this.config.getExceptionHandler(graph);
         this.refreshIndexOnFlush = this.config.getRefreshIndexOnFlush();
+        Set<String> hydrationPropertyNames = this.config.getHydrationPropertyNames();
+        this.hitHydrator = hydrationPropertyNames.isEmpty() ? null : new ElasticsearchHitHydrator(hydrationPropertyNames, this.config.createSerializer());
         BulkUpdateServiceConfiguration bulkUpdateServiceConfiguration = new BulkUpdateServiceConfiguration()
                 .setPoolSize(this.config.getBulkPoolSize())
                 .setBacklogSize(this.config.getBulkBacklogSize())
@@ -180,6 +185,9 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 .setMaxBatchSizeInBytes(this.config.getBulkMaxBatchSizeInBytes())
                 .setBatchWindowTime(this.config.getBulkBatchWindowTime())
                 .setMaxFailCount(this.config.getBulkMaxFailCount())
+                .setAdaptive(this.config.isBulkAdaptive())
+                .setMinBatchSize(this.config.getBulkMinBatchSize())
+                .setTargetLatency(this.config.getBulkTargetLatency())
                 .setLogRequestSizeLimit(this.config.getLogRequestSizeLimit());
         this.bulkUpdateService = new BulkUpdateService(this, indexRefreshTracker, bulkUpdateServiceConfiguration);
         this.executorService = Executors.newFixedThreadPool(50);
@@ -443,6 +451,14 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             fieldsToSet.put(hiddenVisibilityPropertyName, true);
         }
 
+        List<String> fieldsToRemove = Collections.emptyList();
+        if (hitHydrator != null) {
+            if (isHydratable(element)) {
+                fieldsToSet.put(HYDRATION_FIELD_NAME, hitHydrator.encode(element));
+            } else {
+                fieldsToRemove = Collections.singletonList(HYDRATION_FIELD_NAME);
+            }
+        }
 
         fieldsToSet = fieldsToSet == null ? Collections.emptyMap() : fieldsToSet.entrySet().stream()
                 .collect(Collectors.toMap(e -> replaceFieldnameDots(e.getKey()), Map.Entry::getValue));
@@ -454,7 +470,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 element,
                 source,
                 fieldsToSet,
-                Collections.emptyList(),
+                fieldsToRemove,
                 Collections.emptyMap(),
                 false
         );
@@ -464,6 +480,85 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         }
     }
 
+    private boolean isHydratable(Element element) {
+        FetchHints fetchHints = element.getFetchHints();
+        if (!fetchHints.isIncludeHidden()) {
+            return false;
+        }
+        for (String propertyName : hitHydrator.getPropertyNames()) {
+            if (!fetchHints.isIncludeProperty(propertyName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the hydration payload of an updated element, or removes it when the element instance was not read
+     * with the data the payload needs.
+     */
+    private void updateHydration(
+            ElementLocation elementLocation,
+            Function<Element, String> encoder,
+            Map<String, Object> fieldsToSet,
+            Collection<String> fieldsToRemove
+    ) {
+        if (elementLocation instanceof Element && isHydratable((Element) elementLocation)) {
+            fieldsToSet.put(HYDRATION_FIELD_NAME, encoder.apply((Element) elementLocation));
+        } else {
+            fieldsToRemove.add(HYDRATION_FIELD_NAME);
+        }
+    }
+
+    private static Set<Visibility> withVisibility(Iterable<Visibility> visibilities, Visibility visibility, boolean add) {
+        Set<Visibility> result = new HashSet<>();
+        if (visibilities != null) {
+            visibilities.forEach(result::add);
+        }
+        if (add) {
+            result.add(visibility);
+        } else {
+            result.remove(visibility);
+        }
+        return result;
+    }
+
+    private static boolean isSameProperty(Property property, PropertyDescriptor descriptor) {
+        return Objects.equals(property.getKey(), descriptor.getKey())
+                && Objects.equals(property.getName(), descriptor.getName())
+                && Objects.equals(property.getVisibility(), descriptor.getVisibility());
+    }
+
+    private boolean isHydrationAffected(ExistingElementMutation<?> mutation) {
+        if (hitHydrator == null) {
+            return false;
+        }
+        if (mutation.getNewElementVisibility() != null) {
+            return true;
+        }
+        for (Property property : mutation.getProperties()) {
+            if (hitHydrator.isHydratedProperty(property.getName())) {
+                return true;
+            }
+        }
+        for (PropertyDeleteMutation propertyDelete : mutation.getPropertyDeletes()) {
+            if (hitHydrator.isHydratedProperty(propertyDelete.getName())) {
+                return true;
+            }
+        }
+        for (PropertySoftDeleteMutation propertySoftDelete : mutation.getPropertySoftDeletes()) {
+            if (hitHydrator.isHydratedProperty(propertySoftDelete.getName())) {
+                return true;
+            }
+        }
+        for (AlterPropertyVisibility alterPropertyVisibility : mutation.getAlterPropertyVisibilities()) {
+            if (hitHydrator.isHydratedProperty(alterPropertyVisibility.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public <TElement extends Element> void updateElement(
             Graph graph,
@@ -536,6 +631,10 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         Map<String, String> fieldVisibilityChanges = getFieldVisibilityChanges(graph, mutation);
         List<String> fieldsToRemove = getFieldsToRemove(graph, mutation);
         Map<String, Object> fieldsToSet = getFieldsToSet(graph, mutation);
+        if (isHydrationAffected(mutation)) {
+            // the mutation is already applied to the element instance
+            updateHydration(element, hitHydrator::encode, fieldsToSet, fieldsToRemove);
+        }
 
         String documentId = getIdStrategy().createElementDocId(element);
         String indexName = getIndexName(element);
@@ -1018,6 +1117,14 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
         Map<String, Object> fieldsToSet = new HashMap<>();
         fieldsToSet.put(hiddenVisibilityPropertyName, true);
+        List<String> fieldsToRemove = new ArrayList<>();
+        if (hitHydrator != null) {
+            updateHydration(element, e -> hitHydrator.encode(
+                    e,
+                    withVisibility(e.getHiddenVisibilities(), visibility, true),
+                    Property::getHiddenVisibilities
+            ), fieldsToSet, fieldsToRemove);
+        }
 
         bulkUpdateService.addElementUpdate(
                 indexName,
@@ -1026,7 +1133,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 element,
                 Collections.emptyMap(),
                 fieldsToSet,
-                Collections.emptyList(),
+                fieldsToRemove,
                 Collections.emptyMap(),
                 true
         );
@@ -1040,9 +1147,19 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             Authorizations authorizations
     ) {
         String hiddenVisibilityPropertyName = addVisibilityToPropertyName(graph, HIDDEN_VERTEX_FIELD_NAME, visibility);
+        Map<String, Object> fieldsToSet = new HashMap<>();
+        List<String> fieldsToRemove = new ArrayList<>();
         if (isPropertyInIndex(graph, HIDDEN_VERTEX_FIELD_NAME, visibility)) {
-            removeFieldsFromDocument(graph, elementLocation, hiddenVisibilityPropertyName);
+            fieldsToRemove.add(hiddenVisibilityPropertyName);
+        }
+        if (hitHydrator != null) {
+            updateHydration(elementLocation, e -> hitHydrator.encode(
+                    e,
+                    withVisibility(e.getHiddenVisibilities(), visibility, false),
+                    Property::getHiddenVisibilities
+            ), fieldsToSet, fieldsToRemove);
         }
+        addUpdateToBulk(getIndexName(elementLocation), getIdStrategy().createElementDocId(elementLocation), elementLocation, fieldsToSet, fieldsToRemove, null);
     }
 
     @Override
@@ -1063,6 +1180,14 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
         Map<String, Object> fieldsToSet = new HashMap<>();
         fieldsToSet.put(hiddenVisibilityPropertyName, true);
+        List<String> fieldsToRemove = new ArrayList<>();
+        if (hitHydrator != null && hitHydrator.isHydratedProperty(property.getName())) {
+            updateHydration(elementLocation, e -> hitHydrator.encode(
+                    e,
+                    e.getHiddenVisibilities(),
+                    p -> isSameProperty(p, PropertyDescriptor.fromProperty(property)) ? withVisibility(p.getHiddenVisibilities(), visibility, true) : p.getHiddenVisibilities()
+            ), fieldsToSet, fieldsToRemove);
+        }
         bulkUpdateService.addElementUpdate(
                 indexName,
                 getIdStrategy().getType(),
@@ -1070,7 +1195,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 elementLocation,
                 Collections.emptyMap(),
                 fieldsToSet,
-                Collections.emptyList(),
+                fieldsToRemove,
                 Collections.emptyMap(),
                 true
         );
@@ -1085,9 +1210,19 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             Authorizations authorizations
     ) {
         String hiddenVisibilityPropertyName = addVisibilityToPropertyName(graph, HIDDEN_PROPERTY_FIELD_NAME, visibility);
+        Map<String, Object> fieldsToSet = new HashMap<>();
+        List<String> fieldsToRemove = new ArrayList<>();
         if (isPropertyInIndex(graph, HIDDEN_PROPERTY_FIELD_NAME, visibility)) {
-            removeFieldsFromDocument(graph, elementLocation, hiddenVisibilityPropertyName);
+            fieldsToRemove.add(hiddenVisibilityPropertyName);
         }
+        if (hitHydrator != null && hitHydrator.isHydratedProperty(property.getName())) {
+            updateHydration(elementLocation, e -> hitHydrator.encode(
+                    e,
+                    e.getHiddenVisibilities(),
+                    p -> isSameProperty(p, PropertyDescriptor.fromProperty(property)) ? withVisibility(p.getHiddenVisibilities(), visibility, false) : p.getHiddenVisibilities()
+            ), fieldsToSet, fieldsToRemove);
+        }
+        addUpdateToBulk(getIndexName(elementLocation), getIdStrategy().createElementDocId(elementLocation), elementLocation, fieldsToSet, fieldsToRemove, null);
     }
 
     private String getElementTypeValueFromElement(Element element) {
@@ -1991,6 +2126,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 .startObject(OUT_VERTEX_ID_FIELD_NAME).field("type", "keyword").field("store", "true").endObject()
                 .startObject(EDGE_LABEL_FIELD_NAME).field("type", "keyword").field("store", "true").endObject()
                 .startObject(CONCEPT_TYPE_FIELD_NAME).field("type", "keyword").field("store", "true").endObject()
+                .startObject(HYDRATION_FIELD_NAME).field("type", "binary").field("store", "true").endObject()
         ;
     }
 
@@ -2007,6 +2143,13 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
             fieldsToRemove.addAll(getFieldsToRemove(graph, p.getName(), p.getVisibility()));
             addExistingValuesToFieldMap(graph, element, p.getName(), p.getVisibility(), fieldsToSet);
         });
+        if (hitHydrator != null && propertyList.stream().anyMatch(p -> hitHydrator.isHydratedProperty(p.getName()))) {
+            updateHydration(element, e -> hitHydrator.encode(
+                    e,
+                    e.getHiddenVisibilities(),
+                    p -> propertyList.stream().anyMatch(deleted -> isSameProperty(p, deleted)) ? null : p.getHiddenVisibilities()
+            ), fieldsToSet, fieldsToRemove);
+        }
 
         String documentId = getIdStrategy().createElementDocId(element);
         String indexName = getIndexName(element);
@@ -2463,6 +2606,14 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         return client;
     }
 
+    public ElasticsearchHitHydrator getHitHydrator() {
+        return hitHydrator;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
     public ElasticsearchSearchIndexConfiguration getConfig() {
         return config;
     }
@@ -42,11 +42,18 @@ import com.mware.ge.mutation.ExistingElementMutation;
 import com.mware.ge.query.QueryableIterable;
 import com.mware.ge.values.storable.Value;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public abstract class ElasticsearchElement extends ElementBase {
     private final Graph graph;
     private FetchHints fetchHints;
     private String id;
     private Authorizations authorizations;
+    private Visibility visibility;
+    private long timestamp;
+    private List<Property> properties;
 
     public ElasticsearchElement(
             Graph graph,
@@ -65,59 +72,97 @@ public abstract class ElasticsearchElement extends ElementBase {
         return id;
     }
 
+    /**
+     * Sets the data read from the search hit by {@link ElasticsearchHitHydrator}, which makes the properties,
+     * the visibility and the timestamp available.
+     */
+    void setHydratedData(Visibility visibility, long timestamp, List<Property> properties) {
+        this.visibility = visibility;
+        this.timestamp = timestamp;
+        this.properties = properties;
+    }
+
+    private void assertHydrated(String methodName) {
+        if (properties == null) {
+            throw new GeNotSupportedException(methodName + " is not supported");
+        }
+    }
+
     @Override
     public Iterable<Property> getProperties() {
-        throw new GeNotSupportedException("getProperties is not supported");
+        assertHydrated("getProperties");
+        return properties;
     }
 
     @Override
     public Property getProperty(String name) {
-        throw new GeNotSupportedException("getProperty is not supported");
+        assertHydrated("getProperty");
+        return getProperty(null, name, null);
     }
 
     @Override
     public Value getPropertyValue(String name) {
-        throw new GeNotSupportedException("getPropertyValue is not supported");
+        assertHydrated("getPropertyValue");
+        return getPropertyValue(null, name);
     }
 
     @Override
     public Property getProperty(String key, String name) {
-        throw new GeNotSupportedException("getProperty is not supported");
+        assertHydrated("getProperty");
+        return getProperty(key, name, null);
     }
 
     @Override
     public Iterable<Value> getPropertyValues(String name) {
-        throw new GeNotSupportedException("getPropertyValues is not supported");
+        assertHydrated("getPropertyValues");
+        return getPropertyValues(null, name);
     }
 
     @Override
     public Iterable<Value> getPropertyValues(String key, String name) {
-        throw new GeNotSupportedException("getPropertyValues is not supported");
+        assertHydrated("getPropertyValues");
+        List<Value> values = new ArrayList<>();
+        for (Property property : getProperties(key, name)) {
+            values.add(property.getValue());
+        }
+        return values;
     }
 
     @Override
     public Value getPropertyValue(String key, String name) {
-        throw new GeNotSupportedException("getPropertyValue is not supported");
+        assertHydrated("getPropertyValue");
+        Property property = getProperty(key, name, null);
+        return property == null ? null : property.getValue();
     }
 
     @Override
     public Value getPropertyValue(String name, int index) {
-        throw new GeNotSupportedException("getPropertyValue is not supported");
+        assertHydrated("getPropertyValue");
+        return getPropertyValue(null, name, index);
     }
 
     @Override
     public Value getPropertyValue(String key, String name, int index) {
-        throw new GeNotSupportedException("getPropertyValue is not supported");
+        assertHydrated("getPropertyValue");
+        int i = 0;
+        for (Property property : getProperties(key, name)) {
+            if (i++ == index) {
+                return property.getValue();
+            }
+        }
+        return null;
     }
 
     @Override
     public Visibility getVisibility() {
-        throw new GeNotSupportedException("getVisibility is not supported");
+        assertHydrated("getVisibility");
+        return visibility;
     }
 
     @Override
     public long getTimestamp() {
-        throw new GeNotSupportedException("getTimestamp is not supported");
+        assertHydrated("getTimestamp");
+        return timestamp;
     }
 
     @Override
@@ -247,12 +292,15 @@ public abstract class ElasticsearchElement extends ElementBase {
 
     @Override
     public boolean isHidden(Authorizations authorizations) {
-        throw new GeNotSupportedException("isHidden is not supported");
+        assertHydrated("isHidden");
+        // hidden elements and properties are not hydrated
+        return false;
     }
 
     @Override
     public Iterable<Visibility> getHiddenVisibilities() {
-        throw new GeNotSupportedException("getHiddenVisibilities is not supported");
+        assertHydrated("getHiddenVisibilities");
+        return Collections.emptyList();
     }
 
     @Override
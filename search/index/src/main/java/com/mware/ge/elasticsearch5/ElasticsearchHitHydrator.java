@@ -0,0 +1,273 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.elasticsearch5;
+
+import com.google.common.collect.ImmutableSet;
+import com.mware.ge.*;
+import com.mware.ge.property.MutablePropertyImpl;
+import com.mware.ge.serializer.GeSerializer;
+import com.mware.ge.values.storable.Value;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.SearchHit;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Builds lightweight elements straight from search hits, without reading the elements from the graph.
+ * <p>
+ * When enabled, the element visibility, the hidden visibilities and the values of a configured set of
+ * properties are stored in the {@link Elasticsearch5SearchIndex#HYDRATION_FIELD_NAME} field of the element
+ * document. Queries whose fetch hints only ask for those properties return {@link ElasticsearchVertex} and
+ * {@link ElasticsearchEdge} instances built from that field. Partial updates touching the stored data encode the
+ * field again when the updated element was read with its hidden data and all the stored properties, otherwise they
+ * remove it. Documents without the field are read from the graph.
+ */
+public class ElasticsearchHitHydrator {
+    private static final int VERSION = 1;
+    private final ImmutableSet<String> propertyNames;
+    private final GeSerializer serializer;
+
+    public ElasticsearchHitHydrator(Set<String> propertyNames, GeSerializer serializer) {
+        this.propertyNames = ImmutableSet.copyOf(propertyNames);
+        this.serializer = serializer;
+    }
+
+    public ImmutableSet<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    public boolean isHydratedProperty(String propertyName) {
+        return propertyNames.contains(propertyName);
+    }
+
+    /**
+     * Returns true if elements built from the hits satisfy the fetch hints.
+     */
+    public boolean canHydrate(FetchHints fetchHints) {
+        if (fetchHints.equals(FetchHints.NONE)) {
+            return false;
+        }
+        return !fetchHints.isIncludeAllProperties()
+                && (fetchHints.getPropertyNamesToInclude() == null || propertyNames.containsAll(fetchHints.getPropertyNamesToInclude()))
+                && !fetchHints.isIncludePropertyMetadata()
+                && !fetchHints.isIncludeHidden()
+                && !fetchHints.isIncludeEdgeRefs()
+                && !fetchHints.isIncludeEdgeLabelsAndCounts()
+                && !fetchHints.isIncludeExtendedDataTableNames();
+    }
+
+    public String encode(Element element) {
+        return encode(element, element.getHiddenVisibilities(), Property::getHiddenVisibilities);
+    }
+
+    /**
+     * Encodes the element with hidden visibilities which are not applied to the element instance yet. Properties
+     * for which propertyHiddenVisibilities returns null are left out.
+     */
+    public String encode(
+            Element element,
+            Iterable<Visibility> hiddenVisibilities,
+            Function<Property, Iterable<Visibility>> propertyHiddenVisibilities
+    ) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(VERSION);
+                out.writeUTF(element.getVisibility().getVisibilityString());
+                out.writeLong(element.getTimestamp());
+                writeVisibilities(out, hiddenVisibilities);
+
+                List<Property> properties = new ArrayList<>();
+                List<Iterable<Visibility>> propertiesHiddenVisibilities = new ArrayList<>();
+                for (Property property : element.getProperties()) {
+                    if (propertyNames.contains(property.getName())) {
+                        Iterable<Visibility> propertyHidden = propertyHiddenVisibilities.apply(property);
+                        if (propertyHidden != null) {
+                            properties.add(property);
+                            propertiesHiddenVisibilities.add(propertyHidden);
+                        }
+                    }
+                }
+                out.writeInt(properties.size());
+                for (int i = 0; i < properties.size(); i++) {
+                    Property property = properties.get(i);
+                    out.writeUTF(property.getKey());
+                    out.writeUTF(property.getName());
+                    out.writeUTF(property.getVisibility().getVisibilityString());
+                    out.writeLong(property.getTimestamp() == null ? 0L : property.getTimestamp());
+                    writeVisibilities(out, propertiesHiddenVisibilities.get(i));
+                    byte[] value = serializer.objectToBytes(property.getValue());
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+            }
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new GeException("Could not encode hydration data: " + element.getId(), ex);
+        }
+    }
+
+    public boolean hasHydrationData(SearchHit hit) {
+        return hit.getFields().get(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME) != null;
+    }
+
+    /**
+     * Builds the vertex or edge of a hit which has hydration data, or returns null if the element or its
+     * hidden state is not visible with the given authorizations.
+     */
+    public ElasticsearchElement hydrate(
+            Graph graph,
+            SearchHit hit,
+            ElasticsearchDocumentType documentType,
+            FetchHints fetchHints,
+            Authorizations authorizations
+    ) {
+        Map<String, DocumentField> fields = hit.getFields();
+        String elementId = fields.get(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME).getValue();
+        byte[] data = getBytes(fields.get(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME).getValue());
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new GeException("Unhandled hydration data version: " + version);
+            }
+            Visibility visibility = new Visibility(in.readUTF());
+            long timestamp = in.readLong();
+            Set<Visibility> hiddenVisibilities = readVisibilities(in);
+            if (!authorizations.canRead(visibility) || isHidden(hiddenVisibilities, authorizations)) {
+                return null;
+            }
+
+            List<Property> properties = new ArrayList<>();
+            int propertyCount = in.readInt();
+            for (int i = 0; i < propertyCount; i++) {
+                String key = in.readUTF();
+                String name = in.readUTF();
+                Visibility propertyVisibility = new Visibility(in.readUTF());
+                long propertyTimestamp = in.readLong();
+                Set<Visibility> propertyHiddenVisibilities = readVisibilities(in);
+                byte[] valueBytes = new byte[in.readInt()];
+                in.readFully(valueBytes);
+                if (!fetchHints.isIncludeProperty(name)
+                        || !authorizations.canRead(propertyVisibility)
+                        || isHidden(propertyHiddenVisibilities, authorizations)) {
+                    continue;
+                }
+                Value value = serializer.bytesToObject(valueBytes);
+                properties.add(new MutablePropertyImpl(
+                        key,
+                        name,
+                        value,
+                        null,
+                        propertyTimestamp,
+                        propertyHiddenVisibilities,
+                        propertyVisibility,
+                        fetchHints
+                ));
+            }
+
+            ElasticsearchElement element;
+            if (documentType == ElasticsearchDocumentType.VERTEX) {
+                element = new ElasticsearchVertex(
+                        graph,
+                        elementId,
+                        fields.get(Elasticsearch5SearchIndex.CONCEPT_TYPE_FIELD_NAME).getValue(),
+                        fetchHints,
+                        authorizations
+                );
+            } else {
+                element = new ElasticsearchEdge(
+                        graph,
+                        elementId,
+                        fields.get(Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME).getValue(),
+                        fields.get(Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME).getValue(),
+                        fields.get(Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME).getValue(),
+                        fetchHints,
+                        authorizations
+                );
+            }
+            element.setHydratedData(visibility, timestamp, properties);
+            return element;
+        } catch (IOException ex) {
+            throw new GeException("Could not decode hydration data: " + elementId, ex);
+        }
+    }
+
+    private static boolean isHidden(Set<Visibility> hiddenVisibilities, Authorizations authorizations) {
+        for (Visibility hiddenVisibility : hiddenVisibilities) {
+            if (authorizations.canRead(hiddenVisibility)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeVisibilities(DataOutputStream out, Iterable<Visibility> visibilities) throws IOException {
+        List<Visibility> list = new ArrayList<>();
+        if (visibilities != null) {
+            visibilities.forEach(list::add);
+        }
+        out.writeInt(list.size());
+        for (Visibility visibility : list) {
+            out.writeUTF(visibility.getVisibilityString());
+        }
+    }
+
+    private static Set<Visibility> readVisibilities(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count == 0) {
+            return Collections.emptySet();
+        }
+        Set<Visibility> visibilities = new HashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            visibilities.add(new Visibility(in.readUTF()));
+        }
+        return visibilities;
+    }
+
+    private static byte[] getBytes(Object value) {
+        if (value instanceof BytesReference) {
+            return BytesReference.toBytes((BytesReference) value);
+        }
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        return Base64.getDecoder().decode(value.toString());
+    }
+}
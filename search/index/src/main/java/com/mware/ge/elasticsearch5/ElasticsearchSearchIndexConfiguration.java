@@ -42,12 +42,14 @@ import com.mware.ge.GraphConfiguration;
 import com.mware.ge.elasticsearch5.bulk.BulkUpdateServiceConfiguration;
 import com.mware.ge.elasticsearch5.lucene.DefaultQueryStringTransformer;
 import com.mware.ge.elasticsearch5.lucene.QueryStringTransformer;
+import com.mware.ge.serializer.GeSerializer;
 import com.mware.ge.util.ConfigurationUtils;
 import org.elasticsearch.common.unit.TimeValue;
 
 import java.io.File;
 import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class ElasticsearchSearchIndexConfiguration {
     public static final String ES_LOCATIONS = "locations";
@@ -121,6 +123,9 @@ public class ElasticsearchSearchIndexConfiguration {
     public static final String BULK_BATCH_WINDOW_TIME = "bulk.batchWindowTime";
     public static final String BULK_MAX_FAIL_COUNT = "bulk.maxFailCount";
     public static final String BULK_REQUEST_TIMEOUT = "bulk.requestTimeout";
+    public static final String BULK_ADAPTIVE = "bulk.adaptive";
+    public static final String BULK_MIN_BATCH_SIZE = "bulk.minBatchSize";
+    public static final String BULK_TARGET_LATENCY = "bulk.targetLatency";
     public static final int BULK_POOL_SIZE_DEFAULT = BulkUpdateServiceConfiguration.POOL_SIZE_DEFAULT;
     public static final int BULK_BACKLOG_SIZE_DEFAULT = BulkUpdateServiceConfiguration.BACKLOG_SIZE_DEFAULT;
     public static final int BULK_MAX_BATCH_SIZE_DEFAULT = BulkUpdateServiceConfiguration.MAX_BATCH_SIZE_DEFAULT;
@@ -128,8 +133,16 @@ public class ElasticsearchSearchIndexConfiguration {
     public static final int BULK_MAX_FAIL_COUNT_DEFAULT = BulkUpdateServiceConfiguration.MAX_FAIL_COUNT_DEFAULT;
     public static final Duration BULK_BATCH_WINDOW_TIME_DEFAULT = BulkUpdateServiceConfiguration.BATCH_WINDOW_TIME_DEFAULT;
     public static final String BULK_REQUEST_TIMEOUT_DEFAULT = "30m";
+    public static final boolean BULK_ADAPTIVE_DEFAULT = BulkUpdateServiceConfiguration.ADAPTIVE_DEFAULT;
+    public static final int BULK_MIN_BATCH_SIZE_DEFAULT = BulkUpdateServiceConfiguration.MIN_BATCH_SIZE_DEFAULT;
+    public static final Duration BULK_TARGET_LATENCY_DEFAULT = BulkUpdateServiceConfiguration.TARGET_LATENCY_DEFAULT;
     public static final String REFRESH_INDEX_ON_FLUSH = "refreshIndexOnFlush";
     public static final boolean REFRESH_INDEX_ON_FLUSH_DEFAULT = true;
+    public static final String REFRESH_MIN_INTERVAL = "refreshMinInterval";
+    public static final Duration REFRESH_MIN_INTERVAL_DEFAULT = Duration.ZERO;
+    public static final String HYDRATION_PROPERTIES = "hydration.properties";
+    public static final String HYDRATION_PREFETCH = "hydration.prefetch";
+    public static final boolean HYDRATION_PREFETCH_DEFAULT = false;
 
     private GraphConfiguration graphConfiguration;
     private IndexSelectionStrategy indexSelectionStrategy;
@@ -344,10 +357,46 @@ public class ElasticsearchSearchIndexConfiguration {
         return graphConfiguration.getDuration(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_REQUEST_TIMEOUT, BULK_REQUEST_TIMEOUT_DEFAULT);
     }
 
+    public boolean isBulkAdaptive() {
+        return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_ADAPTIVE, BULK_ADAPTIVE_DEFAULT);
+    }
+
+    public int getBulkMinBatchSize() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MIN_BATCH_SIZE, BULK_MIN_BATCH_SIZE_DEFAULT);
+    }
+
+    public Duration getBulkTargetLatency() {
+        return graphConfiguration.getDuration(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_TARGET_LATENCY, BULK_TARGET_LATENCY_DEFAULT);
+    }
+
     public boolean getRefreshIndexOnFlush() {
         return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + REFRESH_INDEX_ON_FLUSH, REFRESH_INDEX_ON_FLUSH_DEFAULT);
     }
 
+    /**
+     * The names of the properties stored in the search documents to build query results without reading the graph,
+     * empty if hydration from search hits is disabled.
+     */
+    public Set<String> getHydrationPropertyNames() {
+        String value = graphConfiguration.getString(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + HYDRATION_PROPERTIES, "");
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    public boolean isHydrationPrefetch() {
+        return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + HYDRATION_PREFETCH, HYDRATION_PREFETCH_DEFAULT);
+    }
+
+    public GeSerializer createSerializer() {
+        return graphConfiguration.createSerializer();
+    }
+
+    public Duration getRefreshMinInterval() {
+        return graphConfiguration.getDuration(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + REFRESH_MIN_INTERVAL, REFRESH_MIN_INTERVAL_DEFAULT);
+    }
+
     public boolean sidecarEnabled() {
         return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." +SIDECAR, SIDECAR_DEFAULT);
     }
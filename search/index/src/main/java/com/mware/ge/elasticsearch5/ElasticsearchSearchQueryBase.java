@@ -108,6 +108,7 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -255,6 +256,13 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
                     Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME,
                     Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME
             );
+        } else if (isHydrated(fetchHints)) {
+            searchRequestBuilder.storedFields(
+                    Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME,
+                    Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME,
+                    Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME,
+                    Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME
+            );
         }
         if (getParameters().getMinScore() != null) {
             searchRequestBuilder.setMinScore(getParameters().getMinScore().floatValue());
@@ -806,6 +814,11 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
                 return ElasticsearchSearchQueryBase.this.searchResponseToGeObjectIterable(searchResponse, fetchHints);
             }
 
+            @Override
+            protected boolean isPrefetchEnabled() {
+                return getSearchIndex().getConfig().isHydrationPrefetch();
+            }
+
             @Override
             protected IdStrategy getIdStrategy() {
                 return getSearchIndex().getIdStrategy();
@@ -870,6 +883,8 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         if (ids.getVertexIds().size() > 0) {
             if (fetchHints.equals(FetchHints.NONE)) {
                 items.add(getElasticsearchVertices(hits, fetchHints, authorizations));
+            } else if (isHydrated(fetchHints)) {
+                items.add(getHydratedElements(hits, ElasticsearchDocumentType.VERTEX, fetchHints, authorizations));
             } else {
                 Iterable<? extends GeObject> vertices = getGraph().getVertices(ids.getVertexIds(), fetchHints, authorizations);
                 items.add(vertices);
@@ -878,6 +893,8 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         if (ids.getEdgeIds().size() > 0) {
             if (fetchHints.equals(FetchHints.NONE)) {
                 items.add(getElasticsearchEdges(hits, fetchHints, authorizations));
+            } else if (isHydrated(fetchHints)) {
+                items.add(getHydratedElements(hits, ElasticsearchDocumentType.EDGE, fetchHints, authorizations));
             } else {
                 Iterable<? extends GeObject> edges = getGraph().getEdges(ids.getEdgeIds(), fetchHints, authorizations);
                 items.add(edges);
@@ -976,6 +993,58 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
                 }).collect(Collectors.toList());
     }
 
+    private boolean isHydrated(FetchHints fetchHints) {
+        ElasticsearchHitHydrator hitHydrator = getSearchIndex().getHitHydrator();
+        return hitHydrator != null && hitHydrator.canHydrate(fetchHints);
+    }
+
+    /**
+     * Builds the elements of the given type from the hydration data of the hits, reading the elements
+     * of hits without hydration data from the graph. The elements follow the order of the hits.
+     */
+    private List<Element> getHydratedElements(
+            SearchHits hits,
+            ElasticsearchDocumentType documentType,
+            FetchHints fetchHints,
+            Authorizations authorizations
+    ) {
+        ElasticsearchHitHydrator hitHydrator = getSearchIndex().getHitHydrator();
+        List<String> ids = new ArrayList<>();
+        Map<String, Element> elementsById = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            if (ElasticsearchDocumentType.fromSearchHit(hit) != documentType) {
+                continue;
+            }
+            String id = documentType == ElasticsearchDocumentType.VERTEX
+                    ? getIdStrategy().vertexIdFromSearchHit(hit)
+                    : getIdStrategy().edgeIdFromSearchHit(hit);
+            ids.add(id);
+            if (hitHydrator.hasHydrationData(hit)) {
+                Element element = hitHydrator.hydrate(getGraph(), hit, documentType, fetchHints, authorizations);
+                if (element != null) {
+                    elementsById.put(id, element);
+                }
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            Iterable<? extends Element> graphElements = documentType == ElasticsearchDocumentType.VERTEX
+                    ? getGraph().getVertices(missingIds, fetchHints, authorizations)
+                    : getGraph().getEdges(missingIds, fetchHints, authorizations);
+            graphElements.forEach(element -> elementsById.put(element.getId(), element));
+        }
+        List<Element> elements = new ArrayList<>(elementsById.size());
+        for (String id : ids) {
+            Element element = elementsById.get(id);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
     @Override
     public QueryResultsIterable<String> vertexIds(EnumSet<IdFetchHint> idFetchHints) {
         FetchHints fetchHints = idFetchHintsToElementFetchHints(idFetchHints);
@@ -2447,6 +2516,11 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         protected void closeScroll(String scrollId) {
             ElasticsearchSearchQueryBase.this.closeScroll(scrollId);
         }
+
+        @Override
+        protected Executor getPrefetchExecutor() {
+            return getSearchIndex().getExecutorService();
+        }
     }
 
     private static class Ids {
@@ -37,8 +37,7 @@
 package com.mware.ge.elasticsearch5;
 
 import com.google.common.collect.Lists;
-import com.mware.ge.util.GeReadWriteLock;
-import com.mware.ge.util.GeStampedLock;
+import com.mware.ge.GeException;
 import com.mware.ge.metric.Counter;
 import com.mware.ge.metric.GeMetricRegistry;
 import com.mware.ge.metric.Timer;
@@ -46,66 +45,182 @@ import com.mware.ge.util.GeLogger;
 import com.mware.ge.util.GeLoggerFactory;
 import org.elasticsearch.client.Client;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+/**
+ * Tracks the indices with changes which are not yet visible to searches and refreshes them on demand.
+ * <p>
+ * Every pushed change gets a version. A refresh only waits for the changes pushed before the call, and refreshes
+ * are coalesced per index: a caller whose changes
+ * are covered by a refresh already in flight waits for that refresh instead of issuing its own, and at most
+ * one refresh per index is in flight. Consecutive refreshes of an index are spaced by the minimum refresh
+ * interval.
+ */
 public class IndexRefreshTracker {
     private static final GeLogger LOGGER = GeLoggerFactory.getLogger(IndexRefreshTracker.class);
-    private final GeReadWriteLock lock = new GeStampedLock();
-    private final Map<String, Long> indexToMaxRefreshTime = new HashMap<>();
+    private final Map<String, IndexState> indexStates = new HashMap<>();
+    private final long minRefreshIntervalMillis;
     private final Counter pushCounter;
+    private final Counter coalescedCounter;
     private final Timer refreshTimer;
+    private long changeVersion;
 
     public IndexRefreshTracker(GeMetricRegistry metricRegistry) {
+        this(metricRegistry, Duration.ZERO);
+    }
+
+    public IndexRefreshTracker(GeMetricRegistry metricRegistry, Duration minRefreshInterval) {
+        this.minRefreshIntervalMillis = minRefreshInterval.toMillis();
         this.pushCounter = metricRegistry.getCounter(IndexRefreshTracker.class, "push", "counter");
+        this.coalescedCounter = metricRegistry.getCounter(IndexRefreshTracker.class, "coalesced", "counter");
         this.refreshTimer = metricRegistry.getTimer(IndexRefreshTracker.class, "refresh", "timer");
     }
 
     public void pushChange(String indexName) {
-        lock.executeInWriteLock(() -> {
+        pushChanges(Collections.singleton(indexName));
+    }
+
+    public synchronized void pushChanges(Set<String> indexNames) {
+        long time = getTime();
+        changeVersion++;
+        for (String indexName : indexNames) {
             pushCounter.increment();
             LOGGER.trace("index added for refresh: %s", indexName);
-            indexToMaxRefreshTime.put(indexName, getTime());
-        });
+            IndexState state = indexStates.computeIfAbsent(indexName, k -> new IndexState());
+            if (state.pendingVersion == 0) {
+                state.pendingVersion = changeVersion;
+            }
+            state.changeVersion = changeVersion;
+            state.changeTime = time;
+        }
     }
 
-    public void pushChanges(Set<String> indexNames) {
-        lock.executeInWriteLock(() -> {
-            for (String indexName : indexNames) {
-                pushCounter.increment();
-                LOGGER.trace("index added for refresh: %s", indexName);
-                indexToMaxRefreshTime.put(indexName, getTime());
-            }
-        });
+    private synchronized long getChangeVersion() {
+        return changeVersion;
     }
 
     public void refresh(Client client) {
-        long time = getTime();
+        refreshUpTo(client, getChangeVersion(), null);
+    }
 
-        Set<String> indexNamesNeedingRefresh = getIndexNamesNeedingRefresh(time);
-        if (indexNamesNeedingRefresh.size() > 0) {
-            refresh(client, indexNamesNeedingRefresh);
-            removeRefreshedIndexNames(indexNamesNeedingRefresh, time);
-        }
+    public void refresh(Client client, String... indexNames) {
+        refreshUpTo(client, getChangeVersion(), Lists.newArrayList(indexNames));
     }
 
-    protected long getTime() {
-        return System.currentTimeMillis();
+    /**
+     * Waits for the changes up to version to be visible in the given indices, or in all the indices if null,
+     * refreshing only the indices which are not covered by a refresh in flight.
+     */
+    private void refreshUpTo(Client client, long version, Collection<String> indexNames) {
+        while (true) {
+            long time = getTime();
+            Set<String> indexNamesToRefresh = new HashSet<>();
+            List<CompletableFuture<Void>> refreshesToWaitFor = new ArrayList<>();
+            CompletableFuture<Void> refreshFuture = new CompletableFuture<>();
+            long delay = 0;
+            synchronized (this) {
+                for (Map.Entry<String, IndexState> entry : indexStates.entrySet()) {
+                    if (indexNames != null && !indexNames.contains(entry.getKey())) {
+                        continue;
+                    }
+                    IndexState state = entry.getValue();
+                    if (state.changeTime > time || state.pendingVersion == 0 || state.pendingVersion > version) {
+                        continue;
+                    }
+                    if (state.refresh != null) {
+                        coalescedCounter.increment();
+                        refreshesToWaitFor.add(state.refresh);
+                        continue;
+                    }
+                    state.refresh = refreshFuture;
+                    delay = Math.max(delay, state.lastRefreshTime + minRefreshIntervalMillis - time);
+                    indexNamesToRefresh.add(entry.getKey());
+                }
+            }
+
+            if (indexNamesToRefresh.size() > 0) {
+                refreshIndices(client, indexNamesToRefresh, delay, refreshFuture);
+            }
+            if (refreshesToWaitFor.isEmpty()) {
+                return;
+            }
+            for (CompletableFuture<Void> refresh : refreshesToWaitFor) {
+                try {
+                    refresh.join();
+                } catch (CompletionException ex) {
+                    // the next pass issues the refresh itself and reports the failure
+                    LOGGER.debug("waited for a failed refresh", ex);
+                }
+            }
+        }
     }
 
-    public void refresh(Client client, String... indexNames) {
-        long time = getTime();
+    private void refreshIndices(Client client, Set<String> indexNames, long delay, CompletableFuture<Void> refreshFuture) {
+        try {
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            // changes pushed before the refresh request is sent were acknowledged by Elasticsearch and are covered
+            Map<String, Long> coveredVersions = new HashMap<>();
+            synchronized (this) {
+                for (String indexName : indexNames) {
+                    coveredVersions.put(indexName, indexStates.get(indexName).changeVersion);
+                }
+            }
+
+            refresh(client, indexNames);
 
-        Set<String> indexNamesNeedingRefresh = getIndexNamesNeedingRefresh(time);
-        indexNamesNeedingRefresh.retainAll(Lists.newArrayList(indexNames));
-        if (indexNamesNeedingRefresh.size() > 0) {
-            refresh(client, indexNamesNeedingRefresh);
-            removeRefreshedIndexNames(indexNamesNeedingRefresh, time);
+            long time = getTime();
+            synchronized (this) {
+                for (String indexName : indexNames) {
+                    IndexState state = indexStates.get(indexName);
+                    long coveredVersion = coveredVersions.get(indexName);
+                    if (state.changeVersion <= coveredVersion) {
+                        state.pendingVersion = 0;
+                    } else if (state.pendingVersion <= coveredVersion) {
+                        state.pendingVersion = coveredVersion + 1;
+                    }
+                    state.lastRefreshTime = time;
+                    state.refresh = null;
+                }
+            }
+            refreshFuture.complete(null);
+        } catch (Throwable ex) {
+            synchronized (this) {
+                for (String indexName : indexNames) {
+                    indexStates.get(indexName).refresh = null;
+                }
+            }
+            refreshFuture.completeExceptionally(ex);
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new GeException("interrupted while waiting to refresh", ex);
+            }
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            if (ex instanceof Error) {
+                throw (Error) ex;
+            }
+            throw new GeException("failed to refresh", ex);
         }
     }
 
+    protected long getTime() {
+        return System.currentTimeMillis();
+    }
+
     protected void refresh(Client client, Set<String> indexNamesNeedingRefresh) {
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("refreshing: %s", String.join(", ", indexNamesNeedingRefresh));
@@ -115,22 +230,14 @@ public class IndexRefreshTracker {
         });
     }
 
-    private Set<String> getIndexNamesNeedingRefresh(long time) {
-        return lock.executeInReadLock(() ->
-                indexToMaxRefreshTime.entrySet().stream()
-                        .filter(e -> e.getValue() <= time)
-                        .map(Map.Entry::getKey)
-                        .collect(Collectors.toSet())
-        );
-    }
-
-    private void removeRefreshedIndexNames(Set<String> indexNamesNeedingRefresh, long time) {
-        lock.executeInWriteLock(() -> {
-            for (String indexName : indexNamesNeedingRefresh) {
-                if (indexToMaxRefreshTime.getOrDefault(indexName, Long.MAX_VALUE) <= time) {
-                    indexToMaxRefreshTime.remove(indexName);
-                }
-            }
-        });
+    private static class IndexState {
+        private long changeVersion;
+        private long changeTime;
+        /**
+         * Lower bound of the versions of the changes not covered by a refresh, 0 if all the changes are covered.
+         */
+        private long pendingVersion;
+        private long lastRefreshTime = Long.MIN_VALUE / 2;
+        private CompletableFuture<Void> refresh;
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.elasticsearch5.bulk;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tunes the bulk batch size and the number of in-flight bulk requests using AIMD (additive increase,
+ * multiplicative decrease).
+ * <p>
+ * Every completed bulk request reports its latency and whether Elasticsearch rejected it (HTTP 429 or
+ * rejected execution). A rejection halves both the batch size and the concurrency, a request slower than the
+ * target latency halves the batch size, and a fast request grows the batch size by a fixed step and, if callers
+ * had to wait for a permit, the concurrency by one. Decreases are applied at most once per target latency
+ * window so that a burst of rejections from requests that were in flight together only counts once.
+ */
+public class BulkAdaptiveController {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int batchSizeIncrement;
+    private final int maxConcurrency;
+    private final long targetLatencyMillis;
+    private final boolean adaptive;
+    private volatile int batchSize;
+    private volatile int concurrency;
+    private int inFlight;
+    private boolean saturated;
+    private long lastDecreaseTime;
+
+    public BulkAdaptiveController(
+            boolean adaptive,
+            int minBatchSize,
+            int maxBatchSize,
+            int maxConcurrency,
+            Duration targetLatency
+    ) {
+        this.adaptive = adaptive;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.minBatchSize = Math.max(1, Math.min(minBatchSize, this.maxBatchSize));
+        this.batchSizeIncrement = Math.max(1, this.minBatchSize);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.targetLatencyMillis = targetLatency.toMillis();
+        this.batchSize = this.maxBatchSize;
+        this.concurrency = this.maxConcurrency;
+        this.lastDecreaseTime = Long.MIN_VALUE / 2;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the number of in-flight bulk requests is below the current concurrency limit.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= concurrency) {
+                saturated = true;
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit obtained with {@link #acquire()} and feeds the outcome of the request back into the
+     * batch size and concurrency limits.
+     */
+    public void release(long latencyMillis, boolean rejected) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (adaptive) {
+                adjust(latencyMillis, rejected);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long latencyMillis, boolean rejected) {
+        long now = getTime();
+        if (rejected || latencyMillis > targetLatencyMillis) {
+            if (now - lastDecreaseTime < targetLatencyMillis) {
+                return;
+            }
+            lastDecreaseTime = now;
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+            if (rejected) {
+                concurrency = Math.max(1, concurrency / 2);
+            }
+            saturated = false;
+            return;
+        }
+
+        batchSize = Math.min(maxBatchSize, batchSize + batchSizeIncrement);
+        if (saturated && concurrency < maxConcurrency) {
+            concurrency++;
+            saturated = false;
+        }
+    }
+
+    protected long getTime() {
+        return System.currentTimeMillis();
+    }
+}
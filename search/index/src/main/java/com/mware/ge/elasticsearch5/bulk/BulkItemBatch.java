@@ -46,11 +46,12 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 public class BulkItemBatch {
     private static final GeLogger LOGGER = GeLoggerFactory.getLogger(BulkItemBatch.class);
     private final GeReadWriteLock lock = new GeStampedLock();
-    private final int maxBatchSize;
+    private final IntSupplier maxBatchSize;
     private final int maxBatchSizeInBytes;
     private final long batchWindowTimeMillis;
     private final Integer logRequestSizeLimit;
@@ -63,6 +64,15 @@ public class BulkItemBatch {
             int maxBatchSizeInBytes,
             Duration batchWindowTime,
             Integer logRequestSizeLimit
+    ) {
+        this(() -> maxBatchSize, maxBatchSizeInBytes, batchWindowTime, logRequestSizeLimit);
+    }
+
+    public BulkItemBatch(
+            IntSupplier maxBatchSize,
+            int maxBatchSizeInBytes,
+            Duration batchWindowTime,
+            Integer logRequestSizeLimit
     ) {
         this.maxBatchSize = maxBatchSize;
         this.maxBatchSizeInBytes = maxBatchSizeInBytes;
@@ -120,7 +130,7 @@ public class BulkItemBatch {
             return true;
         }
 
-        if (batch.size() >= maxBatchSize) {
+        if (batch.size() >= maxBatchSize.getAsInt()) {
             return false;
         }
 
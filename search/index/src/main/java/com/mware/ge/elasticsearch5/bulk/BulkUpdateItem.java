@@ -79,6 +79,12 @@ public class BulkUpdateItem extends BulkItem<UpdateItem> {
         super.add(item);
         size = null;
 
+        // the hydration payload describes the whole element, so the latest item replaces it instead of merging
+        if (item.getFieldsToRemove().contains(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME)
+                || item.getFieldsToSet().containsKey(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME)) {
+            fieldsToSet.remove(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME);
+        }
+
         for (Map.Entry<String, Object> itemEntry : item.getFieldsToSet().entrySet()) {
             Object itemValue = itemEntry.getValue();
             fieldsToSet.compute(itemEntry.getKey(), (key, existingValue) -> {
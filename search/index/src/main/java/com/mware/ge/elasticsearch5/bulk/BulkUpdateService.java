@@ -43,6 +43,7 @@ import com.mware.ge.ExtendedDataRowId;
 import com.mware.ge.GeException;
 import com.mware.ge.elasticsearch5.Elasticsearch5SearchIndex;
 import com.mware.ge.elasticsearch5.IndexRefreshTracker;
+import com.mware.ge.metric.Counter;
 import com.mware.ge.metric.GeMetricRegistry;
 import com.mware.ge.metric.Histogram;
 import com.mware.ge.metric.Timer;
@@ -52,6 +53,8 @@ import com.mware.ge.util.LimitedLinkedBlockingQueue;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
 
 import java.time.Duration;
 import java.util.Collection;
@@ -59,6 +62,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -71,6 +75,10 @@ import java.util.stream.Collectors;
  * has to perform. See
  * - https://github.com/elastic/elasticsearch/issues/23792#issuecomment-296149685
  * - https://github.com/debadair/elasticsearch/commit/54cdf40bc5fdecce180ba2e242abca59c7bd1f11
+ * <p>
+ * Items are batched in one lane per target index so that a bulk request only touches the shards of a single
+ * index. The batch size and the number of concurrent bulk requests are tuned by a {@link BulkAdaptiveController}
+ * from the observed bulk latency and from requests rejected by Elasticsearch.
  */
 public class BulkUpdateService {
     private static final GeLogger LOGGER = GeLoggerFactory.getLogger(BulkUpdateService.class);
@@ -87,7 +95,10 @@ public class BulkUpdateService {
     private final Duration bulkRequestTimeout;
     private final ThreadPoolExecutor ioExecutor;
     private final int maxFailCount;
-    private final BulkItemBatch batch;
+    private final Map<String, BulkItemBatch> lanes = new ConcurrentHashMap<>();
+    private final BulkUpdateServiceConfiguration configuration;
+    private final BulkAdaptiveController adaptiveController;
+    private final Counter rejectedCounter;
     private volatile boolean shutdown;
 
     public BulkUpdateService(
@@ -112,25 +123,31 @@ public class BulkUpdateService {
                 }
         );
 
-        this.processItemsThread = new Thread(this::processIncomingItemsIntoBatches);
-        this.processItemsThread.setName("ge-es-processItems");
-        this.processItemsThread.setDaemon(true);
-        this.processItemsThread.start();
-
         this.bulkRequestTimeout = configuration.getBulkRequestTimeout();
         this.maxFailCount = configuration.getMaxFailCount();
-        this.batch = new BulkItemBatch(
+        this.configuration = configuration;
+        this.adaptiveController = new BulkAdaptiveController(
+                configuration.isAdaptive(),
+                configuration.getMinBatchSize(),
                 configuration.getMaxBatchSize(),
-                configuration.getMaxBatchSizeInBytes(),
-                configuration.getBatchWindowTime(),
-                configuration.getLogRequestSizeLimit()
+                configuration.getPoolSize(),
+                configuration.getTargetLatency()
         );
 
         GeMetricRegistry metricRegistry = searchIndex.getMetricsRegistry();
         this.flushTimer = metricRegistry.getTimer(BulkUpdateService.class, "flush", "timer");
         this.processBatchTimer = metricRegistry.getTimer(BulkUpdateService.class, "processBatch", "timer");
         this.batchSizeHistogram = metricRegistry.getHistogram(BulkUpdateService.class, "batch", "histogram");
+        this.rejectedCounter = metricRegistry.getCounter(BulkUpdateService.class, "rejected", "counter");
         metricRegistry.getGauge(metricRegistry.createName(BulkUpdateService.class, "outstandingItems", "size"), outstandingItems::size);
+        metricRegistry.getGauge(metricRegistry.createName(BulkUpdateService.class, "batchSize", "limit"), adaptiveController::getBatchSize);
+        metricRegistry.getGauge(metricRegistry.createName(BulkUpdateService.class, "concurrency", "limit"), adaptiveController::getConcurrency);
+        metricRegistry.getGauge(metricRegistry.createName(BulkUpdateService.class, "lanes", "size"), lanes::size);
+
+        this.processItemsThread = new Thread(this::processIncomingItemsIntoBatches);
+        this.processItemsThread.setName("ge-es-processItems");
+        this.processItemsThread.setDaemon(true);
+        this.processItemsThread.start();
     }
 
     public CompletableFuture<Void> addDelete(
@@ -209,12 +226,7 @@ public class BulkUpdateService {
     }
 
     private boolean filterByRetryTime(Item bulkItem) {
-        if (bulkItem.getFailCount() == 0) {
-            return true;
-        }
-        long nextRetryTime = (long) (bulkItem.getCreatedOrLastTriedTime() + (10 * Math.pow(2, bulkItem.getFailCount())));
-        long currentTime = System.currentTimeMillis();
-        if (nextRetryTime > currentTime) {
+        if (!isReadyToRetry(bulkItem, System.currentTimeMillis())) {
             // add it back into incomingItems, it will already be in outstandingItems
             incomingItems.add(bulkItem);
             return false;
@@ -222,6 +234,17 @@ public class BulkUpdateService {
         return true;
     }
 
+    /**
+     * A failed item waits 10ms * 2^failCount from its last try before it is sent again.
+     */
+    static boolean isReadyToRetry(Item item, long currentTime) {
+        if (item.getFailCount() == 0) {
+            return true;
+        }
+        long nextRetryTime = (long) (item.getCreatedOrLastTriedTime() + (10 * Math.pow(2, item.getFailCount())));
+        return nextRetryTime <= currentTime;
+    }
+
     public void flush() {
         flushTimer.time(() -> {
             try {
@@ -234,8 +257,8 @@ public class BulkUpdateService {
                                 .toArray(CompletableFuture[]::new)
                 ).get();
 
-                // flush the current batch
-                flushBatch();
+                // flush the current batches
+                flushBatches();
 
                 // wait for the items to complete
                 CompletableFuture.allOf(
@@ -249,18 +272,44 @@ public class BulkUpdateService {
         });
     }
 
-    private void flushBatch() {
+    private void flushBatches() {
+        for (BulkItemBatch batch : lanes.values()) {
+            flushBatch(batch);
+        }
+    }
+
+    private void flushBatchesByTime() {
+        for (BulkItemBatch batch : lanes.values()) {
+            if (batch.shouldFlushByTime()) {
+                flushBatch(batch);
+            }
+        }
+    }
+
+    private void flushBatch(BulkItemBatch batch) {
         List<BulkItem<?>> batchItems = batch.getItemsAndClear();
         if (batchItems.size() > 0) {
             ioExecutor.execute(() -> processBatch(batchItems));
         }
     }
 
+    private BulkItemBatch getLane(Item item) {
+        return lanes.computeIfAbsent(item.getIndexName(), indexName -> new BulkItemBatch(
+                adaptiveController::getBatchSize,
+                configuration.getMaxBatchSizeInBytes(),
+                configuration.getBatchWindowTime(),
+                configuration.getLogRequestSizeLimit()
+        ));
+    }
+
     private void handleFailure(BulkItem<?> bulkItem, BulkItemResponse bulkItemResponse) {
         BulkItemResponse.Failure failure = bulkItemResponse.getFailure();
         bulkItem.incrementFailCount();
         if (bulkItem.getFailCount() >= maxFailCount) {
             complete(bulkItem, new BulkGeException("fail count exceeded the max number of failures", failure));
+        } else if (failure.getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+            // Elasticsearch is pushing back, the item is fine so retry it after the backoff
+            incomingItems.addAll(bulkItem.getItems());
         } else {
             AtomicBoolean retry = new AtomicBoolean(false);
             try {
@@ -293,11 +342,28 @@ public class BulkUpdateService {
 
                 outstandingItems.waitForItemToNotBeInflightAndMarkThemAsInflight(bulkItems);
                 BulkResponse bulkResponse;
+                boolean rejected = false;
+                boolean acquired = false;
+                long startTime = 0;
                 try {
+                    // acquired inside the try so the items are marked as not in flight even when the wait is interrupted
+                    adaptiveController.acquire();
+                    acquired = true;
+                    startTime = System.currentTimeMillis();
                     bulkResponse = searchIndex.getClient()
                             .bulk(bulkRequestBuilder.request())
                             .get(bulkRequestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                    rejected = hasRejectedItems(bulkResponse);
+                } catch (Exception ex) {
+                    rejected = isRejection(ex);
+                    throw ex;
                 } finally {
+                    if (acquired) {
+                        if (rejected) {
+                            rejectedCounter.increment();
+                        }
+                        adaptiveController.release(System.currentTimeMillis() - startTime, rejected);
+                    }
                     outstandingItems.markItemsAsNotInflight(bulkItems);
                 }
 
@@ -317,6 +383,19 @@ public class BulkUpdateService {
                     }
                 }
             } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    for (BulkItem<?> bulkItem : bulkItems) {
+                        complete(bulkItem, ex);
+                    }
+                    return;
+                }
+                if (isRejection(ex)) {
+                    // splitting the batch would only add load to a cluster that is already rejecting requests
+                    LOGGER.warn("bulk request rejected, retrying %d items", bulkItems.size());
+                    retryRejected(bulkItems, ex);
+                    return;
+                }
                 LOGGER.error("bulk request failed", ex);
                 // if bulk failed try each item individually
                 if (bulkItems.size() > 1) {
@@ -330,6 +409,48 @@ public class BulkUpdateService {
         });
     }
 
+    private void retryRejected(List<BulkItem<?>> bulkItems, Exception ex) {
+        for (BulkItem<?> bulkItem : bulkItems) {
+            if (failedTry(bulkItem, maxFailCount)) {
+                incomingItems.addAll(bulkItem.getItems());
+            } else {
+                complete(bulkItem, new GeException("fail count exceeded the max number of failures", ex));
+            }
+        }
+    }
+
+    /**
+     * Records a failed try of the item, stamping the time of the try so that the backoff starts from now.
+     *
+     * @return false if the item failed too many times and must not be retried
+     */
+    static boolean failedTry(BulkItem<?> bulkItem, int maxFailCount) {
+        bulkItem.incrementFailCount();
+        bulkItem.updateLastTriedTime();
+        return bulkItem.getFailCount() < maxFailCount;
+    }
+
+    private boolean hasRejectedItems(BulkResponse bulkResponse) {
+        if (!bulkResponse.hasFailures()) {
+            return false;
+        }
+        for (BulkItemResponse bulkItemResponse : bulkResponse.getItems()) {
+            if (bulkItemResponse.isFailed() && bulkItemResponse.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRejection(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof EsRejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void processIncomingItemsIntoBatches() {
         while (true) {
             try {
@@ -338,16 +459,15 @@ public class BulkUpdateService {
                 }
 
                 Item item = incomingItems.poll(100, TimeUnit.MILLISECONDS);
-                if (batch.shouldFlushByTime()) {
-                    flushBatch();
-                }
+                flushBatchesByTime();
                 if (item == null) {
                     continue;
                 }
                 try {
                     if (filterByRetryTime(item)) {
+                        BulkItemBatch batch = getLane(item);
                         while (!batch.add(item)) {
-                            flushBatch();
+                            flushBatch(batch);
                         }
                         item.getAddedToBatchFuture().complete(null);
                     }
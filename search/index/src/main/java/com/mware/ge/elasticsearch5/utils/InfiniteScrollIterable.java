@@ -49,6 +49,9 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.SearchHit;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<T>, IterableWithScores<T> {
@@ -78,6 +81,18 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
 
     protected abstract IdStrategy getIdStrategy();
 
+    /**
+     * If true, the next page is requested and converted on the prefetch executor while the current page is consumed.
+     */
+    protected boolean isPrefetchEnabled() {
+        return false;
+    }
+
+    /**
+     * Executor used to fetch the next page when {@link #isPrefetchEnabled()} is true.
+     */
+    protected abstract Executor getPrefetchExecutor();
+
     @Override
     public void close() {
         scrollIds.forEach(this::closeScroll);
@@ -189,6 +204,8 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
         private T next;
         private T current;
         private long currentResultNumber = 0;
+        private boolean pagePrefetched;
+        private CompletableFuture<QueryResultsIterable<T>> nextPage;
 
         public InfiniteIterator(String scrollId, Iterator<T> it) {
             this.scrollId = scrollId;
@@ -222,6 +239,9 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
 
             boolean isUnderLimit = limit == null || currentResultNumber < limit;
             if (isUnderLimit && it.hasNext()) {
+                if (!pagePrefetched) {
+                    prefetchNextPage();
+                }
                 this.next = it.next();
                 currentResultNumber++;
             } else {
@@ -229,8 +249,9 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
                 it = null;
 
                 if (isUnderLimit && getTotalHits() > currentResultNumber) {
-                    QueryResultsIterable<T> iterable = searchResponseToIterable(getNextSearchResponse(scrollId));
+                    QueryResultsIterable<T> iterable = takeNextPage();
                     it = iterable.iterator();
+                    pagePrefetched = false;
                     if (!it.hasNext()) {
                         it = null;
                     } else {
@@ -241,6 +262,33 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
             }
         }
 
+        private void prefetchNextPage() {
+            pagePrefetched = true;
+            if (!isPrefetchEnabled() || getTotalHits() <= currentResultNumber) {
+                return;
+            }
+            nextPage = CompletableFuture.supplyAsync(
+                    () -> searchResponseToIterable(getNextSearchResponse(scrollId)),
+                    getPrefetchExecutor()
+            );
+        }
+
+        private QueryResultsIterable<T> takeNextPage() {
+            if (nextPage == null) {
+                return searchResponseToIterable(getNextSearchResponse(scrollId));
+            }
+            try {
+                return nextPage.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw ex;
+            } finally {
+                nextPage = null;
+            }
+        }
+
         @Override
         public void remove() {
             throw new UnsupportedOperationException();
@@ -248,6 +296,15 @@ public abstract class InfiniteScrollIterable<T> implements QueryResultsIterable<
 
         @Override
         public void close() {
+            if (nextPage != null) {
+                // wait for the scroll request in flight before clearing the scroll
+                try {
+                    nextPage.join();
+                } catch (Exception ex) {
+                    LOGGER.debug("prefetch of next page failed on close", ex);
+                }
+                nextPage = null;
+            }
             CloseableUtils.closeQuietly(it);
             closeScroll(this.scrollId);
             scrollIds.remove(this.scrollId);
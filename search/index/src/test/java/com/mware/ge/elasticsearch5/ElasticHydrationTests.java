@@ -0,0 +1,160 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.elasticsearch5;
+
+import com.mware.core.model.schema.SchemaConstants;
+import com.mware.ge.*;
+import com.mware.ge.inmemory.InMemoryGraph;
+import com.mware.ge.inmemory.InMemoryGraphConfiguration;
+import com.mware.ge.query.SortDirection;
+import com.mware.ge.util.IterableUtils;
+import com.mware.ge.values.storable.TextValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.mware.ge.GraphConfiguration.SEARCH_INDEX_PROP_PREFIX;
+import static com.mware.ge.values.storable.Values.stringValue;
+import static org.junit.Assert.*;
+
+public class ElasticHydrationTests {
+    @ClassRule
+    public static ElasticsearchResource elasticsearchResource = new ElasticsearchResource(ElasticHydrationTests.class.getName());
+
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final FetchHints TITLE = FetchHints.builder().setPropertyNamesToInclude("title").build();
+
+    private Graph graph;
+    private Authorizations authorizations;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        elasticsearchResource.dropIndices();
+        Map config = elasticsearchResource.createConfig();
+        config.put(SEARCH_INDEX_PROP_PREFIX + "." + ElasticsearchSearchIndexConfiguration.HYDRATION_PROPERTIES, "title");
+        graph = InMemoryGraph.create(new InMemoryGraphConfiguration(config));
+        authorizations = graph.createAuthorizations("a");
+    }
+
+    @After
+    public void after() throws Exception {
+        if (graph != null) {
+            graph.shutdown();
+            graph = null;
+        }
+    }
+
+    @Test
+    public void testQueryHydratesElementsFromHits() {
+        addVertex("title1");
+
+        List<Vertex> vertices = IterableUtils.toList(graph.query(authorizations).vertices(TITLE));
+        assertEquals(1, vertices.size());
+        assertTrue(vertices.get(0) instanceof ElasticsearchVertex);
+        assertEquals(stringValue("title1"), vertices.get(0).getPropertyValue("title"));
+    }
+
+    @Test
+    public void testPartialUpdateReEncodesHydrationData() {
+        addVertex("title1");
+
+        graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, authorizations).prepareMutation()
+                .setProperty("title", stringValue("title2"), VISIBILITY_A)
+                .save(authorizations);
+        graph.flush();
+
+        List<Vertex> vertices = IterableUtils.toList(graph.query(authorizations).vertices(TITLE));
+        assertEquals(1, vertices.size());
+        assertTrue(vertices.get(0) instanceof ElasticsearchVertex);
+        assertEquals(stringValue("title2"), vertices.get(0).getPropertyValue("title"));
+    }
+
+    @Test
+    public void testQueryReadsFromGraphWhenHydrationDataWasDropped() {
+        addVertex("title1");
+
+        // the element was read without its hidden data, so the update can not encode the payload again
+        graph.getVertex("v1", FetchHints.ALL, authorizations).prepareMutation()
+                .setProperty("title", stringValue("title2"), VISIBILITY_A)
+                .save(authorizations);
+        graph.flush();
+
+        List<Vertex> vertices = IterableUtils.toList(graph.query(authorizations).vertices(TITLE));
+        assertEquals(1, vertices.size());
+        assertFalse(vertices.get(0) instanceof ElasticsearchVertex);
+        assertEquals(stringValue("title2"), vertices.get(0).getPropertyValue("title"));
+    }
+
+    @Test
+    public void testQueryKeepsHitOrderWhenSomeHitsAreNotHydrated() {
+        graph.defineProperty("title").dataType(TextValue.class).textIndexHint(TextIndexHint.EXACT_MATCH).sortable(true).define();
+        addVertex("v1", "title1");
+        addVertex("v2", "title2");
+        addVertex("v3", "title3");
+
+        // v2 is read from the graph, the others are hydrated from their hits
+        graph.getVertex("v2", FetchHints.ALL, authorizations).prepareMutation()
+                .setProperty("title", stringValue("title2"), VISIBILITY_A)
+                .save(authorizations);
+        graph.flush();
+
+        List<Vertex> vertices = IterableUtils.toList(
+                graph.query(authorizations).sort("title", SortDirection.ASCENDING).vertices(TITLE)
+        );
+        assertEquals(3, vertices.size());
+        assertEquals("v1", vertices.get(0).getId());
+        assertEquals("v2", vertices.get(1).getId());
+        assertFalse(vertices.get(1) instanceof ElasticsearchVertex);
+        assertEquals("v3", vertices.get(2).getId());
+    }
+
+    private void addVertex(String title) {
+        addVertex("v1", title);
+    }
+
+    private void addVertex(String vertexId, String title) {
+        graph.prepareVertex(vertexId, VISIBILITY_A, SchemaConstants.CONCEPT_TYPE_THING)
+                .setProperty("title", stringValue(title), VISIBILITY_A)
+                .save(authorizations);
+        graph.flush();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.elasticsearch5;
+
+import com.google.common.collect.Sets;
+import com.mware.core.model.schema.SchemaConstants;
+import com.mware.ge.*;
+import com.mware.ge.inmemory.InMemoryGraph;
+import com.mware.ge.util.IterableUtils;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.mware.ge.values.storable.Values.stringValue;
+import static org.junit.Assert.*;
+
+public class ElasticsearchHitHydratorTest {
+    private static final Visibility VISIBILITY_A = new Visibility("a");
+    private static final Visibility VISIBILITY_B = new Visibility("b");
+    private static final FetchHints TITLE_AND_NAME = FetchHints.builder().setPropertyNamesToInclude("title", "name").build();
+
+    private ElasticsearchHitHydrator hitHydrator;
+    private InMemoryGraph graph;
+    private Authorizations authorizationsA;
+    private Authorizations authorizationsAB;
+
+    @Before
+    public void before() {
+        graph = InMemoryGraph.create();
+        hitHydrator = new ElasticsearchHitHydrator(Sets.newHashSet("title", "name"), graph.getConfiguration().createSerializer());
+        authorizationsA = graph.createAuthorizations("a");
+        authorizationsAB = graph.createAuthorizations("a", "b");
+    }
+
+    @After
+    public void after() {
+        graph.shutdown();
+    }
+
+    @Test
+    public void testCanHydrateConfiguredProperties() {
+        assertTrue(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title").build()));
+        assertTrue(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title", "name").build()));
+        assertTrue(hitHydrator.isHydratedProperty("name"));
+        assertFalse(hitHydrator.isHydratedProperty("description"));
+    }
+
+    @Test
+    public void testCanNotHydrateMoreThanConfigured() {
+        assertFalse(hitHydrator.canHydrate(FetchHints.NONE));
+        assertFalse(hitHydrator.canHydrate(FetchHints.ALL));
+        assertFalse(hitHydrator.canHydrate(FetchHints.PROPERTIES));
+        assertFalse(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title", "description").build()));
+        assertFalse(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title").setIncludeHidden(true).build()));
+        assertFalse(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title").setIncludeAllEdgeRefs(true).build()));
+        assertFalse(hitHydrator.canHydrate(FetchHints.builder().setPropertyNamesToInclude("title").setIncludeAllPropertyMetadata(true).build()));
+    }
+
+    @Test
+    public void testHydrateVertex() {
+        Vertex v1 = addVertex();
+
+        ElasticsearchElement hydrated = hydrate(vertexHit(v1, hitHydrator.encode(v1)), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB);
+        assertTrue(hydrated instanceof ElasticsearchVertex);
+        assertEquals("v1", hydrated.getId());
+        assertEquals(SchemaConstants.CONCEPT_TYPE_THING, ((ElasticsearchVertex) hydrated).getConceptType());
+        assertEquals(VISIBILITY_A, hydrated.getVisibility());
+        assertEquals(v1.getTimestamp(), hydrated.getTimestamp());
+        assertEquals(stringValue("title1"), hydrated.getPropertyValue("k1", "title"));
+        assertEquals(stringValue("name1"), hydrated.getPropertyValue("k1", "name"));
+        assertEquals(VISIBILITY_B, hydrated.getProperty("k1", "name").getVisibility());
+        assertEquals(v1.getProperty("k1", "title").getTimestamp(), hydrated.getProperty("k1", "title").getTimestamp());
+        assertNull("only the configured properties are encoded", hydrated.getProperty("description"));
+
+        hydrated = hydrate(vertexHit(v1, hitHydrator.encode(v1)), ElasticsearchDocumentType.VERTEX, FetchHints.builder().setPropertyNamesToInclude("title").build(), authorizationsAB);
+        assertEquals(1, IterableUtils.count(hydrated.getProperties()));
+        assertEquals(stringValue("title1"), hydrated.getPropertyValue("title"));
+    }
+
+    @Test
+    public void testHydrateEdge() {
+        Vertex v1 = addVertex();
+        graph.addVertex("v2", VISIBILITY_A, authorizationsA, SchemaConstants.CONCEPT_TYPE_THING);
+        graph.prepareEdge("e1", "v1", "v2", "knows", VISIBILITY_A)
+                .addPropertyValue("k1", "title", stringValue("edge title"), VISIBILITY_A)
+                .save(authorizationsA);
+        graph.flush();
+        Edge e1 = graph.getEdge("e1", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsA);
+
+        Map<String, DocumentField> fields = new HashMap<>();
+        fields.put(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME, field(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME, e1.getId()));
+        fields.put(Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME, field(Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME, e1.getLabel()));
+        fields.put(Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME, field(Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME, v1.getId()));
+        fields.put(Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME, field(Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME, "v2"));
+        fields.put(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME, field(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME, hitHydrator.encode(e1)));
+
+        ElasticsearchElement hydrated = hydrate(new SearchHit(0, "e1", new Text("e"), fields), ElasticsearchDocumentType.EDGE, TITLE_AND_NAME, authorizationsA);
+        assertTrue(hydrated instanceof ElasticsearchEdge);
+        Edge edge = (Edge) hydrated;
+        assertEquals("knows", edge.getLabel());
+        assertEquals("v1", edge.getVertexId(Direction.OUT));
+        assertEquals("v2", edge.getVertexId(Direction.IN));
+        assertEquals(stringValue("edge title"), edge.getPropertyValue("title"));
+    }
+
+    @Test
+    public void testHydrateFiltersUnreadableVisibilities() {
+        Vertex v1 = addVertex();
+
+        ElasticsearchElement hydrated = hydrate(vertexHit(v1, hitHydrator.encode(v1)), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsA);
+        assertNotNull(hydrated);
+        assertEquals(stringValue("title1"), hydrated.getPropertyValue("title"));
+        assertNull("the name property has visibility b", hydrated.getProperty("name"));
+
+        graph.addVertex("v2", VISIBILITY_B, authorizationsAB, SchemaConstants.CONCEPT_TYPE_THING);
+        graph.flush();
+        Vertex v2 = graph.getVertex("v2", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsAB);
+        assertNull(hydrate(vertexHit(v2, hitHydrator.encode(v2)), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsA));
+        assertNotNull(hydrate(vertexHit(v2, hitHydrator.encode(v2)), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB));
+    }
+
+    @Test
+    public void testHydrateFiltersHiddenProperties() {
+        Vertex v1 = addVertex();
+        v1.markPropertyHidden("k1", "title", VISIBILITY_A, VISIBILITY_B, authorizationsAB);
+        graph.flush();
+        v1 = graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsAB);
+        String encoded = hitHydrator.encode(v1);
+
+        ElasticsearchElement hydrated = hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB);
+        assertNull(hydrated.getProperty("title"));
+        assertEquals(stringValue("name1"), hydrated.getPropertyValue("name"));
+
+        hydrated = hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsA);
+        assertEquals("the property is hidden with a visibility the user can not read", stringValue("title1"), hydrated.getPropertyValue("title"));
+    }
+
+    @Test
+    public void testHydrateFiltersHiddenElements() {
+        Vertex v1 = addVertex();
+        graph.markVertexHidden(v1, VISIBILITY_B, authorizationsAB);
+        graph.flush();
+        v1 = graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsAB);
+        String encoded = hitHydrator.encode(v1);
+
+        assertNull(hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB));
+        assertNotNull(hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsA));
+
+        graph.markVertexVisible(v1, VISIBILITY_B, authorizationsAB);
+        graph.flush();
+        v1 = graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsAB);
+        assertNotNull(hydrate(vertexHit(v1, hitHydrator.encode(v1)), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB));
+    }
+
+    @Test
+    public void testEncodePendingHiddenState() {
+        Vertex v1 = addVertex();
+
+        String encoded = hitHydrator.encode(
+                v1,
+                Collections.singleton(VISIBILITY_B),
+                property -> property.getName().equals("name") ? null : property.getHiddenVisibilities()
+        );
+        assertNull(hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsAB));
+
+        ElasticsearchElement hydrated = hydrate(vertexHit(v1, encoded), ElasticsearchDocumentType.VERTEX, TITLE_AND_NAME, authorizationsA);
+        assertEquals(stringValue("title1"), hydrated.getPropertyValue("title"));
+        assertNull("properties mapped to null are left out", hydrated.getProperty("name"));
+    }
+
+    @Test
+    public void testHitsWithoutHydrationDataAreNotHydrated() {
+        Vertex v1 = addVertex();
+
+        assertTrue(hitHydrator.hasHydrationData(vertexHit(v1, hitHydrator.encode(v1))));
+        assertFalse(hitHydrator.hasHydrationData(vertexHit(v1, null)));
+    }
+
+    private Vertex addVertex() {
+        graph.prepareVertex("v1", VISIBILITY_A, SchemaConstants.CONCEPT_TYPE_THING)
+                .addPropertyValue("k1", "title", stringValue("title1"), VISIBILITY_A)
+                .addPropertyValue("k1", "name", stringValue("name1"), VISIBILITY_B)
+                .addPropertyValue("k1", "description", stringValue("description1"), VISIBILITY_A)
+                .save(authorizationsAB);
+        graph.flush();
+        return graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, authorizationsAB);
+    }
+
+    private ElasticsearchElement hydrate(SearchHit hit, ElasticsearchDocumentType documentType, FetchHints fetchHints, Authorizations authorizations) {
+        return hitHydrator.hydrate(graph, hit, documentType, fetchHints, authorizations);
+    }
+
+    private static SearchHit vertexHit(Vertex vertex, String hydrationData) {
+        Map<String, DocumentField> fields = new HashMap<>();
+        fields.put(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME, field(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME, vertex.getId()));
+        fields.put(Elasticsearch5SearchIndex.CONCEPT_TYPE_FIELD_NAME, field(Elasticsearch5SearchIndex.CONCEPT_TYPE_FIELD_NAME, vertex.getConceptType()));
+        if (hydrationData != null) {
+            fields.put(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME, field(Elasticsearch5SearchIndex.HYDRATION_FIELD_NAME, hydrationData));
+        }
+        return new SearchHit(0, vertex.getId(), new Text("v"), fields);
+    }
+
+    private static DocumentField field(String name, Object value) {
+        return new DocumentField(name, Collections.singletonList(value));
+    }
+}
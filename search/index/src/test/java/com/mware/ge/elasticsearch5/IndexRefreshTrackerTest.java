@@ -47,9 +47,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class IndexRefreshTrackerTest {
     private IndexRefreshTracker indexRefreshTracker;
@@ -116,6 +120,44 @@ public class IndexRefreshTrackerTest {
         assertLastIndexNamesNeedingRefresh(Sets.newHashSet());
     }
 
+    @Test
+    public void testConcurrentRefreshesAreCoalesced() throws InterruptedException {
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        AtomicInteger refreshCount = new AtomicInteger();
+        IndexRefreshTracker tracker = new IndexRefreshTracker(new NullMetricRegistry()) {
+            @Override
+            protected void refresh(Client client, Set<String> indexNamesNeedingRefresh) {
+                refreshCount.incrementAndGet();
+                refreshStarted.countDown();
+                try {
+                    releaseRefresh.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        tracker.pushChange("a");
+
+        Thread first = new Thread(() -> tracker.refresh(null, "a"));
+        first.start();
+        assertTrue(refreshStarted.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch secondDone = new CountDownLatch(1);
+        Thread second = new Thread(() -> {
+            tracker.refresh(null, "a");
+            secondDone.countDown();
+        });
+        second.start();
+        Thread.sleep(100);
+        assertEquals(1, secondDone.getCount());
+
+        releaseRefresh.countDown();
+        assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+        first.join(10_000);
+        assertEquals(1, refreshCount.get());
+    }
+
     private void assertLastIndexNamesNeedingRefresh(Set<String> expected) {
         Set<String> found = lastIndexNamesNeedingRefresh;
         if (found == null) {
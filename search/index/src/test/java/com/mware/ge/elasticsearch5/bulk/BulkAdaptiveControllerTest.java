@@ -0,0 +1,140 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.elasticsearch5.bulk;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+public class BulkAdaptiveControllerTest {
+    private BulkAdaptiveController controller;
+    private long time;
+
+    @Before
+    public void before() {
+        time = 0;
+        controller = createController(true);
+    }
+
+    private BulkAdaptiveController createController(boolean adaptive) {
+        return new BulkAdaptiveController(adaptive, 10, 100, 4, Duration.ofMillis(1000)) {
+            @Override
+            protected long getTime() {
+                return time;
+            }
+        };
+    }
+
+    @Test
+    public void testStartsAtMaximums() {
+        assertEquals(100, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrency());
+    }
+
+    @Test
+    public void testRejectionHalvesBatchSizeAndConcurrency() throws InterruptedException {
+        controller.acquire();
+        controller.release(10, true);
+        assertEquals(50, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrency());
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    public void testSlowRequestHalvesBatchSizeOnly() throws InterruptedException {
+        controller.acquire();
+        controller.release(5000, false);
+        assertEquals(50, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrency());
+    }
+
+    @Test
+    public void testDecreaseAppliedOncePerWindow() throws InterruptedException {
+        controller.acquire();
+        controller.acquire();
+        controller.release(10, true);
+        controller.release(10, true);
+        assertEquals(50, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrency());
+
+        time = 2000;
+        controller.acquire();
+        controller.release(10, true);
+        assertEquals(25, controller.getBatchSize());
+        assertEquals(1, controller.getConcurrency());
+    }
+
+    @Test
+    public void testFastRequestGrowsBatchSizeAdditively() throws InterruptedException {
+        controller.acquire();
+        controller.release(10, true);
+        assertEquals(50, controller.getBatchSize());
+
+        controller.acquire();
+        controller.release(10, false);
+        assertEquals(60, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrency());
+    }
+
+    @Test
+    public void testBatchSizeStaysWithinBounds() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            time += 2000;
+            controller.acquire();
+            controller.release(5000, false);
+        }
+        assertEquals(10, controller.getBatchSize());
+
+        for (int i = 0; i < 20; i++) {
+            controller.acquire();
+            controller.release(10, false);
+        }
+        assertEquals(100, controller.getBatchSize());
+    }
+
+    @Test
+    public void testNotAdaptive() throws InterruptedException {
+        controller = createController(false);
+        controller.acquire();
+        controller.release(10, true);
+        assertEquals(100, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrency());
+    }
+}
@@ -64,6 +64,10 @@ public class EdgesWithEdgeInfo extends Edges {
         return -1;
     }
 
+    public int size() {
+        return pairs.size();
+    }
+
     public void clear() {
         pairs.clear();
     }
@@ -0,0 +1,370 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.rocksdb;
+
+import com.mware.ge.GeException;
+import com.mware.ge.store.kv.KVBulkLoad;
+import com.mware.ge.store.kv.KVWriteBatch;
+import com.mware.ge.util.Bytes;
+import com.mware.ge.util.GeLogger;
+import com.mware.ge.util.GeLoggerFactory;
+import org.apache.commons.io.FileUtils;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Bulk load through external SST files. The writes are sorted in memory and spilled to sorted run files when the
+ * buffer is full. On commit the runs of every table are merged into non overlapping SST files, which are then
+ * ingested by RocksDB without going through the memtable, the WAL or the compaction of the loaded keys.
+ * <p>
+ * A range delete drops the loaded entries of the range that were written before it and is applied to the store
+ * before the ingestion, so the ingested files, which are newer than the store, don't bring back the deleted keys.
+ */
+public class RocksDBBulkLoad implements KVBulkLoad {
+    private static final GeLogger LOGGER = GeLoggerFactory.getLogger(RocksDBBulkLoad.class);
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final RocksDBStore store;
+    private final File workDir;
+    private final long bufferSize;
+    private final long sstFileSize;
+    private final Map<String, SortedMap<byte[], byte[]>> buffers = new HashMap<>();
+    private final Map<String, List<File>> runs = new HashMap<>();
+    private final Map<String, SortedMap<byte[], Long>> counters = new HashMap<>();
+    private final Map<String, List<RangeDelete>> rangeDeletes = new HashMap<>();
+    private long bufferedBytes;
+    private int size;
+    private int fileIndex;
+
+    public RocksDBBulkLoad(RocksDBStore store, RocksDBGraphConfiguration config) {
+        this.store = store;
+        this.bufferSize = config.getBulkLoadBufferSize();
+        this.sstFileSize = config.getBulkLoadSstFileSize();
+        try {
+            Path bulkLoadPath = new File(config.getBulkLoadPath()).toPath();
+            Files.createDirectories(bulkLoadPath);
+            this.workDir = Files.createTempDirectory(bulkLoadPath, "bulkload").toFile();
+        } catch (IOException ex) {
+            throw new GeException("Could not create the bulk load directory", ex);
+        }
+    }
+
+    @Override
+    public synchronized void put(String tableName, byte[] key, byte[] value) {
+        add(tableName, key, value);
+    }
+
+    @Override
+    public synchronized void delete(String tableName, byte[] key) {
+        // a null value marks a delete
+        add(tableName, key, null);
+    }
+
+    @Override
+    public synchronized void deleteRange(String tableName, byte[] keyFrom, byte[] keyTo) {
+        SortedMap<byte[], byte[]> buffer = buffers.get(tableName);
+        if (buffer != null) {
+            SortedMap<byte[], byte[]> deleted = buffer.subMap(keyFrom, keyTo);
+            for (Map.Entry<byte[], byte[]> entry : deleted.entrySet()) {
+                bufferedBytes -= entrySize(entry.getKey(), entry.getValue());
+            }
+            deleted.clear();
+        }
+        SortedMap<byte[], Long> tableCounters = counters.get(tableName);
+        if (tableCounters != null) {
+            tableCounters.subMap(keyFrom, keyTo).clear();
+        }
+
+        // the entries already spilled are dropped when the runs are merged
+        int runCount = runs.getOrDefault(tableName, Collections.emptyList()).size();
+        rangeDeletes.computeIfAbsent(tableName, t -> new ArrayList<>()).add(new RangeDelete(keyFrom, keyTo, runCount));
+        size++;
+    }
+
+    @Override
+    public synchronized void increment(String tableName, byte[] key, long delta) {
+        // counters are few, they are summed up and merged into the store after the ingestion
+        counters.computeIfAbsent(tableName, t -> new TreeMap<>(Bytes::compare)).merge(key, delta, Long::sum);
+        size++;
+    }
+
+    private void add(String tableName, byte[] key, byte[] value) {
+        SortedMap<byte[], byte[]> buffer = buffers.computeIfAbsent(tableName, t -> new TreeMap<>(Bytes::compare));
+        // the previous entry may be a delete, whose null value can't tell a replaced entry from a new one
+        boolean replaced = buffer.containsKey(key);
+        byte[] previous = buffer.put(key, value);
+        bufferedBytes += entrySize(key, value);
+        if (replaced) {
+            bufferedBytes -= entrySize(key, previous);
+        }
+        size++;
+
+        if (bufferedBytes >= bufferSize) {
+            spill();
+        }
+    }
+
+    private static long entrySize(byte[] key, byte[] value) {
+        return key.length + (value == null ? 0 : value.length) + ENTRY_OVERHEAD;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void commit() {
+        spill();
+
+        // the range deletes go to the store first, the ingested files are newer and keep the keys written after them
+        if (!rangeDeletes.isEmpty()) {
+            try (KVWriteBatch batch = store.writeBatch()) {
+                rangeDeletes.forEach((tableName, ranges) ->
+                        ranges.forEach(range -> batch.deleteRange(tableName, range.keyFrom, range.keyTo)));
+                batch.commit();
+            }
+        }
+
+        for (Map.Entry<String, List<File>> tableRuns : runs.entrySet()) {
+            String tableName = tableRuns.getKey();
+            List<String> sstFiles = mergeRuns(tableName, tableRuns.getValue());
+            if (!sstFiles.isEmpty()) {
+                LOGGER.info("ingesting %d files into %s", sstFiles.size(), tableName);
+                store.ingestExternalFiles(tableName, sstFiles);
+            }
+            tableRuns.getValue().forEach(File::delete);
+        }
+        runs.clear();
+        rangeDeletes.clear();
+
+        try (KVWriteBatch batch = store.writeBatch()) {
+            counters.forEach((tableName, tableCounters) ->
+                    tableCounters.forEach((key, delta) -> batch.increment(tableName, key, delta)));
+            batch.commit();
+        }
+        counters.clear();
+        size = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        buffers.clear();
+        runs.clear();
+        counters.clear();
+        rangeDeletes.clear();
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    private void spill() {
+        for (Map.Entry<String, SortedMap<byte[], byte[]>> buffer : buffers.entrySet()) {
+            if (buffer.getValue().isEmpty()) {
+                continue;
+            }
+
+            File runFile = new File(workDir, "run-" + (fileIndex++));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)))) {
+                for (Map.Entry<byte[], byte[]> entry : buffer.getValue().entrySet()) {
+                    writeEntry(out, entry.getKey(), entry.getValue());
+                }
+            } catch (IOException ex) {
+                throw new GeException("Could not write bulk load run " + runFile, ex);
+            }
+            runs.computeIfAbsent(buffer.getKey(), t -> new ArrayList<>()).add(runFile);
+        }
+        buffers.clear();
+        bufferedBytes = 0;
+    }
+
+    /**
+     * Merges the sorted runs of a table into SST files. For a key found in several runs the most recent run wins,
+     * unless it was written before a range delete covering it.
+     */
+    private List<String> mergeRuns(String tableName, List<File> tableRuns) {
+        List<String> sstFiles = new ArrayList<>();
+        List<RangeDelete> tableRangeDeletes = rangeDeletes.getOrDefault(tableName, Collections.emptyList());
+        PriorityQueue<RunReader> readers = new PriorityQueue<>((r1, r2) -> {
+            int cmp = Bytes.compare(r1.key, r2.key);
+            return cmp != 0 ? cmp : Integer.compare(r2.index, r1.index);
+        });
+
+        SstFileWriter writer = null;
+        try (Options options = store.sstFileOptions(tableName); EnvOptions envOptions = new EnvOptions()) {
+            for (int i = 0; i < tableRuns.size(); i++) {
+                RunReader reader = new RunReader(tableRuns.get(i), i);
+                if (reader.next()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            while (!readers.isEmpty()) {
+                RunReader reader = readers.poll();
+                byte[] key = reader.key;
+                if (isRangeDeleted(tableRangeDeletes, reader)) {
+                    // the older runs holding the key were spilled before the delete as well
+                    advance(readers, reader);
+                    continue;
+                }
+                if (writer == null) {
+                    File sstFile = new File(workDir, "sst-" + (fileIndex++) + ".sst");
+                    writer = new SstFileWriter(envOptions, options);
+                    writer.open(sstFile.getAbsolutePath());
+                    sstFiles.add(sstFile.getAbsolutePath());
+                }
+                if (reader.value == null) {
+                    writer.delete(key);
+                } else {
+                    writer.put(key, reader.value);
+                }
+
+                advance(readers, reader);
+                // skip the older versions of the same key
+                while (!readers.isEmpty() && Bytes.equals(readers.peek().key, key)) {
+                    advance(readers, readers.poll());
+                }
+
+                if (writer.fileSize() >= sstFileSize) {
+                    writer.finish();
+                    writer.close();
+                    writer = null;
+                }
+            }
+
+            if (writer != null) {
+                writer.finish();
+            }
+        } catch (RocksDBException | IOException ex) {
+            throw new GeException("Could not merge the bulk load runs of " + tableName, ex);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+            readers.forEach(RunReader::close);
+        }
+        return sstFiles;
+    }
+
+    private static boolean isRangeDeleted(List<RangeDelete> ranges, RunReader reader) {
+        for (RangeDelete range : ranges) {
+            if (reader.index < range.runCount
+                    && Bytes.compare(reader.key, range.keyFrom) >= 0
+                    && Bytes.compare(reader.key, range.keyTo) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void advance(PriorityQueue<RunReader> readers, RunReader reader) throws IOException {
+        if (reader.next()) {
+            readers.add(reader);
+        } else {
+            reader.close();
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, byte[] key, byte[] value) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value == null ? -1 : value.length);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    private static class RangeDelete {
+        private final byte[] keyFrom;
+        private final byte[] keyTo;
+        // the runs spilled before the delete
+        private final int runCount;
+
+        private RangeDelete(byte[] keyFrom, byte[] keyTo, int runCount) {
+            this.keyFrom = keyFrom;
+            this.keyTo = keyTo;
+            this.runCount = runCount;
+        }
+    }
+
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final int index;
+        private byte[] key;
+        private byte[] value;
+
+        private RunReader(File file, int index) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            this.index = index;
+        }
+
+        private boolean next() throws IOException {
+            int keyLength;
+            try {
+                keyLength = in.readInt();
+            } catch (EOFException ex) {
+                return false;
+            }
+            key = new byte[keyLength];
+            in.readFully(key);
+            int valueLength = in.readInt();
+            if (valueLength < 0) {
+                value = null;
+            } else {
+                value = new byte[valueLength];
+                in.readFully(value);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                LOGGER.warn("Could not close bulk load run", ex);
+            }
+        }
+    }
+}
@@ -36,10 +36,6 @@
  */
 package com.mware.ge.rocksdb;
 
-import com.mware.ge.Authorizations;
-import com.mware.ge.Element;
-import com.mware.ge.HistoricalPropertyValue;
-import com.mware.ge.Visibility;
 import com.mware.ge.store.kv.KVMetadataStore;
 import com.mware.ge.store.kv.KVStore;
 import com.mware.ge.store.kv.KVStoreGraph;
@@ -69,13 +65,23 @@ public class RocksDBGraph extends KVStoreGraph {
     }
 
     @Override
-    protected long getRowCountFromTable(String tableName, String signalColumn, Authorizations authorizations) {
-        throw new UnsupportedOperationException();
+    protected boolean isVersioned() {
+        return getConfiguration().isVersioned();
     }
 
     @Override
-    public Iterable<HistoricalPropertyValue> getHistoricalPropertyValues(Element element, String key, String name, Visibility visibility, Long startTime, Long endTime, Authorizations authorizations) {
-        throw new UnsupportedOperationException("Historical properties not supported with RocksDB");
+    protected int getMaxVersions() {
+        return getConfiguration().getMaxVersions();
+    }
+
+    @Override
+    protected long getVersionsTtl() {
+        return getConfiguration().getVersionsTtl();
+    }
+
+    @Override
+    public RocksDBGraphConfiguration getConfiguration() {
+        return (RocksDBGraphConfiguration) super.getConfiguration();
     }
 
     @Override
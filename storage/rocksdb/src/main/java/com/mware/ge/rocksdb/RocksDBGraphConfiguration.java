@@ -37,6 +37,7 @@
 package com.mware.ge.rocksdb;
 
 import com.mware.ge.store.StorableGraphConfiguration;
+import com.mware.ge.util.Bytes;
 import com.mware.ge.util.Preconditions;
 
 import java.util.Map;
@@ -47,10 +48,44 @@ public class RocksDBGraphConfiguration extends StorableGraphConfiguration {
     public static final String OPTIMIZE_MODE = "optimizeMode";
     public static final String LOG_LEVEL = "logLevel";
     public static final String BULK_LOAD = "bulkLoad";
+    public static final String BULK_LOAD_PATH = "bulkLoadPath";
+    public static final String BULK_LOAD_BUFFER_SIZE = "bulkLoadBufferSize";
+    public static final String BULK_LOAD_SST_FILE_SIZE = "bulkLoadSstFileSize";
+    public static final String BLOCK_CACHE_SIZE = "blockCacheSize";
+    public static final String BLOCK_CACHE_SHARD_BITS = "blockCacheShardBits";
+    public static final String BLOOM_FILTER_BITS_PER_KEY = "bloomFilterBitsPerKey";
+    public static final String TABLE_PREFIX = "table.";
+    public static final String PREFIX_EXTRACTOR = "prefixExtractor";
+    public static final String PREFIX_EXTRACTOR_LENGTH = "prefixExtractorLength";
+    public static final String CACHE_INDEX_AND_FILTER_BLOCKS = "cacheIndexAndFilterBlocks";
+    public static final String PARTITIONED_INDEX_FILTERS = "partitionedIndexFilters";
+    public static final String METADATA_BLOCK_SIZE = "metadataBlockSize";
+    public static final String STATISTICS_ENABLED = "statisticsEnabled";
+    public static final String VERSIONED = "versioned";
+    public static final String MAX_VERSIONS = "maxVersions";
+    public static final String VERSIONS_TTL = "versionsTtl";
+
+    public static final String PREFIX_EXTRACTOR_NONE = "none";
+    public static final String PREFIX_EXTRACTOR_FIXED = "fixed";
+    public static final String PREFIX_EXTRACTOR_CAPPED = "capped";
 
     public static final boolean DEFAULT_OPTIMIZE_MODE = true;
     public static final boolean DEFAULT_BULK_LOAD = false;
+    public static final long DEFAULT_BULK_LOAD_BUFFER_SIZE = 256L * Bytes.MB;
+    public static final long DEFAULT_BULK_LOAD_SST_FILE_SIZE = 256L * Bytes.MB;
     public static final String DEFAULT_LOG_LEVEL = "INFO";
+    public static final long DEFAULT_BLOCK_CACHE_SIZE = 256L * Bytes.MB;
+    public static final int DEFAULT_BLOCK_CACHE_SHARD_BITS = -1;
+    public static final int DEFAULT_BLOOM_FILTER_BITS_PER_KEY = 10;
+    public static final String DEFAULT_PREFIX_EXTRACTOR = PREFIX_EXTRACTOR_NONE;
+    public static final int DEFAULT_PREFIX_EXTRACTOR_LENGTH = 8;
+    public static final boolean DEFAULT_CACHE_INDEX_AND_FILTER_BLOCKS = true;
+    public static final boolean DEFAULT_PARTITIONED_INDEX_FILTERS = false;
+    public static final long DEFAULT_METADATA_BLOCK_SIZE = 4L * Bytes.KB;
+    public static final boolean DEFAULT_STATISTICS_ENABLED = false;
+    public static final boolean DEFAULT_VERSIONED = false;
+    public static final int DEFAULT_MAX_VERSIONS = 0;
+    public static final long DEFAULT_VERSIONS_TTL = 0L;
 
     public RocksDBGraphConfiguration(Map<String, Object> config) {
         super(config);
@@ -76,7 +111,111 @@ public class RocksDBGraphConfiguration extends StorableGraphConfiguration {
         return getBoolean(BULK_LOAD, DEFAULT_BULK_LOAD);
     }
 
+    /**
+     * Directory for the temporary files of a bulk load, it should be on the same file system as the data path so
+     * that the SST files can be moved instead of copied.
+     */
+    public String getBulkLoadPath() {
+        return getString(BULK_LOAD_PATH, System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Memory used to sort bulk loaded data before spilling it to disk.
+     */
+    public long getBulkLoadBufferSize() {
+        return getConfigLong(BULK_LOAD_BUFFER_SIZE, DEFAULT_BULK_LOAD_BUFFER_SIZE);
+    }
+
+    public long getBulkLoadSstFileSize() {
+        return getConfigLong(BULK_LOAD_SST_FILE_SIZE, DEFAULT_BULK_LOAD_SST_FILE_SIZE);
+    }
+
     public String getLogLevel() {
         return getString(LOG_LEVEL, DEFAULT_LOG_LEVEL);
     }
+
+    /**
+     * Capacity of the block cache shared by all the column families.
+     */
+    public long getBlockCacheSize() {
+        return getConfigLong(BLOCK_CACHE_SIZE, DEFAULT_BLOCK_CACHE_SIZE);
+    }
+
+    public int getBlockCacheShardBits() {
+        return getInt(BLOCK_CACHE_SHARD_BITS, DEFAULT_BLOCK_CACHE_SHARD_BITS);
+    }
+
+    /**
+     * Bits per key of the bloom filter for the given table, which can be set with
+     * <code>table.&lt;tableName&gt;.bloomFilterBitsPerKey</code> and falls back to <code>bloomFilterBitsPerKey</code>.
+     * A value of 0 disables the bloom filter.
+     */
+    public int getBloomFilterBitsPerKey(String tableName) {
+        int bitsPerKey = getInt(BLOOM_FILTER_BITS_PER_KEY, DEFAULT_BLOOM_FILTER_BITS_PER_KEY);
+        if (tableName == null) {
+            return bitsPerKey;
+        }
+        return getInt(TABLE_PREFIX + tableName + "." + BLOOM_FILTER_BITS_PER_KEY, bitsPerKey);
+    }
+
+    /**
+     * One of <code>none</code>, <code>fixed</code> or <code>capped</code>. The extractor is applied on the encoded
+     * row key, so the length should not exceed the length of the encoded row ids (id + separator).
+     */
+    public String getPrefixExtractor() {
+        String prefixExtractor = getString(PREFIX_EXTRACTOR, DEFAULT_PREFIX_EXTRACTOR).trim().toLowerCase();
+        Preconditions.checkArgument(
+                PREFIX_EXTRACTOR_NONE.equals(prefixExtractor)
+                        || PREFIX_EXTRACTOR_FIXED.equals(prefixExtractor)
+                        || PREFIX_EXTRACTOR_CAPPED.equals(prefixExtractor),
+                "Invalid " + PREFIX_EXTRACTOR + ": " + prefixExtractor
+        );
+        return prefixExtractor;
+    }
+
+    public int getPrefixExtractorLength() {
+        return getInt(PREFIX_EXTRACTOR_LENGTH, DEFAULT_PREFIX_EXTRACTOR_LENGTH);
+    }
+
+    public boolean isPrefixExtractorEnabled() {
+        return !PREFIX_EXTRACTOR_NONE.equals(getPrefixExtractor());
+    }
+
+    public boolean isCacheIndexAndFilterBlocks() {
+        return getBoolean(CACHE_INDEX_AND_FILTER_BLOCKS, DEFAULT_CACHE_INDEX_AND_FILTER_BLOCKS);
+    }
+
+    public boolean isPartitionedIndexFilters() {
+        return getBoolean(PARTITIONED_INDEX_FILTERS, DEFAULT_PARTITIONED_INDEX_FILTERS);
+    }
+
+    public long getMetadataBlockSize() {
+        return getConfigLong(METADATA_BLOCK_SIZE, DEFAULT_METADATA_BLOCK_SIZE);
+    }
+
+    public boolean isStatisticsEnabled() {
+        return getBoolean(STATISTICS_ENABLED, DEFAULT_STATISTICS_ENABLED);
+    }
+
+    /**
+     * Keeps the past versions of the element columns, which makes the historical property values and the reads with
+     * an end time available. It can only be chosen when the graph is created.
+     */
+    public boolean isVersioned() {
+        return getBoolean(VERSIONED, DEFAULT_VERSIONED);
+    }
+
+    /**
+     * Number of versions kept per column of a versioned graph, 0 keeps them all.
+     */
+    public int getMaxVersions() {
+        return getInt(MAX_VERSIONS, DEFAULT_MAX_VERSIONS);
+    }
+
+    /**
+     * Age in milliseconds past which the old versions of a column are dropped, 0 keeps them forever.
+     */
+    public long getVersionsTtl() {
+        return getConfigLong(VERSIONS_TTL, DEFAULT_VERSIONS_TTL);
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.rocksdb;
+
+import com.mware.ge.collection.Pair;
+import com.mware.ge.store.kv.ScanIterator;
+import com.mware.ge.util.Bytes;
+import com.mware.ge.util.Preconditions;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksIterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Iterates over all the columns of a sorted set of rows, using a single RocksIterator which is moved
+ * forward from one row to the next instead of opening a new iterator for every row.
+ */
+public class RocksDBRowsScanIterator implements ScanIterator {
+    private final RocksIterator iter;
+    private final ReadOptions readOptions;
+    private final Iterator<byte[]> rows;
+    private final boolean seekEveryRow;
+
+    private byte[] currentRow;
+    private boolean matched;
+
+    /**
+     * @param iter an iterator created with total order seek
+     * @param readOptions the read options of the iterator, closed with it
+     * @param rows the encoded row ids (see {@link com.mware.ge.store.kv.KVKeyUtils#encodeId(byte[])}), sorted
+     *             with an unsigned lexicographical comparator
+     * @param seekEveryRow true if the iterator was created in prefix mode, where the order of the keys
+     *                     outside of the current prefix is undefined
+     */
+    public RocksDBRowsScanIterator(RocksIterator iter, ReadOptions readOptions, SortedSet<byte[]> rows, boolean seekEveryRow) {
+        Preconditions.checkNotNull(iter, "iter");
+        Preconditions.checkNotNull(readOptions, "readOptions");
+        Preconditions.checkNotNull(rows, "rows");
+        this.iter = iter;
+        this.readOptions = readOptions;
+        this.rows = rows.iterator();
+        this.seekEveryRow = seekEveryRow;
+        this.matched = false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.matched) {
+            return true;
+        }
+
+        if (!this.iter.isOwningHandle()) {
+            return false;
+        }
+
+        while (true) {
+            if (this.currentRow != null && this.iter.isValid() && Bytes.prefixWith(this.iter.key(), this.currentRow)) {
+                this.matched = true;
+                return true;
+            }
+
+            if (!this.rows.hasNext()) {
+                this.currentRow = null;
+                this.close();
+                return false;
+            }
+
+            this.currentRow = this.rows.next();
+            // rows are sorted, so only seek when the iterator is still before the next row
+            if (this.seekEveryRow || !this.iter.isValid() || Bytes.compare(this.iter.key(), this.currentRow) < 0) {
+                this.iter.seek(this.currentRow);
+            }
+        }
+    }
+
+    @Override
+    public Pair<byte[], byte[]> next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Pair<byte[], byte[]> col = Pair.of(this.iter.key(), this.iter.value());
+        this.iter.next();
+        this.matched = false;
+
+        return col;
+    }
+
+    @Override
+    public void close() {
+        if (this.iter.isOwningHandle()) {
+            this.iter.close();
+        }
+        if (this.readOptions.isOwningHandle()) {
+            this.readOptions.close();
+        }
+    }
+}
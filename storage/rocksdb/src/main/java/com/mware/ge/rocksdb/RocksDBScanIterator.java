@@ -41,16 +41,19 @@ import com.mware.ge.collection.Pair;
 import com.mware.ge.store.kv.ScanIterator;
 import com.mware.ge.util.Bytes;
 import com.mware.ge.util.Preconditions;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksIterator;
 
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 /**
- * A wrapper for RocksIterator that convert RocksDB results to std Iterator
+ * A wrapper for RocksIterator that convert RocksDB results to std Iterator. It owns the iterator and the read options
+ * it was created with, both are closed with it.
  */
 public class RocksDBScanIterator implements ScanIterator {
     private final RocksIterator iter;
+    private final ReadOptions readOptions;
     private final byte[] keyBegin;
     private final byte[] keyEnd;
     private final int scanType;
@@ -58,9 +61,11 @@ public class RocksDBScanIterator implements ScanIterator {
     private byte[] position;
     private boolean matched;
 
-    public RocksDBScanIterator(RocksIterator iter, byte[] keyBegin, byte[] keyEnd, int scanType) {
+    public RocksDBScanIterator(RocksIterator iter, ReadOptions readOptions, byte[] keyBegin, byte[] keyEnd, int scanType) {
         Preconditions.checkNotNull(iter, "iter");
+        Preconditions.checkNotNull(readOptions, "readOptions");
         this.iter = iter;
+        this.readOptions = readOptions;
         this.keyBegin = keyBegin;
         this.keyEnd = keyEnd;
         this.scanType = scanType;
@@ -68,11 +73,16 @@ public class RocksDBScanIterator implements ScanIterator {
         this.position = keyBegin;
         this.matched = false;
 
-        this.checkArguments();
+        try {
+            this.checkArguments();
 
-        //this.dump();
+            //this.dump();
 
-        this.seek();
+            this.seek();
+        } catch (RuntimeException ex) {
+            this.close();
+            throw ex;
+        }
     }
 
     @Override
@@ -139,6 +149,9 @@ public class RocksDBScanIterator implements ScanIterator {
         if (this.iter.isOwningHandle()) {
             this.iter.close();
         }
+        if (this.readOptions.isOwningHandle()) {
+            this.readOptions.close();
+        }
     }
 
     private boolean filter(byte[] key) {
@@ -40,26 +40,57 @@ import com.google.common.collect.ImmutableList;
 import com.mware.ge.GeException;
 import com.mware.ge.IdRange;
 import com.mware.ge.collection.Pair;
+import com.mware.ge.metric.GeMetricRegistry;
+import com.mware.ge.store.kv.KVBulkLoad;
 import com.mware.ge.store.kv.KVKeyUtils;
+import com.mware.ge.store.kv.KVSnapshot;
 import com.mware.ge.store.kv.KVStore;
+import com.mware.ge.store.kv.KVWriteBatch;
 import com.mware.ge.store.kv.ScanIterator;
 import com.mware.ge.util.Bytes;
 import com.mware.ge.util.Preconditions;
 import org.rocksdb.*;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class RocksDBStore implements KVStore {
+    private static final TickerType[] STATISTICS_TICKERS = new TickerType[]{
+            TickerType.BLOCK_CACHE_HIT,
+            TickerType.BLOCK_CACHE_MISS,
+            TickerType.BLOCK_CACHE_INDEX_HIT,
+            TickerType.BLOCK_CACHE_INDEX_MISS,
+            TickerType.BLOCK_CACHE_FILTER_HIT,
+            TickerType.BLOCK_CACHE_FILTER_MISS,
+            TickerType.BLOCK_CACHE_DATA_HIT,
+            TickerType.BLOCK_CACHE_DATA_MISS,
+            TickerType.BLOOM_FILTER_USEFUL,
+            TickerType.BLOOM_FILTER_PREFIX_CHECKED,
+            TickerType.BLOOM_FILTER_PREFIX_USEFUL,
+            TickerType.MEMTABLE_HIT,
+            TickerType.MEMTABLE_MISS,
+            TickerType.NUMBER_KEYS_WRITTEN,
+            TickerType.NUMBER_KEYS_READ,
+            TickerType.BYTES_WRITTEN,
+            TickerType.BYTES_READ,
+            TickerType.NUMBER_DB_SEEK,
+            TickerType.STALL_MICROS
+    };
+
     private final RocksDBGraph graph;
     private final RocksDBGraphConfiguration config;
     private RocksDB rocksdb;
     private Map<String, CFHandle> cfs;
     private AtomicInteger refCount;
+    private Cache blockCache;
+    private Statistics statistics;
     
     public RocksDBStore(RocksDBGraph graph) {
         this.graph = graph;
@@ -68,19 +99,56 @@ public class RocksDBStore implements KVStore {
     
     @Override
     public void open() {
+        // https://github.com/facebook/rocksdb/wiki/Block-Cache
+        this.blockCache = new LRUCache(config.getBlockCacheSize(), config.getBlockCacheShardBits());
+        if (config.isStatisticsEnabled()) {
+            this.statistics = new Statistics();
+        }
+
         try {
             openWithCFs();
         } catch (RocksDBException e) {
             if (e.getMessage().contains("Column family not found")) {
                 try {
                     openClean();
-                    return;
                 } catch (RocksDBException e2) {
                     throw new GeException(e2);
                 }
+            } else {
+                throw new GeException(e);
             }
+        }
+
+        registerMetrics();
+    }
+
+    private void registerMetrics() {
+        GeMetricRegistry metricRegistry = graph.getMetricsRegistry();
+        metricRegistry.getGauge(RocksDBStore.class, "blockCache", "usage", () -> getLongProperty("rocksdb.block-cache-usage"));
+        metricRegistry.getGauge(RocksDBStore.class, "blockCache", "pinnedUsage", () -> getLongProperty("rocksdb.block-cache-pinned-usage"));
+
+        if (statistics == null) {
+            return;
+        }
 
-            throw new GeException(e);
+        for (TickerType tickerType : STATISTICS_TICKERS) {
+            metricRegistry.getGauge(RocksDBStore.class, "statistics", tickerType.name(), () -> statistics.getTickerCount(tickerType));
+        }
+    }
+
+    private long getLongProperty(String property) {
+        try {
+            return rocksdb().getLongProperty(property);
+        } catch (RocksDBException ex) {
+            throw new GeException(ex);
+        }
+    }
+
+    private long getLongProperty(CFHandle cf, String property) {
+        try {
+            return rocksdb().getLongProperty(cf.get(), property);
+        } catch (RocksDBException ex) {
+            throw new GeException(ex);
         }
     }
 
@@ -90,7 +158,9 @@ public class RocksDBStore implements KVStore {
                 graph.getVerticesTableName(),
                 graph.getEdgesTableName(),
                 graph.getExtendedDataTableName(),
-                graph.getMetadataTableName()
+                graph.getMetadataTableName(),
+                graph.getCountersTableName(),
+                graph.getPropertyIndexTableName()
         ));
         List<String> cfs = ImmutableList.copyOf(mergedCFs);
         // Init CFs options
@@ -98,13 +168,13 @@ public class RocksDBStore implements KVStore {
         for (String cf : cfs) {
             ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(cf.getBytes(StandardCharsets.UTF_8));
             ColumnFamilyOptions options = cfd.getOptions();
-            initOptions( null, null, options, options);
+            initOptions(cf, null, null, options, options);
             cfds.add(cfd);
         }
 
         // Init DB options
         DBOptions options = new DBOptions();
-        initOptions(options, options, null, null);
+        initOptions(null, options, options, null, null);
         options.setWalDir(config.getWalPath());
 
         // Open RocksDB with CFs
@@ -125,7 +195,7 @@ public class RocksDBStore implements KVStore {
     public void openClean() throws RocksDBException {
         // Init options
         Options options = new Options();
-        initOptions(options, options, options, options);
+        initOptions(null, options, options, options, options);
         options.setWalDir(config.getWalPath());
 
         /*
@@ -141,7 +211,9 @@ public class RocksDBStore implements KVStore {
                 graph.getVerticesTableName(),
                 graph.getEdgesTableName(),
                 graph.getExtendedDataTableName(),
-                graph.getMetadataTableName()
+                graph.getMetadataTableName(),
+                graph.getCountersTableName(),
+                graph.getPropertyIndexTableName()
         );
     }
 
@@ -155,7 +227,7 @@ public class RocksDBStore implements KVStore {
             }
             ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(table.getBytes(StandardCharsets.UTF_8));
             ColumnFamilyOptions options = cfd.getOptions();
-            initOptions(null, null, options, options);
+            initOptions(table, null, null, options, options);
             cfds.add(cfd);
         }
 
@@ -219,53 +291,213 @@ public class RocksDBStore implements KVStore {
     }
 
     @Override
-    public ScanIterator scan(String table, IdRange idRange) {
+    public ScanIterator scan(String table, IdRange idRange, KVSnapshot snapshot) {
         try (CFHandle cf = cf(table)) {
 
             if (idRange == null)
-                return scan(cf);
+                return scan(cf, snapshot);
 
             if (idRange.getPrefix() != null) {
-                return scan(cf, idRange.getPrefix().getBytes());
+                return scan(cf, idRange.getPrefix().getBytes(), snapshot);
             } else if (idRange.getStart() != null && idRange.getEnd() != null) {
                 byte[] start = KVKeyUtils.encodeId(idRange.getStart().getBytes());
                 byte[] end = KVKeyUtils.encodeId(idRange.getEnd().getBytes());
 
                 int type = idRange.isInclusiveStart() ? ScanIterator.SCAN_GTE_BEGIN : ScanIterator.SCAN_GT_BEGIN;
                 type |= idRange.isInclusiveEnd() ? ScanIterator.SCAN_LTE_END : ScanIterator.SCAN_LT_END;
-                return scan(cf, start, end, type);
+                return scan(cf, start, end, type, snapshot);
             } else if (idRange.getStart() == null && idRange.getEnd() != null) {
                 byte[] end = KVKeyUtils.encodeId(idRange.getEnd().getBytes());
                 int type = idRange.isInclusiveEnd() ? ScanIterator.SCAN_LTE_END : ScanIterator.SCAN_LT_END;
-                return scan(cf, null, end, type);
+                return scan(cf, null, end, type, snapshot);
             } else if (idRange.getStart() != null && idRange.getEnd() == null) {
                 byte[] start = KVKeyUtils.encodeId(idRange.getStart().getBytes());
                 int type = idRange.isInclusiveStart() ? ScanIterator.SCAN_GTE_BEGIN : ScanIterator.SCAN_GT_BEGIN;
-                return scan(cf, start, null, type);
+                return scan(cf, start, null, type, snapshot);
             } else {
-                return scan(cf);
+                return scan(cf, snapshot);
             }
         }
     }
 
-    public ScanIterator scan(CFHandle table) {
-        RocksIterator iter = rocksdb().newIterator(table.get());
-        return new RocksDBScanIterator(iter, null, null, ScanIterator.SCAN_ANY);
+    @Override
+    public ScanIterator scanRows(String table, Iterable<String> rowIds, KVSnapshot snapshot) {
+        SortedSet<byte[]> rows = new TreeSet<>(Bytes::compare);
+        int minRowLength = Integer.MAX_VALUE;
+        for (String rowId : rowIds) {
+            byte[] row = KVKeyUtils.encodeId(rowId.getBytes(StandardCharsets.UTF_8));
+            rows.add(row);
+            minRowLength = Math.min(minRowLength, row.length);
+        }
+
+        // in prefix mode the iterator order is only defined inside a prefix, so every row needs its own seek
+        boolean prefixMode = config.isPrefixExtractorEnabled() && minRowLength >= config.getPrefixExtractorLength();
+        try (CFHandle cf = cf(table)) {
+            ReadOptions readOptions = withSnapshot(prefixMode ? new ReadOptions() : new ReadOptions().setTotalOrderSeek(true), snapshot);
+            return new RocksDBRowsScanIterator(newIterator(cf, readOptions), readOptions, rows, prefixMode);
+        }
     }
 
-    public ScanIterator scan(CFHandle table, byte[] prefix) {
-        RocksIterator iter = rocksdb().newIterator(table.get(), new ReadOptions().setPrefixSameAsStart(true));
-        return new RocksDBScanIterator(iter, prefix, null, ScanIterator.SCAN_PREFIX_BEGIN);
+    @Override
+    public ScanIterator scanKeys(String table, byte[] keyFrom, byte[] keyTo) {
+        int type = 0;
+        if (keyFrom != null) {
+            type |= ScanIterator.SCAN_GTE_BEGIN;
+        }
+        if (keyTo != null) {
+            type |= ScanIterator.SCAN_LT_END;
+        }
+        try (CFHandle cf = cf(table)) {
+            return scan(cf, keyFrom, keyTo, type == 0 ? ScanIterator.SCAN_ANY : type, null);
+        }
     }
 
-    public ScanIterator scan(CFHandle table, byte[] keyFrom, byte[] keyTo, int scanType) {
-        /*
-         * Not sure if setTotalOrderSeek(true) must be set:
-         * ReadOptions options = new ReadOptions();
-         * options.setTotalOrderSeek(true);
-         */
-        RocksIterator iter = rocksdb().newIterator(table.get(), new ReadOptions().setTotalOrderSeek(true));
-        return new RocksDBScanIterator(iter, keyFrom, keyTo, scanType);
+    @Override
+    public List<IdRange> splitRanges(String table, int maxRanges) {
+        // the first keys of the table files are a sample of the table keys, weighted by the size of the files
+        byte[] cfName = table.getBytes(StandardCharsets.UTF_8);
+        SortedMap<byte[], Long> fileSizes = new TreeMap<>(Bytes::compare);
+        long totalSize = 0;
+        for (LiveFileMetaData file : rocksdb().getLiveFilesMetaData()) {
+            if (Arrays.equals(cfName, file.columnFamilyName())) {
+                fileSizes.merge(file.smallestKey(), file.size(), Long::sum);
+                totalSize += file.size();
+            }
+        }
+
+        long memTableSize;
+        try (CFHandle cf = cf(table)) {
+            memTableSize = getLongProperty(cf, "rocksdb.cur-size-all-mem-tables");
+        }
+        if (totalSize < memTableSize) {
+            // most of the table was not flushed to files yet, so the files are no sample of it
+            return splitRangesByKeys(table, maxRanges);
+        }
+
+        List<IdRange> ranges = new ArrayList<>();
+        long rangeSize = totalSize / Math.max(maxRanges, 1);
+        long accumulatedSize = 0;
+        byte[] start = null;
+        for (Map.Entry<byte[], Long> file : fileSizes.entrySet()) {
+            if (ranges.size() < maxRanges - 1 && accumulatedSize >= rangeSize * (ranges.size() + 1)) {
+                byte[] boundary = KVKeyUtils.decodeId(file.getKey());
+                if (boundary.length > 0 && (start == null || Bytes.compare(boundary, start) > 0)) {
+                    ranges.add(new IdRange(idString(start), idString(boundary)));
+                    start = boundary;
+                }
+            }
+            accumulatedSize += file.getValue();
+        }
+        ranges.add(new IdRange(idString(start), null));
+        return ranges;
+    }
+
+    /**
+     * Splits the table by walking its keys, using the estimated key count to place the boundaries. Only used for
+     * tables that mostly live in the memtables, which bounds the size of the scan.
+     */
+    private List<IdRange> splitRangesByKeys(String table, int maxRanges) {
+        List<IdRange> ranges = new ArrayList<>();
+        byte[] start = null;
+        try (CFHandle cf = cf(table);
+             ReadOptions readOptions = new ReadOptions().setTotalOrderSeek(true);
+             RocksIterator iter = rocksdb().newIterator(cf.get(), readOptions)) {
+            long rangeKeys = getLongProperty(cf, "rocksdb.estimate-num-keys") / Math.max(maxRanges, 1);
+            long keyIndex = 0;
+            for (iter.seekToFirst(); rangeKeys > 0 && ranges.size() < maxRanges - 1 && iter.isValid(); iter.next()) {
+                if (keyIndex++ < rangeKeys * (ranges.size() + 1)) {
+                    continue;
+                }
+                byte[] boundary = KVKeyUtils.decodeId(iter.key());
+                if (boundary.length > 0 && (start == null || Bytes.compare(boundary, start) > 0)) {
+                    ranges.add(new IdRange(idString(start), idString(boundary)));
+                    start = boundary;
+                }
+            }
+        }
+        ranges.add(new IdRange(idString(start), null));
+        return ranges;
+    }
+
+    private static String idString(byte[] id) {
+        return id == null ? null : new String(id, StandardCharsets.UTF_8);
+    }
+
+    public ScanIterator scan(CFHandle table, KVSnapshot snapshot) {
+        ReadOptions readOptions = withSnapshot(new ReadOptions().setTotalOrderSeek(true), snapshot);
+        return new RocksDBScanIterator(newIterator(table, readOptions), readOptions, null, null, ScanIterator.SCAN_ANY);
+    }
+
+    public ScanIterator scan(CFHandle table, byte[] prefix, KVSnapshot snapshot) {
+        ReadOptions readOptions = withSnapshot(prefixReadOptions(prefix), snapshot);
+        return new RocksDBScanIterator(newIterator(table, readOptions), readOptions, prefix, null, ScanIterator.SCAN_PREFIX_BEGIN);
+    }
+
+    public ScanIterator scan(CFHandle table, byte[] keyFrom, byte[] keyTo, int scanType, KVSnapshot snapshot) {
+        ReadOptions readOptions;
+        if (keyFrom != null && Arrays.equals(keyFrom, keyTo)) {
+            // single row lookup, which can make use of the prefix bloom filter
+            readOptions = prefixReadOptions(keyFrom);
+        } else {
+            readOptions = new ReadOptions().setTotalOrderSeek(true);
+        }
+        withSnapshot(readOptions, snapshot);
+        return new RocksDBScanIterator(newIterator(table, readOptions), readOptions, keyFrom, keyTo, scanType);
+    }
+
+    /**
+     * Creates an iterator that will own the read options, they are closed here if the iterator can't be created.
+     */
+    private RocksIterator newIterator(CFHandle table, ReadOptions readOptions) {
+        try {
+            return rocksdb().newIterator(table.get(), readOptions);
+        } catch (RuntimeException ex) {
+            readOptions.close();
+            throw ex;
+        }
+    }
+
+    private ReadOptions withSnapshot(ReadOptions readOptions, KVSnapshot snapshot) {
+        if (snapshot != null && !snapshot.isClosed()) {
+            readOptions.setSnapshot(((RocksDBSnapshot) snapshot).snapshot);
+        }
+        return readOptions;
+    }
+
+    @Override
+    public KVSnapshot snapshot() {
+        return new RocksDBSnapshot(rocksdb().getSnapshot());
+    }
+
+    /**
+     * Iterating in prefix mode is only correct when every key we are looking for shares the same extracted prefix,
+     * that is when the searched prefix is at least as long as the configured prefix extractor.
+     */
+    private ReadOptions prefixReadOptions(byte[] prefix) {
+        if (config.isPrefixExtractorEnabled() && prefix.length < config.getPrefixExtractorLength()) {
+            return new ReadOptions().setTotalOrderSeek(true);
+        }
+        return new ReadOptions().setPrefixSameAsStart(true);
+    }
+
+    @Override
+    public boolean containsPrefix(String table, byte[] prefix) {
+        try (CFHandle cf = cf(table);
+             ReadOptions readOptions = prefixReadOptions(prefix);
+             RocksIterator iter = rocksdb().newIterator(cf.get(), readOptions)) {
+            iter.seek(prefix);
+            return iter.isValid() && Bytes.prefixWith(iter.key(), prefix);
+        }
+    }
+
+    @Override
+    public long getCounter(String table, byte[] key) {
+        try (CFHandle cf = cf(table)) {
+            byte[] value = rocksdb().get(cf.get(), key);
+            return value == null ? 0L : ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        } catch (RocksDBException ex) {
+            throw new GeException(ex);
+        }
     }
 
     @Override
@@ -286,7 +518,37 @@ public class RocksDBStore implements KVStore {
         }
     }
 
+    @Override
+    public KVWriteBatch writeBatch() {
+        return new RocksDBWriteBatch();
+    }
+
+    @Override
+    public KVBulkLoad bulkLoad() {
+        return new RocksDBBulkLoad(this, config);
+    }
+
+    /**
+     * Options for writing external SST files, they must match the options of the table the files are ingested into.
+     */
+    Options sstFileOptions(String table) {
+        Options options = new Options();
+        initOptions(table, null, null, options, options);
+        return options;
+    }
+
+    void ingestExternalFiles(String table, List<String> files) {
+        try (CFHandle cf = cf(table);
+             IngestExternalFileOptions options = new IngestExternalFileOptions()) {
+            options.setMoveFiles(true);
+            rocksdb().ingestExternalFile(cf.get(), files, options);
+        } catch (RocksDBException ex) {
+            throw new GeException(ex);
+        }
+    }
+
     private void initOptions(
+            String table,
             DBOptionsInterface<?> db,
             MutableDBOptionsInterface<?> mdb,
             ColumnFamilyOptionsInterface<?> cf,
@@ -298,6 +560,8 @@ public class RocksDBStore implements KVStore {
              * should we use options.setCreateMissingColumnFamilies()?
              */
             db.setCreateIfMissing(true);
+            // tables added in newer versions are created when an existing database is opened
+            db.setCreateMissingColumnFamilies(true);
 
             if (config.isOptimizeMode()) {
                 int processors = Runtime.getRuntime().availableProcessors();
@@ -323,6 +587,10 @@ public class RocksDBStore implements KVStore {
             db.setMaxFileOpeningThreads(16);
 
             db.setDbWriteBufferSize(0L);
+
+            if (statistics != null) {
+                db.setStatistics(statistics);
+            }
         }
 
         if (mdb != null) {
@@ -356,13 +624,39 @@ public class RocksDBStore implements KVStore {
             cf.setMinWriteBufferNumberToMerge(2);
             cf.setMaxWriteBufferNumberToMaintain(0);
 
-            // https://github.com/facebook/rocksdb/wiki/Block-Cache
             BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
-            long cacheCapacity = 8L * Bytes.MB;
-            tableConfig.setBlockCache(new LRUCache(cacheCapacity));
+            tableConfig.setBlockCache(blockCache);
+
+            boolean cacheIndexAndFilterBlocks = config.isCacheIndexAndFilterBlocks();
+            tableConfig.setCacheIndexAndFilterBlocks(cacheIndexAndFilterBlocks);
+            tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(cacheIndexAndFilterBlocks);
+            tableConfig.setPinL0FilterAndIndexBlocksInCache(cacheIndexAndFilterBlocks);
 
-            tableConfig.setPinL0FilterAndIndexBlocksInCache(false);
-            tableConfig.setCacheIndexAndFilterBlocks(false);
+            // https://github.com/facebook/rocksdb/wiki/RocksDB-Bloom-Filter
+            int bloomFilterBitsPerKey = config.getBloomFilterBitsPerKey(table);
+            if (bloomFilterBitsPerKey > 0) {
+                tableConfig.setFilterPolicy(new BloomFilter(bloomFilterBitsPerKey, false));
+            }
+
+            // https://github.com/facebook/rocksdb/wiki/Partitioned-Index-Filters
+            if (config.isPartitionedIndexFilters()) {
+                tableConfig.setIndexType(IndexType.kTwoLevelIndexSearch);
+                tableConfig.setPartitionFilters(bloomFilterBitsPerKey > 0);
+                tableConfig.setMetadataBlockSize(config.getMetadataBlockSize());
+                tableConfig.setPinTopLevelIndexAndFilter(true);
+            }
+
+            // https://github.com/facebook/rocksdb/wiki/Prefix-Seek
+            switch (config.getPrefixExtractor()) {
+                case RocksDBGraphConfiguration.PREFIX_EXTRACTOR_FIXED:
+                    cf.useFixedLengthPrefixExtractor(config.getPrefixExtractorLength());
+                    break;
+                case RocksDBGraphConfiguration.PREFIX_EXTRACTOR_CAPPED:
+                    cf.useCappedPrefixExtractor(config.getPrefixExtractorLength());
+                    break;
+                default:
+                    break;
+            }
 
             tableConfig.setWholeKeyFiltering(true);
             cf.setTableFormatConfig(tableConfig);
@@ -423,6 +717,11 @@ public class RocksDBStore implements KVStore {
         this.cfs.clear();
 
         this.rocksdb.close();
+
+        if (this.statistics != null) {
+            this.statistics.close();
+        }
+        this.blockCache.close();
     }
 
     private CFHandle cf(String cf) {
@@ -434,6 +733,94 @@ public class RocksDBStore implements KVStore {
         return cfh;
     }
 
+    private class RocksDBWriteBatch implements KVWriteBatch {
+        private final WriteBatch batch = new WriteBatch();
+
+        @Override
+        public void put(String tableName, byte[] key, byte[] value) {
+            try (CFHandle cf = cf(tableName)) {
+                batch.put(cf.get(), key, value);
+            } catch (RocksDBException ex) {
+                throw new GeException(ex);
+            }
+        }
+
+        @Override
+        public void delete(String tableName, byte[] key) {
+            try (CFHandle cf = cf(tableName)) {
+                batch.delete(cf.get(), key);
+            } catch (RocksDBException ex) {
+                throw new GeException(ex);
+            }
+        }
+
+        @Override
+        public void deleteRange(String tableName, byte[] keyFrom, byte[] keyTo) {
+            try (CFHandle cf = cf(tableName)) {
+                batch.deleteRange(cf.get(), keyFrom, keyTo);
+            } catch (RocksDBException ex) {
+                throw new GeException(ex);
+            }
+        }
+
+        @Override
+        public void increment(String tableName, byte[] key, long delta) {
+            // the uint64add merge operator expects a fixed 64 bit little endian value, negative deltas wrap around
+            byte[] value = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(delta).array();
+            try (CFHandle cf = cf(tableName)) {
+                batch.merge(cf.get(), key, value);
+            } catch (RocksDBException ex) {
+                throw new GeException(ex);
+            }
+        }
+
+        @Override
+        public int size() {
+            return batch.count();
+        }
+
+        @Override
+        public void commit() {
+            if (batch.count() == 0) {
+                return;
+            }
+
+            try (WriteOptions writeOptions = new WriteOptions()) {
+                rocksdb().write(writeOptions, batch);
+                batch.clear();
+            } catch (RocksDBException ex) {
+                throw new GeException(ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            batch.close();
+        }
+    }
+
+    private class RocksDBSnapshot implements KVSnapshot {
+        private final Snapshot snapshot;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private RocksDBSnapshot(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        @Override
+        public void close() {
+            // iterators already created with the snapshot keep their own view of the data
+            if (closed.compareAndSet(false, true)) {
+                rocksdb().releaseSnapshot(snapshot);
+            }
+        }
+    }
+
     private class CFHandle implements Closeable {
         private final ColumnFamilyHandle handle;
         private final AtomicInteger refs;
@@ -45,6 +45,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class RocksDBGraphFactory implements TestGraphFactory {
+    private final Map<String, Object> extraConfig = new HashMap<>();
+
+    public RocksDBGraphFactory withConfig(String key, Object value) {
+        extraConfig.put(key, value);
+        return this;
+    }
+
     @Override
     public Graph createGraph() throws Exception {
         Map configMap = new HashMap();
@@ -59,6 +66,7 @@ public class RocksDBGraphFactory implements TestGraphFactory {
         configMap.put(RocksDBGraphConfiguration.STREAMING_PROPERTY_VALUE_DATA_FOLDER, spvPath.toString());
         configMap.put(RocksDBGraphConfiguration.DATA_PATH, dataPath.toString());
         configMap.put(RocksDBGraphConfiguration.WAL_PATH, walPath.toString());
+        configMap.putAll(extraConfig);
 
         return RocksDBGraph.create(configMap);
     }
@@ -0,0 +1,102 @@
+/*
+ * This file is part of the BigConnect project.
+ *
+ * Copyright (c) 2013-2020 MWARE SOLUTIONS SRL
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * MWARE SOLUTIONS SRL, MWARE SOLUTIONS SRL DISCLAIMS THE WARRANTY OF
+ * NON INFRINGEMENT OF THIRD PARTY RIGHTS
+
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * https://www.gnu.org/licenses/agpl-3.0.txt
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the BigConnect software without
+ * disclosing the source code of your own applications.
+ *
+ * These activities include: offering paid services to customers as an ASP,
+ * embedding the product in a web application, shipping BigConnect with a
+ * closed source product.
+ */
+package com.mware.ge.rocksdb;
+
+import com.mware.ge.FetchHints;
+import com.mware.ge.Metadata;
+import com.mware.ge.Vertex;
+import com.mware.ge.base.GraphHistoryTests;
+import com.mware.ge.base.GraphTestSetup;
+import com.mware.ge.base.TestGraphFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.mware.core.model.schema.SchemaConstants.CONCEPT_TYPE_THING;
+import static com.mware.ge.values.storable.Values.stringValue;
+
+public class RocksDBHistoryTests extends GraphHistoryTests implements GraphTestSetup {
+    @Override
+    public TestGraphFactory graphFactory() {
+        return new RocksDBGraphFactory()
+                .withConfig(RocksDBGraphConfiguration.VERSIONED, true);
+    }
+
+    @Test
+    public void testGetVertexWithEndTime() {
+        getGraph().prepareVertex("v1", 1000L, VISIBILITY_A, CONCEPT_TYPE_THING)
+                .addPropertyValue("k1", "p1", stringValue("value1"), Metadata.create(), 1000L, VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+        getGraph().getVertex("v1", AUTHORIZATIONS_A).prepareMutation()
+                .addPropertyValue("k1", "p1", stringValue("value2"), Metadata.create(), 2000L, VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        getGraph().flush();
+
+        Assert.assertNull(getGraph().getVertex("v1", FetchHints.ALL, 500L, AUTHORIZATIONS_A));
+        Assert.assertEquals(stringValue("value1"), getGraph().getVertex("v1", FetchHints.ALL, 1500L, AUTHORIZATIONS_A).getPropertyValue("k1", "p1"));
+        Assert.assertEquals(stringValue("value2"), getGraph().getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("k1", "p1"));
+    }
+
+    @Test
+    public void testBulkLoadWithDeletes() {
+        RocksDBGraph graph = (RocksDBGraph) getGraph();
+        graph.prepareVertex("v1", VISIBILITY_A, CONCEPT_TYPE_THING)
+                .addPropertyValue("k1", "p1", stringValue("stored"), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.flush();
+
+        graph.startBulkLoad();
+        graph.prepareVertex("v1", VISIBILITY_A, CONCEPT_TYPE_THING)
+                .deleteProperty("k1", "p1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareVertex("v2", VISIBILITY_A, CONCEPT_TYPE_THING)
+                .addPropertyValue("k1", "p1", stringValue("first"), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareVertex("v2", VISIBILITY_A, CONCEPT_TYPE_THING)
+                .deleteProperty("k1", "p1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareVertex("v2", VISIBILITY_A, CONCEPT_TYPE_THING)
+                .addPropertyValue("k1", "p1", stringValue("again"), VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.finishBulkLoad();
+
+        Vertex v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        Assert.assertNotNull(v1);
+        Assert.assertNull(v1.getProperty("k1", "p1"));
+        Assert.assertEquals(stringValue("again"), graph.getVertex("v2", AUTHORIZATIONS_A).getPropertyValue("k1", "p1"));
+    }
+}